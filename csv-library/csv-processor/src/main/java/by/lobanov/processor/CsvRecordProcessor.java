@@ -0,0 +1,527 @@
+package by.lobanov.processor;
+
+import by.lobanov.annotation.*;
+import by.lobanov.annotation.constans.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.serializer.*;
+
+import javax.annotation.processing.*;
+import javax.lang.model.*;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.tools.*;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Процессор аннотаций, генерирующий {@link RecordSerializer} для каждого класса, аннотированного {@link CsvRecord}.
+ * <p>
+ * Сгенерированный класс учитывает {@link DataField}, {@link TransientField}, {@link MaskedField}, {@link CsvFormat},
+ * {@link CsvEmbedded}, {@link CsvCollection}, кеш значений {@link DataField#cacheSize()} и {@link NamingStrategy}
+ * так же, как это делает запись через рефлексию, но все решения принимаются на этапе компиляции.
+ * Значения читаются напрямую из не приватных полей, через геттеры (в том числе сгенерированные Lombok)
+ * или через аксессоры record-классов; поля суперклассов идут перед полями самого класса.
+ * </p>
+ * <p>
+ * Если класс нельзя обслужить без рефлексии (приватный класс, параметры типа, недоступное поле без геттера),
+ * сериализатор не генерируется, и писатель продолжает использовать рефлексию.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@SupportedAnnotationTypes("by.lobanov.annotation.csv.CsvRecord")
+public class CsvRecordProcessor extends AbstractProcessor {
+
+    private static final Set<String> LOMBOK_GETTER_ANNOTATIONS = Set.of("lombok.Data", "lombok.Getter", "lombok.Value");
+    /**
+     * Совпадает с разделителем, который использует запись через рефлексию.
+     */
+    private static final String NESTED_HEADER_SEPARATOR = ".";
+    private static final Set<String> DECIMAL_TYPES = Set.of("java.math.BigDecimal", "double", "java.lang.Double",
+            "float", "java.lang.Float");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(CsvRecord.class)) {
+            if (element.getKind() != ElementKind.CLASS && element.getKind() != ElementKind.RECORD) {
+                continue;
+            }
+            TypeElement type = (TypeElement) element;
+            List<Column> columns = resolveColumns(type);
+            if (columns == null) {
+                continue;
+            }
+            try {
+                writeSerializer(type, columns);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Не удалось сгенерировать сериализатор: " + e.getMessage(), type);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Определяет колонки класса.
+     *
+     * @param type Класс записи.
+     * @return Колонки в порядке объявления полей или {@code null}, если класс нельзя обслужить без рефлексии.
+     */
+    private List<Column> resolveColumns(TypeElement type) {
+        return resolveColumns(type, new HashSet<>());
+    }
+
+    /**
+     * Определяет колонки класса; поля с типом, аннотированным {@link CsvRecord}, разворачиваются
+     * в колонки вложенной записи.
+     *
+     * @param type       Класс записи.
+     * @param inProgress Классы, колонки которых определяются сейчас, — для обнаружения циклов.
+     * @return Колонки в порядке объявления полей или {@code null}, если класс нельзя обслужить без рефлексии.
+     */
+    private List<Column> resolveColumns(TypeElement type, Set<TypeElement> inProgress) {
+        if (!isAccessible(type)) {
+            return skip(type, "класс или один из внешних классов приватный");
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            return skip(type, "класс имеет параметры типа");
+        }
+        if (!inProgress.add(type)) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Вложенные записи образуют цикл: " + type.getQualifiedName(), type);
+            return null;
+        }
+
+        NamingStrategy classNamingStrategy = type.getAnnotation(CsvRecord.class).defaultNamingStrategy();
+        List<Column> columns = new ArrayList<>();
+        for (TypeElement declaringType : hierarchy(type)) {
+            if (!declaringType.getTypeParameters().isEmpty()) {
+                return skip(type, "суперкласс " + declaringType.getSimpleName() + " имеет параметры типа");
+            }
+            for (Element member : declaringType.getEnclosedElements()) {
+                if (member.getKind() != ElementKind.FIELD
+                        || member.getModifiers().contains(Modifier.STATIC)
+                        || member.getAnnotation(TransientField.class) != null) {
+                    continue;
+                }
+                VariableElement field = (VariableElement) member;
+                String access = resolveAccess(type, declaringType, field);
+                if (access == null) {
+                    return skip(type, "поле '" + field.getSimpleName() + "' недоступно и не имеет геттера");
+                }
+                Column column = resolveColumn(field, getHeader(field, classNamingStrategy), access, inProgress);
+                if (column == null) {
+                    return null;
+                }
+                columns.add(column);
+            }
+        }
+        inProgress.remove(type);
+        return columns;
+    }
+
+    /**
+     * Определяет колонку (или группу колонок) поля так же, как {@code WritePlan} при записи через рефлексию.
+     *
+     * @return Колонка или {@code null}, если поле нельзя обслужить (об ошибке уже сообщено).
+     */
+    private Column resolveColumn(VariableElement field, String header, String access, Set<TypeElement> inProgress) {
+        MaskedField maskedField = field.getAnnotation(MaskedField.class);
+        CsvFormat format = field.getAnnotation(CsvFormat.class);
+        CsvCollection collection = field.getAnnotation(CsvCollection.class);
+        Element fieldType = processingEnv.getTypeUtils().asElement(field.asType());
+        boolean embedded = fieldType != null && fieldType.getAnnotation(CsvRecord.class) != null;
+
+        if ((embedded || collection != null) && (maskedField != null || format != null)) {
+            return error(field, "@MaskedField и @CsvFormat не применимы к вложенной записи или коллекции");
+        }
+        DataField dataField = field.getAnnotation(DataField.class);
+        int cacheSize = dataField != null ? dataField.cacheSize() : 0;
+        if (cacheSize < 0) {
+            return error(field, "размер кеша не может быть отрицательным");
+        }
+        if (cacheSize > 0 && (embedded || collection != null || maskedField != null
+                || field.asType().getKind().isPrimitive())) {
+            return error(field, "кеш значений не применим к примитиву, маскируемому полю, вложенной записи или коллекции");
+        }
+        if (embedded) {
+            List<Column> children = resolveColumns((TypeElement) fieldType, inProgress);
+            if (children == null) {
+                return null;
+            }
+            CsvEmbedded csvEmbedded = field.getAnnotation(CsvEmbedded.class);
+            String prefix = csvEmbedded != null && !csvEmbedded.prefix().isEmpty() ?
+                    csvEmbedded.prefix() : header + NESTED_HEADER_SEPARATOR;
+            List<String> headers = children.stream()
+                    .flatMap(child -> child.headers().stream())
+                    .map(childHeader -> prefix + childHeader)
+                    .toList();
+            return new Column(headers, field.asType(), access, null, null, null, 0, children);
+        }
+        if (collection != null) {
+            TypeMirror collectionType = processingEnv.getTypeUtils().erasure(
+                    processingEnv.getElementUtils().getTypeElement("java.util.Collection").asType());
+            if (!processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(field.asType()),
+                    collectionType)) {
+                return error(field, "@CsvCollection применима только к коллекциям");
+            }
+            if (collection.columns() < 0) {
+                return error(field, "количество колонок коллекции не может быть отрицательным");
+            }
+            List<String> headers = new ArrayList<>();
+            for (int i = 1; i <= collection.columns(); i++) {
+                headers.add(header + NESTED_HEADER_SEPARATOR + i);
+            }
+            return new Column(headers.isEmpty() ? List.of(header) : headers, field.asType(), access,
+                    null, null, collection, 0, null);
+        }
+        if (format != null && !isValidFormat(format, field)) {
+            return null;
+        }
+        return new Column(List.of(header), field.asType(), access, maskedField, format, null, cacheSize, null);
+    }
+
+    private Column error(VariableElement field, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, field);
+        return null;
+    }
+
+    /**
+     * Проверяет, что параметры {@link CsvFormat} подходят к типу поля, как это делает
+     * {@link by.lobanov.format.ValueFormatters#forField(CsvFormat, Class)}. Иначе сообщает об ошибке компиляции.
+     */
+    private boolean isValidFormat(CsvFormat format, VariableElement field) {
+        boolean hasPattern = !format.pattern().isEmpty();
+        String error = null;
+        if (hasPattern == (format.scale() >= 0)) {
+            error = "в @CsvFormat должен быть задан либо pattern, либо scale";
+        } else if (hasPattern) {
+            TypeMirror temporal = processingEnv.getElementUtils()
+                    .getTypeElement("java.time.temporal.TemporalAccessor").asType();
+            if (!processingEnv.getTypeUtils().isAssignable(field.asType(), temporal)) {
+                error = "pattern применим только к типам java.time";
+            }
+        } else if (!DECIMAL_TYPES.contains(processingEnv.getTypeUtils().erasure(field.asType()).toString())) {
+            error = "scale применим только к BigDecimal, double и float";
+        }
+        if (error != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, error, field);
+            return false;
+        }
+        return true;
+    }
+
+    private List<Column> skip(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "Сериализатор для " + type.getQualifiedName() + " не сгенерирован (" + reason
+                        + "), будет использована рефлексия.", type);
+        return null;
+    }
+
+    private static boolean isAccessible(TypeElement type) {
+        Element current = type;
+        while (current instanceof TypeElement) {
+            if (current.getModifiers().contains(Modifier.PRIVATE)) {
+                return false;
+            }
+            if (((TypeElement) current).getNestingKind() == NestingKind.LOCAL
+                    || ((TypeElement) current).getNestingKind() == NestingKind.ANONYMOUS) {
+                return false;
+            }
+            current = current.getEnclosingElement();
+        }
+        return true;
+    }
+
+    /**
+     * Класс записи и его суперклассы (кроме {@link Object}), начиная с самого дальнего, — в том же порядке,
+     * в котором их поля становятся колонками при записи через рефлексию.
+     */
+    private List<TypeElement> hierarchy(TypeElement type) {
+        Deque<TypeElement> hierarchy = new ArrayDeque<>();
+        TypeElement current = type;
+        while (current != null && !current.getQualifiedName().contentEquals("java.lang.Object")) {
+            hierarchy.addFirst(current);
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED ?
+                    (TypeElement) processingEnv.getTypeUtils().asElement(superclass) : null;
+        }
+        return List.copyOf(hierarchy);
+    }
+
+    /**
+     * Возвращает выражение чтения поля, дописываемое к переменной с объектом записи (например, {@code .getName()}).
+     *
+     * @param recordType    Класс записи; сериализатор находится в его пакете.
+     * @param declaringType Класс, в котором объявлено поле (сам класс записи или его суперкласс).
+     * @param field         Поле.
+     * @return Выражение или {@code null}, если поле недоступно из пакета сериализатора и не имеет геттера.
+     */
+    private String resolveAccess(TypeElement recordType, TypeElement declaringType, VariableElement field) {
+        String fieldName = field.getSimpleName().toString();
+        if (declaringType.getKind() == ElementKind.RECORD) {
+            return "." + fieldName + "()";
+        }
+        if (isAccessibleFrom(recordType, declaringType, field)) {
+            return "." + fieldName;
+        }
+        String getterName = getterName(field);
+        for (Element member : declaringType.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.METHOD
+                    && member.getSimpleName().contentEquals(getterName)
+                    && ((ExecutableElement) member).getParameters().isEmpty()
+                    && isAccessibleFrom(recordType, declaringType, member)
+                    && !member.getModifiers().contains(Modifier.STATIC)) {
+                return "." + getterName + "()";
+            }
+        }
+        if (hasLombokGetter(declaringType) || hasLombokGetter(field)) {
+            return "." + getterName + "()";
+        }
+        return null;
+    }
+
+    /**
+     * Член класса доступен сериализатору, если он публичный или не приватный и объявлен в пакете записи.
+     */
+    private boolean isAccessibleFrom(TypeElement recordType, TypeElement declaringType, Element member) {
+        Set<Modifier> modifiers = member.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        return processingEnv.getElementUtils().getPackageOf(recordType)
+                .equals(processingEnv.getElementUtils().getPackageOf(declaringType));
+    }
+
+    private static boolean hasLombokGetter(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (LOMBOK_GETTER_ANNOTATIONS.contains(annotationType.getQualifiedName().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Имя геттера по соглашению JavaBeans/Lombok.
+     */
+    private static String getterName(VariableElement field) {
+        String name = field.getSimpleName().toString();
+        if (field.asType().getKind() == TypeKind.BOOLEAN) {
+            if (name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2))) {
+                return name;
+            }
+            return "is" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+        return "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String getHeader(VariableElement field, NamingStrategy fieldNamingStrategy) {
+        String fieldName = field.getSimpleName().toString();
+        DataField dataField = field.getAnnotation(DataField.class);
+        if (dataField != null) {
+            if (!dataField.name().isEmpty()) {
+                return dataField.name();
+            }
+            if (dataField.strategy() != NamingStrategy.DEFAULT) {
+                fieldNamingStrategy = dataField.strategy();
+            }
+        }
+        return fieldNamingStrategy.apply(fieldName);
+    }
+
+    private void writeSerializer(TypeElement type, List<Column> columns) throws IOException {
+        String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        String serializerName = serializerSimpleName(type);
+        String recordType = type.getQualifiedName().toString();
+        String qualifiedName = packageName.isEmpty() ? serializerName : packageName + "." + serializerName;
+        boolean includeHeader = type.getAnnotation(CsvRecord.class).includeHeader();
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, type);
+        try (PrintWriter out = new PrintWriter(file.openWriter())) {
+            if (!packageName.isEmpty()) {
+                out.println("package " + packageName + ";");
+                out.println();
+            }
+            out.println("/**");
+            out.println(" * Сериализатор {@link " + recordType + "}, сгенерированный по аннотациям {@code @CsvRecord}.");
+            out.println(" */");
+            out.println("@javax.annotation.processing.Generated(\"" + CsvRecordProcessor.class.getName() + "\")");
+            out.println("public final class " + serializerName
+                    + " implements by.lobanov.serializer.RecordSerializer<" + recordType + "> {");
+            out.println();
+            out.println("    private static final java.util.List<String> HEADERS = java.util.List.of("
+                    + String.join(", ", columns.stream()
+                    .flatMap(c -> c.headers().stream())
+                    .map(CsvRecordProcessor::stringLiteral)
+                    .toList()) + ");");
+            writeConstants(out, columns, new int[1]);
+            out.println();
+            out.println("    @Override");
+            out.println("    public Class<" + recordType + "> getRecordType() {");
+            out.println("        return " + recordType + ".class;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public java.util.List<String> getHeaders() {");
+            out.println("        return HEADERS;");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public boolean isIncludeHeader() {");
+            out.println("        return " + includeHeader + ";");
+            out.println("    }");
+            out.println();
+            out.println("    @Override");
+            out.println("    public void serialize(" + recordType + " record, by.lobanov.serializer.CsvRowSink sink)"
+                    + " throws java.io.IOException {");
+            writeStatements(out, columns, "record", "        ", new int[2]);
+            out.println("    }");
+            out.println("}");
+        }
+    }
+
+    /**
+     * Имя сериализатора, совпадающее с {@link RecordSerializers#serializerClassName(Class)}.
+     */
+    private static String serializerSimpleName(TypeElement type) {
+        Deque<String> names = new ArrayDeque<>();
+        Element current = type;
+        while (current instanceof TypeElement) {
+            names.addFirst(current.getSimpleName().toString());
+            current = current.getEnclosingElement();
+        }
+        return String.join("_", names) + RecordSerializers.SUFFIX;
+    }
+
+    /**
+     * Объявляет операции маскирования {@code MASK_<index>}, форматтеры {@code FORMAT_<index>} и кешируемые
+     * колонки {@code CACHE_<index>}, подготавливаемые при загрузке сериализатора. Индекс — порядковый номер простой колонки с учетом вложенных записей.
+     */
+    private void writeConstants(PrintWriter out, List<Column> columns, int[] index) {
+        for (Column column : columns) {
+            if (column.children() != null) {
+                writeConstants(out, column.children(), index);
+                continue;
+            }
+            int i = index[0]++;
+            MaskedField maskedField = column.maskedField();
+            if (maskedField != null) {
+                out.println("    private static final by.lobanov.masking.MaskingOperation MASK_" + i
+                        + " = by.lobanov.masking.MaskingOperation.of("
+                        + "by.lobanov.annotation.constans.MaskingStrategy." + maskedField.strategy().name() + ", "
+                        + charLiteral(maskedField.maskCharacter()) + ", "
+                        + maskedField.visibleChars() + ");");
+            }
+            CsvFormat format = column.format();
+            if (format != null) {
+                out.println("    private static final by.lobanov.format.ValueFormatter<Object> FORMAT_" + i
+                        + " = by.lobanov.format.ValueFormatters.forField("
+                        + stringLiteral(format.pattern()) + ", "
+                        + format.scale() + ", "
+                        + "java.math.RoundingMode." + format.roundingMode().name() + ", "
+                        + processingEnv.getTypeUtils().erasure(column.type()) + ".class);");
+            }
+            if (column.cacheSize() > 0) {
+                out.println("    private static final by.lobanov.format.CachedColumn CACHE_" + i
+                        + " = by.lobanov.format.CachedColumn.of("
+                        + stringLiteral(column.headers().get(0)) + ", " + column.cacheSize() + ");");
+            }
+        }
+    }
+
+    /**
+     * Пишет операторы записи колонок объекта из переменной {@code variable}. Вложенная запись читается
+     * во временную переменную; если она равна {@code null}, ее колонки записываются пустыми.
+     *
+     * @param counters Счетчик простых колонок (для имен {@code MASK_}/{@code FORMAT_}) и счетчик временных переменных.
+     */
+    private void writeStatements(PrintWriter out, List<Column> columns, String variable, String indent, int[] counters) {
+        for (Column column : columns) {
+            String expression = variable + column.access();
+            if (column.children() == null) {
+                out.println(indent + valueStatement(column, expression, counters[0]++));
+                continue;
+            }
+            String nested = "nested" + counters[1]++;
+            out.println(indent + "{");
+            out.println(indent + "    " + processingEnv.getTypeUtils().erasure(column.type()) + " " + nested
+                    + " = " + expression + ";");
+            out.println(indent + "    if (" + nested + " == null) {");
+            out.println(indent + "        sink.emptyValues(" + column.headers().size() + ");");
+            out.println(indent + "    } else {");
+            writeStatements(out, column.children(), nested, indent + "        ", counters);
+            out.println(indent + "    }");
+            out.println(indent + "}");
+        }
+    }
+
+    /**
+     * Оператор записи простой колонки; маскированные и форматированные колонки используют операцию
+     * {@code MASK_<index>} или форматтер {@code FORMAT_<index>}.
+     */
+    private static String valueStatement(Column column, String expression, int index) {
+        CsvCollection collection = column.collection();
+        if (collection != null) {
+            return collection.columns() > 0 ?
+                    "sink.expandedValues(" + expression + ", " + collection.columns() + ");" :
+                    "sink.joinedValues(" + expression + ", " + stringLiteral(collection.separator()) + ");";
+        }
+        if (column.maskedField() != null) {
+            return "sink.maskedValue(" + expression + ", MASK_" + index + ");";
+        }
+        if (column.cacheSize() > 0) {
+            return "sink.cachedValue(" + expression + ", " + (column.format() != null ? "FORMAT_" + index : "null")
+                    + ", CACHE_" + index + ");";
+        }
+        if (column.format() != null) {
+            return "sink.value((Object) " + expression + ", FORMAT_" + index + ");";
+        }
+        return switch (column.type().getKind()) {
+            case INT, SHORT, BYTE, LONG, FLOAT, DOUBLE -> "sink.value(" + expression + ");";
+            case CHAR, BOOLEAN -> "sink.value((Object) " + expression + ");";
+            default -> "sink.value(" + expression + ");";
+        };
+    }
+
+    private static String stringLiteral(String value) {
+        StringBuilder result = new StringBuilder("\"");
+        for (int i = 0; i < value.length(); i++) {
+            appendEscaped(result, value.charAt(i), '"');
+        }
+        return result.append('"').toString();
+    }
+
+    private static String charLiteral(char value) {
+        StringBuilder result = new StringBuilder("'");
+        appendEscaped(result, value, '\'');
+        return result.append('\'').toString();
+    }
+
+    private static void appendEscaped(StringBuilder out, char c, char quote) {
+        if (c == quote || c == '\\') {
+            out.append('\\').append(c);
+        } else if (c < 0x20) {
+            out.append(String.format("\\%03o", (int) c));
+        } else {
+            out.append(c);
+        }
+    }
+
+    /**
+     * Колонка записи. Для вложенной записи {@code children} содержит ее колонки, а {@code headers} — все
+     * итоговые заголовки с префиксом; для коллекции по колонкам {@code headers} содержит заголовок каждой колонки.
+     */
+    private record Column(List<String> headers, TypeMirror type, String access, MaskedField maskedField,
+                          CsvFormat format, CsvCollection collection, int cacheSize, List<Column> children) {
+    }
+}
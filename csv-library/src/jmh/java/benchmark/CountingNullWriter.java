@@ -0,0 +1,41 @@
+package benchmark;
+
+import java.io.*;
+
+/**
+ * {@link Writer}, отбрасывающий данные и считающий количество символов.
+ * Позволяет измерять кодирование без затрат на хранение результата.
+ *
+ * @author Астонский Шпион
+ */
+final class CountingNullWriter extends Writer {
+
+    private long chars;
+
+    long getChars() {
+        return chars;
+    }
+
+    @Override
+    public void write(int c) {
+        chars++;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        chars += len;
+    }
+
+    @Override
+    public void write(String str, int off, int len) {
+        chars += len;
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,38 @@
+package benchmark;
+
+import util.*;
+
+import java.util.*;
+
+/**
+ * Модель данных для бенчмарков. Наборы данных строятся через {@link TestDataGenerator} один раз на запуск.
+ * <p>
+ * {@link #CLIENT} покрывает маскирование ({@code @MaskedField}) и исключение полей ({@code @TransientField}),
+ * {@link #STUDENT} — значения-коллекции, {@link #PERSON} — числовые поля и перечисления.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public enum Model {
+
+    PERSON {
+        @Override
+        List<?> generate(int rows) {
+            return TestDataGenerator.generatePersons(rows);
+        }
+    },
+    STUDENT {
+        @Override
+        List<?> generate(int rows) {
+            return TestDataGenerator.generateStudents(rows);
+        }
+    },
+    CLIENT {
+        @Override
+        List<?> generate(int rows) {
+            return TestDataGenerator.generateClients(rows);
+        }
+    };
+
+    abstract List<?> generate(int rows);
+}
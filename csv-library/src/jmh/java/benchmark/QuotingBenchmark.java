@@ -0,0 +1,50 @@
+package benchmark;
+
+import by.lobanov.*;
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import util.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Влияние доли значений, требующих кавычек и экранирования, на скорость записи.
+ * В заданном проценте строк имя студента дополняется запятой и кавычками.
+ *
+ * @author Астонский Шпион
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class QuotingBenchmark {
+
+    @Param({"0", "10", "50", "100"})
+    public int quotedPercent;
+
+    @Param({"10000"})
+    public int rows;
+
+    private List<Student> students;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        students = TestDataGenerator.generateStudents(rows);
+        for (int i = 0; i < students.size(); i++) {
+            if (i % 100 < quotedPercent) {
+                Student student = students.get(i);
+                student.setName(student.getName() + ", \"Jr.\"");
+            }
+        }
+    }
+
+    @Benchmark
+    public void write(WrittenBytes written) throws IOException {
+        CountingNullWriter writer = new CountingNullWriter();
+        try (Writable writable = CsvWriterFactory.create(writer)) {
+            writable.write(students);
+        }
+        written.bytes += writer.getChars();
+    }
+}
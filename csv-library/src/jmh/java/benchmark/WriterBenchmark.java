@@ -0,0 +1,113 @@
+package benchmark;
+
+import by.lobanov.*;
+import by.lobanov.io.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Пропускная способность {@link Writable#write(List)} для моделей из тестов
+ * в зависимости от количества строк, формата и приемника данных.
+ * <p>
+ * Запуск: {@code ./gradlew jmh}; профилировщик {@code gc} добавляет скорость выделения памяти.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WriterBenchmark {
+
+    /**
+     * Формат вывода.
+     */
+    public enum Format {
+        CSV {
+            @Override
+            Writable create(Writer writer) {
+                return CsvWriterFactory.create(writer);
+            }
+        },
+        TSV {
+            @Override
+            Writable create(Writer writer) {
+                return CsvWriterFactory.createTsvWriter(writer);
+            }
+        };
+
+        abstract Writable create(Writer writer);
+    }
+
+    /**
+     * Приемник данных.
+     */
+    public enum Target {
+        NULL {
+            @Override
+            long write(List<?> data, Format format, Path file) throws IOException {
+                CountingNullWriter writer = new CountingNullWriter();
+                try (Writable writable = format.create(writer)) {
+                    writable.write(data);
+                }
+                return writer.getChars();
+            }
+        },
+        STRING {
+            @Override
+            long write(List<?> data, Format format, Path file) throws IOException {
+                StringWriter writer = new StringWriter();
+                try (Writable writable = format.create(writer)) {
+                    writable.write(data);
+                }
+                return writer.getBuffer().length();
+            }
+        },
+        FILE {
+            @Override
+            long write(List<?> data, Format format, Path file) throws IOException {
+                try (Writable writable = format.create(Utf8ChannelWriter.open(file))) {
+                    writable.write(data);
+                }
+                return Files.size(file);
+            }
+        };
+
+        abstract long write(List<?> data, Format format, Path file) throws IOException;
+    }
+
+    @Param({"PERSON", "STUDENT", "CLIENT"})
+    public Model model;
+
+    @Param({"100", "10000"})
+    public int rows;
+
+    @Param({"CSV", "TSV"})
+    public Format format;
+
+    @Param({"NULL", "STRING", "FILE"})
+    public Target target;
+
+    private List<?> data;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        data = model.generate(rows);
+        file = Files.createTempFile("csv-benchmark", ".csv");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void write(WrittenBytes written) throws IOException {
+        written.bytes += target.write(data, format, file);
+    }
+}
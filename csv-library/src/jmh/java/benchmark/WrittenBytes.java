@@ -0,0 +1,21 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Счетчик записанных символов (для файла — байт). JMH выводит его как скорость в единицах за секунду
+ * рядом с количеством операций.
+ *
+ * @author Астонский Шпион
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class WrittenBytes {
+
+    public long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        bytes = 0;
+    }
+}
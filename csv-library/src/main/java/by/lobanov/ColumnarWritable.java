@@ -0,0 +1,105 @@
+package by.lobanov;
+
+import by.lobanov.annotation.csv.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Запись CSV по колонкам без создания объектов записей.
+ * <p>
+ * Схема берется из класса, аннотированного {@link CsvRecord}: каждое поле (в том числе поле вложенной записи)
+ * становится колонкой с хранилищем своего типа — массивом {@code int}, {@code long} или {@code double} для примитивов,
+ * кодами словаря для строк и массивом ссылок для остальных типов. Вызывающая сторона заполняет значения текущей строки
+ * через {@code set}, завершает ее {@link #endRow()}, а накопленные строки кодируются в CSV крупными пакетами.
+ * Не заданные в строке колонки записываются пустыми ячейками.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public interface ColumnarWritable extends Closeable, Flushable {
+
+    /**
+     * Заголовки CSV в порядке колонок файла.
+     *
+     * @return Заголовки.
+     */
+    List<String> getHeaders();
+
+    /**
+     * Возвращает номер колонки для заполнения по заголовку CSV. Коллекции по колонкам заполняются
+     * целиком, поэтому все их заголовки указывают на одну колонку.
+     *
+     * @param header Заголовок.
+     * @return Номер колонки.
+     * @throws IllegalArgumentException Если заголовка нет в схеме.
+     */
+    int columnIndex(String header);
+
+    /**
+     * Задает значение колонки {@code int}, {@code long} или {@code double} в текущей строке.
+     *
+     * @param column Номер колонки.
+     * @param value  Значение.
+     * @return Этот писатель.
+     * @throws IllegalArgumentException Если значение не подходит к типу колонки.
+     */
+    ColumnarWritable set(int column, int value);
+
+    /**
+     * Задает значение колонки {@code long} или {@code double} в текущей строке.
+     *
+     * @param column Номер колонки.
+     * @param value  Значение.
+     * @return Этот писатель.
+     * @throws IllegalArgumentException Если значение не подходит к типу колонки.
+     */
+    ColumnarWritable set(int column, long value);
+
+    /**
+     * Задает значение колонки {@code double} в текущей строке.
+     *
+     * @param column Номер колонки.
+     * @param value  Значение.
+     * @return Этот писатель.
+     * @throws IllegalArgumentException Если значение не подходит к типу колонки.
+     */
+    ColumnarWritable set(int column, double value);
+
+    /**
+     * Задает значение строковой колонки в текущей строке; {@code null} оставляет ячейку пустой.
+     *
+     * @param column Номер колонки.
+     * @param value  Значение.
+     * @return Этот писатель.
+     * @throws IllegalArgumentException Если значение не подходит к типу колонки.
+     */
+    ColumnarWritable set(int column, CharSequence value);
+
+    /**
+     * Задает значение колонки любого типа в текущей строке; {@code null} оставляет ячейку пустой.
+     * Числа в примитивных колонках распаковываются.
+     *
+     * @param column Номер колонки.
+     * @param value  Значение.
+     * @return Этот писатель.
+     * @throws IllegalArgumentException Если значение не подходит к типу колонки.
+     */
+    ColumnarWritable set(int column, Object value);
+
+    /**
+     * Завершает текущую строку. Когда пакет заполнен, он кодируется и передается в приемник.
+     *
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    void endRow() throws IOException;
+
+    /**
+     * Кодирует завершенные строки и сбрасывает данные в приемник.
+     *
+     * @throws IOException           Если возникает ошибка ввода-вывода.
+     * @throws IllegalStateException Если текущая строка заполнена частично и не завершена.
+     */
+    @Override
+    void flush() throws IOException;
+}
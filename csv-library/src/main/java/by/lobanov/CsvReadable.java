@@ -0,0 +1,92 @@
+package by.lobanov;
+
+import by.lobanov.annotation.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.exception.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Общий интерфейс для чтения объектов из некоторого формата, обратный к {@link Writable}.
+ * <p>
+ * Колонки сопоставляются с полями класса, аннотированного {@link CsvRecord}, по тем же правилам,
+ * что и при записи: имена берутся из {@link DataField} и стратегии именования, поля {@link TransientField}
+ * пропускаются. Записи читаются потоково, по одной.
+ * </p>
+ *
+ * @param <T> Тип записей.
+ * @author Астонский Шпион
+ */
+public interface CsvReadable<T> extends Closeable, Iterable<T> {
+
+    /**
+     * Читает следующую запись.
+     * <p>
+     * Пустая ячейка читается как {@code null} (для примитивных полей — значение по умолчанию),
+     * поэтому строка, записанная для {@code null} объекта, читается как объект с пустыми полями.
+     * </p>
+     *
+     * @return Следующая запись или {@code null}, если данные закончились.
+     * @throws IOException        Если возникает ошибка ввода-вывода во время чтения.
+     * @throws CsvParseException Если данные не являются корректным CSV или значение не удалось преобразовать.
+     */
+    T read() throws IOException;
+
+    /**
+     * Читает все оставшиеся записи.
+     *
+     * @return Список записей.
+     * @throws IOException        Если возникает ошибка ввода-вывода во время чтения.
+     * @throws CsvParseException Если данные не являются корректным CSV или значение не удалось преобразовать.
+     */
+    default List<T> readAll() throws IOException {
+        List<T> records = new ArrayList<>();
+        for (T record = read(); record != null; record = read()) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    /**
+     * Возвращает итератор по оставшимся записям. Ошибки ввода-вывода выбрасываются как {@link UncheckedIOException}.
+     */
+    @Override
+    default Iterator<T> iterator() {
+        return new Iterator<>() {
+            private T next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == null) {
+                    try {
+                        next = read();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return next != null;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                T result = next;
+                next = null;
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Возвращает последовательный поток оставшихся записей. Закрытие источника остается на вызывающей стороне.
+     *
+     * @return Поток записей.
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+}
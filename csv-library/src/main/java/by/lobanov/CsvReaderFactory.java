@@ -0,0 +1,102 @@
+package by.lobanov;
+
+import by.lobanov.impl.*;
+import lombok.experimental.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+
+/**
+ * Фабрика по созданию CsvReader
+ *
+ * @author Астонский Шпион
+ */
+@UtilityClass
+public class CsvReaderFactory {
+
+    private static final char DEFAULT_DELIMITER = ',';
+    private static final String DEFAULT_LINE_SEPARATOR = "\n";
+    private static final char TSV_DELIMITER = '\t';
+    private static final long DEFAULT_SEGMENT_SIZE = 16L * 1024 * 1024;
+
+    /**
+     * Создает CsvReader со стандартными настройками (разделитель ',', перенос строки '\n').
+     * @param reader Reader для чтения данных.
+     * @param type Класс записей.
+     * @return Экземпляр CsvReadable.
+     */
+    public static <T> CsvReadable<T> create(Reader reader, Class<T> type) {
+        return new DefaultCsvReader<>(reader, type, DEFAULT_DELIMITER, DEFAULT_LINE_SEPARATOR);
+    }
+
+    /**
+     * Создает CsvReader с указанным разделителем и стандартным переносом строки ('\n').
+     * @param reader Reader для чтения данных.
+     * @param type Класс записей.
+     * @param delimiter Символ-разделитель.
+     * @return Экземпляр CsvReadable.
+     */
+    public static <T> CsvReadable<T> create(Reader reader, Class<T> type, char delimiter) {
+        return new DefaultCsvReader<>(reader, type, delimiter, DEFAULT_LINE_SEPARATOR);
+    }
+
+    /**
+     * Создает CsvReader с указанными разделителем и переносом строки.
+     * @param reader Reader для чтения данных.
+     * @param type Класс записей.
+     * @param delimiter Символ-разделитель.
+     * @param lineSeparator Строка для переноса строки.
+     * @return Экземпляр CsvReadable.
+     */
+    public static <T> CsvReadable<T> create(Reader reader, Class<T> type, char delimiter, String lineSeparator) {
+        return new DefaultCsvReader<>(reader, type, delimiter, lineSeparator);
+    }
+
+    /**
+     * Создает CsvReader для формата TSV (Tab-Separated Values).
+     * @param reader Reader для чтения данных.
+     * @param type Класс записей.
+     * @return Экземпляр CsvReadable, настроенный для TSV.
+     */
+    public static <T> CsvReadable<T> createTsvReader(Reader reader, Class<T> type) {
+        return new DefaultCsvReader<>(reader, type, TSV_DELIMITER, DEFAULT_LINE_SEPARATOR);
+    }
+
+    /**
+     * Создает CsvReader, читающий файл в кодировке UTF-8.
+     * @param path Путь к файлу.
+     * @param type Класс записей.
+     * @return Экземпляр CsvReadable.
+     * @throws IOException Если файл не удалось открыть.
+     */
+    public static <T> CsvReadable<T> create(Path path, Class<T> type) throws IOException {
+        return create(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), type);
+    }
+
+    /**
+     * Создает CsvReader, читающий файл в кодировке UTF-8 параллельно через отображение в память
+     * (разделитель ',', перенос строки '\n').
+     * @param path Путь к файлу.
+     * @param type Класс записей.
+     * @return Экземпляр MappedCsvReader.
+     * @throws IOException Если файл не удалось открыть.
+     */
+    public static <T> MappedCsvReader<T> createMapped(Path path, Class<T> type) throws IOException {
+        return createMapped(path, type, DEFAULT_DELIMITER, DEFAULT_LINE_SEPARATOR);
+    }
+
+    /**
+     * Создает CsvReader с указанными разделителем и переносом строки, читающий файл в кодировке UTF-8
+     * параллельно через отображение в память.
+     * @param path Путь к файлу.
+     * @param type Класс записей.
+     * @param delimiter Символ-разделитель (ASCII).
+     * @param lineSeparator Строка для переноса строки (ASCII).
+     * @return Экземпляр MappedCsvReader.
+     * @throws IOException Если файл не удалось открыть.
+     */
+    public static <T> MappedCsvReader<T> createMapped(Path path, Class<T> type, char delimiter, String lineSeparator) throws IOException {
+        return new MappedCsvReader<>(path, type, delimiter, lineSeparator, DEFAULT_SEGMENT_SIZE);
+    }
+}
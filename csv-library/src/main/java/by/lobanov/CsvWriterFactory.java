@@ -1,9 +1,15 @@
 package by.lobanov;
 
+import by.lobanov.config.*;
 import by.lobanov.impl.*;
+import by.lobanov.io.*;
 import lombok.experimental.*;
 
 import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Фабрика по созданию CsvWriter
@@ -47,6 +53,16 @@ public class CsvWriterFactory {
         return new DefaultCsvWriter(writer, delimiter, lineSeparator);
     }
 
+    /**
+     * Создает CsvWriter с указанными настройками.
+     * @param writer Writer для вывода данных.
+     * @param settings Настройки записи (разделители, стратегия доступа к полям).
+     * @return Экземпляр Writable.
+     */
+    public static Writable create(Writer writer, CsvWriterSettings settings) {
+        return new DefaultCsvWriter(writer, settings);
+    }
+
     /**
      * Создает CsvWriter для формата TSV (Tab-Separated Values).
      * @param writer Writer для вывода данных.
@@ -55,4 +71,273 @@ public class CsvWriterFactory {
     public static Writable createTsvWriter(Writer writer) {
         return new DefaultCsvWriter(writer, TSV_DELIMITER, DEFAULT_LINE_SEPARATOR);
     }
+
+    /**
+     * Создает CsvWriter, кодирующий данные в UTF-8 напрямую в поток (см. {@link Utf8ChannelWriter}).
+     * @param out Поток для вывода данных. Закрывается вместе с писателем.
+     * @return Экземпляр Writable.
+     */
+    public static Writable create(OutputStream out) {
+        return create(out, CsvWriterSettings.defaults());
+    }
+
+    /**
+     * Создает CsvWriter с указанными настройками, кодирующий данные в UTF-8 напрямую в поток.
+     * @param out Поток для вывода данных. Закрывается вместе с писателем.
+     * @param settings Настройки записи.
+     * @return Экземпляр Writable.
+     */
+    public static Writable create(OutputStream out, CsvWriterSettings settings) {
+        return new DefaultCsvWriter(new Utf8ChannelWriter(out), settings);
+    }
+
+    /**
+     * Создает CsvWriter, кодирующий данные в UTF-8 напрямую в канал.
+     * @param channel Канал для вывода данных. Закрывается вместе с писателем.
+     * @return Экземпляр Writable.
+     */
+    public static Writable create(WritableByteChannel channel) {
+        return create(channel, CsvWriterSettings.defaults());
+    }
+
+    /**
+     * Создает CsvWriter с указанными настройками, кодирующий данные в UTF-8 напрямую в канал.
+     * @param channel Канал для вывода данных. Закрывается вместе с писателем.
+     * @param settings Настройки записи.
+     * @return Экземпляр Writable.
+     */
+    public static Writable create(WritableByteChannel channel, CsvWriterSettings settings) {
+        return new DefaultCsvWriter(new Utf8ChannelWriter(channel), settings);
+    }
+
+    /**
+     * Создает CsvWriter, пишущий в файл в кодировке UTF-8. Существующий файл перезаписывается.
+     * @param path Путь к файлу.
+     * @return Экземпляр Writable.
+     * @throws IOException Если файл не удалось открыть.
+     */
+    public static Writable create(Path path) throws IOException {
+        return create(path, CsvWriterSettings.defaults());
+    }
+
+    /**
+     * Создает CsvWriter с указанными настройками, пишущий в файл в кодировке UTF-8.
+     * Существующий файл перезаписывается.
+     * @param path Путь к файлу.
+     * @param settings Настройки записи.
+     * @return Экземпляр Writable.
+     * @throws IOException Если файл не удалось открыть.
+     */
+    public static Writable create(Path path, CsvWriterSettings settings) throws IOException {
+        return new DefaultCsvWriter(Utf8ChannelWriter.open(path), settings);
+    }
+
+    /**
+     * Создает CsvWriter, выполняющий запись в {@link Writer} в отдельном фоновом потоке.
+     * @param writer Writer для вывода данных. Закрывается вместе с писателем.
+     * @return Экземпляр AsyncCsvWriter.
+     */
+    public static AsyncCsvWriter createAsync(Writer writer) {
+        return createAsync(writer, CsvWriterSettings.defaults());
+    }
+
+    /**
+     * Создает CsvWriter с указанными настройками, выполняющий запись в {@link Writer} в отдельном фоновом потоке.
+     * @param writer Writer для вывода данных. Закрывается вместе с писателем.
+     * @param settings Настройки записи (в том числе размер и количество буферов).
+     * @return Экземпляр AsyncCsvWriter.
+     */
+    public static AsyncCsvWriter createAsync(Writer writer, CsvWriterSettings settings) {
+        return new AsyncCsvWriter(writer, settings);
+    }
+
+    /**
+     * Создает CsvWriter, пишущий в последовательность файлов ограниченного размера в кодировке UTF-8.
+     * @param rolling Настройки разбиения на файлы (каталог, имя, пределы по строкам и байтам).
+     * @return Экземпляр RollingCsvWriter.
+     * @throws IOException Если каталог не удалось создать.
+     */
+    public static RollingCsvWriter createRolling(RollingFileSettings rolling) throws IOException {
+        return createRolling(CsvWriterSettings.defaults(), rolling);
+    }
+
+    /**
+     * Создает CsvWriter с указанными настройками, пишущий в последовательность файлов ограниченного размера.
+     * @param settings Настройки записи.
+     * @param rolling Настройки разбиения на файлы (каталог, имя, пределы по строкам и байтам).
+     * @return Экземпляр RollingCsvWriter.
+     * @throws IOException Если каталог не удалось создать.
+     */
+    public static RollingCsvWriter createRolling(CsvWriterSettings settings, RollingFileSettings rolling) throws IOException {
+        return new RollingCsvWriter(settings, rolling);
+    }
+
+    /**
+     * Создает CsvWriter, пишущий в файл с контрольными точками, со стандартными настройками.
+     * Если файл контрольной точки существует, запись продолжается с нее.
+     * @param path Файл CSV.
+     * @param checkpointSettings Настройки контрольных точек.
+     * @return Экземпляр ResumableCsvWriter.
+     * @throws IOException Если файл не удалось открыть или прочитать контрольную точку.
+     */
+    public static ResumableCsvWriter createResumable(Path path, CheckpointSettings checkpointSettings) throws IOException {
+        return createResumable(path, CsvWriterSettings.defaults(), checkpointSettings);
+    }
+
+    /**
+     * Создает CsvWriter с указанными настройками, пишущий в файл с контрольными точками.
+     * Если файл контрольной точки существует, запись продолжается с нее.
+     * @param path Файл CSV.
+     * @param settings Настройки записи.
+     * @param checkpointSettings Настройки контрольных точек.
+     * @return Экземпляр ResumableCsvWriter.
+     * @throws IOException Если файл не удалось открыть или прочитать контрольную точку.
+     */
+    public static ResumableCsvWriter createResumable(Path path, CsvWriterSettings settings,
+                                                     CheckpointSettings checkpointSettings) throws IOException {
+        return new ResumableCsvWriter(path, settings, checkpointSettings);
+    }
+
+    /**
+     * Создает CsvWriter, сжимающий данные в GZIP (UTF-8) параллельно блоками (см. {@link ParallelGzipOutputStream}).
+     * @param out Поток для вывода сжатых данных. Закрывается вместе с писателем.
+     * @return Экземпляр Writable.
+     */
+    public static Writable createGzip(OutputStream out) {
+        return createGzip(out, CsvWriterSettings.defaults());
+    }
+
+    /**
+     * Создает CsvWriter с указанными настройками, сжимающий данные в GZIP (UTF-8) параллельно блоками.
+     * @param out Поток для вывода сжатых данных. Закрывается вместе с писателем.
+     * @param settings Настройки записи (в том числе размер блока, уровень и параллельность сжатия).
+     * @return Экземпляр Writable.
+     */
+    public static Writable createGzip(OutputStream out, CsvWriterSettings settings) {
+        Executor executor = settings.getParallelExecutor() != null ? settings.getParallelExecutor() : ForkJoinPool.commonPool();
+        OutputStream gzip = new ParallelGzipOutputStream(out, settings.getCompressionBlockSize(),
+                settings.getCompressionLevel(), settings.getCompressionParallelism(), executor);
+        return new DefaultCsvWriter(new Utf8ChannelWriter(gzip), settings);
+    }
+
+    /**
+     * Создает CsvWriter для записей разных типов с объединенным набором колонок в одном файле.
+     * @param writer Writer для вывода данных.
+     * @param settings Настройки записи.
+     * @param types Типы записей, определяющие колонки файла.
+     * @return Экземпляр UnionCsvWriter.
+     */
+    public static UnionCsvWriter createUnion(Writer writer, CsvWriterSettings settings, List<Class<?>> types) {
+        return new UnionCsvWriter(writer, settings, types, null);
+    }
+
+    /**
+     * Создает CsvWriter для записей разных типов с объединенным набором колонок и колонкой с именем типа записи.
+     * @param writer Writer для вывода данных.
+     * @param settings Настройки записи.
+     * @param types Типы записей, определяющие колонки файла.
+     * @param typeColumn Заголовок первой колонки, содержащей простое имя класса записи.
+     * @return Экземпляр UnionCsvWriter.
+     */
+    public static UnionCsvWriter createUnion(Writer writer, CsvWriterSettings settings, List<Class<?>> types,
+                                             String typeColumn) {
+        Objects.requireNonNull(typeColumn, "Type column не может быть null");
+        return new UnionCsvWriter(writer, settings, types, typeColumn);
+    }
+
+    /**
+     * Создает CsvWriter для записей разных типов, пишущий записи каждого класса в свой приемник.
+     * @param outputs Приемники по классам записей; открываются при первой записи класса.
+     * @param settings Настройки записи.
+     * @return Экземпляр TypeRoutingCsvWriter.
+     */
+    public static TypeRoutingCsvWriter createRouting(TypeRoutingCsvWriter.OutputProvider outputs, CsvWriterSettings settings) {
+        return new TypeRoutingCsvWriter(outputs, settings);
+    }
+
+    /**
+     * Создает колоночный писатель CSV со схемой класса записи и стандартными настройками.
+     * @param writer Writer для вывода данных.
+     * @param type Класс, аннотированный CsvRecord, задающий колонки.
+     * @return Экземпляр ColumnarWritable.
+     */
+    public static ColumnarWritable createColumnar(Writer writer, Class<?> type) {
+        return createColumnar(writer, CsvWriterSettings.defaults(), type);
+    }
+
+    /**
+     * Создает колоночный писатель CSV со схемой класса записи и указанными настройками.
+     * @param writer Writer для вывода данных.
+     * @param settings Настройки записи (в том числе размер пакета).
+     * @param type Класс, аннотированный CsvRecord, задающий колонки.
+     * @return Экземпляр ColumnarWritable.
+     */
+    public static ColumnarWritable createColumnar(Writer writer, CsvWriterSettings settings, Class<?> type) {
+        return new ColumnarCsvWriter(writer, settings, type);
+    }
+
+    /**
+     * Создает писатель результатов запроса со стандартными настройками.
+     * @param writer Writer для вывода данных.
+     * @return Экземпляр ResultSetCsvWriter.
+     */
+    public static ResultSetCsvWriter createResultSet(Writer writer) {
+        return createResultSet(writer, CsvWriterSettings.defaults(), ResultSetMapping.defaults());
+    }
+
+    /**
+     * Создает писатель результатов запроса с указанными настройками.
+     * @param writer Writer для вывода данных.
+     * @param settings Настройки записи.
+     * @param mapping Правила выгрузки: стратегия заголовков, маскируемые колонки, fetch size.
+     * @return Экземпляр ResultSetCsvWriter.
+     */
+    public static ResultSetCsvWriter createResultSet(Writer writer, CsvWriterSettings settings, ResultSetMapping mapping) {
+        return new ResultSetCsvWriter(writer, settings, mapping);
+    }
+
+    /**
+     * Создает CsvWriter, выгружающий только изменения относительно предыдущего запуска, со стандартными настройками.
+     * @param writer Writer для вывода данных.
+     * @param type Класс записей, аннотированный {@code @CsvRecord}.
+     * @param deltaSettings Настройки выгрузки изменений (файл индекса и ключевая колонка).
+     * @return Экземпляр DeltaCsvWriter.
+     * @throws IOException Если индекс не удалось прочитать или создать новый.
+     */
+    public static DeltaCsvWriter createDelta(Writer writer, Class<?> type, DeltaSettings deltaSettings) throws IOException {
+        return createDelta(writer, CsvWriterSettings.defaults(), type, deltaSettings);
+    }
+
+    /**
+     * Создает CsvWriter с указанными настройками, выгружающий только изменения относительно предыдущего запуска.
+     * @param writer Writer для вывода данных.
+     * @param settings Настройки записи.
+     * @param type Класс записей, аннотированный {@code @CsvRecord}.
+     * @param deltaSettings Настройки выгрузки изменений (файл индекса и ключевая колонка).
+     * @return Экземпляр DeltaCsvWriter.
+     * @throws IOException Если индекс не удалось прочитать или создать новый.
+     */
+    public static DeltaCsvWriter createDelta(Writer writer, CsvWriterSettings settings, Class<?> type,
+                                             DeltaSettings deltaSettings) throws IOException {
+        return new DeltaCsvWriter(writer, settings, type, deltaSettings);
+    }
+
+    /**
+     * Создает CsvWriter, который можно разделять между многими потоками, со стандартными настройками.
+     * @param writer Writer для вывода данных.
+     * @return Экземпляр ConcurrentCsvWriter.
+     */
+    public static ConcurrentCsvWriter createConcurrent(Writer writer) {
+        return createConcurrent(writer, CsvWriterSettings.defaults());
+    }
+
+    /**
+     * Создает CsvWriter, который можно разделять между многими потоками, с указанными настройками.
+     * @param writer Writer для вывода данных.
+     * @param settings Настройки записи (в том числе количество полос).
+     * @return Экземпляр ConcurrentCsvWriter.
+     */
+    public static ConcurrentCsvWriter createConcurrent(Writer writer, CsvWriterSettings settings) {
+        return new ConcurrentCsvWriter(writer, settings);
+    }
 }
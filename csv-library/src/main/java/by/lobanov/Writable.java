@@ -3,23 +3,30 @@ package by.lobanov;
 import by.lobanov.annotation.*;
 import by.lobanov.annotation.csv.*;
 import by.lobanov.exception.*;
+import by.lobanov.format.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.stream.*;
 
 /**
  * Общий интерфейс для записи списка объектов в некоторый формат.
  * Реализации определяют конкретный формат и способ обработки данных.
+ * <p>
+ * Помимо записи готового списка поддерживается потоковая запись ({@link #append(Object)},
+ * {@link #write(Iterator)}, {@link #write(Stream)}), при которой записи не накапливаются в памяти.
+ * </p>
  *
  * @author Астонский Шпион
  */
-public interface Writable extends Closeable {
+public interface Writable extends Closeable, Flushable {
 
     /**
      * Записывает список объектов (POJO) в CSV формат, используя предоставленный {@link Writer}.
      * <p>
      * Метод определяет структуру CSV на основе первого не {@code null} объекта в списке.
-     * Все объекты в списке должны быть одного типа и аннотированы {@link CsvRecord}.
+     * Все объекты в списке должны быть одного типа и аннотированы {@link CsvRecord}; записи разных типов
+     * пишет {@link by.lobanov.impl.UnionCsvWriter} или {@link by.lobanov.impl.TypeRoutingCsvWriter}.
      * Поля для записи определяются на основе рефлексии и аннотаций {@link DataField},
      * {@link TransientField} и {@link MaskedField}.
      * </p>
@@ -31,4 +38,69 @@ public interface Writable extends Closeable {
      * @throws IllegalArgumentException            Если объекты в списке разных типов.
      */
     void write(List<?> data) throws IOException;
+
+    /**
+     * Записывает все объекты из итератора, не накапливая их в памяти.
+     * <p>
+     * Записи добавляются в тот же поток, что и при вызове {@link #append(Object)}:
+     * заголовок пишется один раз за время жизни писателя, по первому не {@code null} объекту.
+     * </p>
+     *
+     * @param data Итератор объектов для записи.
+     * @throws IOException                            Если возникает ошибка ввода-вывода во время записи.
+     * @throws FormatRecordAnnotationMissingException Если класс объектов не аннотирован {@link CsvRecord}.
+     * @throws IllegalArgumentException               Если объекты разных типов.
+     */
+    default void write(Iterator<?> data) throws IOException {
+        if (data == null) return;
+        while (data.hasNext()) {
+            append(data.next());
+        }
+    }
+
+    /**
+     * Записывает все объекты из потока, не накапливая их в памяти.
+     * Поведение совпадает с {@link #write(Iterator)}; закрытие потока остается на вызывающей стороне.
+     *
+     * @param data Поток объектов для записи.
+     * @throws IOException                            Если возникает ошибка ввода-вывода во время записи.
+     * @throws FormatRecordAnnotationMissingException Если класс объектов не аннотирован {@link CsvRecord}.
+     * @throws IllegalArgumentException               Если объекты разных типов.
+     */
+    default void write(Stream<?> data) throws IOException {
+        if (data == null) return;
+        write(data.iterator());
+    }
+
+    /**
+     * Добавляет одну запись.
+     * <p>
+     * Структура CSV определяется по первому не {@code null} объекту и сохраняется до закрытия писателя;
+     * в этот момент же пишется заголовок. {@code null} записывается как строка из пустых ячеек.
+     * Данные могут буферизоваться до вызова {@link #flush()} или {@link #close()}.
+     * </p>
+     *
+     * @param record Объект для записи.
+     * @throws IOException                            Если возникает ошибка ввода-вывода во время записи.
+     * @throws FormatRecordAnnotationMissingException Если класс объекта не аннотирован {@link CsvRecord}.
+     * @throws IllegalArgumentException               Если тип объекта отличается от типа первой записи.
+     */
+    void append(Object record) throws IOException;
+
+    /**
+     * Возвращает статистику кешей значений колонок ({@link DataField#cacheSize()}) этого писателя.
+     *
+     * @return Статистика по колонкам, для которых были записаны значения; пустой список, если кешей нет.
+     */
+    default List<CacheStatistics> getCacheStatistics() {
+        return List.of();
+    }
+
+    /**
+     * Сбрасывает накопленные данные в приемник.
+     *
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    @Override
+    void flush() throws IOException;
 }
@@ -0,0 +1,29 @@
+package by.lobanov.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Задает запись поля-коллекции ({@link java.util.Collection}).
+ * <p>
+ * Без этой аннотации коллекция пишется через {@link Object#toString()} ({@code [a, b]}).
+ * С аннотацией элементы пишутся в одну ячейку через {@link #separator()}, а если задано
+ * {@link #columns()} — каждый в свою колонку с заголовками {@code score.1}, {@code score.2} и т. д.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface CsvCollection {
+
+    /**
+     * Разделитель элементов внутри ячейки.
+     */
+    String separator() default "|";
+
+    /**
+     * Количество колонок, в которые раскладываются элементы. {@code 0} означает одну ячейку с разделителем.
+     * Лишние колонки остаются пустыми; если элементов больше, запись завершается ошибкой.
+     */
+    int columns() default 0;
+}
@@ -0,0 +1,23 @@
+package by.lobanov.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * Задает префикс заголовков для вложенной записи.
+ * <p>
+ * Поле, тип которого аннотирован {@link by.lobanov.annotation.csv.CsvRecord}, разворачивается в колонки
+ * вложенной записи и без этой аннотации; по умолчанию их заголовки получают префикс из заголовка поля
+ * и точки (например, {@code address.city}). Если вложенная запись равна {@code null}, все ее ячейки пустые.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface CsvEmbedded {
+
+    /**
+     * Префикс заголовков колонок вложенной записи. Пустая строка означает заголовок поля с точкой.
+     */
+    String prefix() default "";
+}
@@ -0,0 +1,35 @@
+package by.lobanov.annotation;
+
+import java.lang.annotation.*;
+import java.math.*;
+
+/**
+ * Задает формат записи значения поля.
+ * <p>
+ * {@link #pattern()} применяется к типам {@code java.time} и задается в синтаксисе
+ * {@link java.time.format.DateTimeFormatter#ofPattern(String)}; при чтении значение разбирается
+ * по тому же шаблону. {@link #scale()} применяется к {@link BigDecimal}, {@code double} и {@code float}
+ * и задает фиксированное количество знаков после запятой.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface CsvFormat {
+
+    /**
+     * Шаблон даты/времени. Пустая строка означает формат по умолчанию.
+     */
+    String pattern() default "";
+
+    /**
+     * Количество знаков после запятой. Отрицательное значение означает формат по умолчанию.
+     */
+    int scale() default -1;
+
+    /**
+     * Режим округления при приведении к {@link #scale()}.
+     */
+    RoundingMode roundingMode() default RoundingMode.HALF_UP;
+}
@@ -29,4 +29,13 @@ public @interface DataField {
      * или стратегия по умолчанию библиотеки.
      */
     NamingStrategy strategy() default NamingStrategy.DEFAULT;
+
+    /**
+     * Размер кеша готового текста значений колонки (см. {@link by.lobanov.format.CachedColumn}).
+     * {@code 0} — по умолчанию: кеш выключен; положительное значение — наибольшее количество значений в кеше.
+     * Перечисления и без кеша пишутся заранее подготовленными именами констант без выделения памяти.
+     * Кешировать имеет смысл колонки с небольшим числом различных неизменяемых значений (коды стран, статусы).
+     * Не применим к примитивам, маскируемым полям, вложенным записям и коллекциям.
+     */
+    int cacheSize() default 0;
 }
@@ -13,5 +13,20 @@ public enum MaskingStrategy {
     /**
      * Оставляет видимыми несколько символов в начале, остальное маскирует (например, "1234567890" -> "123*******" с visibleChars=3).
      */
-    ASTERISKS_PARTIAL_PREFIX
+    ASTERISKS_PARTIAL_PREFIX,
+    /**
+     * Оставляет видимыми символы по краям, маскируя середину: половина visibleChars (с округлением вверх)
+     * в начале, остальные в конце (например, "1234567890" -> "12******90" с visibleChars=4).
+     */
+    ASTERISKS_MIDDLE,
+    /**
+     * Маскирует только цифры, сохраняя формат значения; последние visibleChars цифр остаются видимыми
+     * (например, "4111-1111-1111-1234" -> "****-****-****-1234" с visibleChars=4).
+     */
+    DIGITS_ONLY,
+    /**
+     * Заменяет значение детерминированным токеном: 16 шестнадцатеричных символов SipHash-2-4 с ключом
+     * из {@link by.lobanov.config.CsvWriterSettings#getMaskingKey()}. Символ маски и visibleChars не используются.
+     */
+    KEYED_HASH
 }
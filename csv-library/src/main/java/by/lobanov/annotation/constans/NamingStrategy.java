@@ -1,10 +1,45 @@
 package by.lobanov.annotation.constans;
 
+import java.util.regex.*;
+
 public enum NamingStrategy {
 
     AS_IS,
     AS_IS_TO_SPACE_SEPARATED_CAPITALIZED,
     CAMEL_TO_SNAKE_CASE,
     CAMEL_TO_SCREAMING_SNAKE_CASE,
-    DEFAULT
+    DEFAULT;
+
+    private static final Pattern CAMEL_CASE_BOUNDARY = Pattern.compile("([a-z])([A-Z]+)");
+
+    /**
+     * Применяет стратегию к имени поля.
+     * Используется как при записи через рефлексию, так и при генерации сериализаторов на этапе компиляции.
+     *
+     * @param fieldName Имя поля.
+     * @return Имя колонки.
+     */
+    public String apply(String fieldName) {
+        if (fieldName == null || fieldName.isEmpty()) {
+            return "";
+        }
+
+        return switch (this) {
+            case AS_IS_TO_SPACE_SEPARATED_CAPITALIZED -> {
+                StringBuilder result = new StringBuilder();
+                result.append(Character.toUpperCase(fieldName.charAt(0)));
+                for (int i = 1; i < fieldName.length(); i++) {
+                    char currentChar = fieldName.charAt(i);
+                    if (Character.isUpperCase(currentChar)) {
+                        result.append(' ');
+                    }
+                    result.append(currentChar);
+                }
+                yield result.toString();
+            }
+            case CAMEL_TO_SNAKE_CASE -> CAMEL_CASE_BOUNDARY.matcher(fieldName).replaceAll("$1_$2").toLowerCase();
+            case CAMEL_TO_SCREAMING_SNAKE_CASE -> CAMEL_CASE_BOUNDARY.matcher(fieldName).replaceAll("$1_$2").toUpperCase();
+            case DEFAULT, AS_IS -> fieldName;
+        };
+    }
 }
@@ -0,0 +1,20 @@
+package by.lobanov.config;
+
+/**
+ * Способ чтения значений полей записи при формировании строк CSV.
+ *
+ * @author Астонский Шпион
+ */
+public enum AccessStrategy {
+
+    /**
+     * Чтение через {@link java.lang.reflect.Field#get(Object)}. Примитивы упаковываются.
+     */
+    REFLECTION,
+    /**
+     * Чтение через заранее построенные {@link java.lang.invoke.MethodHandle}.
+     * Для {@code int}, {@code long} и {@code double} используются типизированные пути без упаковки.
+     * Если доступ к классу запрещен, автоматически используется {@link #REFLECTION}.
+     */
+    METHOD_HANDLE
+}
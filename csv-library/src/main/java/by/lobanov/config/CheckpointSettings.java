@@ -0,0 +1,44 @@
+package by.lobanov.config;
+
+import lombok.*;
+
+import java.nio.file.*;
+import java.util.function.*;
+
+/**
+ * Настройки возобновляемой записи CSV в файл с контрольными точками.
+ * <p>
+ * Создается через {@link #builder()}; не заданные явно параметры принимают значения по умолчанию.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@Getter
+@Builder(toBuilder = true)
+public class CheckpointSettings {
+
+    /**
+     * Файл контрольной точки. Если не задан, используется {@code <файл CSV>.checkpoint} рядом с файлом CSV.
+     */
+    private final Path checkpointPath;
+
+    /**
+     * Через сколько строк записывается очередная контрольная точка.
+     */
+    @Builder.Default
+    private final long checkpointEveryRows = 100_000;
+
+    /**
+     * Функция, возвращающая ключ записи (например, идентификатор), по которому можно продолжить выборку данных.
+     * Ключ последней записанной записи сохраняется в контрольной точке через {@link Object#toString()}.
+     */
+    private final Function<Object, ?> keyExtractor;
+
+    /**
+     * Сбрасывать ли файл CSV на диск ({@link java.nio.channels.FileChannel#force(boolean)}) перед записью
+     * контрольной точки, а новый файл контрольной точки — перед заменой им прежнего, чтобы после сбоя системы
+     * она не оказалась пустой и не указывала за пределы сохраненных данных.
+     */
+    @Builder.Default
+    private final boolean forceOnCheckpoint = true;
+}
@@ -0,0 +1,144 @@
+package by.lobanov.config;
+
+import by.lobanov.format.*;
+import by.lobanov.masking.*;
+import by.lobanov.metrics.*;
+import lombok.*;
+
+import java.util.concurrent.*;
+
+/**
+ * Настройки CsvWriter.
+ * <p>
+ * Создается через {@link #builder()}; не заданные явно параметры принимают значения по умолчанию.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@Getter
+@Builder(toBuilder = true)
+public class CsvWriterSettings {
+
+    /**
+     * Символ-разделитель полей.
+     */
+    @Builder.Default
+    private final char delimiter = ',';
+
+    /**
+     * Символ(ы) для разделения строк.
+     */
+    @Builder.Default
+    private final String lineSeparator = "\n";
+
+    /**
+     * Правило взятия значений в кавычки.
+     */
+    @Builder.Default
+    private final QuotingPolicy quotingPolicy = QuotingPolicy.MINIMAL;
+
+    /**
+     * Способ чтения значений полей.
+     */
+    @Builder.Default
+    private final AccessStrategy accessStrategy = AccessStrategy.METHOD_HANDLE;
+
+    /**
+     * Использовать ли сериализаторы, сгенерированные процессором аннотаций.
+     * Если сериализатор для класса не найден, поля читаются согласно {@link #accessStrategy}.
+     */
+    @Builder.Default
+    private final boolean useGeneratedSerializers = true;
+
+    /**
+     * Количество блоков строк, кодируемых параллельно при записи списка.
+     * Значение {@code 1} означает последовательную запись в вызывающем потоке.
+     */
+    @Builder.Default
+    private final int parallelism = 1;
+
+    /**
+     * Количество строк в одном блоке параллельного кодирования.
+     * Списки не длиннее одного блока всегда пишутся последовательно.
+     */
+    @Builder.Default
+    private final int parallelChunkSize = 8192;
+
+    /**
+     * Executor для параллельного кодирования и сжатия (например, {@link ForkJoinPool} или executor виртуальных потоков).
+     * Если не задан, используется {@link ForkJoinPool#commonPool()}.
+     */
+    private final Executor parallelExecutor;
+
+    /**
+     * Размер (в символах) одного буфера асинхронного писателя.
+     */
+    @Builder.Default
+    private final int asyncBufferSize = 64 * 1024;
+
+    /**
+     * Количество буферов асинхронного писателя. Пока все буферы ожидают записи фоновым потоком,
+     * вызывающий поток блокируется. Значение {@code 2} соответствует двойной буферизации.
+     */
+    @Builder.Default
+    private final int asyncBufferCount = 2;
+
+    /**
+     * Количество полос (буферов) писателя для многих потоков; потоки, попавшие в одну полосу,
+     * кодируют строки по очереди.
+     */
+    @Builder.Default
+    private final int concurrentStripes = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Размер несжатого блока (в байтах) при записи в GZIP; каждый блок сжимается независимо.
+     */
+    @Builder.Default
+    private final int compressionBlockSize = 128 * 1024;
+
+    /**
+     * Уровень сжатия GZIP от 0 до 9 или {@code -1} для уровня по умолчанию.
+     */
+    @Builder.Default
+    private final int compressionLevel = -1;
+
+    /**
+     * Количество блоков, сжимаемых одновременно при записи в GZIP.
+     */
+    @Builder.Default
+    private final int compressionParallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Количество строк в пакете колоночной записи ({@link by.lobanov.ColumnarWritable}):
+     * значения копятся в колонках пакета и кодируются в CSV, когда пакет заполнен.
+     */
+    @Builder.Default
+    private final int columnarBatchSize = 16 * 1024;
+
+    /**
+     * Ключ для стратегии маскирования {@link by.lobanov.annotation.constans.MaskingStrategy#KEYED_HASH}.
+     * Если не задан, запись поля с этой стратегией завершается ошибкой.
+     */
+    private final MaskingKey maskingKey;
+
+    /**
+     * Форматтеры значений по типам. Поля с {@link by.lobanov.annotation.CsvFormat} используют свой формат.
+     */
+    @Builder.Default
+    private final FormatterRegistry formatters = FormatterRegistry.defaults();
+
+    /**
+     * Приемник метрик записи. По умолчанию метрики никуда не передаются.
+     */
+    @Builder.Default
+    private final CsvWriterMetrics metrics = CsvWriterMetrics.none();
+
+    /**
+     * Возвращает настройки по умолчанию.
+     *
+     * @return Настройки по умолчанию.
+     */
+    public static CsvWriterSettings defaults() {
+        return builder().build();
+    }
+}
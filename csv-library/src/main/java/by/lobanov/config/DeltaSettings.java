@@ -0,0 +1,35 @@
+package by.lobanov.config;
+
+import lombok.*;
+
+import java.nio.file.*;
+
+/**
+ * Настройки выгрузки изменений относительно предыдущего запуска.
+ * <p>
+ * Создается через {@link #builder()}; не заданные явно параметры принимают значения по умолчанию.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@Getter
+@Builder(toBuilder = true)
+public class DeltaSettings {
+
+    /**
+     * Файл индекса предыдущей выгрузки (ключ → хеш строки). Если файла нет, все строки считаются новыми.
+     */
+    private final Path indexPath;
+
+    /**
+     * Заголовок колонки, значения которой однозначно определяют строку. Колонка должна соответствовать
+     * полю верхнего уровня, не вложенной записи, коллекции и не маскируемому полю.
+     */
+    private final String keyColumn;
+
+    /**
+     * Заголовок колонки с видом изменения, добавляемой первой.
+     */
+    @Builder.Default
+    private final String opColumn = "op";
+}
@@ -0,0 +1,32 @@
+package by.lobanov.config;
+
+/**
+ * Правило, по которому значения ячеек берутся в кавычки.
+ * <p>
+ * Кавычки внутри значения, взятого в кавычки, всегда удваиваются. Пустые ячейки ({@code null})
+ * в кавычки не берутся ни при одной политике.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public enum QuotingPolicy {
+
+    /**
+     * В кавычки берутся только значения, содержащие разделитель, кавычку, перевод строки или разделитель строк.
+     * Целые числа не проверяются, если разделители не могут встретиться в их записи.
+     */
+    MINIMAL,
+    /**
+     * В кавычки берутся все значения, включая числа и заголовки; значения не проверяются на спецсимволы.
+     */
+    ALWAYS,
+    /**
+     * В кавычки берутся все значения, кроме чисел ({@link Number} и примитивов); числа пишутся как при {@link #MINIMAL}.
+     */
+    NON_NUMERIC,
+    /**
+     * Значения никогда не берутся в кавычки. Значение, которое без кавычек исказило бы структуру CSV,
+     * приводит к {@link IllegalArgumentException}, а строка, в которой оно встретилось, не записывается.
+     */
+    NEVER
+}
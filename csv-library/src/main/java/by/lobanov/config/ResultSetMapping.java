@@ -0,0 +1,57 @@
+package by.lobanov.config;
+
+import by.lobanov.annotation.constans.*;
+import by.lobanov.masking.*;
+import lombok.*;
+
+import java.util.*;
+
+/**
+ * Правила выгрузки {@link java.sql.ResultSet} в CSV.
+ * <p>
+ * Заголовки берутся из меток колонок ({@link java.sql.ResultSetMetaData#getColumnLabel(int)})
+ * и преобразуются стратегией {@link #namingStrategy}. Имена колонок в {@link #maskedColumns}
+ * сравниваются с метками без учета регистра.
+ * Создается через {@link #builder()}; не заданные явно параметры принимают значения по умолчанию.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@Getter
+@Builder(toBuilder = true)
+public class ResultSetMapping {
+
+    /**
+     * Стратегия, применяемая к меткам колонок при формировании заголовка.
+     */
+    @Builder.Default
+    private final NamingStrategy namingStrategy = NamingStrategy.AS_IS;
+
+    /**
+     * Записывать ли строку заголовка.
+     */
+    @Builder.Default
+    private final boolean includeHeader = true;
+
+    /**
+     * Операции маскирования по меткам колонок. Значения таких колонок читаются как строки.
+     */
+    @Builder.Default
+    private final Map<String, MaskingOperation> maskedColumns = Map.of();
+
+    /**
+     * Количество строк, которое драйвер получает за одно обращение к базе ({@link java.sql.ResultSet#setFetchSize(int)});
+     * {@code 0} оставляет значение драйвера.
+     */
+    @Builder.Default
+    private final int fetchSize = 1000;
+
+    /**
+     * Возвращает правила по умолчанию.
+     *
+     * @return Правила по умолчанию.
+     */
+    public static ResultSetMapping defaults() {
+        return builder().build();
+    }
+}
@@ -0,0 +1,67 @@
+package by.lobanov.config;
+
+import lombok.*;
+
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+/**
+ * Настройки записи CSV в последовательность файлов ограниченного размера.
+ * <p>
+ * Файлы именуются как {@code <baseName>-00001<extension>}, {@code <baseName>-00002<extension>} и т.д.
+ * Создается через {@link #builder()}; {@link #directory} и {@link #baseName} обязательны.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@Getter
+@Builder(toBuilder = true)
+public class RollingFileSettings {
+
+    /**
+     * Каталог, в котором создаются файлы. Создается, если не существует.
+     */
+    private final Path directory;
+
+    /**
+     * Базовое имя файлов, например {@code clients}.
+     */
+    private final String baseName;
+
+    /**
+     * Расширение файлов вместе с точкой.
+     */
+    @Builder.Default
+    private final String extension = ".csv";
+
+    /**
+     * Максимальное количество строк данных в одном файле; {@code 0} — без ограничения.
+     */
+    @Builder.Default
+    private final long maxRows = 0;
+
+    /**
+     * Размер файла в байтах, по достижении которого начинается следующий файл; {@code 0} — без ограничения.
+     * Строка не разделяется между файлами, поэтому файл может превысить предел не более чем на одну строку.
+     */
+    @Builder.Default
+    private final long maxBytes = 0;
+
+    /**
+     * Количество файлов, записываемых одновременно при записи списка.
+     * Применяется только при ограничении по строкам ({@link #maxRows}) без ограничения по размеру,
+     * когда границы файлов известны заранее.
+     */
+    @Builder.Default
+    private final int shardParallelism = 1;
+
+    /**
+     * Executor для одновременной записи файлов. Если не задан, используется {@link ForkJoinPool#commonPool()}.
+     */
+    private final Executor shardExecutor;
+
+    /**
+     * Имя файла манифеста в {@link #directory}. Если не задано, используется {@code <baseName>-manifest.csv}.
+     */
+    private final String manifestName;
+}
@@ -0,0 +1,20 @@
+package by.lobanov.exception;
+
+public class CsvParseException extends IllegalArgumentException {
+
+    public CsvParseException(String message) {
+        super(message);
+    }
+
+    public CsvParseException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CsvParseException(long rowNumber, String message) {
+        super(String.format("Ошибка разбора CSV в строке %d: %s", rowNumber, message));
+    }
+
+    public CsvParseException(long rowNumber, String message, Throwable cause) {
+        super(String.format("Ошибка разбора CSV в строке %d: %s", rowNumber, message), cause);
+    }
+}
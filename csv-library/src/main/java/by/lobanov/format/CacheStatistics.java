@@ -0,0 +1,39 @@
+package by.lobanov.format;
+
+import by.lobanov.annotation.csv.*;
+
+/**
+ * Статистика кеша значений колонки ({@link CachedColumn}) одного писателя.
+ *
+ * @param column    Имя колонки.
+ * @param capacity  Наибольшее количество значений в кеше.
+ * @param size      Количество значений в кеше сейчас.
+ * @param hits      Количество значений, взятых из кеша.
+ * @param misses    Количество значений, отформатированных заново.
+ * @param evictions Количество вытесненных значений.
+ * @author Астонский Шпион
+ */
+@CsvRecord
+public record CacheStatistics(String column, int capacity, int size, long hits, long misses, long evictions) {
+
+    /**
+     * Доля значений, взятых из кеша, или {@code 0}, если значений не было.
+     *
+     * @return Доля попаданий от 0 до 1.
+     */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Складывает статистику одной колонки из нескольких кодировщиков писателя.
+     *
+     * @param other Статистика той же колонки.
+     * @return Суммарная статистика; размер — наибольший из двух.
+     */
+    public CacheStatistics merge(CacheStatistics other) {
+        return new CacheStatistics(column, capacity, Math.max(size, other.size), hits + other.hits,
+                misses + other.misses, evictions + other.evictions);
+    }
+}
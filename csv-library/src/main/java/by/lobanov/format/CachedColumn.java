@@ -0,0 +1,60 @@
+package by.lobanov.format;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Колонка, готовый текст значений которой кешируется писателем.
+ * <p>
+ * Каждый писатель хранит для колонки свой кеш ограниченного размера, вытесняющий давно не использованные
+ * значения: повторяющееся значение не форматируется и не проверяется на кавычки повторно, а копируется
+ * уже экранированным. Экземпляр лишь описывает колонку и разделяется всеми писателями.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public final class CachedColumn {
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final int id;
+    private final String name;
+    private final int capacity;
+
+    private CachedColumn(String name, int capacity) {
+        this.id = NEXT_ID.getAndIncrement();
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Создает описание кешируемой колонки. Используется планом записи и сгенерированными сериализаторами.
+     *
+     * @param name     Имя колонки для статистики.
+     * @param capacity Наибольшее количество значений в кеше.
+     * @return Описание колонки.
+     * @throws IllegalArgumentException Если размер кеша меньше 1.
+     */
+    public static CachedColumn of(String name, int capacity) {
+        Objects.requireNonNull(name, "Name не может быть null");
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Размер кеша должен быть больше 0");
+        }
+        return new CachedColumn(name, capacity);
+    }
+
+    /**
+     * Порядковый номер колонки, по которому писатель находит свой кеш.
+     */
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,60 @@
+package by.lobanov.format;
+
+import java.time.format.*;
+import java.time.temporal.*;
+
+/**
+ * Буфер, в который {@link ValueFormatter} пишет текст ячейки.
+ * <p>
+ * Символы попадают прямо в буфер писателя; экранирование результата выполняет писатель
+ * после завершения форматирования.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public interface CsvValueBuffer extends Appendable {
+
+    @Override
+    CsvValueBuffer append(char c);
+
+    @Override
+    CsvValueBuffer append(CharSequence value);
+
+    @Override
+    CsvValueBuffer append(CharSequence value, int start, int end);
+
+    /**
+     * Записывает десятичное представление числа без промежуточной строки.
+     *
+     * @param value Число.
+     * @return Этот буфер.
+     */
+    CsvValueBuffer appendLong(long value);
+
+    /**
+     * Записывает неотрицательное число, дополняя его нулями слева до {@code minDigits} цифр.
+     *
+     * @param value     Неотрицательное число.
+     * @param minDigits Минимальное количество цифр.
+     * @return Этот буфер.
+     */
+    CsvValueBuffer appendPadded(long value, int minDigits);
+
+    /**
+     * Записывает десятичную дробь {@code unscaled * 10^-scale} в обычной записи (например, {@code 1250, 2} -> {@code 12.50}).
+     *
+     * @param unscaled Значение без десятичной точки.
+     * @param scale    Количество знаков после запятой, не меньше нуля.
+     * @return Этот буфер.
+     */
+    CsvValueBuffer appendDecimal(long unscaled, int scale);
+
+    /**
+     * Форматирует дату/время через переиспользуемый промежуточный буфер.
+     *
+     * @param formatter Форматтер.
+     * @param temporal  Значение даты/времени.
+     * @return Этот буфер.
+     */
+    CsvValueBuffer appendTemporal(DateTimeFormatter formatter, TemporalAccessor temporal);
+}
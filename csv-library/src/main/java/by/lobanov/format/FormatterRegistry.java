@@ -0,0 +1,100 @@
+package by.lobanov.format;
+
+import java.math.*;
+import java.time.*;
+import java.util.*;
+
+/**
+ * Соответствие типов значений и их форматтеров.
+ * <p>
+ * Форматтер ищется по точному классу значения, затем по суперклассам и интерфейсам;
+ * результат поиска кешируется для каждого класса. Значения без форматтера записываются
+ * через {@link Object#toString()}. Реестр неизменяем: {@link #with(Class, ValueFormatter)}
+ * возвращает новый экземпляр.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public final class FormatterRegistry {
+
+    private static final FormatterRegistry NONE = new FormatterRegistry(Map.of());
+
+    private static final FormatterRegistry DEFAULTS = NONE
+            .with(BigDecimal.class, ValueFormatters.BIG_DECIMAL)
+            .with(LocalDate.class, ValueFormatters.LOCAL_DATE)
+            .with(Enum.class, ValueFormatters.ENUM);
+
+    private final Map<Class<?>, ValueFormatter<?>> formatters;
+
+    private final ClassValue<Optional<ValueFormatter<Object>>> resolved = new ClassValue<>() {
+        @Override
+        protected Optional<ValueFormatter<Object>> computeValue(Class<?> type) {
+            return Optional.ofNullable(resolve(type));
+        }
+    };
+
+    private FormatterRegistry(Map<Class<?>, ValueFormatter<?>> formatters) {
+        this.formatters = formatters;
+    }
+
+    /**
+     * Реестр со встроенными форматтерами: {@link BigDecimal}, {@link LocalDate} и перечисления.
+     *
+     * @return Реестр по умолчанию.
+     */
+    public static FormatterRegistry defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Пустой реестр: все значения записываются через {@link Object#toString()}.
+     *
+     * @return Пустой реестр.
+     */
+    public static FormatterRegistry none() {
+        return NONE;
+    }
+
+    /**
+     * Возвращает реестр, в котором для типа (и его наследников без собственного форматтера)
+     * используется указанный форматтер.
+     *
+     * @param type      Тип значений.
+     * @param formatter Форматтер.
+     * @return Новый реестр.
+     */
+    public <T> FormatterRegistry with(Class<T> type, ValueFormatter<? super T> formatter) {
+        Objects.requireNonNull(type, "Type не может быть null");
+        Objects.requireNonNull(formatter, "Formatter не может быть null");
+        Map<Class<?>, ValueFormatter<?>> copy = new HashMap<>(formatters);
+        copy.put(type, formatter);
+        return new FormatterRegistry(Map.copyOf(copy));
+    }
+
+    /**
+     * Возвращает форматтер для класса значения.
+     *
+     * @param type Класс значения.
+     * @return Форматтер или {@code null}, если значение записывается через {@link Object#toString()}.
+     */
+    public ValueFormatter<Object> find(Class<?> type) {
+        return resolved.get(type).orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ValueFormatter<Object> resolve(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            ValueFormatter<?> formatter = formatters.get(current);
+            if (formatter != null) {
+                return (ValueFormatter<Object>) formatter;
+            }
+            for (Class<?> anInterface : current.getInterfaces()) {
+                formatter = formatters.get(anInterface);
+                if (formatter != null) {
+                    return (ValueFormatter<Object>) formatter;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,22 @@
+package by.lobanov.format;
+
+/**
+ * Форматирование значения ячейки прямо в буфер писателя.
+ * <p>
+ * Реализации должны быть потокобезопасными: один экземпляр используется всеми писателями.
+ * </p>
+ *
+ * @param <T> Тип значения.
+ * @author Астонский Шпион
+ */
+@FunctionalInterface
+public interface ValueFormatter<T> {
+
+    /**
+     * Записывает значение в буфер. Значение не бывает {@code null}.
+     *
+     * @param value Значение ячейки.
+     * @param out   Буфер писателя.
+     */
+    void format(T value, CsvValueBuffer out);
+}
@@ -0,0 +1,167 @@
+package by.lobanov.format;
+
+import by.lobanov.annotation.*;
+import lombok.experimental.*;
+
+import java.math.*;
+import java.time.*;
+import java.time.format.*;
+import java.time.temporal.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Встроенные форматтеры значений.
+ * <p>
+ * Форматтеры по умолчанию дают тот же текст, что и {@link Object#toString()}, но пишут его в буфер
+ * без промежуточных строк. Форматтеры для {@link CsvFormat} создаются один раз на набор параметров.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@UtilityClass
+public class ValueFormatters {
+
+    /**
+     * Наибольшая точность {@link BigDecimal}, при которой значение без десятичной точки помещается в {@code long}.
+     */
+    private static final int MAX_LONG_PRECISION = 18;
+
+    private static final ConcurrentMap<String, DateTimeFormatter> PATTERNS = new ConcurrentHashMap<>();
+
+    private static final ClassValue<String[]> ENUM_NAMES = new ClassValue<>() {
+        @Override
+        protected String[] computeValue(Class<?> type) {
+            return Arrays.stream(type.getEnumConstants()).map(Object::toString).toArray(String[]::new);
+        }
+    };
+
+    /**
+     * Константы перечислений: текст {@link Object#toString()} каждой константы вычисляется один раз на класс.
+     */
+    public static final ValueFormatter<Object> ENUM = (value, out) -> {
+        Enum<?> constant = (Enum<?>) value;
+        out.append(ENUM_NAMES.get(constant.getDeclaringClass())[constant.ordinal()]);
+    };
+
+    /**
+     * {@link BigDecimal} в том же виде, что и {@link BigDecimal#toString()}.
+     */
+    public static final ValueFormatter<BigDecimal> BIG_DECIMAL = (value, out) -> {
+        int scale = value.scale();
+        int precision = value.precision();
+        if (scale >= 0 && precision <= MAX_LONG_PRECISION && precision - scale - 1 >= -6) {
+            out.appendDecimal(value.scaleByPowerOfTen(scale).longValueExact(), scale);
+        } else {
+            out.append(value.toString());
+        }
+    };
+
+    /**
+     * {@link LocalDate} в формате ISO ({@code yyyy-MM-dd}), как {@link LocalDate#toString()}.
+     */
+    public static final ValueFormatter<LocalDate> LOCAL_DATE = (value, out) -> {
+        int year = value.getYear();
+        if (year < 0 || year > 9999) {
+            out.append(value.toString());
+            return;
+        }
+        out.appendPadded(year, 4).append('-')
+                .appendPadded(value.getMonthValue(), 2).append('-')
+                .appendPadded(value.getDayOfMonth(), 2);
+    };
+
+    /**
+     * Возвращает форматтер десятичных чисел с фиксированным количеством знаков после запятой.
+     * Поддерживает {@link BigDecimal}, {@link Double} и {@link Float}; двоичное значение округляется точно.
+     *
+     * @param scale        Количество знаков после запятой.
+     * @param roundingMode Режим округления.
+     * @return Форматтер.
+     */
+    public static ValueFormatter<Object> decimal(int scale, RoundingMode roundingMode) {
+        if (scale < 0) {
+            throw new IllegalArgumentException("Scale не может быть отрицательным");
+        }
+        Objects.requireNonNull(roundingMode, "Rounding mode не может быть null");
+        return (value, out) -> {
+            BigDecimal decimal = value instanceof BigDecimal bigDecimal ?
+                    bigDecimal : new BigDecimal(((Number) value).doubleValue());
+            BigDecimal scaled = decimal.setScale(scale, roundingMode);
+            if (scaled.precision() <= MAX_LONG_PRECISION) {
+                out.appendDecimal(scaled.scaleByPowerOfTen(scale).longValueExact(), scale);
+            } else {
+                out.append(scaled.toPlainString());
+            }
+        };
+    }
+
+    /**
+     * Возвращает форматтер даты/времени по шаблону {@link DateTimeFormatter#ofPattern(String)}.
+     * Форматтер для каждого шаблона создается один раз.
+     *
+     * @param pattern Шаблон.
+     * @return Форматтер.
+     */
+    public static ValueFormatter<Object> temporal(String pattern) {
+        DateTimeFormatter formatter = dateTimeFormatter(pattern);
+        return (value, out) -> out.appendTemporal(formatter, (TemporalAccessor) value);
+    }
+
+    /**
+     * Возвращает закешированный {@link DateTimeFormatter} для шаблона.
+     *
+     * @param pattern Шаблон.
+     * @return Форматтер.
+     * @throws IllegalArgumentException Если шаблон некорректен.
+     */
+    public static DateTimeFormatter dateTimeFormatter(String pattern) {
+        Objects.requireNonNull(pattern, "Pattern не может быть null");
+        return PATTERNS.computeIfAbsent(pattern, DateTimeFormatter::ofPattern);
+    }
+
+    /**
+     * Возвращает форматтер для поля с аннотацией {@link CsvFormat}.
+     *
+     * @param format Аннотация поля.
+     * @param type   Тип поля.
+     * @return Форматтер.
+     * @throws IllegalArgumentException Если параметры аннотации не подходят к типу поля.
+     */
+    public static ValueFormatter<Object> forField(CsvFormat format, Class<?> type) {
+        return forField(format.pattern(), format.scale(), format.roundingMode(), type);
+    }
+
+    /**
+     * Возвращает форматтер по параметрам {@link CsvFormat}. Используется сгенерированными сериализаторами.
+     *
+     * @param pattern      Шаблон даты/времени или пустая строка.
+     * @param scale        Количество знаков после запятой или отрицательное значение.
+     * @param roundingMode Режим округления.
+     * @param type         Тип поля.
+     * @return Форматтер.
+     * @throws IllegalArgumentException Если параметры не подходят к типу поля.
+     */
+    public static ValueFormatter<Object> forField(String pattern, int scale, RoundingMode roundingMode, Class<?> type) {
+        Objects.requireNonNull(type, "Type не может быть null");
+        boolean hasPattern = pattern != null && !pattern.isEmpty();
+        if (hasPattern == (scale >= 0)) {
+            throw new IllegalArgumentException("В @CsvFormat должен быть задан либо pattern, либо scale: " + type.getName());
+        }
+        if (hasPattern) {
+            if (!TemporalAccessor.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException("Pattern применим только к типам java.time: " + type.getName());
+            }
+            return temporal(pattern);
+        }
+        if (!isDecimal(type)) {
+            throw new IllegalArgumentException("Scale применим только к BigDecimal, double и float: " + type.getName());
+        }
+        return decimal(scale, roundingMode);
+    }
+
+    private static boolean isDecimal(Class<?> type) {
+        return type == BigDecimal.class || type == double.class || type == Double.class
+                || type == float.class || type == Float.class;
+    }
+}
@@ -0,0 +1,240 @@
+package by.lobanov.impl;
+
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * {@link Writer}, передающий данные в целевой {@link Writer} из отдельного фонового потока.
+ * <p>
+ * Вызывающий поток заполняет текущий буфер и передает его фоновому потоку целиком,
+ * сразу получая следующий свободный буфер. Буферы переиспользуются; когда все они ожидают записи,
+ * вызывающий поток блокируется, что ограничивает объем данных в памяти.
+ * </p>
+ * <p>
+ * Ошибка записи в целевой {@link Writer} запоминается и выбрасывается вызывающему потоку
+ * при следующей передаче буфера, сбросе или закрытии.
+ * </p>
+ * <p>
+ * Запись должна выполняться из одного потока.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+final class AsyncBlockWriter extends Writer {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Writer target;
+    private final BlockingQueue<char[]> freeBuffers;
+    private final BlockingQueue<Task> pending = new LinkedBlockingQueue<>();
+    private final Thread ioThread;
+
+    private volatile IOException failure;
+    private char[] current;
+    private int position;
+    private boolean closed;
+
+    /**
+     * Конструктор. Запускает фоновый поток записи.
+     *
+     * @param target      Куда будут записываться данные.
+     * @param bufferSize  Размер одного буфера в символах.
+     * @param bufferCount Количество буферов (не меньше 2).
+     */
+    AsyncBlockWriter(Writer target, int bufferSize, int bufferCount) {
+        this.target = target;
+        this.freeBuffers = new ArrayBlockingQueue<>(bufferCount);
+        for (int i = 1; i < bufferCount; i++) {
+            freeBuffers.add(new char[bufferSize]);
+        }
+        this.current = new char[bufferSize];
+        this.ioThread = new Thread(this::drainLoop, "csv-async-writer-" + THREAD_COUNTER.incrementAndGet());
+        ioThread.setDaemon(true);
+        ioThread.start();
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int count = Math.min(len, current.length - position);
+            System.arraycopy(cbuf, off, current, position, count);
+            position += count;
+            off += count;
+            len -= count;
+            if (position == current.length) {
+                handOff();
+            }
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            int count = Math.min(len, current.length - position);
+            str.getChars(off, off + count, current, position);
+            position += count;
+            off += count;
+            len -= count;
+            if (position == current.length) {
+                handOff();
+            }
+        }
+    }
+
+    /**
+     * Передает накопленные данные фоновому потоку и запрашивает сброс целевого {@link Writer}.
+     *
+     * @return {@link CompletableFuture}, завершающийся после записи всех переданных ранее данных
+     *         и сброса целевого {@link Writer}, либо с ошибкой записи.
+     * @throws IOException Если писатель закрыт или предыдущая запись завершилась ошибкой.
+     */
+    CompletableFuture<Void> flushAsync() throws IOException {
+        ensureOpen();
+        if (position > 0) {
+            handOff();
+        }
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        pending.add(new Task(null, 0, flushed));
+        return flushed;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        await(flushAsync());
+    }
+
+    /**
+     * Передает оставшиеся данные, дожидается их записи и закрывает целевой {@link Writer}.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            if (position > 0 && failure == null) {
+                handOff();
+            }
+        } finally {
+            pending.add(Task.CLOSE);
+            joinIoThread();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Ожидает завершения асинхронного сброса.
+     *
+     * @param flushed Результат {@link #flushAsync()}.
+     * @throws IOException Если запись или сброс завершились ошибкой либо ожидание было прервано.
+     */
+    static void await(CompletableFuture<Void> flushed) throws IOException {
+        try {
+            flushed.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) throw ioException;
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание асинхронной записи прервано");
+        }
+    }
+
+    private void handOff() throws IOException {
+        checkFailure();
+        pending.add(new Task(current, position, null));
+        try {
+            current = freeBuffers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание свободного буфера прервано");
+        } finally {
+            position = 0;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer закрыт");
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        IOException error = failure;
+        if (error != null) {
+            throw new IOException("Ошибка асинхронной записи", error);
+        }
+    }
+
+    private void joinIoThread() throws InterruptedIOException {
+        try {
+            ioThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Ожидание завершения записи прервано");
+        }
+    }
+
+    /**
+     * Цикл фонового потока: пишет буферы в порядке поступления и возвращает их в пул.
+     * После ошибки буферы продолжают возвращаться в пул, чтобы вызывающий поток не блокировался.
+     */
+    private void drainLoop() {
+        while (true) {
+            Task task;
+            try {
+                task = pending.take();
+            } catch (InterruptedException e) {
+                continue;
+            }
+            if (task.buffer() != null) {
+                if (failure == null) {
+                    try {
+                        target.write(task.buffer(), 0, task.length());
+                    } catch (IOException | RuntimeException e) {
+                        fail(e);
+                    }
+                }
+                freeBuffers.add(task.buffer());
+            } else if (task.flushed() != null) {
+                if (failure == null) {
+                    try {
+                        target.flush();
+                    } catch (IOException | RuntimeException e) {
+                        fail(e);
+                    }
+                }
+                IOException error = failure;
+                if (error == null) {
+                    task.flushed().complete(null);
+                } else {
+                    task.flushed().completeExceptionally(error);
+                }
+            } else {
+                try {
+                    target.close();
+                } catch (IOException | RuntimeException e) {
+                    if (failure == null) fail(e);
+                }
+                return;
+            }
+        }
+    }
+
+    private void fail(Exception e) {
+        failure = e instanceof IOException ioException ? ioException : new IOException(e);
+    }
+
+    /**
+     * Задание фонового потока: буфер для записи, запрос сброса или закрытие.
+     */
+    private record Task(char[] buffer, int length, CompletableFuture<Void> flushed) {
+        static final Task CLOSE = new Task(null, 0, null);
+    }
+}
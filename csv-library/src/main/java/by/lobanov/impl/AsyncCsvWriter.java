@@ -0,0 +1,120 @@
+package by.lobanov.impl;
+
+import by.lobanov.*;
+import by.lobanov.config.*;
+import by.lobanov.format.*;
+import by.lobanov.metrics.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Реализация записи в формате CSV с вводом-выводом в отдельном потоке.
+ * <p>
+ * Строки кодируются в вызывающем потоке так же, как в {@link DefaultCsvWriter}, после чего
+ * заполненные буферы передаются фоновому потоку, который пишет их в {@link Writer}.
+ * Вызывающий поток продолжает заполнять следующий буфер, не дожидаясь окончания записи,
+ * и блокируется только тогда, когда все буферы ({@link CsvWriterSettings#getAsyncBufferCount()}) заняты.
+ * </p>
+ * <p>
+ * Методы экземпляра синхронизированы, поэтому его можно разделять между потоками;
+ * порядок строк при этом определяется порядком вызовов.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class AsyncCsvWriter implements Writable {
+
+    private final AsyncBlockWriter blockWriter;
+    private final DefaultCsvWriter delegate;
+    private final CsvWriterMetrics metrics;
+
+    /**
+     * Конструктор. Запускает фоновый поток записи.
+     *
+     * @param writer   Куда будут записываться данные.
+     * @param settings Настройки записи.
+     */
+    public AsyncCsvWriter(Writer writer, CsvWriterSettings settings) {
+        Objects.requireNonNull(writer, "Writer не может быть null");
+        Objects.requireNonNull(settings, "Settings не может быть null");
+        if (settings.getAsyncBufferSize() < 1) {
+            throw new IllegalArgumentException("Async buffer size должен быть больше 0");
+        }
+        if (settings.getAsyncBufferCount() < 2) {
+            throw new IllegalArgumentException("Async buffer count должен быть не меньше 2");
+        }
+        this.metrics = Objects.requireNonNull(settings.getMetrics(), "Metrics не может быть null");
+        this.blockWriter = new AsyncBlockWriter(writer, settings.getAsyncBufferSize(), settings.getAsyncBufferCount());
+        try {
+            this.delegate = new DefaultCsvWriter(blockWriter, settings);
+        } catch (RuntimeException e) {
+            try {
+                blockWriter.close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public synchronized void write(List<?> data) throws IOException {
+        delegate.write(data);
+    }
+
+    @Override
+    public synchronized void write(Iterator<?> data) throws IOException {
+        delegate.write(data);
+    }
+
+    @Override
+    public synchronized void append(Object record) throws IOException {
+        delegate.append(record);
+    }
+
+    /**
+     * Передает накопленные строки фоновому потоку и запрашивает сброс {@link Writer}, не дожидаясь записи.
+     *
+     * @return {@link CompletableFuture}, завершающийся после записи всех строк, переданных до вызова,
+     *         и сброса {@link Writer}, либо с {@link IOException}.
+     * @throws IOException Если писатель закрыт или предыдущая запись завершилась ошибкой.
+     */
+    public synchronized CompletableFuture<Void> flushAsync() throws IOException {
+        delegate.drain();
+        return blockWriter.flushAsync();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Дожидается записи и сброса; для неблокирующего сброса используйте {@link #flushAsync()}.
+     * </p>
+     */
+    @Override
+    public void flush() throws IOException {
+        long began = System.nanoTime();
+        AsyncBlockWriter.await(flushAsync());
+        metrics.flushed(System.nanoTime() - began);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Кеши принадлежат кодировщику писателя, которому делегируется кодирование строк.
+     * </p>
+     */
+    @Override
+    public synchronized List<CacheStatistics> getCacheStatistics() {
+        return delegate.getCacheStatistics();
+    }
+
+    /**
+     * Дописывает все накопленные строки, останавливает фоновый поток и закрывает {@link Writer}.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,16 @@
+package by.lobanov.impl;
+
+import by.lobanov.annotation.csv.*;
+
+/**
+ * Контрольная точка {@link ResumableCsvWriter}: сколько строк записано и где в файле кончается последняя из них.
+ * Файл контрольной точки записывается как CSV из одной такой записи.
+ *
+ * @param rows    Количество строк данных (без заголовка), записанных до контрольной точки.
+ * @param bytes   Размер файла CSV в байтах на границе последней записанной строки.
+ * @param lastKey Ключ последней записанной записи или {@code null}, если ключ не задан.
+ * @author Астонский Шпион
+ */
+@CsvRecord
+public record Checkpoint(long rows, long bytes, String lastKey) {
+}
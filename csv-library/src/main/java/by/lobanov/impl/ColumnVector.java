@@ -0,0 +1,366 @@
+package by.lobanov.impl;
+
+import by.lobanov.annotation.*;
+import by.lobanov.masking.*;
+import by.lobanov.serializer.*;
+
+import java.io.*;
+import java.lang.invoke.*;
+import java.util.*;
+
+/**
+ * Хранилище значений одной колонки пакета {@link ColumnarCsvWriter}.
+ * <p>
+ * Наличие значения в строке отмечается битом; строки без значения записываются пустыми ячейками.
+ * Примитивные значения хранятся в массивах без упаковки и упаковываются только для маскирования
+ * или форматирования через {@link by.lobanov.annotation.CsvFormat}. Строки кодируются словарем пакета:
+ * повторяющиеся значения хранятся один раз.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+abstract class ColumnVector {
+
+    private final String name;
+    private final ProcessedField field;
+    private final int width;
+    private final long[] present;
+
+    ColumnVector(String name, ProcessedField field, int width, int capacity) {
+        this.name = name;
+        this.field = field;
+        this.width = width;
+        this.present = new long[(capacity + 63) >>> 6];
+    }
+
+    /**
+     * Создает хранилище по типу поля плана.
+     *
+     * @param name     Имя колонки для сообщений об ошибках.
+     * @param field    Поле плана.
+     * @param width    Количество колонок CSV, занимаемых полем.
+     * @param capacity Количество строк в пакете.
+     * @return Хранилище колонки.
+     */
+    static ColumnVector of(String name, ProcessedField field, int width, int capacity) {
+        Class<?> type = field.getField().getType();
+        if (field.getCollection() == null) {
+            if (type == int.class || type == short.class || type == byte.class) {
+                return new IntVector(name, field, capacity);
+            }
+            if (type == long.class) {
+                return new LongVector(name, field, capacity);
+            }
+            if (type == double.class || type == float.class) {
+                return new DoubleVector(name, field, capacity);
+            }
+            if (type == String.class) {
+                return new DictionaryVector(name, field, capacity);
+            }
+        }
+        return new ObjectVector(name, field, width, capacity);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Записывает значение строки или пустые ячейки, если значение не задано.
+     */
+    final void encode(int row, CsvRowSink sink) throws IOException {
+        if ((present[row >>> 6] & (1L << row)) == 0) {
+            sink.emptyValues(width);
+        } else {
+            encodeValue(row, sink);
+        }
+    }
+
+    abstract void encodeValue(int row, CsvRowSink sink) throws IOException;
+
+    void setInt(int row, int value) {
+        throw wrongType(int.class);
+    }
+
+    void setLong(int row, long value) {
+        throw wrongType(long.class);
+    }
+
+    void setDouble(int row, double value) {
+        throw wrongType(double.class);
+    }
+
+    void setText(int row, CharSequence value) {
+        throw wrongType(String.class);
+    }
+
+    /**
+     * Задает значение произвольного типа; числа и строки передаются типизированным методам.
+     */
+    void setObject(int row, Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            setInt(row, ((Number) value).intValue());
+        } else if (value instanceof Long longValue) {
+            setLong(row, longValue);
+        } else if (value instanceof Double || value instanceof Float) {
+            setDouble(row, ((Number) value).doubleValue());
+        } else if (value instanceof CharSequence charSequence) {
+            setText(row, charSequence);
+        } else {
+            throw wrongType(value.getClass());
+        }
+    }
+
+    /**
+     * Отмечает, что значение строки не задано.
+     */
+    final void unset(int row) {
+        present[row >>> 6] &= ~(1L << row);
+    }
+
+    final void markSet(int row) {
+        present[row >>> 6] |= 1L << row;
+    }
+
+    /**
+     * Очищает пакет перед заполнением следующего.
+     */
+    void clear() {
+        Arrays.fill(present, 0);
+    }
+
+    /**
+     * Записывает упакованное значение с учетом маскирования, формата и способа записи коллекции поля.
+     */
+    final void encodeBoxed(Object value, CsvRowSink sink) throws IOException {
+        MaskingOperation maskingOperation = field.getMaskingOperation();
+        CsvCollection collection = field.getCollection();
+        if (collection != null) {
+            if (collection.columns() > 0) {
+                sink.expandedValues((Collection<?>) value, collection.columns());
+            } else {
+                sink.joinedValues((Collection<?>) value, collection.separator());
+            }
+        } else if (maskingOperation != null) {
+            sink.maskedValue(value, maskingOperation);
+        } else if (field.getFormatter() != null) {
+            sink.value(value, field.getFormatter());
+        } else {
+            sink.value(value);
+        }
+    }
+
+    /**
+     * {@code true}, если значение можно записать без упаковки.
+     */
+    final boolean isPlain() {
+        return field.getMaskingOperation() == null && field.getFormatter() == null;
+    }
+
+    final Class<?> getType() {
+        return field.getField().getType();
+    }
+
+    final IllegalArgumentException wrongType(Class<?> valueType) {
+        return new IllegalArgumentException("Колонка '" + name + "' имеет тип " + getType().getName()
+                + ", передано значение типа " + valueType.getName());
+    }
+
+    static final class IntVector extends ColumnVector {
+
+        private final int[] values;
+
+        IntVector(String name, ProcessedField field, int capacity) {
+            super(name, field, 1, capacity);
+            this.values = new int[capacity];
+        }
+
+        @Override
+        void setInt(int row, int value) {
+            values[row] = value;
+            markSet(row);
+        }
+
+        @Override
+        void encodeValue(int row, CsvRowSink sink) throws IOException {
+            if (isPlain()) {
+                sink.value(values[row]);
+            } else {
+                encodeBoxed(values[row], sink);
+            }
+        }
+    }
+
+    static final class LongVector extends ColumnVector {
+
+        private final long[] values;
+
+        LongVector(String name, ProcessedField field, int capacity) {
+            super(name, field, 1, capacity);
+            this.values = new long[capacity];
+        }
+
+        @Override
+        void setInt(int row, int value) {
+            setLong(row, value);
+        }
+
+        @Override
+        void setLong(int row, long value) {
+            values[row] = value;
+            markSet(row);
+        }
+
+        @Override
+        void encodeValue(int row, CsvRowSink sink) throws IOException {
+            if (isPlain()) {
+                sink.value(values[row]);
+            } else {
+                encodeBoxed(values[row], sink);
+            }
+        }
+    }
+
+    /**
+     * Колонка {@code double} или {@code float}; значение {@code float} хранится расширенным и
+     * при записи сужается обратно, чтобы текст совпадал с записью объекта.
+     */
+    static final class DoubleVector extends ColumnVector {
+
+        private final double[] values;
+        private final boolean isFloat;
+
+        DoubleVector(String name, ProcessedField field, int capacity) {
+            super(name, field, 1, capacity);
+            this.values = new double[capacity];
+            this.isFloat = getType() == float.class;
+        }
+
+        @Override
+        void setInt(int row, int value) {
+            setDouble(row, value);
+        }
+
+        @Override
+        void setLong(int row, long value) {
+            setDouble(row, value);
+        }
+
+        @Override
+        void setDouble(int row, double value) {
+            values[row] = value;
+            markSet(row);
+        }
+
+        @Override
+        void encodeValue(int row, CsvRowSink sink) throws IOException {
+            if (isFloat) {
+                encodeBoxed((float) values[row], sink);
+            } else if (isPlain()) {
+                sink.value(values[row]);
+            } else {
+                encodeBoxed(values[row], sink);
+            }
+        }
+    }
+
+    /**
+     * Строковая колонка: строки хранят коды словаря пакета, словарь очищается вместе с пакетом.
+     */
+    static final class DictionaryVector extends ColumnVector {
+
+        private final int[] codes;
+        private final Map<String, Integer> codeByValue = new HashMap<>();
+        private final List<String> dictionary = new ArrayList<>();
+
+        DictionaryVector(String name, ProcessedField field, int capacity) {
+            super(name, field, 1, capacity);
+            this.codes = new int[capacity];
+        }
+
+        @Override
+        void setText(int row, CharSequence value) {
+            String text = value.toString();
+            Integer code = codeByValue.get(text);
+            if (code == null) {
+                code = dictionary.size();
+                codeByValue.put(text, code);
+                dictionary.add(text);
+            }
+            codes[row] = code;
+            markSet(row);
+        }
+
+        @Override
+        void encodeValue(int row, CsvRowSink sink) throws IOException {
+            String value = dictionary.get(codes[row]);
+            if (isPlain()) {
+                sink.value(value);
+            } else {
+                encodeBoxed(value, sink);
+            }
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            codeByValue.clear();
+            dictionary.clear();
+        }
+    }
+
+    /**
+     * Колонка ссылочного типа, в том числе коллекция, которая может занимать несколько колонок CSV.
+     */
+    static final class ObjectVector extends ColumnVector {
+
+        private final Object[] values;
+        private final Class<?> boxedType;
+
+        ObjectVector(String name, ProcessedField field, int width, int capacity) {
+            super(name, field, width, capacity);
+            this.values = new Object[capacity];
+            this.boxedType = MethodType.methodType(getType()).wrap().returnType();
+        }
+
+        @Override
+        void setText(int row, CharSequence value) {
+            setObject(row, value);
+        }
+
+        @Override
+        void setInt(int row, int value) {
+            setObject(row, value);
+        }
+
+        @Override
+        void setLong(int row, long value) {
+            setObject(row, value);
+        }
+
+        @Override
+        void setDouble(int row, double value) {
+            setObject(row, value);
+        }
+
+        @Override
+        void setObject(int row, Object value) {
+            if (!boxedType.isInstance(value)) {
+                throw wrongType(value.getClass());
+            }
+            values[row] = value;
+            markSet(row);
+        }
+
+        @Override
+        void encodeValue(int row, CsvRowSink sink) throws IOException {
+            encodeBoxed(values[row], sink);
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            Arrays.fill(values, null);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package by.lobanov.impl;
+
+import by.lobanov.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
+import by.lobanov.exception.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Реализация {@link ColumnarWritable}: значения копятся в колонках пакета
+ * ({@link CsvWriterSettings#getColumnarBatchSize()} строк) и кодируются в CSV, когда пакет заполнен.
+ * <p>
+ * Колонки соответствуют полям {@link WritePlan} класса записи; поля вложенных записей становятся
+ * отдельными колонками, коллекции — одной колонкой, занимающей все свои колонки CSV.
+ * Маскирование и форматы полей применяются так же, как при записи объектов.
+ * Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class ColumnarCsvWriter implements ColumnarWritable {
+
+    private final Writer writer;
+    private final WritePlan plan;
+    private final char delimiter;
+    private final String lineSeparator;
+    private final QuotingPolicy quotingPolicy;
+    private final CsvRowEncoder encoder;
+    private final int capacity;
+    private final ColumnVector[] columns;
+    private final Map<String, Integer> columnIndexByHeader;
+
+    private int rows;
+    private boolean rowStarted;
+    private boolean headerWritten;
+
+    /**
+     * Конструктор.
+     *
+     * @param writer   Куда будут записываться данные.
+     * @param settings Настройки записи.
+     * @param type     Класс, задающий схему колонок.
+     * @throws FormatRecordAnnotationMissingException Если класс не аннотирован {@link CsvRecord}.
+     */
+    public ColumnarCsvWriter(Writer writer, CsvWriterSettings settings, Class<?> type) {
+        Objects.requireNonNull(writer, "Writer не может быть null");
+        Objects.requireNonNull(settings, "Settings не может быть null");
+        Objects.requireNonNull(type, "Type не может быть null");
+        Objects.requireNonNull(settings.getLineSeparator(), "Line separator не может быть null");
+        if (settings.getLineSeparator().isEmpty()) {
+            throw new IllegalArgumentException("Line separator не может быть пустым");
+        }
+        if (settings.getColumnarBatchSize() < 1) {
+            throw new IllegalArgumentException("Columnar batch size должен быть больше 0");
+        }
+        if (type.getAnnotation(CsvRecord.class) == null) {
+            throw new FormatRecordAnnotationMissingException(type);
+        }
+        Objects.requireNonNull(settings.getFormatters(), "Formatters не может быть null");
+        this.writer = writer;
+        this.plan = WritePlan.of(type);
+        this.delimiter = settings.getDelimiter();
+        this.lineSeparator = settings.getLineSeparator();
+        this.quotingPolicy = Objects.requireNonNull(settings.getQuotingPolicy(), "Quoting policy не может быть null");
+        this.encoder = new CsvRowEncoder(delimiter, lineSeparator, settings.getMaskingKey(), settings.getFormatters(),
+                quotingPolicy);
+        this.capacity = settings.getColumnarBatchSize();
+
+        List<ColumnVector> vectors = new ArrayList<>();
+        Map<String, Integer> byHeader = new HashMap<>();
+        addColumns(plan.getFields(), plan.getHeaders(), vectors, byHeader);
+        this.columns = vectors.toArray(new ColumnVector[0]);
+        this.columnIndexByHeader = Map.copyOf(byHeader);
+    }
+
+    /**
+     * Создает колонки для полей плана; заголовки полей берутся из итоговых заголовков по позиции,
+     * чтобы поля вложенных записей получили заголовки с префиксом.
+     */
+    private void addColumns(List<ProcessedField> fields, List<String> headers,
+                            List<ColumnVector> vectors, Map<String, Integer> byHeader) {
+        int offset = 0;
+        for (ProcessedField pf : fields) {
+            int width = pf.getHeaders().size();
+            List<String> fieldHeaders = headers.subList(offset, offset + width);
+            offset += width;
+            if (pf.getEmbeddedPlan() != null) {
+                addColumns(pf.getEmbeddedPlan().getFields(), fieldHeaders, vectors, byHeader);
+                continue;
+            }
+            for (String header : fieldHeaders) {
+                byHeader.putIfAbsent(header, vectors.size());
+            }
+            vectors.add(ColumnVector.of(fieldHeaders.get(0), pf, width, capacity));
+        }
+    }
+
+    @Override
+    public List<String> getHeaders() {
+        return plan.getHeaders();
+    }
+
+    @Override
+    public int columnIndex(String header) {
+        Integer index = columnIndexByHeader.get(header);
+        if (index == null) {
+            throw new IllegalArgumentException("Колонка '" + header + "' отсутствует в " + plan.getType().getName());
+        }
+        return index;
+    }
+
+    @Override
+    public ColumnarWritable set(int column, int value) {
+        column(column).setInt(rows, value);
+        return this;
+    }
+
+    @Override
+    public ColumnarWritable set(int column, long value) {
+        column(column).setLong(rows, value);
+        return this;
+    }
+
+    @Override
+    public ColumnarWritable set(int column, double value) {
+        column(column).setDouble(rows, value);
+        return this;
+    }
+
+    @Override
+    public ColumnarWritable set(int column, CharSequence value) {
+        ColumnVector vector = column(column);
+        if (value == null) {
+            vector.unset(rows);
+        } else {
+            vector.setText(rows, value);
+        }
+        return this;
+    }
+
+    @Override
+    public ColumnarWritable set(int column, Object value) {
+        ColumnVector vector = column(column);
+        if (value == null) {
+            vector.unset(rows);
+        } else {
+            vector.setObject(rows, value);
+        }
+        return this;
+    }
+
+    private ColumnVector column(int column) {
+        if (column < 0 || column >= columns.length) {
+            throw new IndexOutOfBoundsException("Нет колонки с номером " + column);
+        }
+        rowStarted = true;
+        return columns[column];
+    }
+
+    @Override
+    public void endRow() throws IOException {
+        rows++;
+        rowStarted = false;
+        if (rows == capacity) {
+            encodeBatch();
+            encoder.writeTo(writer);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (rowStarted) {
+            throw new IllegalStateException("Текущая строка не завершена");
+        }
+        encodeBatch();
+        encoder.writeTo(writer);
+        writer.flush();
+    }
+
+    /**
+     * Кодирует завершенные строки пакета построчно, перебирая колонки, и очищает пакет.
+     */
+    private void encodeBatch() throws IOException {
+        if (!headerWritten && rows > 0) {
+            headerWritten = true;
+            if (plan.isIncludeHeader() && !plan.getHeaders().isEmpty()) {
+                encoder.appendRaw(plan.headerLine(delimiter, lineSeparator, quotingPolicy, encoder::renderRow));
+            }
+        }
+        try {
+            for (int row = 0; row < rows; row++) {
+                encoder.beginRow();
+                try {
+                    for (ColumnVector column : columns) {
+                        column.encode(row, encoder);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    encoder.abortRow();
+                    throw e;
+                }
+                encoder.endRow();
+                if (encoder.size() >= DefaultCsvWriter.FLUSH_THRESHOLD) {
+                    encoder.writeTo(writer);
+                }
+            }
+        } finally {
+            rows = 0;
+            for (ColumnVector column : columns) {
+                column.clear();
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Незавершенная строка отбрасывается.
+     * </p>
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            rowStarted = false;
+            encodeBatch();
+            encoder.writeTo(writer);
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package by.lobanov.impl;
+
+import by.lobanov.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
+import by.lobanov.exception.*;
+import by.lobanov.format.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.*;
+
+/**
+ * Реализация записи в формате CSV, которую можно разделять между многими потоками-производителями.
+ * <p>
+ * Каждый поток кодирует строки целиком в буфер своей полосы ({@link CsvWriterSettings#getConcurrentStripes()}
+ * полос, полоса выбирается по идентификатору потока). Заполненный буфер передается в неблокирующую
+ * очередь и заменяется свободным, а в {@link Writer} буферы пишет один поток за раз: тот, кто передал
+ * буфер и смог захватить блокировку записи, пока остальные продолжают кодировать. Поэтому строки
+ * никогда не перемешиваются по частям; строки разных потоков чередуются блоками, строки одного потока
+ * сохраняют свой порядок.
+ * </p>
+ * <p>
+ * Все записи должны быть одного типа. Структура CSV определяется по первой не {@code null} записи,
+ * заголовок пишется раньше любой строки данных. Блокировки — {@link ReentrantLock}, поэтому
+ * производителями могут быть и виртуальные потоки.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class ConcurrentCsvWriter implements Writable {
+
+    private final Writer writer;
+    private final char delimiter;
+    private final String lineSeparator;
+    private final QuotingPolicy quotingPolicy;
+    private final CsvWriterSettings settings;
+    private final RecordEncoder recordEncoder;
+    private final Stripe[] stripes;
+    /**
+     * Количество заполненных буферов в очереди, после которого производитель сам дожидается записи.
+     */
+    private final int maxPendingBuffers;
+
+    private final Queue<CsvRowEncoder> filled = new ConcurrentLinkedQueue<>();
+    private final Queue<CsvRowEncoder> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingBuffers = new AtomicInteger();
+    private final ReentrantLock drainLock = new ReentrantLock();
+    private final ReentrantLock planLock = new ReentrantLock();
+
+    private volatile WritePlan plan;
+    private volatile IOException failure;
+    private volatile boolean closed;
+    /**
+     * Количество {@code null} записей, полученных до того, как стала известна структура CSV; защищено {@link #planLock}.
+     */
+    private long pendingNullRows;
+
+    /**
+     * Конструктор.
+     *
+     * @param writer   Куда будут записываться данные.
+     * @param settings Настройки записи.
+     */
+    public ConcurrentCsvWriter(Writer writer, CsvWriterSettings settings) {
+        Objects.requireNonNull(writer, "Writer не может быть null");
+        Objects.requireNonNull(settings, "Settings не может быть null");
+        Objects.requireNonNull(settings.getLineSeparator(), "Line separator не может быть null");
+        if (settings.getLineSeparator().isEmpty()) {
+            throw new IllegalArgumentException("Line separator не может быть пустым");
+        }
+        if (settings.getConcurrentStripes() < 1) {
+            throw new IllegalArgumentException("Concurrent stripes должен быть больше 0");
+        }
+        Objects.requireNonNull(settings.getFormatters(), "Formatters не может быть null");
+        this.writer = writer;
+        this.settings = settings;
+        this.delimiter = settings.getDelimiter();
+        this.lineSeparator = settings.getLineSeparator();
+        this.quotingPolicy = Objects.requireNonNull(settings.getQuotingPolicy(), "Quoting policy не может быть null");
+        this.recordEncoder = new RecordEncoder(settings);
+        this.stripes = new Stripe[settings.getConcurrentStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(newEncoder());
+        }
+        this.maxPendingBuffers = stripes.length * 2;
+    }
+
+    private CsvRowEncoder newEncoder() {
+        return new CsvRowEncoder(delimiter, lineSeparator, settings.getMaskingKey(), settings.getFormatters(), quotingPolicy);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Строки списка кодируются подряд в буфер полосы вызывающего потока; строки других потоков
+     * могут оказаться между ними только на границе буфера.
+     * </p>
+     *
+     * @throws IllegalArgumentException Если объекты в списке разных типов или другого типа, чем предыдущие записи.
+     */
+    @Override
+    public void write(List<?> data) throws IOException {
+        if (data == null || data.isEmpty() || data.get(0) == null) return;
+        encodeAll(data);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * {@code null}, полученные до первой записи, откладываются и записываются сразу после заголовка.
+     * </p>
+     */
+    @Override
+    public void append(Object record) throws IOException {
+        encodeAll(Collections.singletonList(record));
+    }
+
+    private void encodeAll(List<?> records) throws IOException {
+        checkOpen();
+        WritePlan current = planFor(records.get(0));
+        if (current == null || current.getHeaders().isEmpty()) return;
+        Stripe stripe = stripes[stripeIndex()];
+        int next = 0;
+        while (next < records.size()) {
+            boolean handedOff = false;
+            stripe.lock.lock();
+            try {
+                while (next < records.size() && !handedOff) {
+                    recordEncoder.encode(records.get(next++), current, stripe.encoder);
+                    if (stripe.encoder.size() >= DefaultCsvWriter.FLUSH_THRESHOLD) {
+                        handOff(stripe);
+                        handedOff = true;
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+            if (handedOff) {
+                drain(pendingBuffers.get() > maxPendingBuffers);
+            }
+        }
+    }
+
+    private int stripeIndex() {
+        long mixed = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return Math.floorMod((int) (mixed >>> 32), stripes.length);
+    }
+
+    /**
+     * Возвращает план записи, определяя его по первой не {@code null} записи.
+     * Заголовок и отложенные пустые строки ставятся в очередь до того, как план станет виден другим потокам.
+     *
+     * @param record Запись.
+     * @return План или {@code null}, если структура CSV еще неизвестна.
+     * @throws FormatRecordAnnotationMissingException Если класс записи не аннотирован {@link CsvRecord}.
+     */
+    private WritePlan planFor(Object record) throws IOException {
+        WritePlan current = plan;
+        if (current != null) return current;
+        planLock.lock();
+        try {
+            if (plan != null) return plan;
+            if (record == null) {
+                pendingNullRows++;
+                return null;
+            }
+            Class<?> clazz = record.getClass();
+            if (clazz.getAnnotation(CsvRecord.class) == null) {
+                throw new FormatRecordAnnotationMissingException(clazz);
+            }
+            WritePlan created = WritePlan.of(clazz);
+            if (!created.getHeaders().isEmpty()) {
+                CsvRowEncoder head = newEncoder();
+                if (created.isIncludeHeader()) {
+                    head.appendRaw(created.headerLine(delimiter, lineSeparator, quotingPolicy, head::renderRow));
+                }
+                for (long i = 0; i < pendingNullRows; i++) {
+                    head.emptyRow(created.getHeaders().size());
+                }
+                filled.offer(head);
+                pendingBuffers.incrementAndGet();
+            }
+            pendingNullRows = 0;
+            plan = created;
+            return created;
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    /**
+     * Ставит буфер полосы в очередь записи и выдает полосе свободный буфер. Вызывается под блокировкой полосы.
+     */
+    private void handOff(Stripe stripe) {
+        filled.offer(stripe.encoder);
+        pendingBuffers.incrementAndGet();
+        CsvRowEncoder next = idle.poll();
+        stripe.encoder = next != null ? next : newEncoder();
+    }
+
+    /**
+     * Пишет буферы из очереди в {@link Writer}. Без ожидания буферы пишет только поток, сумевший захватить
+     * блокировку записи; после ее освобождения очередь проверяется снова, чтобы не оставить буфер,
+     * поставленный во время записи.
+     *
+     * @param await Ждать ли освобождения блокировки записи.
+     * @throws IOException Если запись в {@link Writer} завершилась ошибкой.
+     */
+    private void drain(boolean await) throws IOException {
+        do {
+            if (await) {
+                drainLock.lock();
+            } else if (!drainLock.tryLock()) {
+                return;
+            }
+            try {
+                checkFailure();
+                CsvRowEncoder buffer;
+                while ((buffer = filled.poll()) != null) {
+                    pendingBuffers.decrementAndGet();
+                    try {
+                        buffer.writeTo(writer);
+                    } catch (IOException e) {
+                        failure = e;
+                        throw e;
+                    }
+                    idle.offer(buffer);
+                }
+            } finally {
+                drainLock.unlock();
+            }
+        } while (!filled.isEmpty());
+    }
+
+    /**
+     * Ставит в очередь буферы всех полос и пишет очередь в {@link Writer}.
+     */
+    private void drainAll() throws IOException {
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (stripe.encoder.size() > 0) {
+                    handOff(stripe);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        drain(true);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Статистика складывается по буферам всех полос и свободным буферам.
+     * </p>
+     */
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        Map<Integer, CacheStatistics> statistics = new TreeMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.encoder.collectCacheStatistics(statistics);
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        for (CsvRowEncoder buffer : idle) {
+            buffer.collectCacheStatistics(statistics);
+        }
+        return List.copyOf(statistics.values());
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * В {@link Writer} попадают все строки, закодированные до вызова.
+     * </p>
+     */
+    @Override
+    public void flush() throws IOException {
+        checkOpen();
+        drainAll();
+        drainLock.lock();
+        try {
+            writer.flush();
+        } finally {
+            drainLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            drainAll();
+        } finally {
+            drainLock.lock();
+            try {
+                writer.close();
+            } finally {
+                drainLock.unlock();
+            }
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer закрыт");
+        }
+        checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        IOException error = failure;
+        if (error != null) {
+            throw new IOException("Ошибка записи", error);
+        }
+    }
+
+    /**
+     * Полоса: буфер, в который кодируют строки потоки, попавшие в эту полосу.
+     */
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private CsvRowEncoder encoder;
+
+        private Stripe(CsvRowEncoder encoder) {
+            this.encoder = encoder;
+        }
+    }
+}
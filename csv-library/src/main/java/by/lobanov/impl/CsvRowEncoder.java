@@ -0,0 +1,860 @@
+package by.lobanov.impl;
+
+import by.lobanov.config.*;
+import by.lobanov.format.*;
+import by.lobanov.masking.*;
+import by.lobanov.serializer.*;
+
+import java.io.*;
+import java.math.*;
+import java.time.format.*;
+import java.time.temporal.*;
+import java.util.*;
+
+/**
+ * Кодировщик строк CSV в переиспользуемый буфер символов.
+ * <p>
+ * Значения ячеек пишутся прямо в буфер: строка копируется один раз и однократно проверяется
+ * на символы, требующие кавычек; повторная запись с экранированием выполняется только для таких значений.
+ * Правило взятия в кавычки задает {@link QuotingPolicy}.
+ * Целые числа записываются цифрами по таблице пар цифр без создания строк, остальные значения —
+ * форматтерами {@link FormatterRegistry} прямо в буфер; маскирование выполняется на месте
+ * операцией {@link MaskingOperation}. Накопленные строки передаются в {@link Writer}
+ * крупными блоками через {@link #writeTo(Writer)}, всегда по границе строки.
+ * </p>
+ * <p>
+ * Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+final class CsvRowEncoder implements CsvRowSink, CsvValueBuffer {
+
+    private static final int INITIAL_CAPACITY = 8 * 1024;
+
+    /**
+     * Пары цифр от {@code 00} до {@code 99}: число записывается по две цифры за деление.
+     */
+    private static final char[] DIGIT_PAIRS = new char[200];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_PAIRS[i * 2] = (char) ('0' + i / 10);
+            DIGIT_PAIRS[i * 2 + 1] = (char) ('0' + i % 10);
+        }
+    }
+
+    private final char delimiter;
+    private final char[] lineSeparator;
+    private final boolean plainLineSeparator;
+    private final boolean plainNumbers;
+    private final QuotingPolicy quotingPolicy;
+    private final boolean quoteText;
+    private final boolean quoteNumbers;
+    /**
+     * Наибольший символ, требующий проверки, и битовая маска спецсимволов с кодами меньше 64:
+     * символы больше {@code maxSpecial} (в том числе все буквы при обычных разделителях)
+     * отсекаются одним сравнением, остальные — одной проверкой бита.
+     */
+    private final char maxSpecial;
+    private final long specialMask;
+    /**
+     * Первый символ непростого разделителя строк или {@code -1}.
+     */
+    private final int lineSeparatorStart;
+    private final MaskingKey maskingKey;
+    private final FormatterRegistry formatters;
+    private final ValueFormatter<Object> doubleFormatter;
+    private final ValueFormatter<Object> floatFormatter;
+    private StringBuilder temporalBuffer;
+
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    private int position;
+    private int rowStart;
+    private boolean firstCell = true;
+
+    /**
+     * Начала ячеек текущей строки и конец ее последней ячейки; ведутся только после {@link #trackCells()}.
+     */
+    private int[] cellStarts;
+    private int cellCount;
+    private int rowEnd;
+
+    /**
+     * Кеши колонок {@link CachedColumn} по их номеру; создаются при первом значении колонки.
+     */
+    private ValueCache[] caches = new ValueCache[0];
+
+    /**
+     * Счетчики пути записи; передаются писателю через {@link #drainCounters(WriteCounters)}.
+     * Время чтения полей и экранирования измеряется только при включенном {@link #setPhaseTiming(boolean)}.
+     */
+    private boolean phaseTiming;
+    private long rows;
+    private long cells;
+    private long quotedCells;
+    private long maskedCells;
+    private long fieldAccessNanos;
+    private long escapingNanos;
+
+    /**
+     * Конструктор.
+     *
+     * @param delimiter     Символ-разделитель полей.
+     * @param lineSeparator Символ(ы) для разделения строк.
+     */
+    CsvRowEncoder(char delimiter, String lineSeparator) {
+        this(delimiter, lineSeparator, null, FormatterRegistry.defaults());
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param delimiter     Символ-разделитель полей.
+     * @param lineSeparator Символ(ы) для разделения строк.
+     * @param maskingKey    Ключ для маскирования хешем, может быть {@code null}.
+     * @param formatters    Форматтеры значений.
+     */
+    CsvRowEncoder(char delimiter, String lineSeparator, MaskingKey maskingKey, FormatterRegistry formatters) {
+        this(delimiter, lineSeparator, maskingKey, formatters, QuotingPolicy.MINIMAL);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param delimiter     Символ-разделитель полей.
+     * @param lineSeparator Символ(ы) для разделения строк.
+     * @param maskingKey    Ключ для маскирования хешем, может быть {@code null}.
+     * @param formatters    Форматтеры значений.
+     * @param quotingPolicy Правило взятия значений в кавычки.
+     */
+    CsvRowEncoder(char delimiter, String lineSeparator, MaskingKey maskingKey, FormatterRegistry formatters,
+                  QuotingPolicy quotingPolicy) {
+        this.maskingKey = maskingKey;
+        this.formatters = formatters;
+        this.doubleFormatter = formatters.find(Double.class);
+        this.floatFormatter = formatters.find(Float.class);
+        this.delimiter = delimiter;
+        this.lineSeparator = lineSeparator.toCharArray();
+        this.plainLineSeparator = lineSeparator.chars().allMatch(c -> c == '\n' || c == '\r');
+        this.plainNumbers = isPlainForNumbers(delimiter) && lineSeparator.chars().allMatch(c -> isPlainForNumbers((char) c));
+        this.quotingPolicy = quotingPolicy;
+        this.quoteText = quotingPolicy == QuotingPolicy.ALWAYS || quotingPolicy == QuotingPolicy.NON_NUMERIC;
+        this.quoteNumbers = quotingPolicy == QuotingPolicy.ALWAYS;
+        this.lineSeparatorStart = plainLineSeparator ? -1 : this.lineSeparator[0];
+        this.maxSpecial = (char) Math.max(Math.max(delimiter, '"'), Math.max('\r', lineSeparatorStart));
+        long mask = (1L << '"') | (1L << '\n') | (1L << '\r');
+        if (delimiter < 64) {
+            mask |= 1L << delimiter;
+        }
+        this.specialMask = mask;
+    }
+
+    /**
+     * Числа не требуют проверки на кавычки, если разделители не могут встретиться в их записи.
+     */
+    private static boolean isPlainForNumbers(char c) {
+        return !Character.isLetterOrDigit(c) && c != '-' && c != '.';
+    }
+
+    /**
+     * Количество символов, накопленных в буфере.
+     */
+    int size() {
+        return position;
+    }
+
+    /**
+     * Передает накопленные строки в {@link Writer} и очищает буфер.
+     *
+     * @param writer Приемник данных.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    void writeTo(Writer writer) throws IOException {
+        if (position > 0) {
+            writer.write(buffer, 0, position);
+        }
+        position = 0;
+        rowStart = 0;
+    }
+
+    /**
+     * Включает измерение времени чтения полей и экранирования.
+     *
+     * @param phaseTiming {@code true}, если время по фазам нужно измерять.
+     */
+    void setPhaseTiming(boolean phaseTiming) {
+        this.phaseTiming = phaseTiming;
+    }
+
+    boolean isPhaseTiming() {
+        return phaseTiming;
+    }
+
+    /**
+     * Добавляет время чтения поля, измеренное {@link RecordEncoder}.
+     *
+     * @param nanos Время в наносекундах.
+     */
+    void addFieldAccessNanos(long nanos) {
+        fieldAccessNanos += nanos;
+    }
+
+    /**
+     * Добавляет накопленные счетчики к {@code counters} и обнуляет их.
+     *
+     * @param counters Счетчики пакета записи.
+     */
+    void drainCounters(WriteCounters counters) {
+        counters.rows += rows;
+        counters.cells += cells;
+        counters.quotedCells += quotedCells;
+        counters.maskedCells += maskedCells;
+        counters.fieldAccessNanos += fieldAccessNanos;
+        counters.escapingNanos += escapingNanos;
+        rows = 0;
+        cells = 0;
+        quotedCells = 0;
+        maskedCells = 0;
+        fieldAccessNanos = 0;
+        escapingNanos = 0;
+    }
+
+    /**
+     * Возвращает накопленные строки в виде {@link String}.
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, position);
+    }
+
+    /**
+     * Включает учет границ ячеек текущей строки, необходимый для {@link #appendCells(CsvRowEncoder, int[])}.
+     */
+    void trackCells() {
+        if (cellStarts == null) {
+            cellStarts = new int[16];
+        }
+    }
+
+    /**
+     * Очищает буфер без записи накопленных строк.
+     */
+    void clear() {
+        position = 0;
+        rowStart = 0;
+        firstCell = true;
+    }
+
+    /**
+     * Начинает новую строку.
+     */
+    void beginRow() {
+        rowStart = position;
+        firstCell = true;
+        cellCount = 0;
+    }
+
+    /**
+     * Завершает строку, добавляя разделитель строк.
+     */
+    void endRow() {
+        rows++;
+        rowEnd = position;
+        ensureCapacity(lineSeparator.length);
+        System.arraycopy(lineSeparator, 0, buffer, position, lineSeparator.length);
+        position += lineSeparator.length;
+        firstCell = true;
+    }
+
+    /**
+     * Отменяет незавершенную строку, чтобы в вывод не попала ее часть.
+     */
+    void abortRow() {
+        position = rowStart;
+        firstCell = true;
+    }
+
+    /**
+     * Записывает строку из пустых ячеек.
+     *
+     * @param cells Количество ячеек.
+     */
+    void emptyRow(int cells) {
+        beginRow();
+        this.cells += cells;
+        ensureCapacity(cells);
+        for (int i = 1; i < cells; i++) {
+            buffer[position++] = delimiter;
+        }
+        endRow();
+    }
+
+    /**
+     * Записывает заранее подготовленный текст без экранирования (например, строку заголовка).
+     *
+     * @param text Текст для записи.
+     */
+    void appendRaw(String text) {
+        int length = text.length();
+        ensureCapacity(length);
+        text.getChars(0, length, buffer, position);
+        position += length;
+    }
+
+    /**
+     * Дописывает в текущую строку ячейки последней строки другого кодировщика в заданном порядке.
+     * Ячейки уже экранированы и копируются без повторной проверки.
+     *
+     * @param source Кодировщик с включенным {@link #trackCells()}, в котором закончена строка.
+     * @param cells  Номер ячейки строки {@code source} для каждой записываемой колонки или {@code -1} для пустой колонки.
+     */
+    void appendCells(CsvRowEncoder source, int[] cells) {
+        for (int cell : cells) {
+            nextCell();
+            if (cell >= 0) {
+                int from = source.cellStarts[cell];
+                int to = cell + 1 < source.cellCount ? source.cellStarts[cell + 1] - 1 : source.rowEnd;
+                ensureCapacity(to - from);
+                System.arraycopy(source.buffer, from, buffer, position, to - from);
+                position += to - from;
+            }
+        }
+    }
+
+    /**
+     * Формирует строку CSV из значений без использования буфера этого кодировщика.
+     *
+     * @param cells Значения ячеек.
+     * @return Строка CSV вместе с разделителем строк.
+     */
+    String renderRow(List<String> cells) {
+        CsvRowEncoder encoder = new CsvRowEncoder(delimiter, new String(lineSeparator), null, FormatterRegistry.none(),
+                quotingPolicy);
+        encoder.beginRow();
+        for (String cell : cells) {
+            encoder.value(cell);
+        }
+        encoder.endRow();
+        return encoder.toString();
+    }
+
+    @Override
+    public void value(CharSequence value) {
+        nextCell();
+        if (value != null) {
+            appendEscaped(value);
+        }
+    }
+
+    @Override
+    public void value(int value) {
+        value((long) value);
+    }
+
+    @Override
+    public void value(long value) {
+        nextCell();
+        if (plainNumbers && !quoteNumbers) {
+            appendLong(value);
+        } else {
+            int start = position;
+            appendLong(value);
+            escapeNumber(start);
+        }
+    }
+
+    @Override
+    public void value(double value) {
+        if (doubleFormatter != null) {
+            value(value, doubleFormatter);
+            return;
+        }
+        nextCell();
+        int start = position;
+        appendChars(Double.toString(value));
+        escapeNumber(start);
+    }
+
+    @Override
+    public void value(float value) {
+        if (floatFormatter != null) {
+            value(value, floatFormatter);
+            return;
+        }
+        nextCell();
+        int start = position;
+        appendChars(Float.toString(value));
+        escapeNumber(start);
+    }
+
+    @Override
+    public void value(Object value) {
+        if (value instanceof CharSequence charSequence) {
+            value(charSequence);
+        } else if (value instanceof Integer integer) {
+            value(integer.intValue());
+        } else if (value instanceof Long longValue) {
+            value(longValue.longValue());
+        } else {
+            nextCell();
+            if (value != null) {
+                int start = position;
+                appendValue(value);
+                escape(start, value);
+            }
+        }
+    }
+
+    @Override
+    public void emptyValues(int count) {
+        for (int i = 0; i < count; i++) {
+            nextCell();
+        }
+    }
+
+    @Override
+    public void joinedValues(Collection<?> values, String separator) {
+        nextCell();
+        if (values == null) {
+            return;
+        }
+        int start = position;
+        boolean first = true;
+        for (Object element : values) {
+            if (!first) {
+                appendChars(separator);
+            }
+            first = false;
+            appendValue(element);
+        }
+        escape(start);
+    }
+
+    @Override
+    public void expandedValues(Collection<?> values, int columns) {
+        int written = 0;
+        if (values != null) {
+            if (values.size() > columns) {
+                throw new IllegalArgumentException("Коллекция содержит " + values.size()
+                        + " элементов, а колонок для нее " + columns);
+            }
+            for (Object element : values) {
+                value(element);
+                written++;
+            }
+        }
+        emptyValues(columns - written);
+    }
+
+    /**
+     * Повторяющееся значение копируется из кеша колонки уже экранированным; новое значение форматируется,
+     * экранируется и запоминается.
+     */
+    @Override
+    public void cachedValue(Object value, ValueFormatter<Object> formatter, CachedColumn column) {
+        nextCell();
+        if (value == null) {
+            return;
+        }
+        ValueCache cache = cacheFor(column);
+        char[] text = cache.get(value);
+        if (text != null) {
+            ensureCapacity(text.length);
+            System.arraycopy(text, 0, buffer, position, text.length);
+            position += text.length;
+            if (text.length > 0 && text[0] == '"') {
+                quotedCells++;
+            }
+            return;
+        }
+        int start = position;
+        if (formatter != null) {
+            formatter.format(value, this);
+        } else {
+            appendValue(value);
+        }
+        escape(start, value);
+        cache.put(value, Arrays.copyOfRange(buffer, start, position));
+    }
+
+    private ValueCache cacheFor(CachedColumn column) {
+        int id = column.getId();
+        if (id >= caches.length) {
+            caches = Arrays.copyOf(caches, Math.max(id + 1, caches.length * 2));
+        }
+        ValueCache cache = caches[id];
+        if (cache == null) {
+            cache = new ValueCache(column);
+            caches[id] = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Добавляет статистику кешей этого кодировщика, складывая ее со статистикой тех же колонок.
+     *
+     * @param statistics Статистика по номерам колонок.
+     */
+    void collectCacheStatistics(Map<Integer, CacheStatistics> statistics) {
+        for (int id = 0; id < caches.length; id++) {
+            if (caches[id] != null) {
+                statistics.merge(id, caches[id].statistics(), CacheStatistics::merge);
+            }
+        }
+    }
+
+    /**
+     * Пишет текст значения без экранирования: строки копируются, целые записываются цифрами,
+     * остальные типы — форматтером из реестра или через {@link Object#toString()}. {@code null} не пишется.
+     */
+    private void appendValue(Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof CharSequence charSequence) {
+            appendChars(charSequence);
+        } else if (value instanceof Integer || value instanceof Long) {
+            appendLong(((Number) value).longValue());
+        } else {
+            ValueFormatter<Object> formatter = formatters.find(value.getClass());
+            if (formatter != null) {
+                formatter.format(value, this);
+            } else {
+                appendChars(value.toString());
+            }
+        }
+    }
+
+    /**
+     * Возвращает текст значения без экранирования, каким он был бы записан в ячейку, не меняя содержимое буфера.
+     *
+     * @param value     Значение, не {@code null}.
+     * @param formatter Форматтер поля или {@code null} для форматтера из реестра.
+     * @return Текст значения.
+     */
+    String format(Object value, ValueFormatter<Object> formatter) {
+        int start = position;
+        if (formatter != null) {
+            formatter.format(value, this);
+        } else {
+            appendValue(value);
+        }
+        String text = new String(buffer, start, position - start);
+        position = start;
+        return text;
+    }
+
+    /**
+     * Записывает текст, полученный из {@link #format(Object, ValueFormatter)}, применяя {@link QuotingPolicy}
+     * так же, как к исходному значению.
+     *
+     * @param text    Текст значения.
+     * @param numeric {@code true}, если исходное значение — число.
+     */
+    void formattedValue(CharSequence text, boolean numeric) {
+        nextCell();
+        int start = position;
+        appendChars(text);
+        escape(start, numeric);
+    }
+
+    /**
+     * Форматтер пишет значение прямо в буфер; результат затем проверяется на символы, требующие кавычек.
+     */
+    @Override
+    public <T> void value(T value, ValueFormatter<? super T> formatter) {
+        nextCell();
+        if (value == null) {
+            return;
+        }
+        int start = position;
+        formatter.format(value, this);
+        escape(start, value);
+    }
+
+    @Override
+    public CsvRowEncoder append(char c) {
+        ensureCapacity(1);
+        buffer[position++] = c;
+        return this;
+    }
+
+    @Override
+    public CsvRowEncoder append(CharSequence value) {
+        appendChars(value == null ? "null" : value);
+        return this;
+    }
+
+    @Override
+    public CsvRowEncoder append(CharSequence value, int start, int end) {
+        return append((value == null ? "null" : value).subSequence(start, end));
+    }
+
+    @Override
+    public CsvRowEncoder appendLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            appendRaw(Long.toString(value));
+            return this;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[position++] = '-';
+            value = -value;
+        }
+        appendDigits(value, 1);
+        return this;
+    }
+
+    @Override
+    public CsvRowEncoder appendPadded(long value, int minDigits) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value не может быть отрицательным");
+        }
+        ensureCapacity(Math.max(19, minDigits));
+        appendDigits(value, minDigits);
+        return this;
+    }
+
+    @Override
+    public CsvRowEncoder appendDecimal(long unscaled, int scale) {
+        if (scale < 0) {
+            throw new IllegalArgumentException("Scale не может быть отрицательным");
+        }
+        if (scale == 0) {
+            return appendLong(unscaled);
+        }
+        if (unscaled == Long.MIN_VALUE) {
+            return append(BigDecimal.valueOf(unscaled, scale).toPlainString());
+        }
+        ensureCapacity(scale + 22);
+        if (unscaled < 0) {
+            buffer[position++] = '-';
+            unscaled = -unscaled;
+        }
+        int digitsStart = position;
+        appendDigits(unscaled, scale + 1);
+        int integerDigits = position - digitsStart - scale;
+        int point = digitsStart + integerDigits;
+        System.arraycopy(buffer, point, buffer, point + 1, scale);
+        buffer[point] = '.';
+        position++;
+        return this;
+    }
+
+    @Override
+    public CsvRowEncoder appendTemporal(DateTimeFormatter formatter, TemporalAccessor temporal) {
+        StringBuilder scratch = temporalBuffer;
+        if (scratch == null) {
+            scratch = temporalBuffer = new StringBuilder(32);
+        }
+        scratch.setLength(0);
+        formatter.formatTo(temporal, scratch);
+        int length = scratch.length();
+        ensureCapacity(length);
+        scratch.getChars(0, length, buffer, position);
+        position += length;
+        return this;
+    }
+
+    /**
+     * Копирует значение в буфер без экранирования, накладывает маску на месте
+     * и только затем проверяет результат на символы, требующие кавычек.
+     */
+    @Override
+    public void maskedValue(Object value, MaskingOperation operation) {
+        nextCell();
+        if (value == null) {
+            return;
+        }
+        int start = position;
+        if (value instanceof Integer || value instanceof Long) {
+            appendLong(((Number) value).longValue());
+        } else {
+            appendChars(value instanceof CharSequence charSequence ? charSequence : value.toString());
+        }
+        int length = position - start;
+        ensureCapacity(operation.maxLength(length) - length);
+        position = operation.apply(buffer, start, position, maskingKey);
+        maskedCells++;
+        escape(start);
+    }
+
+    private void nextCell() {
+        cells++;
+        if (firstCell) {
+            firstCell = false;
+        } else {
+            ensureCapacity(1);
+            buffer[position++] = delimiter;
+        }
+        if (cellStarts != null) {
+            if (cellCount == cellStarts.length) {
+                cellStarts = Arrays.copyOf(cellStarts, cellCount * 2);
+            }
+            cellStarts[cellCount++] = position;
+        }
+    }
+
+    /**
+     * Копирует значение в буфер и проверяет скопированные символы за один проход.
+     * Если значение требует кавычек, оно экранируется прямо в буфере.
+     */
+    private void appendEscaped(CharSequence value) {
+        int start = position;
+        appendChars(value);
+        escape(start);
+    }
+
+    private void appendChars(CharSequence value) {
+        int length = value.length();
+        ensureCapacity(length);
+        int start = position;
+        if (value instanceof String string) {
+            string.getChars(0, length, buffer, start);
+        } else {
+            for (int i = 0; i < length; i++) {
+                buffer[start + i] = value.charAt(i);
+            }
+        }
+        position = start + length;
+    }
+
+    /**
+     * Применяет {@link QuotingPolicy} к текстовому значению {@code buffer[start, position)}.
+     */
+    private void escape(int start) {
+        escape(start, false);
+    }
+
+    /**
+     * Применяет {@link QuotingPolicy} к записи числа {@code buffer[start, position)}.
+     */
+    private void escapeNumber(int start) {
+        escape(start, true);
+    }
+
+    private void escape(int start, Object value) {
+        escape(start, value instanceof Number);
+    }
+
+    private void escape(int start, boolean numeric) {
+        if (!phaseTiming) {
+            applyQuoting(start, numeric);
+            return;
+        }
+        long began = System.nanoTime();
+        applyQuoting(start, numeric);
+        escapingNanos += System.nanoTime() - began;
+    }
+
+    private void applyQuoting(int start, boolean numeric) {
+        if (numeric ? quoteNumbers : quoteText) {
+            quote(start);
+            return;
+        }
+        if (needsQuoting(start, position)) {
+            if (quotingPolicy == QuotingPolicy.NEVER) {
+                throw new IllegalArgumentException("Значение требует кавычек, что запрещено политикой "
+                        + QuotingPolicy.NEVER + ": " + new String(buffer, start, position - start));
+            }
+            quote(start);
+        }
+    }
+
+    private boolean needsQuoting(int from, int to) {
+        char[] chars = buffer;
+        char max = maxSpecial;
+        long mask = specialMask;
+        for (int i = from; i < to; i++) {
+            char c = chars[i];
+            if (c > max) {
+                continue;
+            }
+            if (c < 64 ? (mask & (1L << c)) != 0 : c == delimiter) {
+                return true;
+            }
+            if (c == lineSeparatorStart && matchesLineSeparator(i, to)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesLineSeparator(int from, int to) {
+        if (to - from < lineSeparator.length) {
+            return false;
+        }
+        for (int i = 1; i < lineSeparator.length; i++) {
+            if (buffer[from + i] != lineSeparator[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Заключает значение {@code buffer[from, position)} в кавычки, удваивая кавычки внутри.
+     * Символы сдвигаются с конца, поэтому дополнительный буфер не нужен.
+     */
+    private void quote(int from) {
+        quotedCells++;
+        int end = position;
+        int quotes = 0;
+        for (int i = from; i < end; i++) {
+            if (buffer[i] == '"') quotes++;
+        }
+        ensureCapacity(quotes + 2);
+        char[] chars = buffer;
+        int write = end + quotes + 2;
+        position = write;
+        chars[--write] = '"';
+        for (int i = end - 1; i >= from; i--) {
+            char c = chars[i];
+            chars[--write] = c;
+            if (c == '"') {
+                chars[--write] = '"';
+            }
+        }
+        chars[from] = '"';
+    }
+
+    /**
+     * Записывает неотрицательное число по две цифры за шаг, дополняя нулями до {@code minDigits}.
+     * Вызывающий обязан заранее обеспечить место в буфере.
+     */
+    private void appendDigits(long value, int minDigits) {
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, minDigits);
+        char[] chars = buffer;
+        int pos = position + digits;
+        int start = position;
+        position = pos;
+        while (value >= 100) {
+            int pair = (int) (value % 100) * 2;
+            value /= 100;
+            chars[--pos] = DIGIT_PAIRS[pair + 1];
+            chars[--pos] = DIGIT_PAIRS[pair];
+        }
+        if (value >= 10) {
+            int pair = (int) value * 2;
+            chars[--pos] = DIGIT_PAIRS[pair + 1];
+            chars[--pos] = DIGIT_PAIRS[pair];
+        } else {
+            chars[--pos] = (char) ('0' + value);
+        }
+        while (pos > start) {
+            chars[--pos] = '0';
+        }
+    }
+
+    private void ensureCapacity(int additional) {
+        int required = position + additional;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+}
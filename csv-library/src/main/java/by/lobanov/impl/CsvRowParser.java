@@ -0,0 +1,280 @@
+package by.lobanov.impl;
+
+import by.lobanov.exception.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Разбор CSV из {@link Reader} с просмотром большого буфера символов.
+ * <p>
+ * Формат совпадает с тем, что пишет {@link CsvRowEncoder}: значения, содержащие разделитель, кавычку,
+ * перевод строки или разделитель строк, заключены в кавычки, а кавычки внутри удвоены.
+ * Значения без кавычек, целиком лежащие в буфере, превращаются в строку одним копированием;
+ * промежуточный {@link StringBuilder} используется только для значений с кавычками и на границе буфера.
+ * </p>
+ * <p>
+ * Если разделитель строк состоит только из {@code '\r'} и {@code '\n'}, концом строки считается
+ * любой из {@code "\n"}, {@code "\r\n"} и {@code "\r"}; иначе разделитель должен совпасть полностью.
+ * </p>
+ * <p>
+ * Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+final class CsvRowParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final char[] lineSeparator;
+    private final boolean plainLineSeparator;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean eof;
+    private long rowNumber;
+
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> row = new ArrayList<>();
+
+    /**
+     * Конструктор.
+     *
+     * @param reader        Источник данных.
+     * @param delimiter     Символ-разделитель полей.
+     * @param lineSeparator Символ(ы) для разделения строк.
+     */
+    CsvRowParser(Reader reader, char delimiter, String lineSeparator) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.lineSeparator = lineSeparator.toCharArray();
+        this.plainLineSeparator = lineSeparator.chars().allMatch(c -> c == '\n' || c == '\r');
+    }
+
+    /**
+     * Номер последней прочитанной строки CSV, начиная с 1.
+     */
+    long getRowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * Читает следующую строку CSV.
+     *
+     * @return Значения ячеек (список переиспользуется следующим вызовом) или {@code null}, если данные закончились.
+     * @throws IOException        Если возникает ошибка ввода-вывода.
+     * @throws CsvParseException Если в данных есть незакрытая кавычка или лишние символы после нее.
+     */
+    List<String> nextRow() throws IOException {
+        row.clear();
+        if (!ensureData()) {
+            return null;
+        }
+        rowNumber++;
+        while (!readField()) {
+            // поля читаются до конца строки
+        }
+        return row;
+    }
+
+    /**
+     * Читает одно поле.
+     *
+     * @return {@code true}, если поле завершило строку.
+     */
+    private boolean readField() throws IOException {
+        if (!ensureData()) {
+            row.add("");
+            return true;
+        }
+        if (buffer[position] == '"') {
+            position++;
+            return readQuoted();
+        }
+        return readUnquoted();
+    }
+
+    private boolean readUnquoted() throws IOException {
+        int start = position;
+        int i = position;
+        while (true) {
+            if (i == limit) {
+                field.append(buffer, start, i - start);
+                position = limit;
+                if (!fill()) {
+                    addField();
+                    return true;
+                }
+                start = i = position;
+                continue;
+            }
+            char c = buffer[i];
+            if (c == delimiter) {
+                addField(start, i);
+                position = i + 1;
+                return false;
+            }
+            if (c == '\n' || c == '\r' || c == lineSeparator[0]) {
+                if (plainLineSeparator) {
+                    addField(start, i);
+                    position = i;
+                    consumeRowEnd();
+                    return true;
+                }
+                field.append(buffer, start, i - start);
+                position = i;
+                if (consumeRowEnd()) {
+                    addField();
+                    return true;
+                }
+                start = position;
+                i = position + 1;
+                continue;
+            }
+            i++;
+        }
+    }
+
+    private boolean readQuoted() throws IOException {
+        int start = position;
+        int i = position;
+        while (true) {
+            if (i == limit) {
+                field.append(buffer, start, i - start);
+                position = limit;
+                if (!fill()) {
+                    throw new CsvParseException(rowNumber, "незакрытая кавычка");
+                }
+                start = i = position;
+                continue;
+            }
+            if (buffer[i] != '"') {
+                i++;
+                continue;
+            }
+            field.append(buffer, start, i - start);
+            position = i + 1;
+            if (!ensureData()) {
+                addField();
+                return true;
+            }
+            if (buffer[position] == '"') {
+                field.append('"');
+                start = ++position;
+                i = position;
+                continue;
+            }
+            addField();
+            if (buffer[position] == delimiter) {
+                position++;
+                return false;
+            }
+            if (consumeRowEnd()) {
+                return true;
+            }
+            throw new CsvParseException(rowNumber, "после закрывающей кавычки ожидается разделитель");
+        }
+    }
+
+    /**
+     * Проверяет, начинается ли с текущей позиции конец строки, и пропускает его.
+     * Для составного разделителя при необходимости дочитывает данные.
+     */
+    private boolean consumeRowEnd() throws IOException {
+        char c = buffer[position];
+        if (plainLineSeparator) {
+            if (c == '\n') {
+                position++;
+                return true;
+            }
+            if (c == '\r') {
+                position++;
+                if (ensureData() && buffer[position] == '\n') {
+                    position++;
+                }
+                return true;
+            }
+            return false;
+        }
+        if (c != lineSeparator[0]) {
+            return false;
+        }
+        if (limit - position < lineSeparator.length) {
+            compact(lineSeparator.length);
+            if (limit - position < lineSeparator.length) {
+                return false;
+            }
+        }
+        for (int k = 1; k < lineSeparator.length; k++) {
+            if (buffer[position + k] != lineSeparator[k]) {
+                return false;
+            }
+        }
+        position += lineSeparator.length;
+        return true;
+    }
+
+    private void addField(int start, int end) {
+        if (field.length() == 0) {
+            row.add(new String(buffer, start, end - start));
+        } else {
+            field.append(buffer, start, end - start);
+            addField();
+        }
+    }
+
+    private void addField() {
+        row.add(field.toString());
+        field.setLength(0);
+    }
+
+    /**
+     * Гарантирует наличие хотя бы одного непрочитанного символа.
+     *
+     * @return {@code false}, если данные закончились.
+     */
+    private boolean ensureData() throws IOException {
+        return position < limit || fill();
+    }
+
+    /**
+     * Читает следующую порцию данных в пустой буфер.
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read < 0) {
+            eof = true;
+            position = limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    /**
+     * Переносит непрочитанные символы в начало буфера и дочитывает данные,
+     * пока их не станет не меньше {@code required} или не закончится источник.
+     */
+    private void compact(int required) throws IOException {
+        int remaining = limit - position;
+        System.arraycopy(buffer, position, buffer, 0, remaining);
+        position = 0;
+        limit = remaining;
+        while (!eof && limit < required) {
+            int read = reader.read(buffer, limit, buffer.length - limit);
+            if (read < 0) {
+                eof = true;
+            } else {
+                limit += read;
+            }
+        }
+    }
+}
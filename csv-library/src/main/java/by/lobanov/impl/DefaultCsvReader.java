@@ -0,0 +1,84 @@
+package by.lobanov.impl;
+
+import by.lobanov.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.exception.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Реализация чтения в формате CSV, обратная к {@link DefaultCsvWriter}.
+ * <p>
+ * Если класс записывается с заголовком ({@link CsvRecord#includeHeader()}), первая строка считается
+ * заголовком, и колонки сопоставляются с полями по имени, поэтому их порядок может отличаться.
+ * Иначе колонки читаются в порядке полей класса.
+ * </p>
+ * <p>
+ * Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @param <T> Тип записей.
+ * @author Астонский Шпион
+ */
+public class DefaultCsvReader<T> implements CsvReadable<T> {
+
+    private final Reader reader;
+    private final Class<T> type;
+    private final boolean includeHeader;
+    private final RecordBinder binder;
+    private final CsvRowParser parser;
+
+    /**
+     * Индекс поля плана для каждой колонки, определяется при чтении первой строки.
+     */
+    private int[] columns;
+
+    /**
+     * Конструктор.
+     *
+     * @param reader        Откуда читаются данные.
+     * @param type          Класс записей, аннотированный {@link CsvRecord}.
+     * @param delimiter     Символ-разделитель полей.
+     * @param lineSeparator Символ(ы) для разделения строк.
+     * @throws FormatRecordAnnotationMissingException Если класс не аннотирован {@link CsvRecord}.
+     * @throws IllegalArgumentException               Если класс нельзя создать или тип одного из полей не поддерживается.
+     */
+    public DefaultCsvReader(Reader reader, Class<T> type, char delimiter, String lineSeparator) {
+        Objects.requireNonNull(reader, "Reader не может быть null");
+        Objects.requireNonNull(type, "Type не может быть null");
+        Objects.requireNonNull(lineSeparator, "Line separator не может быть null");
+        if (lineSeparator.isEmpty()) {
+            throw new IllegalArgumentException("Line separator не может быть пустым");
+        }
+        if (type.getAnnotation(CsvRecord.class) == null) {
+            throw new FormatRecordAnnotationMissingException(type);
+        }
+        this.reader = reader;
+        this.type = type;
+        this.includeHeader = WritePlan.of(type).isIncludeHeader();
+        this.binder = RecordBinder.of(type);
+        this.parser = new CsvRowParser(reader, delimiter, lineSeparator);
+    }
+
+    @Override
+    public T read() throws IOException {
+        if (columns == null) {
+            if (includeHeader) {
+                List<String> header = parser.nextRow();
+                if (header == null) return null;
+                columns = binder.columnsFor(header);
+            } else {
+                columns = binder.positionalColumns();
+            }
+        }
+        List<String> row = parser.nextRow();
+        if (row == null) return null;
+        return type.cast(binder.bind(row, columns, parser.getRowNumber()));
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
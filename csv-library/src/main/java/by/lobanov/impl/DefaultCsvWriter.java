@@ -2,15 +2,17 @@ package by.lobanov.impl;
 
 import by.lobanov.*;
 import by.lobanov.annotation.*;
-import by.lobanov.annotation.constans.*;
 import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
 import by.lobanov.exception.*;
-import lombok.*;
+import by.lobanov.format.*;
+import by.lobanov.masking.*;
+import by.lobanov.metrics.*;
+import by.lobanov.serializer.*;
 
 import java.io.*;
-import java.lang.reflect.*;
 import java.util.*;
-import java.util.stream.*;
+import java.util.concurrent.*;
 
 /**
  * Реализация записи в формате CSV
@@ -19,10 +21,49 @@ import java.util.stream.*;
  */
 public class DefaultCsvWriter implements Writable {
 
+    /**
+     * Размер буфера (в символах), при достижении которого накопленные строки передаются в {@link Writer}.
+     */
+    static final int FLUSH_THRESHOLD = 32 * 1024;
+
     private final Writer writer;
     private final char delimiter;
     private final String lineSeparator;
 
+    private final RecordEncoder recordEncoder;
+    private final int parallelism;
+    private final int parallelChunkSize;
+    private final Executor parallelExecutor;
+    private final MaskingKey maskingKey;
+    private final FormatterRegistry formatters;
+    private final QuotingPolicy quotingPolicy;
+    private final CsvRowEncoder encoder;
+    /**
+     * Кодировщики блоков параллельной записи; переиспользуются между вызовами вместе с буферами и кешами значений.
+     */
+    private final Deque<CsvRowEncoder> idleEncoders = new ArrayDeque<>();
+
+    private final CsvWriterMetrics metrics;
+    /**
+     * Счетчики текущего пакета записи и его начало; пакет открыт, пока {@link #batchEvent} не {@code null}.
+     */
+    private final WriteCounters counters = new WriteCounters();
+    private long batchStart;
+    private CsvWriteEvent batchEvent;
+
+    /**
+     * План потоковой записи ({@link #append(Object)}), определяется по первой не {@code null} записи.
+     */
+    private WritePlan streamPlan;
+    /**
+     * Количество {@code null} записей, полученных до того, как стала известна структура CSV.
+     */
+    private long pendingNullRows;
+    /**
+     * Не писать заголовок: файл продолжает ранее начатый CSV.
+     */
+    private boolean headerSuppressed;
+
     /**
      * Конструктор.
      *
@@ -31,21 +72,58 @@ public class DefaultCsvWriter implements Writable {
      * @param lineSeparator Символ(ы) для разделения строк.
      */
     public DefaultCsvWriter(Writer writer, char delimiter, String lineSeparator) {
+        this(writer, CsvWriterSettings.builder()
+                .delimiter(delimiter)
+                .lineSeparator(lineSeparator)
+                .build());
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param writer   Куда будут записываться данные.
+     * @param settings Настройки записи.
+     */
+    public DefaultCsvWriter(Writer writer, CsvWriterSettings settings) {
         Objects.requireNonNull(writer, "Writer не может быть null");
-        Objects.requireNonNull(lineSeparator, "Line separator не может быть null");
-        if (lineSeparator.isEmpty()) {
+        Objects.requireNonNull(settings, "Settings не может быть null");
+        Objects.requireNonNull(settings.getLineSeparator(), "Line separator не может быть null");
+        if (settings.getLineSeparator().isEmpty()) {
             throw new IllegalArgumentException("Line separator не может быть пустым");
         }
         this.writer = writer;
-        this.delimiter = delimiter;
-        this.lineSeparator = lineSeparator;
+        this.delimiter = settings.getDelimiter();
+        this.lineSeparator = settings.getLineSeparator();
+        this.recordEncoder = new RecordEncoder(settings);
+        if (settings.getParallelism() < 1) {
+            throw new IllegalArgumentException("Parallelism должен быть больше 0");
+        }
+        if (settings.getParallelChunkSize() < 1) {
+            throw new IllegalArgumentException("Parallel chunk size должен быть больше 0");
+        }
+        this.parallelism = settings.getParallelism();
+        this.parallelChunkSize = settings.getParallelChunkSize();
+        this.parallelExecutor = settings.getParallelExecutor() != null ?
+                settings.getParallelExecutor() : ForkJoinPool.commonPool();
+        this.maskingKey = settings.getMaskingKey();
+        this.formatters = Objects.requireNonNull(settings.getFormatters(), "Formatters не может быть null");
+        this.metrics = Objects.requireNonNull(settings.getMetrics(), "Metrics не может быть null");
+        this.quotingPolicy = Objects.requireNonNull(settings.getQuotingPolicy(), "Quoting policy не может быть null");
+        this.encoder = newEncoder();
+    }
+
+    private CsvRowEncoder newEncoder() {
+        CsvRowEncoder rowEncoder = new CsvRowEncoder(delimiter, lineSeparator, maskingKey, formatters, quotingPolicy);
+        rowEncoder.setPhaseTiming(metrics.isPhaseTimingEnabled());
+        return rowEncoder;
     }
 
     /**
      * Записывает список объектов (POJO) в CSV формат, используя предоставленный {@link Writer}.
      * <p>
      * Метод определяет структуру CSV на основе первого не {@code null} объекта в списке.
-     * Все объекты в списке должны быть одного типа и аннотированы {@link CsvRecord}.
+     * Все объекты в списке должны быть одного типа и аннотированы {@link CsvRecord}; записи разных типов
+     * пишет {@link UnionCsvWriter} или {@link TypeRoutingCsvWriter}.
      * Поля для записи определяются на основе рефлексии и аннотаций {@link DataField},
      * {@link TransientField} и {@link MaskedField}.
      * </p>
@@ -60,18 +138,13 @@ public class DefaultCsvWriter implements Writable {
     public void write(List<?> data) throws IOException {
         if (isInvalidData(data)) return;
 
-        Object firstObject = data.get(0);
-        Class<?> clazz = firstObject.getClass();
-        CsvRecord csvRecordAnnotation = clazz.getAnnotation(CsvRecord.class);
-        boolean includeHeader = (csvRecordAnnotation == null) || csvRecordAnnotation.includeHeader();
-        NamingStrategy classNamingStrategy = (csvRecordAnnotation != null) ?
-                csvRecordAnnotation.defaultNamingStrategy() : NamingStrategy.AS_IS_TO_SPACE_SEPARATED_CAPITALIZED;
+        WritePlan plan = WritePlan.of(data.get(0).getClass());
+        if (plan.getHeaders().isEmpty()) return;
 
-        List<ProcessedField> processedFields = processFields(clazz, classNamingStrategy);
-        if (processedFields.isEmpty()) return;
-
-        processHeaders(includeHeader, processedFields);
-        processDataFields(data, processedFields, clazz);
+        beginBatch();
+        processHeaders(plan);
+        processDataFields(data, plan);
+        drain();
     }
 
     /**
@@ -94,228 +167,293 @@ public class DefaultCsvWriter implements Writable {
 
     /**
      * Обрабатывает и записывает данные из списка объектов.
+     * Если для класса есть сгенерированный {@link RecordSerializer}, значения берутся из него,
+     * иначе поля читаются через accessor'ы плана.
      *
-     * @param data            Список объектов для записи.
-     * @param processedFields Список обработанных полей, определяющих структуру CSV.
-     * @param clazz           Класс объектов в списке.
+     * @param data Список объектов для записи.
+     * @param plan План записи, определяющий структуру CSV.
      * @throws IOException              Если возникает ошибка ввода-вывода.
-     * @throws IllegalArgumentException Если объект в списке не является экземпляром {@code clazz}.
+     * @throws IllegalArgumentException Если объект в списке не является экземпляром класса плана.
      */
-    private void processDataFields(List<?> data, List<ProcessedField> processedFields, Class<?> clazz) throws IOException {
+    private void processDataFields(List<?> data, WritePlan plan) throws IOException {
+        if (parallelism > 1 && data.size() > parallelChunkSize) {
+            processDataFieldsInParallel(data, plan);
+            return;
+        }
         for (Object obj : data) {
-            if (obj == null) {
-                writeRowInternal(Collections.nCopies(processedFields.size(), null));
-                continue;
+            writeRecord(obj, plan);
+        }
+    }
+
+    /**
+     * Кодирует список блоками по {@code parallelChunkSize} строк параллельно, каждый блок в свой буфер,
+     * и пишет буферы в {@link Writer} в исходном порядке.
+     * Одновременно в работе находится не более {@code parallelism} блоков, буферы переиспользуются.
+     *
+     * @param data Список объектов для записи.
+     * @param plan План записи.
+     * @throws IOException              Если возникает ошибка ввода-вывода.
+     * @throws IllegalArgumentException Если объект в списке не является экземпляром класса плана.
+     */
+    private void processDataFieldsInParallel(List<?> data, WritePlan plan) throws IOException {
+        writeBuffer(encoder);
+        Deque<CompletableFuture<CsvRowEncoder>> inFlight = new ArrayDeque<>();
+        try {
+            for (int from = 0; from < data.size(); from += parallelChunkSize) {
+                if (inFlight.size() >= parallelism) {
+                    writeEncodedChunk(inFlight.removeFirst());
+                }
+                List<?> chunk = data.subList(from, Math.min(from + parallelChunkSize, data.size()));
+                CsvRowEncoder chunkEncoder = idleEncoders.isEmpty() ? newEncoder() : idleEncoders.pop();
+                inFlight.addLast(CompletableFuture.supplyAsync(() -> encodeChunk(chunk, plan, chunkEncoder), parallelExecutor));
             }
-            if (!clazz.isInstance(obj)) {
-                throw new IllegalArgumentException("Все объекты в списке должны быть одного типа: " + clazz.getName() +
-                        ", встречен: " + obj.getClass().getName());
+            while (!inFlight.isEmpty()) {
+                writeEncodedChunk(inFlight.removeFirst());
             }
-            List<String> rowValues = new ArrayList<>();
-            for (ProcessedField pf : processedFields) {
-                try {
-                    Object value = pf.getField().get(obj);
-                    String stringValue = convertFieldValueToString(value, pf);
-                    rowValues.add(stringValue);
-                } catch (IllegalAccessException e) {
-                    throw new IOException("Ошибка доступа к полю: " + pf.getField().getName(), e);
-                }
+        } finally {
+            inFlight.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private CsvRowEncoder encodeChunk(List<?> chunk, WritePlan plan, CsvRowEncoder chunkEncoder) {
+        try {
+            for (Object obj : chunk) {
+                recordEncoder.encode(obj, plan, chunkEncoder);
             }
-            writeRowInternal(rowValues);
+            return chunkEncoder;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeEncodedChunk(CompletableFuture<CsvRowEncoder> future) throws IOException {
+        CsvRowEncoder chunkEncoder;
+        try {
+            chunkEncoder = future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException uncheckedIOException) throw uncheckedIOException.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw e;
         }
+        chunkEncoder.drainCounters(counters);
+        writeBuffer(chunkEncoder);
+        idleEncoders.push(chunkEncoder);
     }
 
     /**
-     * Записывает строку заголовков, если это необходимо.
+     * Кодирует одну строку данных по плану в буфер кодировщика.
+     * Когда в буфере накапливается {@link #FLUSH_THRESHOLD} символов, он передается в {@link Writer}.
      *
-     * @param includeHeader   {@code true}, если заголовок должен быть записан.
-     * @param processedFields Список обработанных полей, из которых формируются заголовки.
-     * @throws IOException Если возникает ошибка ввода-вывода.
+     * @param obj  Объект для записи; {@code null} записывается как строка из пустых ячеек.
+     * @param plan План записи.
+     * @throws IOException              Если возникает ошибка ввода-вывода.
+     * @throws IllegalArgumentException Если объект не является экземпляром класса плана.
      */
-    private void processHeaders(boolean includeHeader, List<ProcessedField> processedFields) throws IOException {
-        if (includeHeader) {
-            List<String> headers = processedFields.stream()
-                    .map(ProcessedField::getHeaderName)
-                    .collect(Collectors.toList());
-            writeRowInternal(headers);
+    private void writeRecord(Object obj, WritePlan plan) throws IOException {
+        recordEncoder.encode(obj, plan, encoder);
+        if (encoder.size() >= FLUSH_THRESHOLD) {
+            writeBuffer(encoder);
         }
     }
 
     /**
-     * Записывает одну строку данных (список строковых значений) в CSV.
-     * Экранирует и заключает в кавычки значения при необходимости.
-     *
-     * @param row Список строковых значений для записи в качестве одной строки CSV.
-     *            Если {@code row} равен {@code null}, записывается только разделитель строк.
-     * @throws IOException Если возникает ошибка ввода-вывода.
+     * {@inheritDoc}
+     * <p>
+     * {@code null}, полученные до первой записи, откладываются (хранится только их количество)
+     * и записываются сразу после заголовка.
+     * </p>
      */
-    private void writeRowInternal(List<String> row) throws IOException {
-        if (row == null) {
-            writer.append(lineSeparator);
-            return;
-        }
-        for (int i = 0; i < row.size(); i++) {
-            writer.append(escapeAndQuote(row.get(i)));
-            if (i < row.size() - 1) {
-                writer.append(delimiter);
+    @Override
+    public void append(Object record) throws IOException {
+        beginBatch();
+        if (streamPlan == null) {
+            if (record == null) {
+                pendingNullRows++;
+                return;
             }
+            streamPlan = startStream(record.getClass());
         }
-        writer.append(lineSeparator);
+        if (streamPlan.getHeaders().isEmpty()) return;
+        writeRecord(record, streamPlan);
     }
 
     /**
-     * Анализирует поля класса для определения, какие из них должны быть включены в CSV,
-     * и какие имена заголовков им соответствуют.
+     * Задает класс записей потоковой записи до первой записи, чтобы {@code null} сразу писались
+     * строками из пустых ячеек, а не откладывались. Заголовок пишется сразу.
      *
-     * @param clazz               Класс для анализа.
-     * @param classNamingStrategy Стратегия именования, применяемая на уровне класса (по умолчанию).
-     * @return Список объектов {@link ProcessedField}, представляющих поля для CSV.
+     * @param clazz Класс записей.
+     * @throws IOException                            Если возникает ошибка ввода-вывода.
+     * @throws FormatRecordAnnotationMissingException Если класс не аннотирован {@link CsvRecord}.
      */
-    private List<ProcessedField> processFields(Class<?> clazz, NamingStrategy classNamingStrategy) {
-        List<ProcessedField> tempFields = new ArrayList<>();
-        Field[] declaredFields = clazz.getDeclaredFields();
-
-        for (Field field : declaredFields) {
-            if (field.isAnnotationPresent(TransientField.class) ||
-                    java.lang.reflect.Modifier.isStatic(field.getModifiers())) {
-                continue;
-            }
-
-            field.setAccessible(true);
-
-            String headerName = getHeader(field, classNamingStrategy);
-
-            tempFields.add(new ProcessedField(field, headerName,
-                    field.getAnnotation(CsvRecord.class),
-                    field.getAnnotation(MaskedField.class)));
+    void beginStream(Class<?> clazz) throws IOException {
+        beginBatch();
+        if (streamPlan == null) {
+            streamPlan = startStream(clazz);
         }
-
-        return tempFields;
     }
 
-    private String getHeader(Field field, NamingStrategy fieldNamingStrategy) {
-        String headerName;
-        DataField dataField = field.getAnnotation(DataField.class);
-        if (dataField != null) {
-            if (!dataField.name().isEmpty()) {
-                headerName = dataField.name();
-            } else {
-                if (dataField.strategy() != NamingStrategy.DEFAULT) {
-                    fieldNamingStrategy = dataField.strategy();
-                }
-                headerName = applyNamingStrategy(field.getName(), fieldNamingStrategy);
+    /**
+     * Определяет план потоковой записи и пишет заголовок вместе с отложенными пустыми строками.
+     *
+     * @param clazz Класс первой записи.
+     * @return План записи.
+     * @throws IOException                            Если возникает ошибка ввода-вывода.
+     * @throws FormatRecordAnnotationMissingException Если класс не аннотирован {@link CsvRecord}.
+     */
+    private WritePlan startStream(Class<?> clazz) throws IOException {
+        if (clazz.getAnnotation(CsvRecord.class) == null) {
+            throw new FormatRecordAnnotationMissingException(clazz);
+        }
+        WritePlan plan = WritePlan.of(clazz);
+        if (!plan.getHeaders().isEmpty()) {
+            processHeaders(plan);
+            for (long i = 0; i < pendingNullRows; i++) {
+                writeRecord(null, plan);
             }
-        } else {
-            headerName = applyNamingStrategy(field.getName(), fieldNamingStrategy);
         }
-        return headerName;
+        pendingNullRows = 0;
+        return plan;
     }
 
-    private String applyNamingStrategy(String fieldName, NamingStrategy strategy) {
-        if (fieldName == null || fieldName.isEmpty()) {
-            return "";
-        }
-
-        if (strategy == null) {
-            strategy = NamingStrategy.AS_IS;
-        }
-
-        return switch (strategy) {
-            case AS_IS_TO_SPACE_SEPARATED_CAPITALIZED -> {
-                StringBuilder result = new StringBuilder();
-                result.append(Character.toUpperCase(fieldName.charAt(0)));
-                for (int i = 1; i < fieldName.length(); i++) {
-                    char currentChar = fieldName.charAt(i);
-                    if (Character.isUpperCase(currentChar)) {
-                        result.append(' ');
-                    }
-                    result.append(currentChar);
-                }
-                yield result.toString();
-            }
-            case CAMEL_TO_SNAKE_CASE -> fieldName.replaceAll("([a-z])([A-Z]+)", "$1_$2").toLowerCase();
-            case CAMEL_TO_SCREAMING_SNAKE_CASE -> fieldName.replaceAll("([a-z])([A-Z]+)", "$1_$2").toUpperCase();
-            case DEFAULT, AS_IS -> fieldName;
-        };
+    /**
+     * {@inheritDoc}
+     * <p>
+     * По завершении накопленные строки передаются в {@link Writer}.
+     * </p>
+     */
+    @Override
+    public void write(Iterator<?> data) throws IOException {
+        beginBatch();
+        Writable.super.write(data);
+        drain();
     }
 
-    private String convertFieldValueToString(Object value, ProcessedField processedField) {
-        if (value == null) {
-            return "";
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Статистика складывается по всем кодировщикам писателя, включая кодировщики параллельной записи.
+     * </p>
+     */
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        Map<Integer, CacheStatistics> statistics = new TreeMap<>();
+        encoder.collectCacheStatistics(statistics);
+        for (CsvRowEncoder chunkEncoder : idleEncoders) {
+            chunkEncoder.collectCacheStatistics(statistics);
         }
+        return List.copyOf(statistics.values());
+    }
 
-        MaskedField maskedField = processedField.getMaskedField();
-        String stringValue = value.toString();
-
-        if (maskedField != null) {
-            stringValue = applyMasking(stringValue, maskedField);
-        }
-        return stringValue;
+    @Override
+    public void flush() throws IOException {
+        long began = System.nanoTime();
+        drain();
+        writer.flush();
+        metrics.flushed(System.nanoTime() - began);
     }
 
-    private String applyMasking(String originalValue, MaskedField maskedField) {
-        if (originalValue == null || originalValue.isEmpty()) return "";
+    /**
+     * Передает накопленные строки в {@link Writer}, не вызывая {@link Writer#flush()}, и завершает текущий пакет записи.
+     *
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    void drain() throws IOException {
+        writeBuffer(encoder);
+        completeBatch();
+    }
 
-        MaskingStrategy strategy = maskedField.strategy();
-        char maskChar = maskedField.maskCharacter();
-        int visibleChars = maskedField.visibleChars();
+    /**
+     * Передает накопленные строки в {@link Writer}, не завершая пакет записи.
+     *
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    void writePending() throws IOException {
+        writeBuffer(encoder);
+    }
 
-        return switch (strategy) {
-            case ASTERISKS_FULL -> repeatChar(maskChar, originalValue.length());
-            case ASTERISKS_PARTIAL_PREFIX -> {
-                if (originalValue.length() <= visibleChars) yield originalValue;
-                yield originalValue.substring(0, visibleChars) + repeatChar(maskChar, originalValue.length() - visibleChars);
-            }
-            case ASTERISKS_PARTIAL_SUFFIX -> {
-                if (originalValue.length() <= visibleChars) yield originalValue;
-                yield repeatChar(maskChar, originalValue.length() - visibleChars) + originalValue.substring(originalValue.length() - visibleChars);
-            }
-        };
+    /**
+     * Возвращает количество символов закодированных строк, еще не переданных в {@link Writer}.
+     *
+     * @return Количество символов в буфере.
+     */
+    int pendingChars() {
+        return encoder.size();
     }
 
-    private String repeatChar(char c, int times) {
-        if (times <= 0) return "";
-        char[] chars = new char[times];
-        Arrays.fill(chars, c);
-        return new String(chars);
+    /**
+     * Передает буфер кодировщика в {@link Writer}, учитывая время и объем передачи.
+     *
+     * @param rowEncoder Кодировщик с накопленными строками.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    private void writeBuffer(CsvRowEncoder rowEncoder) throws IOException {
+        int chars = rowEncoder.size();
+        if (chars == 0) return;
+        long began = System.nanoTime();
+        rowEncoder.writeTo(writer);
+        long nanos = System.nanoTime() - began;
+        counters.chars += chars;
+        counters.ioNanos += nanos;
+        metrics.bufferWritten(chars, nanos);
     }
 
-    private String escapeAndQuote(String value) {
-        if (value == null) {
-            return "";
+    /**
+     * Открывает пакет записи, если он еще не открыт: пакетом считается вызов {@code write}
+     * или серия {@link #append(Object)} до {@link #flush()} или {@link #close()}.
+     */
+    private void beginBatch() {
+        if (batchEvent == null) {
+            batchStart = System.nanoTime();
+            batchEvent = new CsvWriteEvent();
+            batchEvent.begin();
         }
+    }
 
-        boolean needsQuoting = false;
-        if (value.indexOf(delimiter) != -1 ||
-                value.indexOf('\n') != -1 ||
-                value.indexOf('\r') != -1 ||
-                value.indexOf('"') != -1) {
-            needsQuoting = true;
-        }
-        if (value.contains(this.lineSeparator)) {
-            needsQuoting = true;
+    /**
+     * Завершает открытый пакет записи: передает его показатели в {@link CsvWriterMetrics}
+     * и записывает событие {@link CsvWriteEvent}, если оно включено в JFR.
+     */
+    private void completeBatch() {
+        if (batchEvent == null) return;
+        CsvWriteEvent event = batchEvent;
+        batchEvent = null;
+        encoder.drainCounters(counters);
+        WriteBatchStatistics statistics = counters.complete(System.nanoTime() - batchStart);
+        event.end();
+        if (event.shouldCommit()) {
+            event.fill(getClass(), statistics);
+            event.commit();
         }
+        metrics.batchCompleted(statistics);
+    }
 
+    /**
+     * Отключает запись заголовка, например при продолжении уже начатого файла.
+     */
+    void suppressHeader() {
+        headerSuppressed = true;
+    }
 
-        String result = value.replace("\"", "\"\"");
-
-        if (needsQuoting) {
-            return "\"" + result + "\"";
+    /**
+     * Записывает строку заголовков, если это необходимо.
+     * Готовая строка заголовка берется из плана и не пересобирается при каждом вызове.
+     *
+     * @param plan План записи, содержащий заголовки.
+     */
+    private void processHeaders(WritePlan plan) {
+        if (plan.isIncludeHeader() && !headerSuppressed) {
+            encoder.appendRaw(plan.headerLine(delimiter, lineSeparator, quotingPolicy, encoder::renderRow));
         }
-        return result;
     }
 
     @Override
     public void close() throws IOException {
-        writer.close();
-    }
-
-    @Getter
-    @AllArgsConstructor
-    private static class ProcessedField {
-        private final Field field;
-        private final String headerName;
-        private final CsvRecord csvRecord;
-        private final MaskedField maskedField;
+        try {
+            drain();
+        } finally {
+            writer.close();
+        }
     }
 }
@@ -0,0 +1,306 @@
+package by.lobanov.impl;
+
+import by.lobanov.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
+import by.lobanov.exception.*;
+import by.lobanov.format.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Выгрузка изменений относительно предыдущего запуска: пишутся только новые, измененные и удаленные строки.
+ * <p>
+ * Для каждой записи по полям {@link WritePlan} вычисляется 64-битный хеш значений (без сборки строки CSV)
+ * и сравнивается с хешем той же строки из индекса предыдущей выгрузки ({@link DeltaSettings#getIndexPath()}).
+ * Строки без изменений не пишутся; новые и измененные пишутся целиком с кодом {@link DeltaOperation}
+ * в первой колонке {@link DeltaSettings#getOpColumn()}. Ключи предыдущей выгрузки, не встретившиеся
+ * в текущей, пишутся в {@link #complete()} строками {@link DeltaOperation#DELETE}, в которых заполнены
+ * только колонки вида изменения и ключа; ключ пишется с тем же форматированием, что и в остальных строках.
+ * </p>
+ * <p>
+ * Одновременно строится новый индекс; {@link #complete()} заменяет им предыдущий. {@link #close()} без
+ * {@link #complete()} (например, при ошибке) отбрасывает новый индекс, и следующий запуск сравнивает
+ * данные с тем же предыдущим индексом. Ключи в пределах выгрузки должны быть уникальны: повторный ключ
+ * отклоняется, не попадая ни в CSV, ни в новый индекс.
+ * Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class DeltaCsvWriter implements Writable {
+
+    private final Writer writer;
+    private final WritePlan plan;
+    private final RecordEncoder recordEncoder;
+    private final RowHasher rowHasher;
+    private final CsvRowEncoder encoder;
+    private final FieldAccessor keyAccessor;
+    private final ValueFormatter<Object> keyFormatter;
+    private final boolean numericKey;
+    private final int keyColumnIndex;
+    private final long fingerprint;
+    private final DeltaIndex previous;
+    private final DeltaIndex.Output next;
+    /**
+     * Хеши ключей, уже записанных в текущей выгрузке.
+     */
+    private final LongHashSet currentKeys = new LongHashSet();
+
+    private long inserted;
+    private long updated;
+    private long deleted;
+    private long unchanged;
+    private boolean closed;
+
+    /**
+     * Конструктор. Загружает индекс предыдущей выгрузки, если он существует.
+     *
+     * @param writer        Куда будут записываться изменения.
+     * @param settings      Настройки записи.
+     * @param type          Класс записей, аннотированный {@link CsvRecord}.
+     * @param deltaSettings Настройки выгрузки изменений.
+     * @throws IOException                            Если индекс не удалось прочитать или создать новый.
+     * @throws FormatRecordAnnotationMissingException Если класс не аннотирован {@link CsvRecord}.
+     * @throws IllegalArgumentException               Если ключевая колонка не найдена или не может быть ключом.
+     */
+    public DeltaCsvWriter(Writer writer, CsvWriterSettings settings, Class<?> type, DeltaSettings deltaSettings)
+            throws IOException {
+        Objects.requireNonNull(writer, "Writer не может быть null");
+        Objects.requireNonNull(settings, "Settings не может быть null");
+        Objects.requireNonNull(type, "Type не может быть null");
+        Objects.requireNonNull(deltaSettings, "Delta settings не может быть null");
+        Objects.requireNonNull(deltaSettings.getIndexPath(), "Index path не может быть null");
+        String keyColumn = Objects.requireNonNull(deltaSettings.getKeyColumn(), "Key column не может быть null");
+        String opColumn = Objects.requireNonNull(deltaSettings.getOpColumn(), "Op column не может быть null");
+        Objects.requireNonNull(settings.getLineSeparator(), "Line separator не может быть null");
+        if (settings.getLineSeparator().isEmpty()) {
+            throw new IllegalArgumentException("Line separator не может быть пустым");
+        }
+        Objects.requireNonNull(settings.getFormatters(), "Formatters не может быть null");
+        Objects.requireNonNull(settings.getQuotingPolicy(), "Quoting policy не может быть null");
+        if (type.getAnnotation(CsvRecord.class) == null) {
+            throw new FormatRecordAnnotationMissingException(type);
+        }
+        this.writer = writer;
+        this.plan = WritePlan.of(type);
+        this.recordEncoder = new RecordEncoder(settings);
+        this.rowHasher = new RowHasher(settings.getAccessStrategy());
+        this.encoder = new CsvRowEncoder(settings.getDelimiter(), settings.getLineSeparator(),
+                settings.getMaskingKey(), settings.getFormatters(), settings.getQuotingPolicy());
+        ProcessedField keyField = keyField(plan, keyColumn);
+        this.keyAccessor = keyField.getAccessor(settings.getAccessStrategy());
+        this.keyFormatter = keyField.getFormatter();
+        Class<?> keyType = keyField.getField().getType();
+        this.numericKey = keyType.isPrimitive() ?
+                keyType != boolean.class && keyType != char.class : Number.class.isAssignableFrom(keyType);
+        this.keyColumnIndex = plan.getHeaders().indexOf(keyColumn);
+        this.fingerprint = RowHasher.hashKey(keyColumn + '\0' + String.join("\0", plan.getHeaders()));
+        this.previous = DeltaIndex.load(deltaSettings.getIndexPath(), fingerprint);
+        this.next = new DeltaIndex.Output(deltaSettings.getIndexPath(), fingerprint);
+
+        if (plan.isIncludeHeader()) {
+            List<String> headers = new ArrayList<>(plan.getHeaders().size() + 1);
+            headers.add(opColumn);
+            headers.addAll(plan.getHeaders());
+            encoder.appendRaw(encoder.renderRow(headers));
+        }
+    }
+
+    private static ProcessedField keyField(WritePlan plan, String keyColumn) {
+        for (ProcessedField pf : plan.getFields()) {
+            if (!pf.getHeaders().equals(List.of(keyColumn))) continue;
+            if (pf.getEmbeddedPlan() != null || pf.getCollection() != null) {
+                throw new IllegalArgumentException("Ключевая колонка не может быть вложенной записью или коллекцией: " + keyColumn);
+            }
+            if (pf.getMaskingOperation() != null) {
+                throw new IllegalArgumentException("Ключевая колонка не может маскироваться: " + keyColumn);
+            }
+            return pf;
+        }
+        throw new IllegalArgumentException("Ключевая колонка не найдена: " + keyColumn);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException Если объект другого типа, его ключ равен {@code null}
+     *                                  или уже встречался в этой выгрузке.
+     */
+    @Override
+    public void write(List<?> data) throws IOException {
+        if (data == null) return;
+        for (Object record : data) {
+            append(record);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Запись сравнивается с предыдущей выгрузкой и пишется, только если она новая или изменилась.
+     * </p>
+     *
+     * @throws IllegalArgumentException Если объект другого типа, его ключ равен {@code null}
+     *                                  или уже встречался в этой выгрузке; такая запись не пишется.
+     */
+    @Override
+    public void append(Object record) throws IOException {
+        ensureOpen();
+        Objects.requireNonNull(record, "Запись не может быть null");
+        if (!plan.getType().isInstance(record)) {
+            throw new IllegalArgumentException("Все объекты в списке должны быть одного типа: " + plan.getType().getName() +
+                    ", встречен: " + record.getClass().getName());
+        }
+        String key = key(record);
+        long keyHash = RowHasher.hashKey(key);
+        if (!currentKeys.add(keyHash)) {
+            throw new IllegalArgumentException("Ключ '" + key + "' встречается в выгрузке повторно");
+        }
+        long rowHash = rowHasher.hash(record, plan);
+        int slot = previous.find(keyHash);
+        if (slot < 0) {
+            writeRow(DeltaOperation.INSERT, record);
+            inserted++;
+        } else {
+            previous.markSeen(slot);
+            if (previous.rowHash(slot) != rowHash) {
+                writeRow(DeltaOperation.UPDATE, record);
+                updated++;
+            } else {
+                unchanged++;
+            }
+        }
+        next.append(keyHash, rowHash, key);
+    }
+
+    /**
+     * Текст ключа записи — форматированное значение ключевой колонки, как в строках CSV;
+     * он хранится в индексе и пишется в строках {@link DeltaOperation#DELETE}.
+     */
+    private String key(Object record) throws IOException {
+        Object value;
+        try {
+            value = keyAccessor.get(record);
+        } catch (IllegalAccessException e) {
+            throw new IOException("Ошибка доступа к ключевому полю", e);
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Ключ записи не может быть null: " + record);
+        }
+        return encoder.format(value, keyFormatter);
+    }
+
+    private void writeRow(DeltaOperation operation, Object record) throws IOException {
+        encoder.beginRow();
+        try {
+            encoder.value(operation.getCode());
+            recordEncoder.writeRecordValues(record, plan, encoder);
+        } catch (IOException | RuntimeException e) {
+            encoder.abortRow();
+            throw e;
+        }
+        encoder.endRow();
+        flushIfFull();
+    }
+
+    private void writeDelete(String key) throws IOException {
+        encoder.beginRow();
+        encoder.value(DeltaOperation.DELETE.getCode());
+        encoder.emptyValues(keyColumnIndex);
+        encoder.formattedValue(key, numericKey);
+        encoder.emptyValues(plan.getHeaders().size() - keyColumnIndex - 1);
+        encoder.endRow();
+        deleted++;
+        flushIfFull();
+    }
+
+    private void flushIfFull() throws IOException {
+        if (encoder.size() >= DefaultCsvWriter.FLUSH_THRESHOLD) {
+            encoder.writeTo(writer);
+        }
+    }
+
+    /**
+     * Возвращает количество записанных строк заданного вида.
+     *
+     * @param operation Вид изменения.
+     * @return Количество строк.
+     */
+    public long getCount(DeltaOperation operation) {
+        return switch (operation) {
+            case INSERT -> inserted;
+            case UPDATE -> updated;
+            case DELETE -> deleted;
+        };
+    }
+
+    /**
+     * Возвращает количество записей, совпавших с предыдущей выгрузкой и поэтому не записанных.
+     *
+     * @return Количество строк без изменений.
+     */
+    public long getUnchangedCount() {
+        return unchanged;
+    }
+
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        Map<Integer, CacheStatistics> statistics = new TreeMap<>();
+        encoder.collectCacheStatistics(statistics);
+        return List.copyOf(statistics.values());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        encoder.writeTo(writer);
+        writer.flush();
+    }
+
+    /**
+     * Завершает выгрузку: пишет удаленные строки, закрывает {@link Writer} и заменяет индекс предыдущей выгрузки новым.
+     *
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    public void complete() throws IOException {
+        ensureOpen();
+        closed = true;
+        try {
+            try {
+                previous.forEachUnseen(fingerprint, this::writeDelete);
+                encoder.writeTo(writer);
+            } finally {
+                writer.close();
+            }
+            next.commit();
+        } finally {
+            next.close();
+        }
+    }
+
+    /**
+     * Закрывает {@link Writer}, отбрасывая новый индекс. После {@link #complete()} ничего не делает.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            encoder.writeTo(writer);
+        } finally {
+            try {
+                writer.close();
+            } finally {
+                next.close();
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer закрыт");
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package by.lobanov.impl;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Индекс выгрузки для {@link DeltaCsvWriter}: хеш ключа → хеш строки предыдущего запуска.
+ * <p>
+ * Файл индекса — двоичный: заголовок (сигнатура, версия, отпечаток колонок), затем по записи
+ * на строку (хеш ключа, хеш строки, ключ в UTF-8) и завершающий маркер с количеством записей,
+ * по которому обнаруживается недописанный файл. В памяти хранятся только хеши в двух массивах
+ * {@code long} с открытой адресацией и битовая карта встреченных ключей. Таблица заполняется не более чем
+ * наполовину, поэтому на строку приходится от 32 до 64 байт;
+ * сами ключи читаются повторным последовательным проходом по файлу только для удаленных строк.
+ * Совпадение 64-битных хешей разных ключей не обнаруживается и на практике пренебрежимо маловероятно.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+final class DeltaIndex {
+
+    private static final int MAGIC = 0x43535649;
+    private static final int VERSION = 1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Path path;
+    private long[] keys;
+    private long[] hashes;
+    private long[] seen;
+    private int size;
+
+    private DeltaIndex(Path path, int capacity) {
+        this.path = path;
+        this.keys = new long[capacity];
+        this.hashes = new long[capacity];
+        this.seen = new long[(capacity + 63) >>> 6];
+    }
+
+    /**
+     * Загружает хеши из файла индекса.
+     *
+     * @param path        Файл индекса.
+     * @param fingerprint Отпечаток колонок текущей выгрузки.
+     * @return Индекс; пустой, если файла нет.
+     * @throws IOException Если файл поврежден или построен для других колонок.
+     */
+    static DeltaIndex load(Path path, long fingerprint) throws IOException {
+        DeltaIndex index = new DeltaIndex(path, INITIAL_CAPACITY);
+        if (!Files.exists(path)) return index;
+        try (DataInputStream in = open(path, fingerprint)) {
+            long entries = 0;
+            while (in.readBoolean()) {
+                index.put(in.readLong(), in.readLong());
+                in.skipNBytes(in.readInt());
+                entries++;
+            }
+            long count = in.readLong();
+            if (count != entries) {
+                throw new IOException("Индекс " + path + " поврежден: записей " + entries + ", ожидалось " + count);
+            }
+        } catch (EOFException e) {
+            throw new IOException("Индекс " + path + " записан не полностью", e);
+        }
+        return index;
+    }
+
+    private static DataInputStream open(Path path, long fingerprint) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Файл " + path + " не является индексом выгрузки");
+            }
+            if (in.readLong() != fingerprint) {
+                throw new IOException("Индекс " + path + " построен для других колонок");
+            }
+            return in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Ищет ключ в индексе.
+     *
+     * @param keyHash Хеш ключа.
+     * @return Номер ячейки ключа или {@code -1}, если ключа в предыдущей выгрузке не было.
+     */
+    int find(long keyHash) {
+        long key = nonZero(keyHash);
+        int mask = keys.length - 1;
+        for (int slot = spread(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) return slot;
+        }
+        return -1;
+    }
+
+    /**
+     * Возвращает хеш строки из предыдущей выгрузки.
+     *
+     * @param slot Номер ячейки, найденный {@link #find(long)}.
+     * @return Хеш строки.
+     */
+    long rowHash(int slot) {
+        return hashes[slot];
+    }
+
+    /**
+     * Отмечает ключ как встреченный в текущей выгрузке.
+     *
+     * @param slot Номер ячейки, найденный {@link #find(long)}.
+     */
+    void markSeen(int slot) {
+        seen[slot >>> 6] |= 1L << slot;
+    }
+
+    /**
+     * Передает ключи, не встреченные в текущей выгрузке, повторно читая файл индекса.
+     *
+     * @param fingerprint Отпечаток колонок.
+     * @param consumer    Получатель ключей удаленных строк.
+     * @throws IOException Если возникает ошибка чтения или записи.
+     */
+    void forEachUnseen(long fingerprint, KeyConsumer consumer) throws IOException {
+        if (size == 0) return;
+        try (DataInputStream in = open(path, fingerprint)) {
+            while (in.readBoolean()) {
+                int slot = find(in.readLong());
+                in.readLong();
+                byte[] key = in.readNBytes(in.readInt());
+                if ((seen[slot >>> 6] & 1L << slot) == 0) {
+                    consumer.accept(new String(key, StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    private void put(long keyHash, long rowHash) {
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        long key = nonZero(keyHash);
+        int mask = keys.length - 1;
+        int slot = spread(key) & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                hashes[slot] = rowHash;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        hashes[slot] = rowHash;
+        size++;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldHashes = hashes;
+        keys = new long[oldKeys.length * 2];
+        hashes = new long[oldKeys.length * 2];
+        seen = new long[(keys.length + 63) >>> 6];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldHashes[i]);
+            }
+        }
+    }
+
+    /**
+     * Ноль обозначает пустую ячейку, поэтому нулевой хеш ключа заменяется единицей.
+     */
+    private static long nonZero(long keyHash) {
+        return keyHash == 0 ? 1 : keyHash;
+    }
+
+    private static int spread(long key) {
+        return (int) (key ^ (key >>> 32));
+    }
+
+    /**
+     * Получатель ключей удаленных строк.
+     */
+    @FunctionalInterface
+    interface KeyConsumer {
+        void accept(String key) throws IOException;
+    }
+
+    /**
+     * Запись нового файла индекса во временный файл с заменой основного по завершении.
+     */
+    static final class Output implements Closeable {
+
+        private final Path path;
+        private final Path temp;
+        private final FileChannel channel;
+        private final DataOutputStream out;
+        private long count;
+        private boolean closed;
+
+        /**
+         * Конструктор.
+         *
+         * @param path        Файл индекса, который будет заменен в {@link #commit()}.
+         * @param fingerprint Отпечаток колонок.
+         * @throws IOException Если временный файл не удалось создать.
+         */
+        Output(Path path, long fingerprint) throws IOException {
+            this.path = path;
+            this.temp = path.resolveSibling(path.getFileName() + ".tmp");
+            this.channel = FileChannel.open(temp,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+        }
+
+        void append(long keyHash, long rowHash, String key) throws IOException {
+            byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+            out.writeBoolean(true);
+            out.writeLong(keyHash);
+            out.writeLong(rowHash);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            count++;
+        }
+
+        /**
+         * Дописывает завершающий маркер, сбрасывает новый индекс на диск и атомарно заменяет им основной файл,
+         * чтобы после сбоя системы на месте индекса не оказался пустой или недописанный файл.
+         *
+         * @throws IOException Если возникает ошибка записи или замены файла.
+         */
+        void commit() throws IOException {
+            closed = true;
+            try (out) {
+                out.writeBoolean(false);
+                out.writeLong(count);
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Отбрасывает новый индекс, оставляя основной файл без изменений. После {@link #commit()} ничего не делает.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package by.lobanov.impl;
+
+/**
+ * Вид изменения строки в выгрузке {@link DeltaCsvWriter}.
+ *
+ * @author Астонский Шпион
+ */
+public enum DeltaOperation {
+
+    /**
+     * Ключа не было в предыдущей выгрузке.
+     */
+    INSERT("I"),
+    /**
+     * Значения строки изменились.
+     */
+    UPDATE("U"),
+    /**
+     * Ключ был в предыдущей выгрузке, но не встретился в текущей; записывается только ключ.
+     */
+    DELETE("D");
+
+    /**
+     * Значение колонки вида изменения.
+     */
+    private final String code;
+
+    DeltaOperation(String code) {
+        this.code = code;
+    }
+
+    /**
+     * Возвращает значение колонки вида изменения.
+     *
+     * @return Код изменения.
+     */
+    public String getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,174 @@
+package by.lobanov.impl;
+
+import by.lobanov.config.*;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+
+/**
+ * Доступ к значению поля записи.
+ * <p>
+ * Для полей {@code int}, {@code long} и {@code double} (а также {@code byte} и {@code short},
+ * расширяемых до {@code int}) доступны типизированные методы, не упаковывающие значение.
+ * Вид поля возвращает {@link #getKind()}.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+interface FieldAccessor {
+
+    /**
+     * Вид значения, определяющий, каким методом читать поле без упаковки.
+     */
+    enum Kind {
+        OBJECT, INT, LONG, DOUBLE;
+
+        static Kind of(Class<?> type) {
+            if (type == int.class || type == short.class || type == byte.class) return INT;
+            if (type == long.class) return LONG;
+            if (type == double.class) return DOUBLE;
+            return OBJECT;
+        }
+    }
+
+    Kind getKind();
+
+    Object get(Object target) throws IllegalAccessException;
+
+    int getInt(Object target) throws IllegalAccessException;
+
+    long getLong(Object target) throws IllegalAccessException;
+
+    double getDouble(Object target) throws IllegalAccessException;
+
+    /**
+     * Создает accessor для поля по заданной стратегии.
+     * Если построить {@link MethodHandle} не удалось, используется рефлексия.
+     *
+     * @param field    Поле записи (уже доступное через {@code setAccessible}).
+     * @param strategy Стратегия доступа.
+     * @return Accessor поля.
+     */
+    static FieldAccessor create(Field field, AccessStrategy strategy) {
+        if (strategy == AccessStrategy.METHOD_HANDLE) {
+            try {
+                return new MethodHandleAccessor(field);
+            } catch (IllegalAccessException | RuntimeException e) {
+                return new ReflectionAccessor(field);
+            }
+        }
+        return new ReflectionAccessor(field);
+    }
+
+    /**
+     * Чтение поля через {@link Field}.
+     */
+    final class ReflectionAccessor implements FieldAccessor {
+
+        private final Field field;
+        private final Kind kind;
+
+        ReflectionAccessor(Field field) {
+            this.field = field;
+            this.kind = Kind.of(field.getType());
+        }
+
+        @Override
+        public Kind getKind() {
+            return kind;
+        }
+
+        @Override
+        public Object get(Object target) throws IllegalAccessException {
+            return field.get(target);
+        }
+
+        @Override
+        public int getInt(Object target) throws IllegalAccessException {
+            return field.getInt(target);
+        }
+
+        @Override
+        public long getLong(Object target) throws IllegalAccessException {
+            return field.getLong(target);
+        }
+
+        @Override
+        public double getDouble(Object target) throws IllegalAccessException {
+            return field.getDouble(target);
+        }
+    }
+
+    /**
+     * Чтение поля через {@link MethodHandle}, полученный из {@link MethodHandles#privateLookupIn}.
+     * Handle приводится к сигнатуре {@code (Object) -> T}, что позволяет вызывать его через {@code invokeExact};
+     * для {@link #get(Object)} хранится отдельный handle, упаковывающий примитивы.
+     */
+    final class MethodHandleAccessor implements FieldAccessor {
+
+        private final Kind kind;
+        private final MethodHandle getter;
+        private final MethodHandle boxedGetter;
+
+        MethodHandleAccessor(Field field) throws IllegalAccessException {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+            MethodHandle handle = lookup.unreflectGetter(field);
+            this.kind = Kind.of(field.getType());
+            Class<?> returnType = switch (kind) {
+                case INT -> int.class;
+                case LONG -> long.class;
+                case DOUBLE -> double.class;
+                case OBJECT -> Object.class;
+            };
+            this.getter = handle.asType(MethodType.methodType(returnType, Object.class));
+            this.boxedGetter = handle.asType(MethodType.methodType(Object.class, Object.class));
+        }
+
+        @Override
+        public Kind getKind() {
+            return kind;
+        }
+
+        @Override
+        public Object get(Object target) {
+            try {
+                return (Object) boxedGetter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public int getInt(Object target) {
+            try {
+                return (int) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public long getLong(Object target) {
+            try {
+                return (long) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        @Override
+        public double getDouble(Object target) {
+            try {
+                return (double) getter.invokeExact(target);
+            } catch (Throwable e) {
+                throw rethrow(e);
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable e) {
+            if (e instanceof RuntimeException runtimeException) return runtimeException;
+            if (e instanceof Error error) throw error;
+            return new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package by.lobanov.impl;
+
+/**
+ * Множество значений {@code long} с открытой адресацией, без упаковки. Таблица заполняется не более чем
+ * наполовину, поэтому на элемент приходится от 16 до 32 байт.
+ * Ноль хранится как отдельный признак, потому что обозначает пустую ячейку. Экземпляр не потокобезопасен.
+ *
+ * @author Астонский Шпион
+ */
+final class LongHashSet {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size;
+    private boolean containsZero;
+
+    /**
+     * Добавляет значение.
+     *
+     * @param value Значение.
+     * @return {@code true}, если значения еще не было в множестве.
+     */
+    boolean add(long value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        if ((size + 1) * 2 > values.length) {
+            grow();
+        }
+        if (!insert(values, value)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    private static boolean insert(long[] table, long value) {
+        int mask = table.length - 1;
+        int slot = (int) (value ^ (value >>> 32)) & mask;
+        while (table[slot] != 0) {
+            if (table[slot] == value) return false;
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        return true;
+    }
+
+    private void grow() {
+        long[] grown = new long[values.length * 2];
+        for (long value : values) {
+            if (value != 0) {
+                insert(grown, value);
+            }
+        }
+        values = grown;
+    }
+}
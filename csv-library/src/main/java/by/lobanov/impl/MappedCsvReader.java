@@ -0,0 +1,263 @@
+package by.lobanov.impl;
+
+import by.lobanov.annotation.csv.*;
+import by.lobanov.exception.*;
+import by.lobanov.io.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Параллельное чтение файла CSV в кодировке UTF-8 через отображение в память ({@link FileChannel#map}).
+ * <p>
+ * Файл делится на сегменты примерно по {@code segmentSize} байт, границы которых сдвигаются на начало строки.
+ * Чтобы граница не попала внутрь значения в кавычках, сначала параллельно подсчитывается количество кавычек
+ * в каждом сегменте; по префиксной сумме их четности известно, находится ли начало сегмента внутри кавычек,
+ * и конец строки ищется с учетом этого. Затем сегменты разбираются параллельно тем же разбором
+ * и той же схемой полей, что и в {@link DefaultCsvReader}.
+ * </p>
+ * <p>
+ * Разделение рассчитано на файлы, записанные этой библиотекой: кавычки встречаются только
+ * в значениях, целиком заключенных в кавычки. Разделитель полей и строк должен состоять из символов ASCII.
+ * </p>
+ *
+ * @param <T> Тип записей.
+ * @author Астонский Шпион
+ */
+public class MappedCsvReader<T> implements Closeable {
+
+    private static final long SCAN_WINDOW = 1024 * 1024;
+
+    private final FileChannel channel;
+    private final Class<T> type;
+    private final char delimiter;
+    private final String lineSeparator;
+    private final byte[] rowEnd;
+    private final RecordBinder binder;
+    private final long segmentSize;
+
+    /**
+     * Конструктор. Открывает файл для чтения.
+     *
+     * @param path          Путь к файлу.
+     * @param type          Класс записей, аннотированный {@link CsvRecord}.
+     * @param delimiter     Символ-разделитель полей.
+     * @param lineSeparator Символ(ы) для разделения строк.
+     * @param segmentSize   Желаемый размер сегмента в байтах.
+     * @throws IOException                            Если файл не удалось открыть.
+     * @throws FormatRecordAnnotationMissingException Если класс не аннотирован {@link CsvRecord}.
+     */
+    public MappedCsvReader(Path path, Class<T> type, char delimiter, String lineSeparator, long segmentSize) throws IOException {
+        Objects.requireNonNull(path, "Path не может быть null");
+        Objects.requireNonNull(type, "Type не может быть null");
+        Objects.requireNonNull(lineSeparator, "Line separator не может быть null");
+        if (lineSeparator.isEmpty()) {
+            throw new IllegalArgumentException("Line separator не может быть пустым");
+        }
+        if (delimiter > 0x7F || delimiter == '"' || !lineSeparator.chars().allMatch(c -> c <= 0x7F && c != '"')) {
+            throw new IllegalArgumentException("Разделители должны быть символами ASCII, отличными от кавычки");
+        }
+        if (segmentSize < 1 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size должен быть от 1 до " + Integer.MAX_VALUE);
+        }
+        if (type.getAnnotation(CsvRecord.class) == null) {
+            throw new FormatRecordAnnotationMissingException(type);
+        }
+        this.type = type;
+        this.delimiter = delimiter;
+        this.lineSeparator = lineSeparator;
+        this.rowEnd = rowEndBytes(lineSeparator);
+        this.binder = RecordBinder.of(type);
+        this.segmentSize = segmentSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /**
+     * Байты, которыми заканчивается каждая строка: для разделителей из {@code '\r'} и {@code '\n'}
+     * это последний перевод строки, иначе разделитель целиком.
+     */
+    private static byte[] rowEndBytes(String lineSeparator) {
+        if (lineSeparator.chars().allMatch(c -> c == '\n' || c == '\r')) {
+            return new byte[]{(byte) (lineSeparator.indexOf('\n') >= 0 ? '\n' : '\r')};
+        }
+        return lineSeparator.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Возвращает упорядоченный параллельный поток записей.
+     *
+     * @return Поток записей в порядке файла.
+     * @throws IOException Если возникает ошибка ввода-вывода при разделении файла.
+     */
+    public Stream<T> stream() throws IOException {
+        return stream(true);
+    }
+
+    /**
+     * Возвращает параллельный поток записей.
+     * <p>
+     * Сегменты разбираются при потреблении потока. Неупорядоченный поток не сохраняет порядок строк файла,
+     * зато позволяет потребителю получать записи сегментов по мере их готовности.
+     * </p>
+     *
+     * @param ordered Сохранять ли порядок строк файла.
+     * @return Поток записей.
+     * @throws IOException Если возникает ошибка ввода-вывода при разделении файла.
+     */
+    public Stream<T> stream(boolean ordered) throws IOException {
+        long size = channel.size();
+        long dataStart = 0;
+        int[] columns;
+        if (WritePlan.of(type).isIncludeHeader()) {
+            dataStart = findRowEnd(0, false, size);
+            List<String> header = dataStart > 0 ? newParser(0, dataStart).nextRow() : null;
+            if (header == null) {
+                return Stream.empty();
+            }
+            columns = binder.columnsFor(header);
+        } else {
+            columns = binder.positionalColumns();
+        }
+
+        long[] boundaries = splitOnRows(dataStart, size);
+        Stream<T> records = IntStream.range(0, boundaries.length - 1)
+                .parallel()
+                .mapToObj(i -> parseSegment(boundaries[i], boundaries[i + 1], columns))
+                .flatMap(List::stream);
+        return ordered ? records : records.unordered();
+    }
+
+    /**
+     * Читает все записи в порядке файла.
+     *
+     * @return Список записей.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    public List<T> readAll() throws IOException {
+        try (Stream<T> records = stream(true)) {
+            return records.toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Делит диапазон данных на сегменты по границам строк. Подсчет кавычек и поиск границ выполняются параллельно.
+     *
+     * @return Границы сегментов: {@code [start, b1, b2, ..., end]}.
+     */
+    private long[] splitOnRows(long start, long end) {
+        int chunks = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 1, (end - start + segmentSize - 1) / segmentSize));
+        long[] quoteCounts = IntStream.range(0, chunks)
+                .parallel()
+                .mapToLong(i -> countQuotes(chunkStart(start, end, i), chunkStart(start, end, i + 1)))
+                .toArray();
+
+        boolean[] startsInQuotes = new boolean[chunks];
+        for (int i = 1; i < chunks; i++) {
+            startsInQuotes[i] = startsInQuotes[i - 1] ^ (quoteCounts[i - 1] & 1) == 1;
+        }
+
+        long[] boundaries = new long[chunks + 1];
+        boundaries[0] = start;
+        boundaries[chunks] = end;
+        IntStream.range(1, chunks)
+                .parallel()
+                .forEach(i -> boundaries[i] = findRowEndUnchecked(chunkStart(start, end, i), startsInQuotes[i], end));
+        for (int i = 1; i < chunks; i++) {
+            boundaries[i] = Math.max(boundaries[i], boundaries[i - 1]);
+        }
+        return boundaries;
+    }
+
+    private long chunkStart(long start, long end, int index) {
+        return Math.min(end, start + index * segmentSize);
+    }
+
+    private long countQuotes(long from, long to) {
+        try {
+            ByteBuffer buffer = map(from, to);
+            long count = 0;
+            for (int i = 0, length = buffer.limit(); i < length; i++) {
+                if (buffer.get(i) == '"') count++;
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Находит позицию сразу после ближайшего конца строки вне кавычек, начиная с {@code from}.
+     *
+     * @param from     Позиция начала поиска.
+     * @param inQuotes Находится ли {@code from} внутри значения в кавычках.
+     * @param end      Конец файла.
+     * @return Позиция начала следующей строки или {@code end}.
+     */
+    private long findRowEnd(long from, boolean inQuotes, long end) throws IOException {
+        long offset = from;
+        int matched = 0;
+        while (offset < end) {
+            ByteBuffer window = map(offset, Math.min(end, offset + SCAN_WINDOW));
+            for (int i = 0, length = window.limit(); i < length; i++) {
+                byte b = window.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                    matched = 0;
+                } else if (!inQuotes) {
+                    matched = b == rowEnd[matched] ? matched + 1 : (b == rowEnd[0] ? 1 : 0);
+                    if (matched == rowEnd.length) {
+                        return offset + i + 1;
+                    }
+                }
+            }
+            offset += window.limit();
+        }
+        return end;
+    }
+
+    private long findRowEndUnchecked(long from, boolean inQuotes, long end) {
+        try {
+            return findRowEnd(from, inQuotes, end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<T> parseSegment(long from, long to, int[] columns) {
+        List<T> records = new ArrayList<>();
+        if (from >= to) {
+            return records;
+        }
+        try {
+            CsvRowParser parser = newParser(from, to);
+            for (List<String> row = parser.nextRow(); row != null; row = parser.nextRow()) {
+                records.add(type.cast(binder.bind(row, columns, parser.getRowNumber())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (CsvParseException e) {
+            throw new CsvParseException("Сегмент с байта " + from + ": " + e.getMessage(), e);
+        }
+        return records;
+    }
+
+    private CsvRowParser newParser(long from, long to) throws IOException {
+        return new CsvRowParser(new Utf8BufferReader(map(from, to)), delimiter, lineSeparator);
+    }
+
+    private ByteBuffer map(long from, long to) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
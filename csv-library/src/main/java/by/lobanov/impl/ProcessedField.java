@@ -0,0 +1,61 @@
+package by.lobanov.impl;
+
+import by.lobanov.annotation.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
+import by.lobanov.format.*;
+import by.lobanov.masking.*;
+import lombok.*;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * Поле класса, прошедшее разбор аннотаций и готовое к записи в CSV.
+ *
+ * @author Астонский Шпион
+ */
+@Getter
+@AllArgsConstructor
+class ProcessedField {
+    private final Field field;
+    private final String headerName;
+    private final CsvRecord csvRecord;
+    private final MaskedField maskedField;
+    /**
+     * Операция маскирования, подготовленная по {@link #maskedField}, или {@code null}.
+     */
+    private final MaskingOperation maskingOperation;
+    /**
+     * Форматтер, подготовленный по {@link CsvFormat}, или {@code null}.
+     */
+    private final ValueFormatter<Object> formatter;
+    /**
+     * Кешируемая колонка по {@link DataField#cacheSize()}, или {@code null}.
+     */
+    private final CachedColumn cachedColumn;
+    /**
+     * План вложенной записи, колонки которой разворачиваются вместо поля, или {@code null}.
+     */
+    private final WritePlan embeddedPlan;
+    /**
+     * Способ записи поля-коллекции, или {@code null}, если коллекция пишется через {@link Object#toString()}.
+     */
+    private final CsvCollection collection;
+    /**
+     * Заголовки всех колонок поля: один для обычного поля, несколько для вложенной записи и коллекции по колонкам.
+     */
+    private final List<String> headers;
+    private final FieldAccessor reflectionAccessor;
+    private final FieldAccessor methodHandleAccessor;
+
+    /**
+     * Возвращает accessor поля для заданной стратегии доступа.
+     *
+     * @param strategy Стратегия доступа.
+     * @return Accessor поля.
+     */
+    FieldAccessor getAccessor(AccessStrategy strategy) {
+        return strategy == AccessStrategy.METHOD_HANDLE ? methodHandleAccessor : reflectionAccessor;
+    }
+}
@@ -0,0 +1,290 @@
+package by.lobanov.impl;
+
+import by.lobanov.annotation.*;
+import by.lobanov.exception.*;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Сборка объекта записи из значений ячеек по схеме {@link WritePlan}.
+ * <p>
+ * Колонки соответствуют колонкам плана (те же имена заголовков, поля {@code @TransientField} исключены);
+ * вложенные записи собираются из своих колонок, коллекции по колонкам — из непустых ячеек.
+ * Маскирование {@link MaskedField} необратимо: строковые поля получают маскированный текст,
+ * а маскированные колонки полей других типов не читаются, и поле сохраняет значение по умолчанию.
+ * Объект создается одним из способов, в порядке предпочтения:
+ * </p>
+ * <ul>
+ *     <li>канонический конструктор record-класса;</li>
+ *     <li>конструктор, принимающий все нестатические поля в порядке объявления, начиная с полей суперклассов
+ *     (например, {@code @AllArgsConstructor});</li>
+ *     <li>конструктор без параметров с последующей установкой полей.</li>
+ * </ul>
+ * <p>
+ * Связыватель строится один раз на класс и хранится в {@link ClassValue}; он неизменяем и безопасен
+ * для многопоточного доступа.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+final class RecordBinder {
+
+    private static final ClassValue<RecordBinder> BINDERS = new ClassValue<>() {
+        @Override
+        protected RecordBinder computeValue(Class<?> type) {
+            return new RecordBinder(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final List<ProcessedField> fields;
+    /**
+     * Заголовки всех колонок записи, включая развернутые вложенные записи и коллекции.
+     */
+    private final List<String> headers;
+    private final Map<String, Integer> columnIndexByHeader;
+    /**
+     * Для каждого поля плана: индекс его первой колонки и способ чтения значения из колонок.
+     */
+    private final int[] fieldOffsets;
+    private final List<CellReader> readers;
+
+    /**
+     * Для конструктора с параметрами: позиция параметра для каждого поля плана и значения по умолчанию всех параметров.
+     */
+    private final MethodHandle constructor;
+    private final int[] argumentIndexes;
+    private final Object[] defaultArguments;
+
+    private RecordBinder(Class<?> type) {
+        this.type = type;
+        this.fields = WritePlan.of(type).getFields();
+        List<String> allHeaders = new ArrayList<>();
+        List<CellReader> fieldReaders = new ArrayList<>();
+        this.fieldOffsets = new int[fields.size()];
+        for (int i = 0; i < fields.size(); i++) {
+            ProcessedField pf = fields.get(i);
+            fieldOffsets[i] = allHeaders.size();
+            allHeaders.addAll(pf.getHeaders());
+            fieldReaders.add(readerFor(pf));
+        }
+        this.headers = List.copyOf(allHeaders);
+        Map<String, Integer> byHeader = new HashMap<>();
+        for (int i = 0; i < headers.size(); i++) {
+            byHeader.putIfAbsent(headers.get(i), i);
+        }
+        this.columnIndexByHeader = Map.copyOf(byHeader);
+        this.readers = List.copyOf(fieldReaders);
+
+        List<Field> allFields = WritePlan.instanceFields(type);
+        Constructor<?> allFieldsConstructor = findConstructor(type, allFields.stream().map(Field::getType).toArray(Class<?>[]::new));
+        Constructor<?> target = allFieldsConstructor != null ? allFieldsConstructor : findConstructor(type);
+        if (target == null) {
+            throw new IllegalArgumentException("Класс '" + type.getName() + "' должен иметь конструктор без параметров "
+                    + "или конструктор со всеми полями в порядке объявления");
+        }
+        this.constructor = toSpreadHandle(target);
+        if (allFieldsConstructor != null) {
+            this.defaultArguments = allFields.stream().map(field -> ValueConverters.defaultValue(field.getType())).toArray();
+            this.argumentIndexes = fields.stream().mapToInt(pf -> allFields.indexOf(pf.getField())).toArray();
+        } else {
+            this.defaultArguments = new Object[0];
+            this.argumentIndexes = null;
+        }
+    }
+
+    /**
+     * Возвращает закешированный связыватель для класса.
+     *
+     * @param type Класс записей.
+     * @return Связыватель.
+     * @throws IllegalArgumentException Если класс нельзя создать или тип одного из полей не поддерживается.
+     */
+    static RecordBinder of(Class<?> type) {
+        return BINDERS.get(type);
+    }
+
+    /**
+     * Сопоставляет колонки строки заголовка с колонками плана. Неизвестные колонки пропускаются.
+     *
+     * @param header Значения строки заголовка.
+     * @return Индекс колонки плана для каждой колонки или {@code -1}.
+     */
+    int[] columnsFor(List<String> header) {
+        int[] columns = new int[header.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = columnIndexByHeader.getOrDefault(header.get(i), -1);
+        }
+        return columns;
+    }
+
+    /**
+     * Колонки в порядке плана — для файлов без заголовка.
+     */
+    int[] positionalColumns() {
+        int[] columns = new int[headers.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = i;
+        }
+        return columns;
+    }
+
+    /**
+     * Создает объект из значений ячеек.
+     *
+     * @param row       Значения ячеек.
+     * @param columns   Индекс колонки плана для каждой колонки (см. {@link #columnsFor(List)}).
+     * @param rowNumber Номер строки для сообщений об ошибках.
+     * @return Объект записи.
+     * @throws CsvParseException Если значение не удалось преобразовать или объект не удалось создать.
+     */
+    Object bind(List<String> row, int[] columns, long rowNumber) {
+        String[] cells = new String[headers.size()];
+        int count = Math.min(row.size(), columns.length);
+        for (int i = 0; i < count; i++) {
+            if (columns[i] >= 0) {
+                cells[columns[i]] = row.get(i);
+            }
+        }
+        return bindCells(cells, 0, headers, rowNumber);
+    }
+
+    /**
+     * Создает объект из колонок плана, начиная с {@code offset}.
+     *
+     * @param cells     Значения колонок плана; отсутствующие колонки равны {@code null}.
+     * @param offset     Индекс первой колонки этой записи.
+     * @param rowHeaders Заголовки всех колонок строки (внешней записи) для сообщений об ошибках.
+     * @param rowNumber  Номер строки для сообщений об ошибках.
+     * @return Объект записи.
+     */
+    private Object bindCells(String[] cells, int offset, List<String> rowHeaders, long rowNumber) {
+        if (argumentIndexes != null) {
+            Object[] arguments = defaultArguments.clone();
+            for (int i = 0; i < fields.size(); i++) {
+                Object value = readers.get(i).read(cells, offset + fieldOffsets[i], rowHeaders, rowNumber);
+                if (value != null) {
+                    arguments[argumentIndexes[i]] = value;
+                }
+            }
+            return construct(arguments, rowNumber);
+        }
+
+        Object instance = construct(defaultArguments, rowNumber);
+        for (int i = 0; i < fields.size(); i++) {
+            Object value = readers.get(i).read(cells, offset + fieldOffsets[i], rowHeaders, rowNumber);
+            if (value != null) {
+                setField(instance, i, value, rowNumber);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Чтение значения поля из его колонок.
+     */
+    @FunctionalInterface
+    private interface CellReader {
+        Object read(String[] cells, int offset, List<String> rowHeaders, long rowNumber);
+    }
+
+    /**
+     * Строит способ чтения поля: вложенная запись собирается своим связывателем (и равна {@code null},
+     * если все ее ячейки пусты), коллекция по колонкам — из непустых ячеек, остальные поля — из одной ячейки.
+     * Маскированные нестроковые поля не читаются.
+     */
+    private CellReader readerFor(ProcessedField pf) {
+        int width = pf.getHeaders().size();
+        if (pf.getMaskingOperation() != null && pf.getField().getType() != String.class) {
+            return (cells, offset, rowHeaders, rowNumber) -> null;
+        }
+        if (pf.getEmbeddedPlan() != null) {
+            RecordBinder nested = RecordBinder.of(pf.getField().getType());
+            return (cells, offset, rowHeaders, rowNumber) ->
+                    allEmpty(cells, offset, width) ? null : nested.bindCells(cells, offset, rowHeaders, rowNumber);
+        }
+        CsvCollection collection = pf.getCollection();
+        if (collection != null && collection.columns() > 0) {
+            Function<String, Object> element = ValueConverters.forElement(pf.getField());
+            return (cells, offset, rowHeaders, rowNumber) -> {
+                if (allEmpty(cells, offset, width)) {
+                    return null;
+                }
+                Collection<Object> result = ValueConverters.newCollection(pf.getField().getType());
+                for (int i = offset; i < offset + width; i++) {
+                    if (cells[i] != null && !cells[i].isEmpty()) {
+                        result.add(convert(element, cells[i], rowHeaders.get(i), rowNumber));
+                    }
+                }
+                return result;
+            };
+        }
+        Function<String, Object> converter = ValueConverters.forField(pf.getField());
+        return (cells, offset, rowHeaders, rowNumber) -> {
+            String cell = cells[offset];
+            return cell == null || cell.isEmpty() ? null : convert(converter, cell, rowHeaders.get(offset), rowNumber);
+        };
+    }
+
+    private static boolean allEmpty(String[] cells, int from, int width) {
+        for (int i = from; i < from + width; i++) {
+            if (cells[i] != null && !cells[i].isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object convert(Function<String, Object> converter, String cell, String header, long rowNumber) {
+        try {
+            return converter.apply(cell);
+        } catch (RuntimeException e) {
+            throw new CsvParseException(rowNumber, "не удалось преобразовать значение '" + cell
+                    + "' колонки '" + header + "'", e);
+        }
+    }
+
+    private Object construct(Object[] arguments, long rowNumber) {
+        try {
+            return (Object) constructor.invokeExact(arguments);
+        } catch (Throwable e) {
+            throw new CsvParseException(rowNumber, "не удалось создать " + type.getName(), e);
+        }
+    }
+
+    private void setField(Object instance, int fieldIndex, Object value, long rowNumber) {
+        Field field = fields.get(fieldIndex).getField();
+        try {
+            field.set(instance, value);
+        } catch (IllegalAccessException e) {
+            throw new CsvParseException(rowNumber, "ошибка доступа к полю: " + field.getName(), e);
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type, Class<?>... parameterTypes) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor(parameterTypes);
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Приводит конструктор к сигнатуре {@code (Object[]) -> Object}, чтобы вызывать его через {@code invokeExact}.
+     */
+    private static MethodHandle toSpreadHandle(Constructor<?> constructor) {
+        try {
+            MethodHandle handle = MethodHandles.privateLookupIn(constructor.getDeclaringClass(), MethodHandles.lookup())
+                    .unreflectConstructor(constructor);
+            return handle.asSpreader(Object[].class, constructor.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Нет доступа к конструктору класса " + constructor.getDeclaringClass().getName(), e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package by.lobanov.impl;
+
+import by.lobanov.annotation.*;
+import by.lobanov.config.*;
+import by.lobanov.masking.*;
+import by.lobanov.serializer.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Кодирование записи в строку CSV по ее {@link WritePlan}.
+ * <p>
+ * Если для класса есть сгенерированный {@link RecordSerializer} и он разрешен настройками, значения
+ * берутся из него, иначе поля читаются accessor'ами плана по {@link AccessStrategy}.
+ * Экземпляр не хранит состояния строки и может использоваться из нескольких потоков с разными кодировщиками.
+ * Время чтения полей измеряется только на пути через accessor'ы: в сгенерированном сериализаторе
+ * чтение поля неотделимо от записи значения и учитывается как форматирование.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+final class RecordEncoder {
+
+    private final AccessStrategy accessStrategy;
+    private final boolean useGeneratedSerializers;
+
+    /**
+     * Конструктор.
+     *
+     * @param settings Настройки записи.
+     */
+    RecordEncoder(CsvWriterSettings settings) {
+        this.accessStrategy = Objects.requireNonNull(settings.getAccessStrategy(), "Access strategy не может быть null");
+        this.useGeneratedSerializers = settings.isUseGeneratedSerializers();
+    }
+
+    /**
+     * Кодирует одну строку данных по плану в заданный кодировщик.
+     *
+     * @param obj     Объект для записи; {@code null} записывается как строка из пустых ячеек.
+     * @param plan    План записи.
+     * @param encoder Кодировщик, в который пишется строка.
+     * @throws IOException              Если доступ к полю запрещен.
+     * @throws IllegalArgumentException Если объект не является экземпляром класса плана.
+     */
+    void encode(Object obj, WritePlan plan, CsvRowEncoder encoder) throws IOException {
+        if (obj == null) {
+            encoder.emptyRow(plan.getHeaders().size());
+            return;
+        }
+        Class<?> clazz = plan.getType();
+        if (!clazz.isInstance(obj)) {
+            throw new IllegalArgumentException("Все объекты в списке должны быть одного типа: " + clazz.getName() +
+                    ", встречен: " + obj.getClass().getName());
+        }
+        encoder.beginRow();
+        try {
+            writeRecordValues(obj, plan, encoder);
+        } catch (IOException | RuntimeException e) {
+            encoder.abortRow();
+            throw e;
+        }
+        encoder.endRow();
+    }
+
+    /**
+     * Передает значения колонок записи в уже начатую строку кодировщика, не начиная и не завершая строку.
+     *
+     * @param obj  Экземпляр класса плана.
+     * @param plan План записи.
+     * @param sink Кодировщик строки.
+     * @throws IOException Если возникает ошибка ввода-вывода или доступ к полю запрещен.
+     */
+    void writeRecordValues(Object obj, WritePlan plan, CsvRowEncoder sink) throws IOException {
+        RecordSerializer<Object> serializer = useGeneratedSerializers ? plan.getSerializer() : null;
+        if (serializer != null) {
+            serializer.serialize(obj, sink);
+        } else {
+            writeFieldValues(obj, plan.getFields(), sink);
+        }
+    }
+
+    /**
+     * Читает значения полей объекта и передает их в кодировщик строки.
+     * Поля {@code int}, {@code long} и {@code double} читаются типизированно, без упаковки.
+     * Если кодировщик измеряет время по фазам, время чтения каждого поля добавляется к его счетчикам.
+     *
+     * @param obj             Объект, из которого читаются поля.
+     * @param processedFields Поля плана записи.
+     * @param sink            Кодировщик строки.
+     * @throws IOException Если возникает ошибка ввода-вывода или доступ к полю запрещен.
+     */
+    private void writeFieldValues(Object obj, List<ProcessedField> processedFields, CsvRowEncoder sink) throws IOException {
+        for (ProcessedField pf : processedFields) {
+            FieldAccessor accessor = pf.getAccessor(accessStrategy);
+            MaskingOperation maskingOperation = pf.getMaskingOperation();
+            try {
+                if (pf.getEmbeddedPlan() != null) {
+                    writeEmbedded(read(accessor, obj, sink), pf, sink);
+                    continue;
+                }
+                CsvCollection collection = pf.getCollection();
+                if (collection != null) {
+                    Collection<?> values = (Collection<?>) read(accessor, obj, sink);
+                    if (collection.columns() > 0) {
+                        sink.expandedValues(values, collection.columns());
+                    } else {
+                        sink.joinedValues(values, collection.separator());
+                    }
+                    continue;
+                }
+                if (maskingOperation != null) {
+                    sink.maskedValue(read(accessor, obj, sink), maskingOperation);
+                    continue;
+                }
+                if (pf.getCachedColumn() != null) {
+                    sink.cachedValue(read(accessor, obj, sink), pf.getFormatter(), pf.getCachedColumn());
+                    continue;
+                }
+                if (pf.getFormatter() != null) {
+                    sink.value(read(accessor, obj, sink), pf.getFormatter());
+                    continue;
+                }
+                switch (accessor.getKind()) {
+                    case INT -> sink.value(readInt(accessor, obj, sink));
+                    case LONG -> sink.value(readLong(accessor, obj, sink));
+                    case DOUBLE -> sink.value(readDouble(accessor, obj, sink));
+                    case OBJECT -> sink.value(read(accessor, obj, sink));
+                }
+            } catch (IllegalAccessException e) {
+                throw new IOException("Ошибка доступа к полю: " + pf.getField().getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Разворачивает вложенную запись в ее колонки; {@code null} записывается пустыми ячейками.
+     */
+    private void writeEmbedded(Object nested, ProcessedField pf, CsvRowEncoder sink) throws IOException {
+        if (nested == null) {
+            sink.emptyValues(pf.getHeaders().size());
+            return;
+        }
+        writeRecordValues(nested, pf.getEmbeddedPlan(), sink);
+    }
+
+    private static Object read(FieldAccessor accessor, Object obj, CsvRowEncoder sink) throws IllegalAccessException {
+        if (!sink.isPhaseTiming()) {
+            return accessor.get(obj);
+        }
+        long began = System.nanoTime();
+        Object value = accessor.get(obj);
+        sink.addFieldAccessNanos(System.nanoTime() - began);
+        return value;
+    }
+
+    private static int readInt(FieldAccessor accessor, Object obj, CsvRowEncoder sink) throws IllegalAccessException {
+        if (!sink.isPhaseTiming()) {
+            return accessor.getInt(obj);
+        }
+        long began = System.nanoTime();
+        int value = accessor.getInt(obj);
+        sink.addFieldAccessNanos(System.nanoTime() - began);
+        return value;
+    }
+
+    private static long readLong(FieldAccessor accessor, Object obj, CsvRowEncoder sink) throws IllegalAccessException {
+        if (!sink.isPhaseTiming()) {
+            return accessor.getLong(obj);
+        }
+        long began = System.nanoTime();
+        long value = accessor.getLong(obj);
+        sink.addFieldAccessNanos(System.nanoTime() - began);
+        return value;
+    }
+
+    private static double readDouble(FieldAccessor accessor, Object obj, CsvRowEncoder sink) throws IllegalAccessException {
+        if (!sink.isPhaseTiming()) {
+            return accessor.getDouble(obj);
+        }
+        long began = System.nanoTime();
+        double value = accessor.getDouble(obj);
+        sink.addFieldAccessNanos(System.nanoTime() - began);
+        return value;
+    }
+}
@@ -0,0 +1,278 @@
+package by.lobanov.impl;
+
+import by.lobanov.config.*;
+import by.lobanov.masking.*;
+
+import java.io.*;
+import java.sql.*;
+import java.time.*;
+import java.util.*;
+
+/**
+ * Запись результатов запроса ({@link ResultSet}) в CSV без промежуточных объектов записей.
+ * <p>
+ * Заголовки берутся из {@link ResultSetMetaData}, значения читаются типизированными методами
+ * {@link ResultSet} по типу колонки ({@link Types}) и пишутся прямо в буфер кодировщика: целые и вещественные
+ * числа без упаковки, {@link Types#REAL} — как {@code float}, без расширения до {@code double}; десятичные и даты —
+ * встроенными форматтерами {@link CsvWriterSettings#getFormatters()}.
+ * Колонки из {@link ResultSetMapping#getMaskedColumns()} читаются как строки и маскируются на месте.
+ * {@code NULL} записывается пустой ячейкой.
+ * </p>
+ * <p>
+ * Заголовок пишется один раз, перед строками первого результата; последующие результаты
+ * должны иметь то же количество колонок. Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class ResultSetCsvWriter implements Closeable, Flushable {
+
+    private final Writer writer;
+    private final ResultSetMapping mapping;
+    private final CsvRowEncoder encoder;
+    private final Map<String, MaskingOperation> maskedColumns;
+
+    private int columnCount = -1;
+
+    /**
+     * Конструктор.
+     *
+     * @param writer   Куда будут записываться данные.
+     * @param settings Настройки записи.
+     * @param mapping  Правила выгрузки результатов запроса.
+     */
+    public ResultSetCsvWriter(Writer writer, CsvWriterSettings settings, ResultSetMapping mapping) {
+        Objects.requireNonNull(writer, "Writer не может быть null");
+        Objects.requireNonNull(settings, "Settings не может быть null");
+        Objects.requireNonNull(mapping, "Mapping не может быть null");
+        Objects.requireNonNull(settings.getLineSeparator(), "Line separator не может быть null");
+        if (settings.getLineSeparator().isEmpty()) {
+            throw new IllegalArgumentException("Line separator не может быть пустым");
+        }
+        if (mapping.getFetchSize() < 0) {
+            throw new IllegalArgumentException("Fetch size не может быть отрицательным");
+        }
+        Objects.requireNonNull(settings.getFormatters(), "Formatters не может быть null");
+        Objects.requireNonNull(settings.getQuotingPolicy(), "Quoting policy не может быть null");
+        Objects.requireNonNull(mapping.getNamingStrategy(), "Naming strategy не может быть null");
+        this.writer = writer;
+        this.mapping = mapping;
+        this.encoder = new CsvRowEncoder(settings.getDelimiter(), settings.getLineSeparator(),
+                settings.getMaskingKey(), settings.getFormatters(), settings.getQuotingPolicy());
+        Map<String, MaskingOperation> masked = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        masked.putAll(Objects.requireNonNull(mapping.getMaskedColumns(), "Masked columns не может быть null"));
+        this.maskedColumns = masked;
+    }
+
+    /**
+     * Записывает все оставшиеся строки результата. Результат не закрывается.
+     *
+     * @param resultSet Результат запроса, курсор которого стоит перед первой записываемой строкой.
+     * @return Количество записанных строк.
+     * @throws IOException              Если возникает ошибка ввода-вывода.
+     * @throws SQLException             Если возникает ошибка чтения результата.
+     * @throws IllegalArgumentException Если количество колонок отличается от предыдущего результата.
+     */
+    public long write(ResultSet resultSet) throws IOException, SQLException {
+        Objects.requireNonNull(resultSet, "Result set не может быть null");
+        if (mapping.getFetchSize() > 0) {
+            resultSet.setFetchSize(mapping.getFetchSize());
+        }
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        ColumnReader[] readers = readers(metaData);
+        MaskingOperation[] maskingOperations = maskingOperations(metaData);
+        writeHeaderOnce(metaData);
+
+        long rows = 0;
+        while (resultSet.next()) {
+            encoder.beginRow();
+            try {
+                for (int i = 0; i < readers.length; i++) {
+                    if (maskingOperations[i] != null) {
+                        encoder.maskedValue(resultSet.getString(i + 1), maskingOperations[i]);
+                    } else {
+                        readers[i].read(resultSet, i + 1, encoder);
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                encoder.abortRow();
+                throw e;
+            }
+            encoder.endRow();
+            rows++;
+            if (encoder.size() >= DefaultCsvWriter.FLUSH_THRESHOLD) {
+                encoder.writeTo(writer);
+            }
+        }
+        encoder.writeTo(writer);
+        return rows;
+    }
+
+    private void writeHeaderOnce(ResultSetMetaData metaData) throws SQLException {
+        int count = metaData.getColumnCount();
+        if (columnCount >= 0) {
+            if (count != columnCount) {
+                throw new IllegalArgumentException("Результат содержит " + count + " колонок, а заголовок — " + columnCount);
+            }
+            return;
+        }
+        columnCount = count;
+        if (mapping.isIncludeHeader()) {
+            List<String> headers = new ArrayList<>(count);
+            for (int i = 1; i <= count; i++) {
+                headers.add(mapping.getNamingStrategy().apply(metaData.getColumnLabel(i)));
+            }
+            encoder.appendRaw(encoder.renderRow(headers));
+        }
+    }
+
+    private static ColumnReader[] readers(ResultSetMetaData metaData) throws SQLException {
+        ColumnReader[] readers = new ColumnReader[metaData.getColumnCount()];
+        for (int i = 0; i < readers.length; i++) {
+            readers[i] = ColumnReader.of(metaData.getColumnType(i + 1));
+        }
+        return readers;
+    }
+
+    private MaskingOperation[] maskingOperations(ResultSetMetaData metaData) throws SQLException {
+        MaskingOperation[] operations = new MaskingOperation[metaData.getColumnCount()];
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = maskedColumns.get(metaData.getColumnLabel(i + 1));
+        }
+        return operations;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        encoder.writeTo(writer);
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            encoder.writeTo(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Чтение значения колонки подходящим по типу методом {@link ResultSet}.
+     */
+    private enum ColumnReader {
+        INT {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                int value = resultSet.getInt(column);
+                if (resultSet.wasNull()) {
+                    encoder.emptyValues(1);
+                } else {
+                    encoder.value(value);
+                }
+            }
+        },
+        LONG {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                long value = resultSet.getLong(column);
+                if (resultSet.wasNull()) {
+                    encoder.emptyValues(1);
+                } else {
+                    encoder.value(value);
+                }
+            }
+        },
+        FLOAT {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                float value = resultSet.getFloat(column);
+                if (resultSet.wasNull()) {
+                    encoder.emptyValues(1);
+                } else {
+                    encoder.value(value);
+                }
+            }
+        },
+        DOUBLE {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                double value = resultSet.getDouble(column);
+                if (resultSet.wasNull()) {
+                    encoder.emptyValues(1);
+                } else {
+                    encoder.value(value);
+                }
+            }
+        },
+        STRING {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                encoder.value(resultSet.getString(column));
+            }
+        },
+        DECIMAL {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                encoder.value(resultSet.getBigDecimal(column));
+            }
+        },
+        BOOLEAN {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                boolean value = resultSet.getBoolean(column);
+                encoder.value(resultSet.wasNull() ? null : Boolean.toString(value));
+            }
+        },
+        DATE {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                encoder.value(resultSet.getObject(column, LocalDate.class));
+            }
+        },
+        TIME {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                encoder.value(resultSet.getObject(column, LocalTime.class));
+            }
+        },
+        TIMESTAMP {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                encoder.value(resultSet.getObject(column, LocalDateTime.class));
+            }
+        },
+        TIMESTAMP_WITH_TIMEZONE {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                encoder.value(resultSet.getObject(column, OffsetDateTime.class));
+            }
+        },
+        OBJECT {
+            @Override
+            void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException {
+                encoder.value(resultSet.getObject(column));
+            }
+        };
+
+        abstract void read(ResultSet resultSet, int column, CsvRowEncoder encoder) throws SQLException;
+
+        static ColumnReader of(int sqlType) {
+            return switch (sqlType) {
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER -> INT;
+                case Types.BIGINT -> LONG;
+                case Types.REAL -> FLOAT;
+                case Types.FLOAT, Types.DOUBLE -> DOUBLE;
+                case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR,
+                        Types.LONGNVARCHAR, Types.CLOB, Types.NCLOB -> STRING;
+                case Types.DECIMAL, Types.NUMERIC -> DECIMAL;
+                case Types.BOOLEAN, Types.BIT -> BOOLEAN;
+                case Types.DATE -> DATE;
+                case Types.TIME -> TIME;
+                case Types.TIMESTAMP -> TIMESTAMP;
+                case Types.TIMESTAMP_WITH_TIMEZONE -> TIMESTAMP_WITH_TIMEZONE;
+                default -> OBJECT;
+            };
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package by.lobanov.impl;
+
+import by.lobanov.*;
+import by.lobanov.config.*;
+import by.lobanov.format.*;
+import by.lobanov.io.*;
+
+import java.io.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Запись CSV в файл с контрольными точками, которую можно продолжить после сбоя.
+ * <p>
+ * Каждые {@link CheckpointSettings#getCheckpointEveryRows()} строк накопленные строки передаются в файл,
+ * файл сбрасывается на диск, а в файл контрольной точки ({@link Checkpoint}) записываются количество строк,
+ * размер файла на границе последней строки и ключ последней записи. Файл контрольной точки заменяется
+ * атомарно, поэтому после сбоя он всегда описывает целые строки.
+ * </p>
+ * <p>
+ * Если при открытии файл контрольной точки существует, файл CSV обрезается до сохраненного размера
+ * (недописанный после контрольной точки хвост отбрасывается), заголовок повторно не пишется, а запись
+ * продолжается с конца файла. Вызывающий код должен пропустить уже записанные данные:
+ * {@link #getRowsWritten()} записей или все записи до ключа {@link Checkpoint#lastKey()} включительно.
+ * Без файла контрольной точки файл CSV записывается заново.
+ * </p>
+ * <p>
+ * {@link #complete()} завершает выгрузку и удаляет файл контрольной точки. {@link #close()} без
+ * {@link #complete()} (например, при ошибке) сохраняет контрольную точку на конце записанных строк,
+ * чтобы следующий запуск продолжил с этого места. Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class ResumableCsvWriter implements Writable {
+
+    private final Path checkpointPath;
+    private final long checkpointEveryRows;
+    private final Function<Object, ?> keyExtractor;
+    private final boolean forceOnCheckpoint;
+    private final FileChannel channel;
+    private final DefaultCsvWriter writer;
+    private final Checkpoint resumedFrom;
+
+    private Checkpoint checkpoint;
+    private long rows;
+    private String lastKey;
+    private long rowsSinceCheckpoint;
+    /**
+     * Получена ли первая не {@code null} запись: до нее строки не передаются в файл и контрольная точка не пишется.
+     */
+    private boolean started;
+    private boolean closed;
+
+    /**
+     * Конструктор. Продолжает запись с контрольной точки, если ее файл существует.
+     *
+     * @param path               Файл CSV.
+     * @param settings           Настройки записи.
+     * @param checkpointSettings Настройки контрольных точек.
+     * @throws IOException Если файл не удалось открыть, прочитать контрольную точку
+     *                     или файл CSV короче сохраненного в ней размера.
+     */
+    public ResumableCsvWriter(Path path, CsvWriterSettings settings, CheckpointSettings checkpointSettings) throws IOException {
+        Objects.requireNonNull(path, "Path не может быть null");
+        Objects.requireNonNull(settings, "Settings не может быть null");
+        Objects.requireNonNull(checkpointSettings, "Checkpoint settings не может быть null");
+        if (checkpointSettings.getCheckpointEveryRows() < 1) {
+            throw new IllegalArgumentException("Checkpoint every rows должен быть больше 0");
+        }
+        this.checkpointPath = checkpointSettings.getCheckpointPath() != null ? checkpointSettings.getCheckpointPath()
+                : path.resolveSibling(path.getFileName() + ".checkpoint");
+        this.checkpointEveryRows = checkpointSettings.getCheckpointEveryRows();
+        this.keyExtractor = checkpointSettings.getKeyExtractor();
+        this.forceOnCheckpoint = checkpointSettings.isForceOnCheckpoint();
+        this.resumedFrom = readCheckpoint(checkpointPath);
+
+        FileChannel opened = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            long offset = 0;
+            if (resumedFrom != null) {
+                offset = resumedFrom.bytes();
+                if (opened.size() < offset) {
+                    throw new IOException("Файл " + path + " короче контрольной точки: " + opened.size() + " < " + offset);
+                }
+                rows = resumedFrom.rows();
+                lastKey = resumedFrom.lastKey();
+            }
+            opened.truncate(offset);
+            opened.position(offset);
+            this.writer = new DefaultCsvWriter(new Utf8ChannelWriter(opened), settings);
+        } catch (IOException | RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+        if (resumedFrom != null) {
+            writer.suppressHeader();
+        }
+        this.channel = opened;
+        this.checkpoint = resumedFrom;
+    }
+
+    private static Checkpoint readCheckpoint(Path checkpointPath) throws IOException {
+        if (!Files.exists(checkpointPath)) return null;
+        try (CsvReadable<Checkpoint> reader = CsvReaderFactory.create(checkpointPath, Checkpoint.class)) {
+            Checkpoint saved = reader.read();
+            if (saved == null) {
+                throw new IOException("Файл контрольной точки " + checkpointPath + " пуст");
+            }
+            return saved;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Записи пишутся по одной через {@link #append(Object)}, поэтому заголовок пишется один раз на файл.
+     * </p>
+     */
+    @Override
+    public void write(List<?> data) throws IOException {
+        if (data == null) return;
+        for (Object record : data) {
+            append(record);
+        }
+    }
+
+    @Override
+    public void append(Object record) throws IOException {
+        ensureOpen();
+        writer.append(record);
+        rows++;
+        if (record != null) {
+            started = true;
+            if (keyExtractor != null) {
+                lastKey = Objects.toString(keyExtractor.apply(record), null);
+            }
+        }
+        if (++rowsSinceCheckpoint >= checkpointEveryRows) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Передает накопленные строки в файл и записывает контрольную точку, не дожидаясь очередных
+     * {@link CheckpointSettings#getCheckpointEveryRows()} строк. Пока не получена первая не {@code null}
+     * запись, ничего не делает: отложенные пустые строки еще не записаны в файл.
+     *
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    public void checkpoint() throws IOException {
+        ensureOpen();
+        saveCheckpoint();
+    }
+
+    private void saveCheckpoint() throws IOException {
+        if (!started) return;
+        writer.flush();
+        if (forceOnCheckpoint) {
+            channel.force(false);
+        }
+        Checkpoint next = new Checkpoint(rows, channel.position(), lastKey);
+        Path temp = checkpointPath.resolveSibling(checkpointPath.getFileName() + ".tmp");
+        FileChannel tempChannel = FileChannel.open(temp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        try (Writable checkpointWriter = new DefaultCsvWriter(new Utf8ChannelWriter(tempChannel), CsvWriterSettings.defaults())) {
+            checkpointWriter.append(next);
+            checkpointWriter.flush();
+            if (forceOnCheckpoint) {
+                tempChannel.force(true);
+            }
+        }
+        Files.move(temp, checkpointPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        checkpoint = next;
+        rowsSinceCheckpoint = 0;
+    }
+
+    /**
+     * Возвращает контрольную точку, с которой была продолжена запись при открытии.
+     *
+     * @return Контрольная точка или {@code null}, если файл записывается с начала.
+     */
+    public Checkpoint getResumedFrom() {
+        return resumedFrom;
+    }
+
+    /**
+     * Возвращает последнюю записанную контрольную точку.
+     *
+     * @return Контрольная точка или {@code null}, если ни одна еще не записана.
+     */
+    public Checkpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Возвращает количество строк данных в файле, включая строки, записанные до возобновления.
+     *
+     * @return Количество строк.
+     */
+    public long getRowsWritten() {
+        return rows;
+    }
+
+    /**
+     * Возвращает путь к файлу контрольной точки.
+     *
+     * @return Путь к файлу контрольной точки.
+     */
+    public Path getCheckpointPath() {
+        return checkpointPath;
+    }
+
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        return writer.getCacheStatistics();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writer.flush();
+    }
+
+    /**
+     * Завершает выгрузку: передает оставшиеся строки в файл, закрывает его и удаляет файл контрольной точки.
+     *
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    public void complete() throws IOException {
+        ensureOpen();
+        closed = true;
+        writer.close();
+        Files.deleteIfExists(checkpointPath);
+        checkpoint = null;
+    }
+
+    /**
+     * Закрывает файл, сохранив контрольную точку на конце записанных строк.
+     * После {@link #complete()} ничего не делает.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        try {
+            saveCheckpoint();
+        } finally {
+            closed = true;
+            writer.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer закрыт");
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package by.lobanov.impl;
+
+import by.lobanov.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
+import by.lobanov.io.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Реализация записи в формате CSV в последовательность файлов ограниченного размера.
+ * <p>
+ * Новый файл начинается, когда в текущем накопилось {@link RollingFileSettings#getMaxRows()} строк
+ * или его размер достиг {@link RollingFileSettings#getMaxBytes()} байт. Каждый файл является
+ * самостоятельным CSV: если {@link CsvRecord#includeHeader()} равен {@code true}, заголовок повторяется в каждом файле.
+ * При закрытии в том же каталоге записывается манифест со списком файлов, количеством строк и размером.
+ * </p>
+ * <p>
+ * {@code null} записываются строками из пустых ячеек. {@code null}, полученные до первой записи, откладываются,
+ * пока не станет известен класс записей, и затем распределяются по файлам как обычные строки;
+ * если других записей нет, файлы не создаются.
+ * </p>
+ * <p>
+ * При ограничении только по строкам и {@link RollingFileSettings#getShardParallelism()} больше 1
+ * список в {@link #write(List)} делится на файлы заранее, и файлы записываются одновременно.
+ * Методы экземпляра синхронизированы, поэтому его можно разделять между потоками.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class RollingCsvWriter implements Writable {
+
+    private final CsvWriterSettings settings;
+    private final Path directory;
+    private final String baseName;
+    private final String extension;
+    private final long maxRows;
+    private final long maxBytes;
+    private final int shardParallelism;
+    private final Executor shardExecutor;
+    private final Path manifestPath;
+
+    private final SortedMap<Integer, ShardInfo> completedShards = new TreeMap<>();
+    private int nextShardIndex = 1;
+    private Shard current;
+    /**
+     * Класс записей, определяется по первой не {@code null} записи; каждый файл начинается с его заголовка.
+     */
+    private Class<?> recordType;
+    /**
+     * Количество {@code null} записей, полученных до того, как стал известен класс записей.
+     */
+    private long pendingNullRows;
+    private boolean closed;
+
+    /**
+     * Конструктор.
+     *
+     * @param settings Настройки записи CSV.
+     * @param rolling  Настройки разбиения на файлы.
+     * @throws IOException Если каталог не удалось создать.
+     */
+    public RollingCsvWriter(CsvWriterSettings settings, RollingFileSettings rolling) throws IOException {
+        Objects.requireNonNull(settings, "Settings не может быть null");
+        Objects.requireNonNull(rolling, "Rolling settings не может быть null");
+        Objects.requireNonNull(rolling.getDirectory(), "Directory не может быть null");
+        Objects.requireNonNull(rolling.getExtension(), "Extension не может быть null");
+        if (rolling.getBaseName() == null || rolling.getBaseName().isEmpty()) {
+            throw new IllegalArgumentException("Base name не может быть пустым");
+        }
+        if (rolling.getMaxRows() < 0 || rolling.getMaxBytes() < 0) {
+            throw new IllegalArgumentException("Max rows и max bytes не могут быть отрицательными");
+        }
+        if (rolling.getShardParallelism() < 1) {
+            throw new IllegalArgumentException("Shard parallelism должен быть больше 0");
+        }
+        this.settings = settings;
+        this.directory = rolling.getDirectory();
+        this.baseName = rolling.getBaseName();
+        this.extension = rolling.getExtension();
+        this.maxRows = rolling.getMaxRows();
+        this.maxBytes = rolling.getMaxBytes();
+        this.shardParallelism = rolling.getShardParallelism();
+        this.shardExecutor = rolling.getShardExecutor() != null ?
+                rolling.getShardExecutor() : ForkJoinPool.commonPool();
+        this.manifestPath = directory.resolve(rolling.getManifestName() != null ?
+                rolling.getManifestName() : baseName + "-manifest.csv");
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Записи списка продолжают текущий файл; заголовок пишется только в начале каждого файла.
+     * </p>
+     */
+    @Override
+    public synchronized void write(List<?> data) throws IOException {
+        ensureOpen();
+        if (data == null || data.isEmpty()) return;
+        if (shardParallelism == 1 || maxRows == 0 || maxBytes > 0) {
+            for (Object record : data) {
+                append(record);
+            }
+            return;
+        }
+
+        int offset = 0;
+        while ((current != null || recordType == null) && offset < data.size()) {
+            append(data.get(offset++));
+        }
+        int shardSize = (int) Math.min(maxRows, Integer.MAX_VALUE);
+        int fullShardsEnd = offset + (data.size() - offset) / shardSize * shardSize;
+        writeShardsInParallel(data.subList(offset, fullShardsEnd), shardSize);
+        for (Object record : data.subList(fullShardsEnd, data.size())) {
+            append(record);
+        }
+    }
+
+    /**
+     * Записывает полные файлы по {@code shardSize} строк одновременно, не более {@code shardParallelism} за раз.
+     */
+    private void writeShardsInParallel(List<?> data, int shardSize) throws IOException {
+        Deque<PendingShard> inFlight = new ArrayDeque<>();
+        try {
+            for (int from = 0; from < data.size(); from += shardSize) {
+                if (inFlight.size() >= shardParallelism) {
+                    completeShard(inFlight.removeFirst());
+                }
+                List<?> slice = data.subList(from, from + shardSize);
+                int index = nextShardIndex++;
+                inFlight.addLast(new PendingShard(index,
+                        CompletableFuture.supplyAsync(() -> writeShard(index, slice), shardExecutor)));
+            }
+            while (!inFlight.isEmpty()) {
+                completeShard(inFlight.removeFirst());
+            }
+        } finally {
+            inFlight.forEach(pending -> pending.result().cancel(false));
+        }
+    }
+
+    private ShardInfo writeShard(int index, List<?> slice) {
+        try {
+            Shard shard = new Shard(index);
+            try {
+                for (Object record : slice) {
+                    shard.append(record);
+                }
+            } catch (IOException | RuntimeException e) {
+                shard.closeQuietly(e);
+                throw e;
+            }
+            return shard.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void completeShard(PendingShard pending) throws IOException {
+        ShardInfo info;
+        try {
+            info = pending.result().join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException uncheckedIOException) throw uncheckedIOException.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        }
+        completedShards.put(pending.index(), info);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Файл открывается при первой записи в него, поэтому пустые файлы не создаются.
+     * </p>
+     */
+    @Override
+    public synchronized void append(Object record) throws IOException {
+        ensureOpen();
+        if (recordType == null) {
+            if (record == null) {
+                pendingNullRows++;
+                return;
+            }
+            recordType = record.getClass();
+            for (; pendingNullRows > 0; pendingNullRows--) {
+                appendToShard(null);
+            }
+        }
+        appendToShard(record);
+    }
+
+    private void appendToShard(Object record) throws IOException {
+        if (current == null) {
+            current = new Shard(nextShardIndex++);
+        }
+        current.append(record);
+        if (current.isFull()) {
+            Shard finished = current;
+            current = null;
+            completedShards.put(finished.index, finished.finish());
+        }
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        if (current != null) {
+            current.writer.flush();
+        }
+    }
+
+    /**
+     * Возвращает сведения о завершенных файлах в порядке их номеров.
+     *
+     * @return Список файлов.
+     */
+    public synchronized List<ShardInfo> getShards() {
+        return List.copyOf(completedShards.values());
+    }
+
+    /**
+     * Путь к файлу манифеста, который записывается при закрытии.
+     *
+     * @return Путь к манифесту.
+     */
+    public Path getManifestPath() {
+        return manifestPath;
+    }
+
+    /**
+     * Завершает текущий файл и записывает манифест.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        if (current != null) {
+            Shard finished = current;
+            current = null;
+            completedShards.put(finished.index, finished.finish());
+        }
+        try (Writable manifestWriter = new DefaultCsvWriter(Utf8ChannelWriter.open(manifestPath), CsvWriterSettings.defaults())) {
+            manifestWriter.write(getShards());
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer закрыт");
+        }
+    }
+
+    private String shardName(int index) {
+        return String.format("%s-%05d%s", baseName, index, extension);
+    }
+
+    /**
+     * Файл, записываемый в фоновом потоке.
+     */
+    private record PendingShard(int index, CompletableFuture<ShardInfo> result) {
+    }
+
+    /**
+     * Открытый файл последовательности.
+     */
+    private final class Shard {
+
+        private final int index;
+        private final Path path;
+        private final Utf8ChannelWriter out;
+        private final DefaultCsvWriter writer;
+        private long rows;
+
+        Shard(int index) throws IOException {
+            this.index = index;
+            this.path = directory.resolve(shardName(index));
+            this.out = Utf8ChannelWriter.open(path);
+            try {
+                this.writer = new DefaultCsvWriter(out, settings);
+                writer.beginStream(recordType);
+            } catch (IOException | RuntimeException e) {
+                try {
+                    out.close();
+                } catch (IOException closeError) {
+                    e.addSuppressed(closeError);
+                }
+                throw e;
+            }
+        }
+
+        void append(Object record) throws IOException {
+            writer.append(record);
+            rows++;
+        }
+
+        /**
+         * Проверяет, достигнут ли предел файла. Размер оценивается по уже закодированным байтам и символам
+         * в буфере писателя: символ занимает в UTF-8 от 1 до 3 байт. Накопленные строки передаются
+         * в кодировщик UTF-8 только если по этим границам нельзя решить, достигнут ли предел.
+         */
+        boolean isFull() throws IOException {
+            if (maxRows > 0 && rows >= maxRows) {
+                return true;
+            }
+            if (maxBytes > 0) {
+                long encoded = out.getBytesWritten() + out.getBufferedBytes();
+                long pending = writer.pendingChars();
+                if (encoded + pending >= maxBytes) {
+                    return true;
+                }
+                if (encoded + 3 * pending < maxBytes) {
+                    return false;
+                }
+                writer.writePending();
+                return out.getBytesWritten() + out.getBufferedBytes() >= maxBytes;
+            }
+            return false;
+        }
+
+        ShardInfo finish() throws IOException {
+            long bytes;
+            try {
+                writer.writePending();
+                bytes = out.getBytesWritten() + out.getBufferedBytes();
+            } catch (IOException | RuntimeException e) {
+                closeQuietly(e);
+                throw e;
+            }
+            writer.close();
+            return new ShardInfo(path.getFileName().toString(), rows, bytes);
+        }
+
+        void closeQuietly(Exception cause) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                cause.addSuppressed(e);
+            }
+        }
+    }
+}
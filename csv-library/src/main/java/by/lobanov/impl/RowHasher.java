@@ -0,0 +1,146 @@
+package by.lobanov.impl;
+
+import by.lobanov.config.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Вычисление 64-битного хеша записи по полям ее {@link WritePlan}.
+ * <p>
+ * Значения читаются теми же accessor'ами, что и при записи, и перемешиваются в хеш напрямую:
+ * примитивы — без упаковки, строки — по символам, без форматирования и без сборки строки CSV.
+ * Маскирование и форматирование не учитываются: хешируется исходное значение поля.
+ * Хеш не зависит от JVM и запуска (не использует {@link Object#hashCode()}), поэтому пригоден
+ * для сравнения с хешами, сохраненными предыдущей выгрузкой.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+final class RowHasher {
+
+    private static final long SEED = 0x9E3779B97F4A7C15L;
+    private static final long NULL_VALUE = 0x6A09E667F3BCC909L;
+
+    private final AccessStrategy accessStrategy;
+
+    /**
+     * Конструктор.
+     *
+     * @param accessStrategy Стратегия доступа к полям.
+     */
+    RowHasher(AccessStrategy accessStrategy) {
+        this.accessStrategy = Objects.requireNonNull(accessStrategy, "Access strategy не может быть null");
+    }
+
+    /**
+     * Вычисляет хеш значений записи.
+     *
+     * @param obj  Запись, экземпляр класса плана.
+     * @param plan План записи.
+     * @return Хеш значений всех колонок записи.
+     * @throws IOException Если доступ к полю запрещен.
+     */
+    long hash(Object obj, WritePlan plan) throws IOException {
+        return hashFields(SEED, obj, plan.getFields());
+    }
+
+    /**
+     * Вычисляет хеш строкового ключа.
+     *
+     * @param key Ключ.
+     * @return Хеш ключа.
+     */
+    static long hashKey(CharSequence key) {
+        return mixChars(SEED, key);
+    }
+
+    private long hashFields(long hash, Object obj, List<ProcessedField> fields) throws IOException {
+        for (ProcessedField pf : fields) {
+            FieldAccessor accessor = pf.getAccessor(accessStrategy);
+            try {
+                if (pf.getEmbeddedPlan() != null) {
+                    Object nested = accessor.get(obj);
+                    hash = nested == null ? mix(hash, NULL_VALUE)
+                            : hashFields(mix(hash, 1), nested, pf.getEmbeddedPlan().getFields());
+                    continue;
+                }
+                hash = switch (accessor.getKind()) {
+                    case INT -> mix(hash, accessor.getInt(obj));
+                    case LONG -> mix(hash, accessor.getLong(obj));
+                    case DOUBLE -> mix(hash, Double.doubleToLongBits(accessor.getDouble(obj)));
+                    case OBJECT -> mixValue(hash, accessor.get(obj));
+                };
+            } catch (IllegalAccessException e) {
+                throw new IOException("Ошибка доступа к полю: " + pf.getField().getName(), e);
+            }
+        }
+        return hash;
+    }
+
+    private static long mixValue(long hash, Object value) {
+        if (value == null) {
+            return mix(hash, NULL_VALUE);
+        }
+        if (value instanceof CharSequence charSequence) {
+            return mixChars(hash, charSequence);
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return mix(hash, ((Number) value).longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return mix(hash, Double.doubleToLongBits(((Number) value).doubleValue()));
+        }
+        if (value instanceof Boolean bool) {
+            return mix(hash, bool ? 1 : 0);
+        }
+        if (value instanceof Enum<?> constant) {
+            return mixChars(hash, constant.name());
+        }
+        if (value instanceof Collection<?> collection) {
+            hash = mix(hash, collection.size());
+            for (Object element : collection) {
+                hash = mixValue(hash, element);
+            }
+            return hash;
+        }
+        return mixChars(hash, value.toString());
+    }
+
+    /**
+     * Перемешивает в хеш длину и символы строки, по четыре символа за шаг.
+     */
+    private static long mixChars(long hash, CharSequence value) {
+        int length = value.length();
+        hash = mix(hash, length);
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            hash = mix(hash, value.charAt(i) | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32 | (long) value.charAt(i + 3) << 48);
+        }
+        if (i < length) {
+            long tail = 0;
+            for (int shift = 0; i < length; i++, shift += 16) {
+                tail |= (long) value.charAt(i) << shift;
+            }
+            hash = mix(hash, tail);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        return Long.rotateLeft(hash ^ finalizeBits(value), 31) * SEED;
+    }
+
+    /**
+     * Финальное перемешивание MurmurHash3: каждый бит значения влияет на все биты результата.
+     */
+    private static long finalizeBits(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
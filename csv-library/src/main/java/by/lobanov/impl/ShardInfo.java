@@ -0,0 +1,15 @@
+package by.lobanov.impl;
+
+import by.lobanov.annotation.csv.*;
+
+/**
+ * Сведения о файле, записанном {@link RollingCsvWriter}. Манифест записывается как CSV из этих записей.
+ *
+ * @param file  Имя файла.
+ * @param rows  Количество строк данных (без заголовка).
+ * @param bytes Размер файла в байтах.
+ * @author Астонский Шпион
+ */
+@CsvRecord
+public record ShardInfo(String file, long rows, long bytes) {
+}
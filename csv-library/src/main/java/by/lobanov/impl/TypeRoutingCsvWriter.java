@@ -0,0 +1,155 @@
+package by.lobanov.impl;
+
+import by.lobanov.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
+import by.lobanov.exception.*;
+import by.lobanov.format.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Реализация записи в формате CSV для записей разных типов, где записи каждого класса пишутся в свой приемник.
+ * <p>
+ * Приемник для класса открывается при первой записи этого класса; дальше записи передаются
+ * писателю {@link DefaultCsvWriter} этого класса, который использует закешированный план и пишет
+ * свой заголовок. {@code null} записи пропускаются, так как их тип неизвестен.
+ * </p>
+ * <p>
+ * Экземпляр не потокобезопасен. При закрытии закрываются все открытые приемники.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class TypeRoutingCsvWriter implements Writable {
+
+    /**
+     * Открывает приемник для записей заданного класса.
+     */
+    @FunctionalInterface
+    public interface OutputProvider {
+
+        /**
+         * @param type Класс записей.
+         * @return Приемник; закрывается вместе с писателем.
+         * @throws IOException Если приемник не удалось открыть.
+         */
+        Writer open(Class<?> type) throws IOException;
+    }
+
+    private final CsvWriterSettings settings;
+    private final OutputProvider outputs;
+    private final Map<Class<?>, DefaultCsvWriter> writers = new LinkedHashMap<>();
+    private Class<?> lastType;
+    private DefaultCsvWriter lastWriter;
+
+    /**
+     * Конструктор.
+     *
+     * @param outputs  Приемники по классам записей.
+     * @param settings Настройки записи.
+     */
+    public TypeRoutingCsvWriter(OutputProvider outputs, CsvWriterSettings settings) {
+        this.outputs = Objects.requireNonNull(outputs, "Outputs не может быть null");
+        this.settings = Objects.requireNonNull(settings, "Settings не может быть null");
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Записи могут быть разных типов; каждая попадает в приемник своего класса.
+     * </p>
+     */
+    @Override
+    public void write(List<?> data) throws IOException {
+        if (data == null || data.isEmpty()) return;
+        for (Object record : data) {
+            append(record);
+        }
+        drain();
+    }
+
+    @Override
+    public void append(Object record) throws IOException {
+        if (record == null) return;
+        writerFor(record.getClass()).append(record);
+    }
+
+    @Override
+    public void write(Iterator<?> data) throws IOException {
+        Writable.super.write(data);
+        drain();
+    }
+
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        for (DefaultCsvWriter writer : writers.values()) {
+            statistics.addAll(writer.getCacheStatistics());
+        }
+        return statistics;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        for (DefaultCsvWriter writer : writers.values()) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Классы, для которых открыты приемники, в порядке их появления.
+     *
+     * @return Классы записей.
+     */
+    public Set<Class<?>> getTypes() {
+        return Collections.unmodifiableSet(writers.keySet());
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException error = null;
+        for (DefaultCsvWriter writer : writers.values()) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        writers.clear();
+        lastType = null;
+        lastWriter = null;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void drain() throws IOException {
+        for (DefaultCsvWriter writer : writers.values()) {
+            writer.drain();
+        }
+    }
+
+    private DefaultCsvWriter writerFor(Class<?> type) throws IOException {
+        if (type == lastType) {
+            return lastWriter;
+        }
+        DefaultCsvWriter writer = writers.get(type);
+        if (writer == null) {
+            if (type.getAnnotation(CsvRecord.class) == null) {
+                throw new FormatRecordAnnotationMissingException(type);
+            }
+            Writer output = Objects.requireNonNull(outputs.open(type), "Приемник не может быть null: " + type.getName());
+            writer = new DefaultCsvWriter(output, settings);
+            writers.put(type, writer);
+        }
+        lastType = type;
+        lastWriter = writer;
+        return writer;
+    }
+}
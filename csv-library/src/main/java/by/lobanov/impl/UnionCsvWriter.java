@@ -0,0 +1,239 @@
+package by.lobanov.impl;
+
+import by.lobanov.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
+import by.lobanov.exception.*;
+import by.lobanov.format.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Реализация записи в формате CSV для записей разных типов в один файл с объединенным набором колонок.
+ * <p>
+ * Колонки файла — заголовки всех переданных типов в порядке первого появления; одинаковые заголовки
+ * разных типов попадают в одну колонку. Каждая запись кодируется по закешированному плану своего класса,
+ * а ее ячейки раскладываются по колонкам файла; колонки, которых нет у класса записи, остаются пустыми.
+ * Записи подклассов и других типов, не перечисленных при создании, допускаются, если все их колонки
+ * входят в объединенный набор. Дополнительная колонка типа (если задана) содержит простое имя класса записи.
+ * </p>
+ * <p>
+ * Заголовок пишется с первой записью, если хотя бы один из типов его требует ({@link CsvRecord#includeHeader()}).
+ * Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class UnionCsvWriter implements Writable {
+
+    private final Writer writer;
+    private final String typeColumn;
+    private final List<String> headers;
+    private final Map<String, Integer> columnIndexByHeader;
+    private final boolean includeHeader;
+    private final RecordEncoder recordEncoder;
+    private final CsvRowEncoder encoder;
+    private final CsvRowEncoder recordRow;
+
+    /**
+     * Раскладки колонок по классам записей; последняя использованная хранится отдельно,
+     * так как записи одного типа обычно идут подряд.
+     */
+    private final Map<Class<?>, Layout> layouts = new HashMap<>();
+    private Layout lastLayout;
+    private boolean headerWritten;
+
+    /**
+     * Конструктор.
+     *
+     * @param writer     Куда будут записываться данные.
+     * @param settings   Настройки записи.
+     * @param types      Типы записей, определяющие колонки файла.
+     * @param typeColumn Заголовок колонки с именем типа записи (первая колонка) или {@code null}, если она не нужна.
+     * @throws FormatRecordAnnotationMissingException Если один из типов не аннотирован {@link CsvRecord}.
+     * @throws IllegalArgumentException               Если типы не заданы или у одного типа повторяются заголовки.
+     */
+    public UnionCsvWriter(Writer writer, CsvWriterSettings settings, List<Class<?>> types, String typeColumn) {
+        Objects.requireNonNull(writer, "Writer не может быть null");
+        Objects.requireNonNull(settings, "Settings не может быть null");
+        Objects.requireNonNull(settings.getLineSeparator(), "Line separator не может быть null");
+        if (settings.getLineSeparator().isEmpty()) {
+            throw new IllegalArgumentException("Line separator не может быть пустым");
+        }
+        if (types == null || types.isEmpty()) {
+            throw new IllegalArgumentException("Список типов не может быть пустым");
+        }
+        Objects.requireNonNull(settings.getFormatters(), "Formatters не может быть null");
+        this.writer = writer;
+        this.typeColumn = typeColumn;
+        this.recordEncoder = new RecordEncoder(settings);
+        Objects.requireNonNull(settings.getQuotingPolicy(), "Quoting policy не может быть null");
+        this.encoder = new CsvRowEncoder(settings.getDelimiter(), settings.getLineSeparator(),
+                settings.getMaskingKey(), settings.getFormatters(), settings.getQuotingPolicy());
+        this.recordRow = new CsvRowEncoder(settings.getDelimiter(), settings.getLineSeparator(),
+                settings.getMaskingKey(), settings.getFormatters(), settings.getQuotingPolicy());
+        recordRow.trackCells();
+
+        List<String> allHeaders = new ArrayList<>();
+        Map<String, Integer> byHeader = new HashMap<>();
+        if (typeColumn != null) {
+            allHeaders.add(typeColumn);
+        }
+        boolean anyHeader = false;
+        for (Class<?> type : types) {
+            WritePlan plan = planOf(type);
+            anyHeader |= plan.isIncludeHeader();
+            for (String header : plan.getHeaders()) {
+                if (byHeader.putIfAbsent(header, allHeaders.size() - (typeColumn != null ? 1 : 0)) == null) {
+                    allHeaders.add(header);
+                }
+            }
+        }
+        this.headers = List.copyOf(allHeaders);
+        this.columnIndexByHeader = Map.copyOf(byHeader);
+        this.includeHeader = anyHeader;
+        for (Class<?> type : types) {
+            layoutFor(type);
+        }
+    }
+
+    /**
+     * Колонки файла, включая колонку типа.
+     *
+     * @return Заголовки колонок.
+     */
+    public List<String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Записи могут быть разных типов; каждая пишется по плану своего класса.
+     * </p>
+     *
+     * @throws IllegalArgumentException Если у класса записи есть колонка, которой нет в объединенном наборе.
+     */
+    @Override
+    public void write(List<?> data) throws IOException {
+        if (data == null || data.isEmpty()) return;
+        for (Object record : data) {
+            append(record);
+        }
+        encoder.writeTo(writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * {@code null} записывается как строка из пустых ячеек.
+     * </p>
+     *
+     * @throws IllegalArgumentException Если у класса записи есть колонка, которой нет в объединенном наборе.
+     */
+    @Override
+    public void append(Object record) throws IOException {
+        if (!headerWritten) {
+            headerWritten = true;
+            if (includeHeader) {
+                encoder.appendRaw(encoder.renderRow(headers));
+            }
+        }
+        if (record == null) {
+            encoder.emptyRow(headers.size());
+        } else {
+            Layout layout = layoutFor(record.getClass());
+            recordRow.clear();
+            recordEncoder.encode(record, layout.plan(), recordRow);
+            encoder.beginRow();
+            if (typeColumn != null) {
+                encoder.value(layout.typeName());
+            }
+            encoder.appendCells(recordRow, layout.cells());
+            encoder.endRow();
+        }
+        if (encoder.size() >= DefaultCsvWriter.FLUSH_THRESHOLD) {
+            encoder.writeTo(writer);
+        }
+    }
+
+    @Override
+    public void write(Iterator<?> data) throws IOException {
+        Writable.super.write(data);
+        encoder.writeTo(writer);
+    }
+
+    @Override
+    public List<CacheStatistics> getCacheStatistics() {
+        Map<Integer, CacheStatistics> statistics = new TreeMap<>();
+        recordRow.collectCacheStatistics(statistics);
+        return List.copyOf(statistics.values());
+    }
+
+    @Override
+    public void flush() throws IOException {
+        encoder.writeTo(writer);
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            encoder.writeTo(writer);
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Возвращает раскладку колонок класса, вычисляя ее при первом обращении.
+     */
+    private Layout layoutFor(Class<?> type) {
+        Layout layout = lastLayout;
+        if (layout != null && layout.plan().getType() == type) {
+            return layout;
+        }
+        layout = layouts.get(type);
+        if (layout == null) {
+            layout = createLayout(type);
+            layouts.put(type, layout);
+        }
+        lastLayout = layout;
+        return layout;
+    }
+
+    private Layout createLayout(Class<?> type) {
+        WritePlan plan = planOf(type);
+        List<String> planHeaders = plan.getHeaders();
+        int[] cells = new int[columnIndexByHeader.size()];
+        Arrays.fill(cells, -1);
+        for (int i = 0; i < planHeaders.size(); i++) {
+            Integer column = columnIndexByHeader.get(planHeaders.get(i));
+            if (column == null) {
+                throw new IllegalArgumentException("Колонка '" + planHeaders.get(i) + "' класса " + type.getName()
+                        + " отсутствует в объединенном наборе колонок");
+            }
+            if (cells[column] >= 0) {
+                throw new IllegalArgumentException("Заголовок '" + planHeaders.get(i) + "' повторяется в классе "
+                        + type.getName());
+            }
+            cells[column] = i;
+        }
+        return new Layout(plan, cells, type.getSimpleName());
+    }
+
+    private static WritePlan planOf(Class<?> type) {
+        Objects.requireNonNull(type, "Type не может быть null");
+        if (type.getAnnotation(CsvRecord.class) == null) {
+            throw new FormatRecordAnnotationMissingException(type);
+        }
+        return WritePlan.of(type);
+    }
+
+    /**
+     * План класса и номер его ячейки для каждой колонки файла (без колонки типа).
+     */
+    private record Layout(WritePlan plan, int[] cells, String typeName) {
+    }
+}
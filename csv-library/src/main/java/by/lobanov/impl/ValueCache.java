@@ -0,0 +1,56 @@
+package by.lobanov.impl;
+
+import by.lobanov.format.*;
+
+import java.util.*;
+
+/**
+ * Кеш экранированного текста значений одной колонки в кодировщике.
+ * Вытесняет значение, к которому дольше всего не обращались. Экземпляр не потокобезопасен.
+ *
+ * @author Астонский Шпион
+ */
+final class ValueCache {
+
+    private final CachedColumn column;
+    private final Map<Object, char[]> texts;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    ValueCache(CachedColumn column) {
+        this.column = column;
+        int capacity = column.getCapacity();
+        this.texts = new LinkedHashMap<>(Math.min(capacity, 1024) * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, char[]> eldest) {
+                if (size() > capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Возвращает экранированный текст значения или {@code null}, если его нет в кеше.
+     */
+    char[] get(Object value) {
+        char[] text = texts.get(value);
+        if (text != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return text;
+    }
+
+    void put(Object value, char[] text) {
+        texts.put(value, text);
+    }
+
+    CacheStatistics statistics() {
+        return new CacheStatistics(column.getName(), column.getCapacity(), texts.size(), hits, misses, evictions);
+    }
+}
@@ -0,0 +1,233 @@
+package by.lobanov.impl;
+
+import by.lobanov.annotation.*;
+import by.lobanov.format.*;
+import lombok.experimental.*;
+
+import java.lang.reflect.*;
+import java.math.*;
+import java.time.*;
+import java.time.format.*;
+import java.time.temporal.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Преобразование текста ячейки в значение поля — обратное к тому, как значения записываются
+ * ({@link Object#toString()}, десятичные числа, имена констант перечислений).
+ * <p>
+ * Поддерживаются строки, примитивы и их обертки, {@link BigDecimal}, {@link BigInteger}, перечисления,
+ * типы {@code java.time}, {@link UUID}, коллекции в формате {@link AbstractCollection#toString()}
+ * ({@code [a, b]}) и любые типы со статическим методом {@code valueOf(String)} или конструктором из строки.
+ * Даты с {@link CsvFormat#pattern()} разбираются по тому же шаблону, по которому были записаны.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@UtilityClass
+class ValueConverters {
+
+    private static final Map<Class<?>, Function<String, Object>> SCALARS = Map.ofEntries(
+            Map.entry(String.class, value -> value),
+            Map.entry(int.class, Integer::valueOf),
+            Map.entry(Integer.class, Integer::valueOf),
+            Map.entry(long.class, Long::valueOf),
+            Map.entry(Long.class, Long::valueOf),
+            Map.entry(double.class, Double::valueOf),
+            Map.entry(Double.class, Double::valueOf),
+            Map.entry(float.class, Float::valueOf),
+            Map.entry(Float.class, Float::valueOf),
+            Map.entry(short.class, Short::valueOf),
+            Map.entry(Short.class, Short::valueOf),
+            Map.entry(byte.class, Byte::valueOf),
+            Map.entry(Byte.class, Byte::valueOf),
+            Map.entry(boolean.class, Boolean::valueOf),
+            Map.entry(Boolean.class, Boolean::valueOf),
+            Map.entry(char.class, ValueConverters::toChar),
+            Map.entry(Character.class, ValueConverters::toChar),
+            Map.entry(BigDecimal.class, BigDecimal::new),
+            Map.entry(BigInteger.class, BigInteger::new),
+            Map.entry(UUID.class, UUID::fromString),
+            Map.entry(LocalDate.class, LocalDate::parse),
+            Map.entry(LocalDateTime.class, LocalDateTime::parse),
+            Map.entry(LocalTime.class, LocalTime::parse),
+            Map.entry(Instant.class, Instant::parse),
+            Map.entry(OffsetDateTime.class, OffsetDateTime::parse),
+            Map.entry(ZonedDateTime.class, ZonedDateTime::parse),
+            Map.entry(Duration.class, Duration::parse));
+
+    /**
+     * Возвращает преобразователь для поля. Пустая ячейка преобразуется в {@code null}.
+     *
+     * @param field Поле записи.
+     * @return Преобразователь текста ячейки в значение поля.
+     * @throws IllegalArgumentException Если тип поля не поддерживается.
+     */
+    static Function<String, Object> forField(Field field) {
+        Class<?> type = field.getType();
+        CsvFormat format = field.getAnnotation(CsvFormat.class);
+        if (format != null && !format.pattern().isEmpty()) {
+            return temporal(field, ValueFormatters.dateTimeFormatter(format.pattern()));
+        }
+        CsvCollection collectionFormat = field.getAnnotation(CsvCollection.class);
+        if (collectionFormat != null && collectionFormat.columns() == 0) {
+            return joined(type, forElement(field), collectionFormat.separator());
+        }
+        if (Collection.class.isAssignableFrom(type)) {
+            return collection(type, elementType(field.getGenericType()));
+        }
+        Function<String, Object> scalar = scalar(type);
+        if (scalar == null) {
+            throw new IllegalArgumentException("Тип поля '" + field.getName() + "' не поддерживается для чтения: " + type.getName());
+        }
+        return scalar;
+    }
+
+    /**
+     * Возвращает преобразователь элементов поля-коллекции.
+     *
+     * @param field Поле-коллекция.
+     * @return Преобразователь текста ячейки в элемент.
+     * @throws IllegalArgumentException Если тип элементов не поддерживается.
+     */
+    static Function<String, Object> forElement(Field field) {
+        Class<?> elementType = elementType(field.getGenericType());
+        Function<String, Object> element = scalar(elementType);
+        if (element == null) {
+            throw new IllegalArgumentException("Тип элементов коллекции не поддерживается для чтения: " + elementType.getName());
+        }
+        return element;
+    }
+
+    /**
+     * Создает пустую коллекцию, подходящую для поля: {@link LinkedHashSet} для множеств, иначе {@link ArrayList}.
+     */
+    static Collection<Object> newCollection(Class<?> type) {
+        return Set.class.isAssignableFrom(type) ? new LinkedHashSet<>() : new ArrayList<>();
+    }
+
+    /**
+     * Значение по умолчанию для типа: {@code 0}, {@code false} для примитивов и {@code null} для остальных.
+     */
+    static Object defaultValue(Class<?> type) {
+        if (!type.isPrimitive()) return null;
+        if (type == boolean.class) return false;
+        if (type == char.class) return '\0';
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0d;
+        if (type == float.class) return 0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        return 0;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String, Object> scalar(Class<?> type) {
+        Function<String, Object> known = SCALARS.get(type);
+        if (known != null) {
+            return known;
+        }
+        if (type.isEnum()) {
+            return value -> Enum.valueOf((Class<? extends Enum>) type, value);
+        }
+        try {
+            Method valueOf = type.getMethod("valueOf", String.class);
+            if (Modifier.isStatic(valueOf.getModifiers()) && type.isAssignableFrom(valueOf.getReturnType())) {
+                return value -> invoke(valueOf, null, value);
+            }
+        } catch (NoSuchMethodException e) {
+            // пробуем конструктор
+        }
+        try {
+            Constructor<?> constructor = type.getConstructor(String.class);
+            return value -> {
+                try {
+                    return constructor.newInstance(value);
+                } catch (InvocationTargetException e) {
+                    throw new IllegalArgumentException(e.getCause());
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalArgumentException(e);
+                }
+            };
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Разбирает дату/время шаблоном, получая значение статическим методом {@code from(TemporalAccessor)} типа поля.
+     */
+    private static Function<String, Object> temporal(Field field, DateTimeFormatter formatter) {
+        try {
+            Method from = field.getType().getMethod("from", TemporalAccessor.class);
+            return value -> formatter.parse(value, temporal -> invoke(from, null, temporal));
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("Тип поля '" + field.getName() + "' не поддерживает чтение по шаблону: "
+                    + field.getType().getName());
+        }
+    }
+
+    /**
+     * Разбирает элементы, записанные в одну ячейку через разделитель ({@link CsvCollection}).
+     */
+    private static Function<String, Object> joined(Class<?> type, Function<String, Object> element, String separator) {
+        return value -> {
+            Collection<Object> result = newCollection(type);
+            int from = 0;
+            while (true) {
+                int to = value.indexOf(separator, from);
+                result.add(element.apply(value.substring(from, to < 0 ? value.length() : to)));
+                if (to < 0) {
+                    return result;
+                }
+                from = to + separator.length();
+            }
+        };
+    }
+
+    private static Function<String, Object> collection(Class<?> type, Class<?> elementType) {
+        Function<String, Object> element = scalar(elementType);
+        if (element == null) {
+            throw new IllegalArgumentException("Тип элементов коллекции не поддерживается для чтения: " + elementType.getName());
+        }
+        return value -> {
+            String content = value;
+            if (content.length() >= 2 && content.charAt(0) == '[' && content.charAt(content.length() - 1) == ']') {
+                content = content.substring(1, content.length() - 1);
+            }
+            Collection<Object> result = newCollection(type);
+            if (!content.isEmpty()) {
+                for (String item : content.split(", ", -1)) {
+                    result.add(element.apply(item));
+                }
+            }
+            return result;
+        };
+    }
+
+    private static Class<?> elementType(Type genericType) {
+        if (genericType instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments().length == 1
+                && parameterized.getActualTypeArguments()[0] instanceof Class<?> elementClass) {
+            return elementClass;
+        }
+        return String.class;
+    }
+
+    private static Object toChar(String value) {
+        if (value.length() != 1) {
+            throw new IllegalArgumentException("Ожидался один символ: " + value);
+        }
+        return value.charAt(0);
+    }
+
+    private static Object invoke(Method method, Object target, Object value) {
+        try {
+            return method.invoke(target, value);
+        } catch (InvocationTargetException e) {
+            throw new IllegalArgumentException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
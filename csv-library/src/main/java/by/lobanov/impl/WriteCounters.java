@@ -0,0 +1,41 @@
+package by.lobanov.impl;
+
+import by.lobanov.metrics.*;
+
+/**
+ * Изменяемые счетчики текущего пакета записи, из которых собирается {@link WriteBatchStatistics}.
+ * Экземпляр не потокобезопасен и принадлежит одному писателю.
+ *
+ * @author Астонский Шпион
+ */
+final class WriteCounters {
+
+    long rows;
+    long cells;
+    long chars;
+    long quotedCells;
+    long maskedCells;
+    long ioNanos;
+    long fieldAccessNanos;
+    long escapingNanos;
+
+    /**
+     * Возвращает показатели пакета и обнуляет счетчики.
+     *
+     * @param totalNanos Общее время пакета.
+     * @return Показатели пакета.
+     */
+    WriteBatchStatistics complete(long totalNanos) {
+        WriteBatchStatistics statistics = new WriteBatchStatistics(rows, cells, chars, quotedCells, maskedCells,
+                totalNanos, ioNanos, fieldAccessNanos, escapingNanos);
+        rows = 0;
+        cells = 0;
+        chars = 0;
+        quotedCells = 0;
+        maskedCells = 0;
+        ioNanos = 0;
+        fieldAccessNanos = 0;
+        escapingNanos = 0;
+        return statistics;
+    }
+}
@@ -0,0 +1,285 @@
+package by.lobanov.impl;
+
+import by.lobanov.annotation.*;
+import by.lobanov.annotation.constans.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
+import by.lobanov.format.*;
+import by.lobanov.masking.*;
+import by.lobanov.serializer.*;
+import lombok.*;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * План записи класса в CSV: список полей с их accessor'ами, заголовки и настройки маскирования.
+ * Вложенные записи и коллекции по колонкам разворачиваются в плане один раз, поэтому
+ * {@link #getHeaders()} содержит все итоговые колонки.
+ * <p>
+ * План строится один раз на класс и хранится в {@link ClassValue}, поэтому разделяется
+ * всеми экземплярами писателей, безопасен для многопоточного доступа и не мешает выгрузке класса.
+ * </p>
+ * <p>
+ * Если для класса сгенерирован {@link RecordSerializer}, заголовки берутся из него,
+ * а разбор полей через рефлексию выполняется только при первом обращении к {@link #getFields()}.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@Getter
+final class WritePlan {
+
+    private static final ClassValue<WritePlan> PLANS = new ClassValue<>() {
+        @Override
+        protected WritePlan computeValue(Class<?> type) {
+            return new WritePlan(type);
+        }
+    };
+
+    /**
+     * Разделитель между префиксом (заголовком поля) и заголовком вложенной колонки.
+     */
+    static final String NESTED_HEADER_SEPARATOR = ".";
+
+    /**
+     * Классы, поля которых разбираются в текущем потоке, — для обнаружения циклов вложенных записей.
+     * Удаляется из потока, когда завершается внешний разбор, чтобы не удерживать загрузчик классов в пулах потоков.
+     */
+    private static final ThreadLocal<Set<Class<?>>> FIELDS_IN_PROGRESS = ThreadLocal.withInitial(HashSet::new);
+
+    private final Class<?> type;
+    private final boolean includeHeader;
+    private final List<String> headers;
+    private final RecordSerializer<Object> serializer;
+
+    @Getter(AccessLevel.NONE)
+    private final NamingStrategy classNamingStrategy;
+
+    @Getter(AccessLevel.NONE)
+    private volatile List<ProcessedField> fields;
+
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentMap<String, String> headerLines = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    private WritePlan(Class<?> type) {
+        CsvRecord csvRecordAnnotation = type.getAnnotation(CsvRecord.class);
+        this.classNamingStrategy = (csvRecordAnnotation != null) ?
+                csvRecordAnnotation.defaultNamingStrategy() : NamingStrategy.AS_IS_TO_SPACE_SEPARATED_CAPITALIZED;
+
+        this.type = type;
+        this.serializer = (RecordSerializer<Object>) RecordSerializers.find(type);
+        if (serializer != null) {
+            this.includeHeader = serializer.isIncludeHeader();
+            this.headers = List.copyOf(serializer.getHeaders());
+        } else {
+            this.includeHeader = (csvRecordAnnotation == null) || csvRecordAnnotation.includeHeader();
+            this.headers = getFields().stream()
+                    .flatMap(field -> field.getHeaders().stream())
+                    .toList();
+        }
+    }
+
+    /**
+     * Возвращает закешированный план для класса, при необходимости строя его.
+     *
+     * @param type Класс записей.
+     * @return План записи.
+     */
+    static WritePlan of(Class<?> type) {
+        return PLANS.get(type);
+    }
+
+    /**
+     * Возвращает поля записи, разбирая класс через рефлексию при первом обращении.
+     *
+     * @return Неизменяемый список полей в порядке колонок.
+     */
+    List<ProcessedField> getFields() {
+        List<ProcessedField> result = fields;
+        if (result == null) {
+            synchronized (this) {
+                result = fields;
+                if (result == null) {
+                    result = List.copyOf(processFields(type, classNamingStrategy));
+                    fields = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Возвращает готовую строку заголовка для заданного формата вывода.
+     * Строка формируется один раз для каждого сочетания разделителей и политики кавычек.
+     *
+     * @param delimiter     Символ-разделитель полей.
+     * @param lineSeparator Символ(ы) для разделения строк.
+     * @param quotingPolicy Правило взятия значений в кавычки.
+     * @param renderer      Функция, формирующая строку CSV из значений ячеек.
+     * @return Строка заголовка вместе с разделителем строк.
+     */
+    String headerLine(char delimiter, String lineSeparator, QuotingPolicy quotingPolicy,
+                      Function<List<String>, String> renderer) {
+        return headerLines.computeIfAbsent(quotingPolicy + "|" + delimiter + lineSeparator, key -> renderer.apply(headers));
+    }
+
+    /**
+     * Анализирует поля класса для определения, какие из них должны быть включены в CSV,
+     * и какие имена заголовков им соответствуют. Поля суперклассов идут перед полями самого класса.
+     * <p>
+     * Поля, тип которых аннотирован {@link CsvRecord}, разворачиваются в колонки вложенной записи,
+     * поля с {@link CsvCollection} — в одну или несколько колонок по параметрам аннотации.
+     * </p>
+     *
+     * @param clazz               Класс для анализа.
+     * @param classNamingStrategy Стратегия именования, применяемая на уровне класса (по умолчанию).
+     * @return Список объектов {@link ProcessedField}, представляющих поля для CSV.
+     * @throws IllegalArgumentException Если вложенные записи образуют цикл или аннотации поля несовместимы.
+     */
+    private static List<ProcessedField> processFields(Class<?> clazz, NamingStrategy classNamingStrategy) {
+        Set<Class<?>> inProgress = FIELDS_IN_PROGRESS.get();
+        if (!inProgress.add(clazz)) {
+            throw new IllegalArgumentException("Вложенные записи образуют цикл: " + clazz.getName());
+        }
+        try {
+            List<ProcessedField> tempFields = new ArrayList<>();
+
+            for (Field field : instanceFields(clazz)) {
+                if (field.isAnnotationPresent(TransientField.class)) {
+                    continue;
+                }
+
+                field.setAccessible(true);
+                tempFields.add(processField(field, getHeader(field, classNamingStrategy)));
+            }
+
+            return tempFields;
+        } finally {
+            inProgress.remove(clazz);
+            if (inProgress.isEmpty()) {
+                FIELDS_IN_PROGRESS.remove();
+            }
+        }
+    }
+
+    /**
+     * Возвращает нестатические поля класса вместе с полями его суперклассов: сначала поля самого
+     * дальнего суперкласса, затем по иерархии вниз, внутри класса — в порядке объявления.
+     *
+     * @param clazz Класс записи.
+     * @return Поля в порядке колонок.
+     */
+    static List<Field> instanceFields(Class<?> clazz) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            hierarchy.addFirst(current);
+        }
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> current : hierarchy) {
+            for (Field field : current.getDeclaredFields()) {
+                if (!java.lang.reflect.Modifier.isStatic(field.getModifiers())) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static ProcessedField processField(Field field, String headerName) {
+        MaskedField maskedField = field.getAnnotation(MaskedField.class);
+        CsvFormat format = field.getAnnotation(CsvFormat.class);
+        CsvCollection collection = field.getAnnotation(CsvCollection.class);
+        WritePlan embeddedPlan = field.getType().isAnnotationPresent(CsvRecord.class) ? of(field.getType()) : null;
+
+        List<String> headers = List.of(headerName);
+        if (embeddedPlan != null || collection != null) {
+            if (maskedField != null || format != null) {
+                throw new IllegalArgumentException("@MaskedField и @CsvFormat не применимы к вложенной записи "
+                        + "или коллекции: " + field.getName());
+            }
+        }
+        if (embeddedPlan != null) {
+            CsvEmbedded embedded = field.getAnnotation(CsvEmbedded.class);
+            String prefix = embedded != null && !embedded.prefix().isEmpty() ?
+                    embedded.prefix() : headerName + NESTED_HEADER_SEPARATOR;
+            headers = embeddedPlan.getHeaders().stream().map(header -> prefix + header).toList();
+        } else if (collection != null) {
+            if (!Collection.class.isAssignableFrom(field.getType())) {
+                throw new IllegalArgumentException("@CsvCollection применима только к коллекциям: " + field.getName());
+            }
+            if (collection.columns() < 0) {
+                throw new IllegalArgumentException("Количество колонок коллекции не может быть отрицательным: " + field.getName());
+            }
+            if (collection.columns() > 0) {
+                List<String> columnHeaders = new ArrayList<>();
+                for (int i = 1; i <= collection.columns(); i++) {
+                    columnHeaders.add(headerName + NESTED_HEADER_SEPARATOR + i);
+                }
+                headers = List.copyOf(columnHeaders);
+            }
+        }
+
+        return new ProcessedField(field, headerName,
+                field.getAnnotation(CsvRecord.class),
+                maskedField,
+                maskedField != null ? MaskingOperation.of(maskedField) : null,
+                format != null ? ValueFormatters.forField(format, field.getType()) : null,
+                cachedColumn(field, headerName, embeddedPlan != null || collection != null || maskedField != null),
+                embeddedPlan,
+                collection,
+                headers,
+                FieldAccessor.create(field, AccessStrategy.REFLECTION),
+                FieldAccessor.create(field, AccessStrategy.METHOD_HANDLE));
+    }
+
+    /**
+     * Определяет кеш значений колонки по {@link DataField#cacheSize()}: кеш включается только явно.
+     *
+     * @param field      Поле.
+     * @param headerName Заголовок колонки.
+     * @param composite  {@code true} для вложенной записи, коллекции или маскируемого поля.
+     * @return Кешируемая колонка или {@code null}.
+     * @throws IllegalArgumentException Если размер кеша отрицательный или кеш задан для поля, к которому он не применим.
+     */
+    private static CachedColumn cachedColumn(Field field, String headerName, boolean composite) {
+        DataField dataField = field.getAnnotation(DataField.class);
+        int cacheSize = dataField != null ? dataField.cacheSize() : 0;
+        if (cacheSize < 0) {
+            throw new IllegalArgumentException("Размер кеша не может быть отрицательным: " + field.getName());
+        }
+        if (cacheSize > 0 && (composite || field.getType().isPrimitive())) {
+            throw new IllegalArgumentException("Кеш значений не применим к примитиву, маскируемому полю, "
+                    + "вложенной записи или коллекции: " + field.getName());
+        }
+        return cacheSize > 0 ? CachedColumn.of(headerName, cacheSize) : null;
+    }
+
+    private static String getHeader(Field field, NamingStrategy fieldNamingStrategy) {
+        String headerName;
+        DataField dataField = field.getAnnotation(DataField.class);
+        if (dataField != null) {
+            if (!dataField.name().isEmpty()) {
+                headerName = dataField.name();
+            } else {
+                if (dataField.strategy() != NamingStrategy.DEFAULT) {
+                    fieldNamingStrategy = dataField.strategy();
+                }
+                headerName = applyNamingStrategy(field.getName(), fieldNamingStrategy);
+            }
+        } else {
+            headerName = applyNamingStrategy(field.getName(), fieldNamingStrategy);
+        }
+        return headerName;
+    }
+
+    private static String applyNamingStrategy(String fieldName, NamingStrategy strategy) {
+        if (strategy == null) {
+            strategy = NamingStrategy.AS_IS;
+        }
+        return strategy.apply(fieldName);
+    }
+}
@@ -0,0 +1,53 @@
+package by.lobanov.io;
+
+import lombok.experimental.*;
+
+import java.nio.*;
+import java.util.concurrent.*;
+
+/**
+ * Пул байтовых буферов фиксированного размера для вывода в каналы.
+ * <p>
+ * Буферы возвращаются в пул при закрытии писателя, поэтому частое создание писателей
+ * (например, по одному на запрос) не порождает крупных аллокаций.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@UtilityClass
+public class ByteBufferPool {
+
+    /**
+     * Размер буфера в байтах.
+     */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int MAX_POOLED_BUFFERS = 64;
+
+    private static final ConcurrentLinkedQueue<ByteBuffer> POOL = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Выдает очищенный буфер из пула или создает новый.
+     *
+     * @return Буфер размером {@link #BUFFER_SIZE}, доступный для записи.
+     */
+    public static ByteBuffer acquire() {
+        ByteBuffer buffer = POOL.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Возвращает буфер в пул. После вызова буфер нельзя использовать.
+     *
+     * @param buffer Буфер, полученный из {@link #acquire()}.
+     */
+    public static void release(ByteBuffer buffer) {
+        if (buffer != null && buffer.capacity() == BUFFER_SIZE && POOL.size() < MAX_POOLED_BUFFERS) {
+            POOL.offer(buffer);
+        }
+    }
+}
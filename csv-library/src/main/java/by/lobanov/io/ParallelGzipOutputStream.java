@@ -0,0 +1,221 @@
+package by.lobanov.io;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+/**
+ * {@link OutputStream}, сжимающий данные в формат GZIP независимыми блоками параллельно.
+ * <p>
+ * Каждый блок из {@code blockSize} байт сжимается отдельным {@link Deflater} в самостоятельный член GZIP
+ * (заголовок, данные, CRC32 и размер). Члены записываются в исходном порядке, а их последовательность
+ * является корректным файлом GZIP (RFC 1952), который читается {@code gzip -d}, {@link GZIPInputStream}
+ * и другими распаковщиками. За счет независимости блоков степень сжатия немного ниже, чем у
+ * однопоточного {@link GZIPOutputStream}.
+ * </p>
+ * <p>
+ * {@link #flush()} завершает текущий блок и дожидается записи всех блоков.
+ * Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_LENGTH = 8;
+
+    private final OutputStream out;
+    private final int blockSize;
+    private final int level;
+    private final int parallelism;
+    private final Executor executor;
+    private final Deque<CompletableFuture<CompressedBlock>> inFlight = new ArrayDeque<>();
+    private final Deque<byte[]> freeBlocks = new ArrayDeque<>();
+    private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<>();
+
+    private byte[] current;
+    private int position;
+    private boolean anyMemberWritten;
+    /**
+     * Читается и потоками executor'а: блок, сжатие которого продолжалось во время закрытия, освобождает свой
+     * {@link Deflater} сам.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Конструктор.
+     *
+     * @param out         Поток, в который пишутся сжатые данные. Закрывается вместе с этим потоком.
+     * @param blockSize   Размер несжатого блока в байтах.
+     * @param level       Уровень сжатия от 0 до 9 или {@link Deflater#DEFAULT_COMPRESSION}.
+     * @param parallelism Максимальное количество блоков, сжимаемых одновременно.
+     * @param executor    Executor для сжатия блоков.
+     */
+    public ParallelGzipOutputStream(OutputStream out, int blockSize, int level, int parallelism, Executor executor) {
+        this.out = Objects.requireNonNull(out, "OutputStream не может быть null");
+        this.executor = Objects.requireNonNull(executor, "Executor не может быть null");
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Block size должен быть больше 0");
+        }
+        if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)) {
+            throw new IllegalArgumentException("Compression level должен быть от 0 до 9 или -1");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism должен быть больше 0");
+        }
+        this.blockSize = blockSize;
+        this.level = level;
+        this.parallelism = parallelism;
+        this.current = new byte[blockSize];
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        current[position++] = (byte) b;
+        if (position == blockSize) {
+            submitBlock();
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        ensureOpen();
+        while (len > 0) {
+            int count = Math.min(len, blockSize - position);
+            System.arraycopy(b, off, current, position, count);
+            position += count;
+            off += count;
+            len -= count;
+            if (position == blockSize) {
+                submitBlock();
+            }
+        }
+    }
+
+    /**
+     * Сжимает неполный текущий блок, дожидается записи всех блоков и сбрасывает целевой поток.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        if (position > 0) {
+            submitBlock();
+        }
+        while (!inFlight.isEmpty()) {
+            writeCompleted(inFlight.removeFirst());
+        }
+        out.flush();
+    }
+
+    /**
+     * Дописывает оставшиеся блоки и закрывает целевой поток.
+     * Если данных не было, записывается пустой член GZIP, чтобы результат оставался корректным файлом.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        try {
+            if (position > 0 || !anyMemberWritten && inFlight.isEmpty()) {
+                submitBlock();
+            }
+            while (!inFlight.isEmpty()) {
+                writeCompleted(inFlight.removeFirst());
+            }
+        } finally {
+            closed = true;
+            inFlight.forEach(future -> future.cancel(false));
+            try {
+                out.close();
+            } finally {
+                Deflater deflater;
+                while ((deflater = deflaters.poll()) != null) {
+                    deflater.end();
+                }
+            }
+        }
+    }
+
+    private void submitBlock() throws IOException {
+        if (inFlight.size() >= parallelism) {
+            writeCompleted(inFlight.removeFirst());
+        }
+        byte[] block = current;
+        int length = position;
+        inFlight.addLast(CompletableFuture.supplyAsync(() -> compress(block, length), executor));
+        current = freeBlocks.isEmpty() ? new byte[blockSize] : freeBlocks.pop();
+        position = 0;
+    }
+
+    private void writeCompleted(CompletableFuture<CompressedBlock> future) throws IOException {
+        CompressedBlock compressed;
+        try {
+            compressed = future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw e;
+        }
+        out.write(compressed.data(), 0, compressed.length());
+        anyMemberWritten = true;
+        freeBlocks.push(compressed.input());
+    }
+
+    /**
+     * Сжимает блок в самостоятельный член GZIP. Выполняется в потоке executor'а.
+     */
+    private CompressedBlock compress(byte[] block, int length) {
+        Deflater deflater = deflaters.poll();
+        if (deflater == null) {
+            deflater = new Deflater(level, true);
+        }
+        try {
+            CRC32 crc = new CRC32();
+            crc.update(block, 0, length);
+            deflater.setInput(block, 0, length);
+            deflater.finish();
+
+            byte[] data = new byte[GZIP_HEADER.length + length + length / 1000 + 64 + GZIP_TRAILER_LENGTH];
+            System.arraycopy(GZIP_HEADER, 0, data, 0, GZIP_HEADER.length);
+            int size = GZIP_HEADER.length;
+            while (!deflater.finished()) {
+                if (data.length - size < GZIP_TRAILER_LENGTH + 1) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                size += deflater.deflate(data, size, data.length - size - GZIP_TRAILER_LENGTH);
+            }
+            writeIntLE(data, size, (int) crc.getValue());
+            writeIntLE(data, size + 4, length);
+            return new CompressedBlock(data, size + GZIP_TRAILER_LENGTH, block);
+        } finally {
+            deflater.reset();
+            deflaters.offer(deflater);
+            if (closed && deflaters.remove(deflater)) {
+                deflater.end();
+            }
+        }
+    }
+
+    private static void writeIntLE(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >>> 8);
+        data[offset + 2] = (byte) (value >>> 16);
+        data[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream закрыт");
+        }
+    }
+
+    /**
+     * Сжатый член GZIP и исходный блок, возвращаемый в пул после записи.
+     */
+    private record CompressedBlock(byte[] data, int length, byte[] input) {
+    }
+}
@@ -0,0 +1,111 @@
+package by.lobanov.io;
+
+import java.io.*;
+import java.nio.*;
+import java.util.*;
+
+/**
+ * {@link Reader}, декодирующий UTF-8 напрямую из {@link ByteBuffer} (например, отображенного в память файла).
+ * <p>
+ * Для байт ASCII используется быстрый путь: каждый байт превращается в символ без обращения
+ * к {@link java.nio.charset.CharsetDecoder}. Некорректные последовательности заменяются на {@code '�'}.
+ * Буфер читается от текущей позиции до предела; позиция буфера сдвигается по мере чтения.
+ * </p>
+ * <p>
+ * Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class Utf8BufferReader extends Reader {
+
+    private static final char REPLACEMENT = '\uFFFD';
+
+    private final ByteBuffer buffer;
+    private char pendingLowSurrogate;
+
+    /**
+     * Конструктор.
+     *
+     * @param buffer Буфер с данными в UTF-8.
+     */
+    public Utf8BufferReader(ByteBuffer buffer) {
+        this.buffer = Objects.requireNonNull(buffer, "Buffer не может быть null");
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+        Objects.checkFromIndexSize(off, len, cbuf.length);
+        if (len == 0) {
+            return 0;
+        }
+        int n = off;
+        int end = off + len;
+        if (pendingLowSurrogate != 0) {
+            cbuf[n++] = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+        }
+        ByteBuffer in = buffer;
+        int pos = in.position();
+        int limit = in.limit();
+        while (n < end && pos < limit) {
+            byte b = in.get(pos);
+            if (b >= 0) {
+                cbuf[n++] = (char) b;
+                pos++;
+                continue;
+            }
+            int lead = b & 0xFF;
+            int continuation;
+            int codePoint;
+            int minCodePoint;
+            if (lead >= 0xC2 && lead <= 0xDF) {
+                continuation = 1;
+                codePoint = lead & 0x1F;
+                minCodePoint = 0x80;
+            } else if (lead >= 0xE0 && lead <= 0xEF) {
+                continuation = 2;
+                codePoint = lead & 0x0F;
+                minCodePoint = 0x800;
+            } else if (lead >= 0xF0 && lead <= 0xF4) {
+                continuation = 3;
+                codePoint = lead & 0x07;
+                minCodePoint = 0x10000;
+            } else {
+                cbuf[n++] = REPLACEMENT;
+                pos++;
+                continue;
+            }
+            boolean valid = limit - pos > continuation;
+            for (int k = 1; valid && k <= continuation; k++) {
+                byte next = in.get(pos + k);
+                valid = (next & 0xC0) == 0x80;
+                codePoint = (codePoint << 6) | (next & 0x3F);
+            }
+            if (!valid || codePoint < minCodePoint || codePoint > Character.MAX_CODE_POINT
+                    || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                cbuf[n++] = REPLACEMENT;
+                pos++;
+                continue;
+            }
+            pos += continuation + 1;
+            if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                cbuf[n++] = (char) codePoint;
+            } else {
+                cbuf[n++] = Character.highSurrogate(codePoint);
+                if (n < end) {
+                    cbuf[n++] = Character.lowSurrogate(codePoint);
+                } else {
+                    pendingLowSurrogate = Character.lowSurrogate(codePoint);
+                }
+            }
+        }
+        in.position(pos);
+        return n == off ? -1 : n - off;
+    }
+
+    @Override
+    public void close() {
+        pendingLowSurrogate = 0;
+    }
+}
@@ -0,0 +1,230 @@
+package by.lobanov.io;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * {@link Writer}, кодирующий символы в UTF-8 напрямую в байтовый буфер и пишущий его в канал крупными блоками.
+ * <p>
+ * Для символов ASCII используется быстрый путь без обращения к {@link java.nio.charset.CharsetEncoder}:
+ * каждый символ записывается одним байтом. Неправильные суррогатные пары заменяются на {@code '?'},
+ * как это делает {@link String#getBytes(java.nio.charset.Charset)}.
+ * </p>
+ * <p>
+ * Экземпляр не потокобезопасен.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public class Utf8ChannelWriter extends Writer {
+
+    private final WritableByteChannel channel;
+    private final Flushable flushTarget;
+    private ByteBuffer buffer;
+    private byte[] bytes;
+    private int position;
+    private char pendingHighSurrogate;
+    private long bytesWritten;
+
+    /**
+     * Конструктор.
+     *
+     * @param channel Канал, в который пишутся байты. Закрывается вместе с писателем.
+     */
+    public Utf8ChannelWriter(WritableByteChannel channel) {
+        this(channel, null);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param out Поток, в который пишутся байты. Закрывается вместе с писателем.
+     */
+    public Utf8ChannelWriter(OutputStream out) {
+        this(Channels.newChannel(Objects.requireNonNull(out, "OutputStream не может быть null")), out);
+    }
+
+    private Utf8ChannelWriter(WritableByteChannel channel, Flushable flushTarget) {
+        this.channel = Objects.requireNonNull(channel, "Channel не может быть null");
+        this.flushTarget = flushTarget;
+        this.buffer = ByteBufferPool.acquire();
+        this.bytes = buffer.array();
+    }
+
+    /**
+     * Открывает файл для записи, создавая его или перезаписывая существующий.
+     *
+     * @param path Путь к файлу.
+     * @return Писатель в файл.
+     * @throws IOException Если файл не удалось открыть.
+     */
+    public static Utf8ChannelWriter open(Path path) throws IOException {
+        return new Utf8ChannelWriter(FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Количество байт, переданных в канал (без учета еще не сброшенного буфера).
+     *
+     * @return Количество записанных байт.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Количество байт, ожидающих записи в канал.
+     *
+     * @return Размер заполненной части буфера.
+     */
+    public int getBufferedBytes() {
+        return position;
+    }
+
+    @Override
+    public void write(int c) throws IOException {
+        ensureOpen();
+        encode((char) c);
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        ensureOpen();
+        Objects.checkFromIndexSize(off, len, cbuf.length);
+        int end = off + len;
+        int i = off;
+        while (i < end) {
+            if (pendingHighSurrogate == 0) {
+                int pos = position;
+                int limit = Math.min(end, i + bytes.length - pos);
+                while (i < limit) {
+                    char c = cbuf[i];
+                    if (c >= 0x80) break;
+                    bytes[pos++] = (byte) c;
+                    i++;
+                }
+                position = pos;
+                if (i == end) break;
+                if (pos == bytes.length) {
+                    drain();
+                    continue;
+                }
+            }
+            encode(cbuf[i++]);
+        }
+    }
+
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        ensureOpen();
+        Objects.checkFromIndexSize(off, len, str.length());
+        int end = off + len;
+        for (int i = off; i < end; i++) {
+            char c = str.charAt(i);
+            if (c < 0x80 && pendingHighSurrogate == 0) {
+                if (position == bytes.length) {
+                    drain();
+                }
+                bytes[position++] = (byte) c;
+            } else {
+                encode(c);
+            }
+        }
+    }
+
+    /**
+     * Кодирует один символ с учетом суррогатной пары, начатой предыдущим символом.
+     */
+    private void encode(char c) throws IOException {
+        if (pendingHighSurrogate != 0) {
+            char high = pendingHighSurrogate;
+            pendingHighSurrogate = 0;
+            if (Character.isLowSurrogate(c)) {
+                int codePoint = Character.toCodePoint(high, c);
+                ensureRoom(4);
+                bytes[position++] = (byte) (0xF0 | (codePoint >> 18));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                bytes[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                bytes[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                return;
+            }
+            ensureRoom(1);
+            bytes[position++] = '?';
+        }
+        if (c < 0x80) {
+            ensureRoom(1);
+            bytes[position++] = (byte) c;
+        } else if (c < 0x800) {
+            ensureRoom(2);
+            bytes[position++] = (byte) (0xC0 | (c >> 6));
+            bytes[position++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            pendingHighSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            ensureRoom(1);
+            bytes[position++] = '?';
+        } else {
+            ensureRoom(3);
+            bytes[position++] = (byte) (0xE0 | (c >> 12));
+            bytes[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[position++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void ensureRoom(int count) throws IOException {
+        if (position + count > bytes.length) {
+            drain();
+        }
+    }
+
+    /**
+     * Записывает заполненную часть буфера в канал.
+     */
+    private void drain() throws IOException {
+        if (position == 0) return;
+        buffer.clear().limit(position);
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        position = 0;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("Writer закрыт");
+        }
+    }
+
+    /**
+     * Сбрасывает буфер в канал. Незавершенная суррогатная пара остается в ожидании второго символа.
+     */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        drain();
+        if (flushTarget != null) {
+            flushTarget.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) return;
+        try {
+            if (pendingHighSurrogate != 0) {
+                pendingHighSurrogate = 0;
+                ensureRoom(1);
+                bytes[position++] = '?';
+            }
+            drain();
+        } finally {
+            ByteBufferPool.release(buffer);
+            buffer = null;
+            bytes = null;
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package by.lobanov.masking;
+
+import java.util.*;
+
+/**
+ * Секретный ключ для стратегии {@link by.lobanov.annotation.constans.MaskingStrategy#KEYED_HASH}.
+ * <p>
+ * Ключ состоит из 16 байт (128 бит SipHash). Одинаковые значения с одним ключом всегда
+ * превращаются в один и тот же токен, поэтому выгрузки можно сопоставлять между собой,
+ * не раскрывая исходные значения.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public final class MaskingKey {
+
+    /**
+     * Длина ключа в байтах.
+     */
+    public static final int LENGTH = 16;
+
+    private final long k0;
+    private final long k1;
+
+    private MaskingKey(long k0, long k1) {
+        this.k0 = k0;
+        this.k1 = k1;
+    }
+
+    /**
+     * Создает ключ из 16 байт.
+     *
+     * @param key Байты ключа.
+     * @return Ключ маскирования.
+     * @throws IllegalArgumentException Если длина ключа не равна {@link #LENGTH}.
+     */
+    public static MaskingKey of(byte[] key) {
+        Objects.requireNonNull(key, "Key не может быть null");
+        if (key.length != LENGTH) {
+            throw new IllegalArgumentException("Ключ маскирования должен состоять из " + LENGTH + " байт");
+        }
+        return new MaskingKey(readLongLittleEndian(key, 0), readLongLittleEndian(key, 8));
+    }
+
+    private static long readLongLittleEndian(byte[] bytes, int offset) {
+        long result = 0;
+        for (int i = 7; i >= 0; i--) {
+            result = (result << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return result;
+    }
+
+    /**
+     * Вычисляет SipHash-2-4 от символов {@code chars[from, to)}, представленных в UTF-16LE.
+     *
+     * @param chars Массив символов.
+     * @param from  Начало диапазона (включительно).
+     * @param to    Конец диапазона (не включительно).
+     * @return 64-битный хеш.
+     */
+    long hash(char[] chars, int from, int to) {
+        long v0 = k0 ^ 0x736f6d6570736575L;
+        long v1 = k1 ^ 0x646f72616e646f6dL;
+        long v2 = k0 ^ 0x6c7967656e657261L;
+        long v3 = k1 ^ 0x7465646279746573L;
+
+        int fullEnd = from + ((to - from) & ~3);
+        long last = (long) ((to - from) * 2 & 0xFF) << 56;
+        for (int i = fullEnd, shift = 0; i < to; i++, shift += 16) {
+            last |= (long) chars[i] << shift;
+        }
+        for (int i = from; i <= fullEnd; i += 4) {
+            long m = i < fullEnd ?
+                    chars[i] | (long) chars[i + 1] << 16 | (long) chars[i + 2] << 32 | (long) chars[i + 3] << 48 : last;
+            v3 ^= m;
+            for (int round = 0; round < 2; round++) {
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+            }
+            v0 ^= m;
+        }
+
+        v2 ^= 0xFF;
+        for (int round = 0; round < 4; round++) {
+            v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+            v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+            v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+            v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+        }
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+    @Override
+    public String toString() {
+        return "MaskingKey[***]";
+    }
+}
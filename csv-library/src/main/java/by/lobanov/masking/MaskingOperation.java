@@ -0,0 +1,237 @@
+package by.lobanov.masking;
+
+import by.lobanov.annotation.*;
+import by.lobanov.annotation.constans.*;
+import lombok.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Заранее подготовленная операция маскирования для одного набора параметров {@link MaskedField}.
+ * <p>
+ * Операция работает прямо в буфере писателя: значение копируется в буфер как есть,
+ * после чего маска накладывается на месте без промежуточных строк. Операции неизменяемы,
+ * кешируются по параметрам и безопасны для многопоточного использования.
+ * </p>
+ * <p>
+ * Пустые значения не маскируются.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@Getter
+public abstract class MaskingOperation {
+
+    private static final ConcurrentMap<Key, MaskingOperation> OPERATIONS = new ConcurrentHashMap<>();
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int HASH_LENGTH = 16;
+
+    private final MaskingStrategy strategy;
+    private final char maskCharacter;
+    private final int visibleChars;
+
+    private MaskingOperation(MaskingStrategy strategy, char maskCharacter, int visibleChars) {
+        this.strategy = strategy;
+        this.maskCharacter = maskCharacter;
+        this.visibleChars = visibleChars;
+    }
+
+    /**
+     * Возвращает операцию для параметров аннотации.
+     *
+     * @param maskedField Аннотация поля.
+     * @return Операция маскирования.
+     */
+    public static MaskingOperation of(MaskedField maskedField) {
+        Objects.requireNonNull(maskedField, "Masked field не может быть null");
+        return of(maskedField.strategy(), maskedField.maskCharacter(), maskedField.visibleChars());
+    }
+
+    /**
+     * Возвращает операцию для заданных параметров, создавая ее при первом обращении.
+     *
+     * @param strategy      Стратегия маскирования.
+     * @param maskCharacter Символ маски.
+     * @param visibleChars  Количество видимых символов.
+     * @return Операция маскирования.
+     * @throws IllegalArgumentException Если количество видимых символов отрицательно.
+     */
+    public static MaskingOperation of(MaskingStrategy strategy, char maskCharacter, int visibleChars) {
+        Objects.requireNonNull(strategy, "Masking strategy не может быть null");
+        if (visibleChars < 0) {
+            throw new IllegalArgumentException("Visible chars не может быть отрицательным");
+        }
+        return OPERATIONS.computeIfAbsent(new Key(strategy, maskCharacter, visibleChars), MaskingOperation::compile);
+    }
+
+    private static MaskingOperation compile(Key key) {
+        return switch (key.strategy()) {
+            case ASTERISKS_FULL -> new Full(key);
+            case ASTERISKS_PARTIAL_PREFIX -> new Prefix(key);
+            case ASTERISKS_PARTIAL_SUFFIX -> new Suffix(key);
+            case ASTERISKS_MIDDLE -> new Middle(key);
+            case DIGITS_ONLY -> new DigitsOnly(key);
+            case KEYED_HASH -> new KeyedHash(key);
+        };
+    }
+
+    /**
+     * Максимальная длина результата для значения заданной длины.
+     *
+     * @param length Длина исходного значения.
+     * @return Сколько символов может занять результат.
+     */
+    public int maxLength(int length) {
+        return length;
+    }
+
+    /**
+     * Маскирует символы {@code chars[from, to)} на месте.
+     * Массив должен вмещать {@link #maxLength(int)} символов начиная с {@code from}.
+     *
+     * @param chars Буфер со значением.
+     * @param from  Начало значения (включительно).
+     * @param to    Конец значения (не включительно).
+     * @param key   Ключ для {@link MaskingStrategy#KEYED_HASH}, для остальных стратегий не используется.
+     * @return Конец результата в буфере.
+     * @throws IllegalStateException Если стратегии требуется ключ, а он не задан.
+     */
+    public abstract int apply(char[] chars, int from, int to, MaskingKey key);
+
+    /**
+     * Маскирует значение, возвращая новую строку. Удобно там, где нет собственного буфера.
+     *
+     * @param value Исходное значение.
+     * @param key   Ключ для {@link MaskingStrategy#KEYED_HASH}.
+     * @return Замаскированное значение.
+     */
+    public String apply(CharSequence value, MaskingKey key) {
+        int length = value.length();
+        char[] chars = new char[Math.max(length, maxLength(length))];
+        for (int i = 0; i < length; i++) {
+            chars[i] = value.charAt(i);
+        }
+        return new String(chars, 0, apply(chars, 0, length, key));
+    }
+
+    private record Key(MaskingStrategy strategy, char maskCharacter, int visibleChars) {
+    }
+
+    private static final class Full extends MaskingOperation {
+
+        private Full(Key key) {
+            super(key.strategy(), key.maskCharacter(), key.visibleChars());
+        }
+
+        @Override
+        public int apply(char[] chars, int from, int to, MaskingKey key) {
+            Arrays.fill(chars, from, to, getMaskCharacter());
+            return to;
+        }
+    }
+
+    private static final class Prefix extends MaskingOperation {
+
+        private Prefix(Key key) {
+            super(key.strategy(), key.maskCharacter(), key.visibleChars());
+        }
+
+        @Override
+        public int apply(char[] chars, int from, int to, MaskingKey key) {
+            if (to - from > getVisibleChars()) {
+                Arrays.fill(chars, from + getVisibleChars(), to, getMaskCharacter());
+            }
+            return to;
+        }
+    }
+
+    private static final class Suffix extends MaskingOperation {
+
+        private Suffix(Key key) {
+            super(key.strategy(), key.maskCharacter(), key.visibleChars());
+        }
+
+        @Override
+        public int apply(char[] chars, int from, int to, MaskingKey key) {
+            if (to - from > getVisibleChars()) {
+                Arrays.fill(chars, from, to - getVisibleChars(), getMaskCharacter());
+            }
+            return to;
+        }
+    }
+
+    private static final class Middle extends MaskingOperation {
+
+        private final int head;
+        private final int tail;
+
+        private Middle(Key key) {
+            super(key.strategy(), key.maskCharacter(), key.visibleChars());
+            this.head = (key.visibleChars() + 1) / 2;
+            this.tail = key.visibleChars() / 2;
+        }
+
+        @Override
+        public int apply(char[] chars, int from, int to, MaskingKey key) {
+            if (to - from > head + tail) {
+                Arrays.fill(chars, from + head, to - tail, getMaskCharacter());
+            }
+            return to;
+        }
+    }
+
+    private static final class DigitsOnly extends MaskingOperation {
+
+        private DigitsOnly(Key key) {
+            super(key.strategy(), key.maskCharacter(), key.visibleChars());
+        }
+
+        @Override
+        public int apply(char[] chars, int from, int to, MaskingKey key) {
+            int visible = getVisibleChars();
+            char mask = getMaskCharacter();
+            for (int i = to - 1; i >= from; i--) {
+                char c = chars[i];
+                if (c >= '0' && c <= '9') {
+                    if (visible > 0) {
+                        visible--;
+                    } else {
+                        chars[i] = mask;
+                    }
+                }
+            }
+            return to;
+        }
+    }
+
+    private static final class KeyedHash extends MaskingOperation {
+
+        private KeyedHash(Key key) {
+            super(key.strategy(), key.maskCharacter(), key.visibleChars());
+        }
+
+        @Override
+        public int maxLength(int length) {
+            return length == 0 ? 0 : HASH_LENGTH;
+        }
+
+        @Override
+        public int apply(char[] chars, int from, int to, MaskingKey key) {
+            if (from == to) {
+                return to;
+            }
+            if (key == null) {
+                throw new IllegalStateException("Для стратегии " + MaskingStrategy.KEYED_HASH
+                        + " необходимо задать ключ маскирования в настройках");
+            }
+            long hash = key.hash(chars, from, to);
+            for (int i = from + HASH_LENGTH - 1; i >= from; i--) {
+                chars[i] = HEX_DIGITS[(int) (hash & 0xF)];
+                hash >>>= 4;
+            }
+            return from + HASH_LENGTH;
+        }
+    }
+}
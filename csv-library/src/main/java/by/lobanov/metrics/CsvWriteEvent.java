@@ -0,0 +1,70 @@
+package by.lobanov.metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Событие JFR, записываемое на каждый пакет записи, если событие {@code by.lobanov.CsvWrite} включено
+ * в записи JFR. Длительность события — время пакета; поля совпадают с {@link WriteBatchStatistics}.
+ *
+ * @author Астонский Шпион
+ */
+@Name("by.lobanov.CsvWrite")
+@Label("CSV Write Batch")
+@Category({"CSV Writer"})
+@Description("Пакет записи CSV: write(List), write(Iterator) или серия append до flush/close")
+@StackTrace(false)
+public final class CsvWriteEvent extends Event {
+
+    @Label("Writer")
+    public String writer;
+
+    @Label("Rows")
+    public long rows;
+
+    @Label("Cells")
+    public long cells;
+
+    @Label("Chars")
+    public long chars;
+
+    @Label("Quoted Cells")
+    public long quotedCells;
+
+    @Label("Masked Cells")
+    public long maskedCells;
+
+    @Label("I/O Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long ioNanos;
+
+    @Label("Field Access Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long fieldAccessNanos;
+
+    @Label("Escaping Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long escapingNanos;
+
+    @Label("Formatting Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long formattingNanos;
+
+    /**
+     * Заполняет поля события показателями пакета.
+     *
+     * @param writerType Класс писателя.
+     * @param statistics Показатели пакета.
+     */
+    public void fill(Class<?> writerType, WriteBatchStatistics statistics) {
+        writer = writerType.getSimpleName();
+        rows = statistics.rows();
+        cells = statistics.cells();
+        chars = statistics.chars();
+        quotedCells = statistics.quotedCells();
+        maskedCells = statistics.maskedCells();
+        ioNanos = statistics.ioNanos();
+        fieldAccessNanos = statistics.fieldAccessNanos();
+        escapingNanos = statistics.escapingNanos();
+        formattingNanos = statistics.formattingNanos();
+    }
+}
@@ -0,0 +1,67 @@
+package by.lobanov.metrics;
+
+/**
+ * Приемник метрик пути записи.
+ * <p>
+ * Писатель передает сюда показатели каждого пакета записи и время каждой передачи буфера
+ * в {@link java.io.Writer}. По умолчанию используется {@link #none()}: счетчики кодировщика
+ * при этом все равно ведутся, но время по фазам не измеряется. Один экземпляр может быть общим
+ * для нескольких писателей, поэтому реализации должны быть потокобезопасными.
+ * </p>
+ *
+ * @author Астонский Шпион
+ * @see InMemoryCsvWriterMetrics
+ */
+public interface CsvWriterMetrics {
+
+    /**
+     * Метрики, которые никуда не передаются.
+     *
+     * @return Пустой приемник метрик.
+     */
+    static CsvWriterMetrics none() {
+        return NoopCsvWriterMetrics.INSTANCE;
+    }
+
+    /**
+     * Измерять ли время чтения полей и экранирования. Измерение добавляет вызовы {@link System#nanoTime()}
+     * на каждую ячейку, поэтому по умолчанию выключено.
+     *
+     * @return {@code true}, если время по фазам нужно измерять.
+     */
+    default boolean isPhaseTimingEnabled() {
+        return false;
+    }
+
+    /**
+     * Вызывается после передачи буфера в {@link java.io.Writer}.
+     *
+     * @param chars Количество переданных символов.
+     * @param nanos Время передачи.
+     */
+    default void bufferWritten(int chars, long nanos) {
+    }
+
+    /**
+     * Вызывается после {@code flush()} писателя.
+     *
+     * @param nanos Время сброса, включая передачу накопленных строк.
+     */
+    default void flushed(long nanos) {
+    }
+
+    /**
+     * Вызывается по завершении пакета записи.
+     *
+     * @param statistics Показатели пакета.
+     */
+    default void batchCompleted(WriteBatchStatistics statistics) {
+    }
+
+    /**
+     * Приемник по умолчанию, игнорирующий все метрики.
+     */
+    enum NoopCsvWriterMetrics implements CsvWriterMetrics {
+        INSTANCE
+    }
+}
@@ -0,0 +1,115 @@
+package by.lobanov.metrics;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Метрики записи, накапливаемые в памяти.
+ * <p>
+ * Показатели пакетов складываются в {@link #snapshot()}; задержки передачи буферов и сброса
+ * собираются в гистограммы {@link #getBufferWriteLatency()} и {@link #getFlushLatency()}.
+ * Экземпляр потокобезопасен и может быть общим для нескольких писателей.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public final class InMemoryCsvWriterMetrics implements CsvWriterMetrics {
+
+    private final boolean phaseTimingEnabled;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder cells = new LongAdder();
+    private final LongAdder chars = new LongAdder();
+    private final LongAdder quotedCells = new LongAdder();
+    private final LongAdder maskedCells = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder ioNanos = new LongAdder();
+    private final LongAdder fieldAccessNanos = new LongAdder();
+    private final LongAdder escapingNanos = new LongAdder();
+
+    private final LatencyHistogram bufferWriteLatency = new LatencyHistogram();
+    private final LatencyHistogram flushLatency = new LatencyHistogram();
+
+    /**
+     * Создает метрики без измерения времени по фазам.
+     */
+    public InMemoryCsvWriterMetrics() {
+        this(false);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param phaseTimingEnabled Измерять ли время чтения полей и экранирования.
+     */
+    public InMemoryCsvWriterMetrics(boolean phaseTimingEnabled) {
+        this.phaseTimingEnabled = phaseTimingEnabled;
+    }
+
+    @Override
+    public boolean isPhaseTimingEnabled() {
+        return phaseTimingEnabled;
+    }
+
+    @Override
+    public void bufferWritten(int chars, long nanos) {
+        bufferWriteLatency.record(nanos);
+    }
+
+    @Override
+    public void flushed(long nanos) {
+        flushLatency.record(nanos);
+    }
+
+    @Override
+    public void batchCompleted(WriteBatchStatistics statistics) {
+        batches.increment();
+        rows.add(statistics.rows());
+        cells.add(statistics.cells());
+        chars.add(statistics.chars());
+        quotedCells.add(statistics.quotedCells());
+        maskedCells.add(statistics.maskedCells());
+        totalNanos.add(statistics.totalNanos());
+        ioNanos.add(statistics.ioNanos());
+        fieldAccessNanos.add(statistics.fieldAccessNanos());
+        escapingNanos.add(statistics.escapingNanos());
+    }
+
+    /**
+     * Количество завершенных пакетов записи.
+     *
+     * @return Количество пакетов.
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Задержки передачи буферов в {@link java.io.Writer}.
+     *
+     * @return Гистограмма задержек.
+     */
+    public LatencyHistogram getBufferWriteLatency() {
+        return bufferWriteLatency;
+    }
+
+    /**
+     * Задержки {@code flush()} писателя.
+     *
+     * @return Гистограмма задержек.
+     */
+    public LatencyHistogram getFlushLatency() {
+        return flushLatency;
+    }
+
+    /**
+     * Возвращает сумму показателей всех завершенных пакетов.
+     * Пакеты, завершающиеся во время вызова, могут войти в результат частично.
+     *
+     * @return Суммарные показатели.
+     */
+    public WriteBatchStatistics snapshot() {
+        return new WriteBatchStatistics(rows.sum(), cells.sum(), chars.sum(), quotedCells.sum(), maskedCells.sum(),
+                totalNanos.sum(), ioNanos.sum(), fieldAccessNanos.sum(), escapingNanos.sum());
+    }
+}
@@ -0,0 +1,98 @@
+package by.lobanov.metrics;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Потокобезопасная гистограмма задержек с корзинами по степеням двойки.
+ * <p>
+ * Значение {@code nanos} попадает в корзину {@code 64 - numberOfLeadingZeros(nanos)}: корзина {@code i}
+ * содержит значения из {@code [2^(i-1), 2^i)}, корзина {@code 0} — только ноль. Процентили оцениваются
+ * верхней границей корзины с точностью до двух раз; для задержек сброса этого достаточно,
+ * а запись значения стоит одного атомарного инкремента.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public final class LatencyHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Добавляет значение.
+     *
+     * @param nanos Задержка в наносекундах; отрицательные значения считаются нулем.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+        max.accumulate(value);
+    }
+
+    /**
+     * Количество добавленных значений.
+     *
+     * @return Количество значений.
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Наибольшее добавленное значение.
+     *
+     * @return Наибольшая задержка в наносекундах или {@code 0}, если значений не было.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Оценивает процентиль сверху: возвращает верхнюю границу корзины, в которую он попадает,
+     * но не больше {@link #getMax()}.
+     *
+     * @param percentile Процентиль от 0 до 100.
+     * @return Оценка задержки в наносекундах или {@code 0}, если значений не было.
+     * @throws IllegalArgumentException Если процентиль вне диапазона от 0 до 100.
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Процентиль должен быть от 0 до 100");
+        }
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                long upper = (1L << i) - 1;
+                return Math.min(upper, getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Сбрасывает все значения.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        max.reset();
+    }
+}
@@ -0,0 +1,56 @@
+package by.lobanov.metrics;
+
+/**
+ * Показатели одного пакета записи: вызова {@code write(List)}, {@code write(Iterator)}
+ * или серии {@code append} до {@code flush}/{@code close}.
+ * <p>
+ * Время по фазам ({@code fieldAccessNanos}, {@code escapingNanos}) измеряется, только если
+ * {@link CsvWriterMetrics#isPhaseTimingEnabled()}; иначе эти значения равны нулю и все время,
+ * кроме ввода-вывода, приходится на {@link #formattingNanos()}.
+ * </p>
+ *
+ * @param rows             Количество строк данных (без заголовка).
+ * @param cells            Количество ячеек.
+ * @param chars            Количество символов, переданных в {@link java.io.Writer}.
+ * @param quotedCells      Количество ячеек, взятых в кавычки.
+ * @param maskedCells      Количество замаскированных ячеек.
+ * @param totalNanos       Общее время пакета.
+ * @param ioNanos          Время передачи буферов в {@link java.io.Writer}.
+ * @param fieldAccessNanos Время чтения полей записей.
+ * @param escapingNanos    Время проверки значений на спецсимволы и экранирования.
+ * @author Астонский Шпион
+ */
+public record WriteBatchStatistics(long rows, long cells, long chars, long quotedCells, long maskedCells,
+                                   long totalNanos, long ioNanos, long fieldAccessNanos, long escapingNanos) {
+
+    /**
+     * Время форматирования значений: все время пакета, кроме ввода-вывода, чтения полей и экранирования.
+     * Для сгенерированных сериализаторов чтение полей не отделяется от форматирования и входит сюда же.
+     *
+     * @return Время в наносекундах, не меньше нуля.
+     */
+    public long formattingNanos() {
+        return Math.max(0, totalNanos - ioNanos - fieldAccessNanos - escapingNanos);
+    }
+
+    /**
+     * Доля ячеек, взятых в кавычки, или {@code 0}, если ячеек не было.
+     *
+     * @return Доля от 0 до 1.
+     */
+    public double quotingRate() {
+        return cells == 0 ? 0 : (double) quotedCells / cells;
+    }
+
+    /**
+     * Складывает показатели двух пакетов.
+     *
+     * @param other Показатели другого пакета.
+     * @return Суммарные показатели.
+     */
+    public WriteBatchStatistics merge(WriteBatchStatistics other) {
+        return new WriteBatchStatistics(rows + other.rows, cells + other.cells, chars + other.chars,
+                quotedCells + other.quotedCells, maskedCells + other.maskedCells, totalNanos + other.totalNanos,
+                ioNanos + other.ioNanos, fieldAccessNanos + other.fieldAccessNanos, escapingNanos + other.escapingNanos);
+    }
+}
@@ -0,0 +1,123 @@
+package by.lobanov.serializer;
+
+import by.lobanov.annotation.constans.*;
+import by.lobanov.format.*;
+import by.lobanov.masking.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Приемник значений одной строки CSV.
+ * <p>
+ * Каждый вызов добавляет очередную ячейку; разделители, экранирование и перенос строки
+ * добавляет писатель. Значение {@code null} записывается как пустая ячейка.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+public interface CsvRowSink {
+
+    void value(CharSequence value) throws IOException;
+
+    void value(int value) throws IOException;
+
+    void value(long value) throws IOException;
+
+    void value(double value) throws IOException;
+
+    /**
+     * Записывает значение {@code float} без расширения до {@code double}, так же как {@link #value(Object)}
+     * записал бы {@link Float}.
+     *
+     * @param value Значение ячейки.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    void value(float value) throws IOException;
+
+    /**
+     * Записывает значение форматтером из {@link FormatterRegistry} писателя,
+     * а если форматтера для типа нет — через {@link Object#toString()}.
+     *
+     * @param value Значение ячейки.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    void value(Object value) throws IOException;
+
+    /**
+     * Записывает несколько пустых ячеек, например, для вложенной записи, равной {@code null}.
+     *
+     * @param count Количество ячеек.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    void emptyValues(int count) throws IOException;
+
+    /**
+     * Записывает элементы коллекции в одну ячейку через разделитель, как это делает
+     * {@link by.lobanov.annotation.CsvCollection} без колонок. Элементы пишутся так же, как {@link #value(Object)}.
+     *
+     * @param values    Коллекция; {@code null} записывается как пустая ячейка.
+     * @param separator Разделитель элементов.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    void joinedValues(Collection<?> values, String separator) throws IOException;
+
+    /**
+     * Записывает элементы коллекции в отдельные ячейки, дополняя недостающие пустыми,
+     * как это делает {@link by.lobanov.annotation.CsvCollection#columns()}.
+     *
+     * @param values  Коллекция; {@code null} записывается как пустые ячейки.
+     * @param columns Количество ячеек.
+     * @throws IOException              Если возникает ошибка ввода-вывода.
+     * @throws IllegalArgumentException Если элементов больше, чем ячеек.
+     */
+    void expandedValues(Collection<?> values, int columns) throws IOException;
+
+    /**
+     * Записывает значение заданным форматтером, как это делает {@link by.lobanov.annotation.CsvFormat}.
+     *
+     * @param value     Значение ячейки.
+     * @param formatter Форматтер значения.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    <T> void value(T value, ValueFormatter<? super T> formatter) throws IOException;
+
+    /**
+     * Записывает значение с маскированием, как это делает {@link by.lobanov.annotation.MaskedField}.
+     *
+     * @param value         Значение ячейки.
+     * @param strategy      Стратегия маскирования.
+     * @param maskCharacter Символ маски.
+     * @param visibleChars  Количество видимых символов.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    default void maskedValue(Object value, MaskingStrategy strategy, char maskCharacter, int visibleChars) throws IOException {
+        maskedValue(value, MaskingOperation.of(strategy, maskCharacter, visibleChars));
+    }
+
+    /**
+     * Записывает значение с маскированием заранее подготовленной операцией.
+     *
+     * @param value     Значение ячейки.
+     * @param operation Операция маскирования.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    void maskedValue(Object value, MaskingOperation operation) throws IOException;
+
+    /**
+     * Записывает значение колонки с кешем готового текста ({@link by.lobanov.annotation.DataField#cacheSize()}).
+     * Реализация без кеша записывает значение так же, как {@link #value(Object)} или форматтером.
+     *
+     * @param value     Значение ячейки.
+     * @param formatter Форматтер поля или {@code null}.
+     * @param column    Кешируемая колонка.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    default void cachedValue(Object value, ValueFormatter<Object> formatter, CachedColumn column) throws IOException {
+        if (formatter != null) {
+            value(value, formatter);
+        } else {
+            value(value);
+        }
+    }
+}
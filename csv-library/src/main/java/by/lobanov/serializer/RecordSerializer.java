@@ -0,0 +1,41 @@
+package by.lobanov.serializer;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Сериализатор записей одного класса, аннотированного {@link by.lobanov.annotation.csv.CsvRecord}.
+ * <p>
+ * Реализации генерируются процессором аннотаций {@code csv-processor} и находятся писателем
+ * по соглашению об именовании (см. {@link RecordSerializers}), что избавляет от рефлексии при записи.
+ * </p>
+ *
+ * @param <T> Тип записи.
+ * @author Астонский Шпион
+ */
+public interface RecordSerializer<T> {
+
+    /**
+     * @return Класс записей, которые умеет писать сериализатор.
+     */
+    Class<T> getRecordType();
+
+    /**
+     * @return Имена колонок в порядке записи.
+     */
+    List<String> getHeaders();
+
+    /**
+     * @return {@code true}, если для записей нужно писать строку заголовка.
+     */
+    boolean isIncludeHeader();
+
+    /**
+     * Передает значения всех колонок записи в приемник.
+     *
+     * @param record Запись, не {@code null}.
+     * @param sink   Приемник значений строки.
+     * @throws IOException Если возникает ошибка ввода-вывода.
+     */
+    void serialize(T record, CsvRowSink sink) throws IOException;
+}
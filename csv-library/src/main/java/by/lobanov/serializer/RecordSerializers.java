@@ -0,0 +1,65 @@
+package by.lobanov.serializer;
+
+import lombok.experimental.*;
+
+/**
+ * Поиск сгенерированных сериализаторов.
+ * <p>
+ * Для класса {@code com.example.Outer$Client} сериализатор называется
+ * {@code com.example.Outer_ClientCsvSerializer} и должен иметь публичный конструктор без аргументов.
+ * </p>
+ *
+ * @author Астонский Шпион
+ */
+@UtilityClass
+public class RecordSerializers {
+
+    /**
+     * Суффикс имени сгенерированного сериализатора.
+     */
+    public static final String SUFFIX = "CsvSerializer";
+
+    /**
+     * Возвращает полное имя класса сериализатора для заданного класса записей.
+     *
+     * @param recordType Класс записей.
+     * @return Полное имя класса сериализатора.
+     */
+    public static String serializerClassName(Class<?> recordType) {
+        String packageName = recordType.getPackageName();
+        String binaryName = recordType.getName();
+        String simpleBinaryName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+        String serializerName = simpleBinaryName.replace('$', '_') + SUFFIX;
+        return packageName.isEmpty() ? serializerName : packageName + "." + serializerName;
+    }
+
+    /**
+     * Находит сгенерированный сериализатор для класса записей.
+     *
+     * @param recordType Класс записей.
+     * @param <T>        Тип записи.
+     * @return Сериализатор или {@code null}, если он не был сгенерирован.
+     * @throws IllegalStateException Если класс сериализатора найден, но его нельзя использовать.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> RecordSerializer<T> find(Class<T> recordType) {
+        Class<?> serializerClass;
+        try {
+            serializerClass = Class.forName(serializerClassName(recordType), true, recordType.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+        if (!RecordSerializer.class.isAssignableFrom(serializerClass)) {
+            return null;
+        }
+        try {
+            RecordSerializer<T> serializer = (RecordSerializer<T>) serializerClass.getDeclaredConstructor().newInstance();
+            if (serializer.getRecordType() != recordType) {
+                return null;
+            }
+            return serializer;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать сериализатор " + serializerClass.getName(), e);
+        }
+    }
+}
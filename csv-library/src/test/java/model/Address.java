@@ -0,0 +1,14 @@
+package model;
+
+import by.lobanov.annotation.csv.*;
+import lombok.*;
+
+@Data
+@Builder
+@AllArgsConstructor
+@CsvRecord
+public class Address {
+
+    private String city;
+    private String street;
+}
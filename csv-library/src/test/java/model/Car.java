@@ -0,0 +1,19 @@
+package model;
+
+import by.lobanov.annotation.csv.*;
+import lombok.*;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@NoArgsConstructor
+@CsvRecord
+public class Car extends Vehicle {
+
+    private int doors;
+
+    public Car(long id, String name, int doors) {
+        super(id, name);
+        this.doors = doors;
+    }
+}
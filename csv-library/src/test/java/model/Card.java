@@ -0,0 +1,22 @@
+package model;
+
+import by.lobanov.annotation.*;
+import by.lobanov.annotation.constans.*;
+import by.lobanov.annotation.csv.*;
+import lombok.*;
+
+@Data
+@Builder
+@AllArgsConstructor
+@CsvRecord(defaultNamingStrategy = NamingStrategy.CAMEL_TO_SCREAMING_SNAKE_CASE)
+public class Card {
+
+    @MaskedField(strategy = MaskingStrategy.ASTERISKS_MIDDLE)
+    private String holder;
+    @MaskedField(strategy = MaskingStrategy.DIGITS_ONLY, maskCharacter = '#')
+    private String number;
+    @MaskedField(strategy = MaskingStrategy.KEYED_HASH)
+    private String email;
+    @MaskedField(strategy = MaskingStrategy.ASTERISKS_FULL, maskCharacter = '"')
+    private Integer pin;
+}
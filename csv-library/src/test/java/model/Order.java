@@ -0,0 +1,23 @@
+package model;
+
+import by.lobanov.annotation.*;
+import by.lobanov.annotation.csv.*;
+import lombok.*;
+
+import java.util.*;
+
+@Data
+@Builder
+@AllArgsConstructor
+@CsvRecord
+public class Order {
+
+    private long id;
+    private Address shipping;
+    @CsvEmbedded(prefix = "billing_")
+    private Address billing;
+    @CsvCollection(separator = ";")
+    private List<String> tags;
+    @CsvCollection(columns = 3)
+    private List<Integer> quantities;
+}
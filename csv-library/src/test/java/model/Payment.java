@@ -0,0 +1,26 @@
+package model;
+
+import by.lobanov.annotation.*;
+import by.lobanov.annotation.csv.*;
+import lombok.*;
+
+import java.math.*;
+import java.time.*;
+
+@Data
+@Builder
+@AllArgsConstructor
+@CsvRecord
+public class Payment {
+
+    private long id;
+    private LocalDate valueDate;
+    @CsvFormat(pattern = "dd.MM.yyyy HH:mm")
+    private LocalDateTime createdAt;
+    @CsvFormat(scale = 2)
+    private BigDecimal amount;
+    @CsvFormat(scale = 3, roundingMode = RoundingMode.DOWN)
+    private double rate;
+    private BigDecimal fee;
+    private Months month;
+}
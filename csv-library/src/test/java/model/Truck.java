@@ -0,0 +1,19 @@
+package model;
+
+import by.lobanov.annotation.csv.*;
+import lombok.*;
+
+@Data
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@NoArgsConstructor
+@CsvRecord
+public class Truck extends Vehicle {
+
+    private double payload;
+
+    public Truck(long id, String name, double payload) {
+        super(id, name);
+        this.payload = payload;
+    }
+}
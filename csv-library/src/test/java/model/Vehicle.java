@@ -0,0 +1,12 @@
+package model;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public abstract class Vehicle {
+
+    private long id;
+    private String name;
+}
@@ -0,0 +1,20 @@
+package model;
+
+import by.lobanov.annotation.*;
+import by.lobanov.annotation.csv.*;
+import lombok.*;
+
+@Data
+@Builder
+@AllArgsConstructor
+@CsvRecord
+public class Visit {
+
+    private long id;
+    @DataField(cacheSize = 2)
+    private String country;
+    @DataField(cacheSize = 12)
+    private Months month;
+    @DataField(cacheSize = 0)
+    private Months plannedMonth;
+}
@@ -0,0 +1,156 @@
+package unit;
+
+import by.lobanov.*;
+import by.lobanov.exception.*;
+import by.lobanov.impl.*;
+import model.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+import util.*;
+
+import java.io.*;
+import java.math.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadRecordsFromCsvTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void givenPersonsWrittenToFile_whenReadFromFile_thenRecordsShouldBeEqual() throws IOException {
+        // given
+        List<Person> persons = TestDataGenerator.generatePersons(50);
+        Path file = tempDir.resolve("persons.csv");
+        try (Writable writerInstance = CsvWriterFactory.create(file)) {
+            writerInstance.write(persons);
+        }
+
+        // when
+        List<Person> actualPersons;
+        try (CsvReadable<Person> readerInstance = CsvReaderFactory.create(file, Person.class)) {
+            actualPersons = readerInstance.readAll();
+        }
+
+        // then
+        assertEquals(persons, actualPersons);
+    }
+
+    @Test
+    void givenStudentsWithQuotesAndCustomSeparators_whenReadInSmallChunks_thenRecordsShouldBeEqual() throws IOException {
+        // given
+        List<Student> students = List.of(
+                Student.builder().name("He said \"hi\"\nand left").score(List.of("100")).build(),
+                Student.builder().name("Smith; John").score(List.of("90", "75")).build(),
+                Student.builder().name("\"").score(List.of()).build());
+        StringWriter stringWriter = new StringWriter();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, ';', "\r\n")) {
+            writerInstance.write(students);
+        }
+
+        // when
+        List<Student> actualStudents;
+        Reader chunkedReader = new ChunkedReader(stringWriter.toString(), 3);
+        try (CsvReadable<Student> readerInstance = CsvReaderFactory.create(chunkedReader, Student.class, ';', "\r\n")) {
+            actualStudents = readerInstance.stream().toList();
+        }
+
+        // then
+        assertEquals(students, actualStudents);
+    }
+
+    @Test
+    void givenClientsCsvWithReorderedAndUnknownColumns_whenRead_thenColumnsShouldBeMatchedByHeader() throws IOException {
+        // given
+        String csv = "AMOUNT_TO_PAY,COMMENT,FIRST_NAME,ACCOUNT_NUMBER\n"
+                + "12.50,vip,Ivan,DE89XXXX\n"
+                + ",,Olga,\n";
+
+        // when
+        List<Client> clients;
+        try (CsvReadable<Client> readerInstance = CsvReaderFactory.create(new StringReader(csv), Client.class)) {
+            clients = readerInstance.readAll();
+        }
+
+        // then
+        assertEquals(2, clients.size());
+        assertEquals(new Client("Ivan", null, "DE89XXXX", new BigDecimal("12.50")), clients.get(0));
+        assertEquals(new Client("Olga", null, null, null), clients.get(1), "Пустые ячейки должны читаться как null");
+    }
+
+    @Test
+    void givenStudentsWithQuotedLineBreaks_whenReadMappedInSmallSegments_thenRecordsShouldBeEqual() throws IOException {
+        // given
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String name = switch (i % 4) {
+                case 0 -> "Студент " + i;
+                case 1 -> "He said \"hi\"\nand left " + i;
+                case 2 -> "Smith, John 😀 " + i;
+                default -> "\"\n\"" + i;
+            };
+            students.add(Student.builder().name(name).score(List.of(String.valueOf(i), "75")).build());
+        }
+        Path file = tempDir.resolve("students.csv");
+        try (Writable writerInstance = CsvWriterFactory.create(file)) {
+            writerInstance.write(students);
+        }
+
+        // when
+        List<Student> actualStudents;
+        Set<Student> unorderedStudents;
+        try (MappedCsvReader<Student> readerInstance = new MappedCsvReader<>(file, Student.class, ',', "\n", 256)) {
+            actualStudents = readerInstance.readAll();
+            unorderedStudents = readerInstance.stream(false).collect(Collectors.toSet());
+        }
+
+        // then
+        assertEquals(students, actualStudents, "Сегменты должны делиться только по границам строк");
+        assertEquals(new HashSet<>(students), unorderedStudents, "Неупорядоченный поток должен содержать те же записи");
+    }
+
+    @Test
+    void givenUnclosedQuote_whenRead_thenShouldThrowCsvParseException() {
+        // given
+        String csv = "name,score\n\"Ivan,[1]\n";
+
+        // when
+        CsvReadable<Student> readerInstance = CsvReaderFactory.create(new StringReader(csv), Student.class);
+
+        // then
+        CsvParseException exception = assertThrows(CsvParseException.class, readerInstance::read);
+        assertTrue(exception.getMessage().contains("строке 2"), "Сообщение должно содержать номер строки");
+    }
+
+    /**
+     * Reader, отдающий данные маленькими порциями, чтобы значения и разделители попадали на границы буфера.
+     */
+    private static class ChunkedReader extends Reader {
+
+        private final String data;
+        private final int chunkSize;
+        private int position;
+
+        ChunkedReader(String data, int chunkSize) {
+            this.data = data;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (position == data.length()) return -1;
+            int count = Math.min(Math.min(len, chunkSize), data.length() - position);
+            data.getChars(position, position + count, cbuf, off);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
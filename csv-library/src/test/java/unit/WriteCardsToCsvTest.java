@@ -0,0 +1,212 @@
+package unit;
+
+import by.lobanov.*;
+import by.lobanov.config.*;
+import by.lobanov.masking.*;
+import by.lobanov.metrics.*;
+import by.lobanov.serializer.*;
+import model.*;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.nio.charset.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteCardsToCsvTest {
+
+    private static final MaskingKey KEY = MaskingKey.of("0123456789abcdef".getBytes(StandardCharsets.US_ASCII));
+
+    private static String writeToString(List<?> data, MaskingKey key, boolean useGeneratedSerializers) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        CsvWriterSettings settings = CsvWriterSettings.builder()
+                .maskingKey(key)
+                .useGeneratedSerializers(useGeneratedSerializers)
+                .build();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.write(data);
+        }
+        return stringWriter.toString();
+    }
+
+    @Test
+    void givenCard_whenWriteToCsv_thenFieldsShouldBeMaskedByTheirStrategies() throws IOException {
+        // given
+        List<Card> cards = List.of(new Card("Ivan Petrov", "4111-1111-1111-1234", "ivan@example.com", 1234));
+
+        // when
+        String output = writeToString(cards, KEY, true);
+
+        // then
+        String[] lines = output.split("\n");
+        assertEquals("HOLDER,NUMBER,EMAIL,PIN", lines[0]);
+        String[] cells = lines[1].split(",");
+        assertEquals("Iv*******ov", cells[0], "Середина значения должна быть замаскирована");
+        assertEquals("####-####-####-1234", cells[1], "Должны маскироваться только цифры");
+        assertTrue(cells[2].matches("[0-9a-f]{16}"), "Значение должно быть заменено токеном из 16 hex-символов");
+        assertEquals("\"\"\"\"\"\"\"\"\"\"", cells[3], "Маска из кавычек должна экранироваться");
+    }
+
+    @Test
+    void givenMaskedCard_whenReadBack_thenMaskedTextShouldBeKeptAndMaskedNumberSkipped() throws IOException {
+        // given
+        String output = writeToString(List.of(new Card("Ivan Petrov", "4111-1111-1111-1234", "ivan@example.com", 1234)),
+                KEY, true);
+
+        // when
+        List<Card> actualCards;
+        try (CsvReadable<Card> readerInstance = CsvReaderFactory.create(new StringReader(output), Card.class)) {
+            actualCards = readerInstance.readAll();
+        }
+
+        // then
+        assertEquals(1, actualCards.size());
+        Card actual = actualCards.get(0);
+        assertEquals("Iv*******ov", actual.getHolder(), "Строковое поле должно читаться маскированным текстом");
+        assertEquals("####-####-####-1234", actual.getNumber());
+        assertNull(actual.getPin(), "Маскированное число не восстанавливается и должно остаться значением по умолчанию");
+    }
+
+    @Test
+    void givenSameValues_whenHashedWithKeys_thenTokensShouldDependOnlyOnValueAndKey() throws IOException {
+        // given
+        List<Card> cards = List.of(
+                new Card("A", "1", "ivan@example.com", null),
+                new Card("B", "2", "ivan@example.com", null),
+                new Card("C", "3", "olga@example.com", null));
+        MaskingKey otherKey = MaskingKey.of(new byte[MaskingKey.LENGTH]);
+
+        // when
+        List<String> tokens = emails(writeToString(cards, KEY, true));
+        List<String> otherTokens = emails(writeToString(cards, otherKey, true));
+
+        // then
+        assertEquals(tokens.get(0), tokens.get(1), "Одинаковые значения должны давать одинаковый токен");
+        assertNotEquals(tokens.get(0), tokens.get(2));
+        assertNotEquals(tokens.get(0), otherTokens.get(0), "Токен должен зависеть от ключа");
+        assertFalse(tokens.get(0).contains("ivan"));
+    }
+
+    private static List<String> emails(String output) {
+        return output.lines().skip(1).map(line -> line.split(",")[2]).toList();
+    }
+
+    @Test
+    void givenGeneratedSerializer_whenWriteToCsv_thenOutputShouldMatchReflection() throws IOException {
+        // given
+        List<Card> cards = List.of(
+                new Card("Анна-Мария", "+7 (999) 123-45-67", "anna@example.com", 7),
+                new Card("", "", "", null),
+                new Card(null, "no digits", null, 42));
+
+        // when
+        String generatedOutput = writeToString(cards, KEY, true);
+        String reflectionOutput = writeToString(cards, KEY, false);
+
+        // then
+        assertNotNull(RecordSerializers.find(Card.class), "Сериализатор должен быть сгенерирован процессором аннотаций");
+        assertEquals(reflectionOutput, generatedOutput);
+        assertTrue(generatedOutput.contains("Ан******ия,+# (###) ###-45-67,"), generatedOutput);
+    }
+
+    @Test
+    void givenNoMaskingKey_whenWriteHashedField_thenShouldThrowIllegalStateException() {
+        // given
+        List<Card> cards = List.of(new Card("Ivan", "1", "ivan@example.com", 1));
+
+        // then
+        assertThrows(IllegalStateException.class, () -> writeToString(cards, null, true));
+    }
+
+    @Test
+    void givenMaskingOperation_whenApplyToString_thenResultShouldMatchInPlaceMasking() {
+        // given
+        MaskingOperation operation = MaskingOperation.of(by.lobanov.annotation.constans.MaskingStrategy.ASTERISKS_MIDDLE, '*', 3);
+
+        // then
+        assertSame(operation, MaskingOperation.of(by.lobanov.annotation.constans.MaskingStrategy.ASTERISKS_MIDDLE, '*', 3),
+                "Операции должны кешироваться по параметрам");
+        assertEquals("12******0", operation.apply("123456790", null));
+        assertEquals("123", operation.apply("123", null));
+    }
+
+    @Test
+    void givenMetrics_whenWriteCards_thenBatchShouldCountRowsQuotedAndMaskedCells() throws IOException {
+        // given
+        List<Card> cards = List.of(
+                new Card("Ivan Petrov", "4111-1111-1111-1234", "ivan@example.com", 1234),
+                new Card(null, "no digits", null, null));
+
+        for (boolean useGeneratedSerializers : new boolean[]{true, false}) {
+            InMemoryCsvWriterMetrics metrics = new InMemoryCsvWriterMetrics(true);
+            CsvWriterSettings settings = CsvWriterSettings.builder()
+                    .maskingKey(KEY)
+                    .useGeneratedSerializers(useGeneratedSerializers)
+                    .metrics(metrics)
+                    .build();
+            StringWriter stringWriter = new StringWriter();
+
+            // when
+            try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+                writerInstance.write(cards);
+            }
+
+            // then
+            WriteBatchStatistics statistics = metrics.snapshot();
+            assertEquals(1, metrics.getBatchCount(), "Вызов write должен образовать один пакет");
+            assertEquals(2, statistics.rows(), "Строка заголовка не должна учитываться");
+            assertEquals(8, statistics.cells());
+            assertEquals(5, statistics.maskedCells(), "Значения null не должны учитываться как замаскированные");
+            assertEquals(1, statistics.quotedCells(), "В кавычки должна попасть только маска из кавычек");
+            assertEquals(stringWriter.toString().length(), statistics.chars());
+            assertTrue(metrics.getBufferWriteLatency().getCount() >= 1, "Передача буфера должна попасть в гистограмму");
+            assertTrue(statistics.totalNanos() >= statistics.ioNanos() + statistics.fieldAccessNanos() + statistics.escapingNanos(),
+                    "Время фаз не должно превышать общее время пакета");
+        }
+    }
+
+    @Test
+    void givenAppendedCards_whenFlushAndClose_thenEachShouldCompleteBatch() throws IOException {
+        // given
+        InMemoryCsvWriterMetrics metrics = new InMemoryCsvWriterMetrics();
+        CsvWriterSettings settings = CsvWriterSettings.builder().maskingKey(KEY).metrics(metrics).build();
+
+        // when
+        try (Writable writerInstance = CsvWriterFactory.create(new StringWriter(), settings)) {
+            for (int i = 0; i < 3; i++) {
+                writerInstance.append(new Card("Ivan", "1", "ivan@example.com", i));
+            }
+            writerInstance.flush();
+
+            // then
+            assertEquals(1, metrics.getBatchCount(), "Серия append должна завершаться при flush");
+            assertEquals(3, metrics.snapshot().rows());
+            assertEquals(1, metrics.getFlushLatency().getCount());
+
+            writerInstance.append(null);
+        }
+        assertEquals(2, metrics.getBatchCount(), "Оставшиеся строки должны образовать пакет при close");
+        assertEquals(4, metrics.snapshot().rows());
+        assertEquals(0, metrics.snapshot().escapingNanos(), "Без измерения по фазам время экранирования не считается");
+    }
+
+    @Test
+    void givenLatencies_whenPercentile_thenShouldReturnUpperBoundOfBucket() {
+        // given
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        // when
+        for (int i = 0; i < 99; i++) {
+            histogram.record(100);
+        }
+        histogram.record(5_000);
+
+        // then
+        assertEquals(100, histogram.getCount());
+        assertEquals(127, histogram.getPercentile(50), "Процентиль должен оцениваться верхней границей корзины");
+        assertEquals(5_000, histogram.getPercentile(100), "Оценка не должна превышать наибольшее значение");
+        assertEquals(5_000, histogram.getMax());
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+    }
+}
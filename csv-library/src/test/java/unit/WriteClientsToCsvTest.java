@@ -1,6 +1,13 @@
 package unit;
 
 import by.lobanov.*;
+import by.lobanov.annotation.*;
+import by.lobanov.annotation.constans.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
+import by.lobanov.impl.*;
+import by.lobanov.metrics.*;
+import by.lobanov.serializer.*;
 import model.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.*;
@@ -8,8 +15,10 @@ import util.*;
 
 import java.io.*;
 import java.math.*;
+import java.nio.charset.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.zip.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -141,4 +150,284 @@ class WriteClientsToCsvTest {
         );
         assertEquals(expectedDataLine, actualLines.get(1));
     }
+
+    @Test
+    void givenGeneratedSerializer_whenWriteToCsv_thenOutputShouldMatchReflection() throws IOException {
+        // given
+        List<Client> clients = TestDataGenerator.generateClients(5);
+
+        // when
+        String generatedOutput = writeToString(clients, true);
+        String reflectionOutput = writeToString(clients, false);
+
+        // then
+        assertNotNull(RecordSerializers.find(Client.class), "Сериализатор должен быть сгенерирован процессором аннотаций");
+        assertEquals(reflectionOutput, generatedOutput);
+    }
+
+    @Test
+    void givenClientsWithNonAsciiNames_whenWriteToPath_thenFileShouldMatchWriterOutput() throws IOException {
+        // given
+        List<Client> clients = List.of(
+                Client.builder().firstName("Иван").accountNumber("DE89370400440532013000")
+                        .amountToPay(new BigDecimal("10.50")).build(),
+                Client.builder().firstName("Zoë \uD83D\uDE00").accountNumber("1234")
+                        .amountToPay(new BigDecimal("0.01")).build()
+        );
+        String expectedOutput = writeToString(clients, true);
+
+        // when
+        try (Writable writerInstance = CsvWriterFactory.create(testFilePath)) {
+            writerInstance.write(clients);
+        }
+
+        // then
+        assertEquals(expectedOutput, Files.readString(testFilePath));
+    }
+
+    @Test
+    void givenListOfClients_whenWriteToOutputStream_thenBytesShouldBeUtf8() throws IOException {
+        // given
+        List<Client> clients = TestDataGenerator.generateClients(3);
+        String expectedOutput = writeToString(clients, true);
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writable writerInstance = CsvWriterFactory.create(out)) {
+            writerInstance.write(clients);
+        }
+
+        // then
+        assertEquals(expectedOutput, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void givenManyClients_whenWriteInParallel_thenOutputShouldMatchSequentialWrite() throws IOException {
+        // given
+        List<Client> clients = new ArrayList<>(TestDataGenerator.generateClients(2000));
+        clients.set(777, null);
+        String expectedOutput = writeToString(clients, true);
+        CsvWriterSettings settings = CsvWriterSettings.builder()
+                .parallelism(4)
+                .parallelChunkSize(64)
+                .build();
+
+        // when
+        StringWriter stringWriter = new StringWriter();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.write(clients);
+        }
+
+        // then
+        assertEquals(expectedOutput, stringWriter.toString());
+    }
+
+    @Test
+    void givenClientsAndRowLimit_whenWriteRollingInParallel_thenShardsShouldRepeatHeaderAndKeepOrder() throws IOException {
+        // given
+        List<Client> clients = TestDataGenerator.generateClients(25);
+        List<String> expectedLines = writeToString(clients, true).lines().toList();
+        RollingFileSettings rolling = RollingFileSettings.builder()
+                .directory(tempDir.resolve("shards"))
+                .baseName("clients")
+                .maxRows(10)
+                .shardParallelism(2)
+                .build();
+
+        // when
+        RollingCsvWriter writerInstance = CsvWriterFactory.createRolling(rolling);
+        try (writerInstance) {
+            writerInstance.append(clients.get(0));
+            writerInstance.write(clients.subList(1, clients.size()));
+        }
+
+        // then
+        List<ShardInfo> shards = writerInstance.getShards();
+        assertEquals(List.of("clients-00001.csv", "clients-00002.csv", "clients-00003.csv"),
+                shards.stream().map(ShardInfo::file).toList());
+        assertEquals(List.of(10L, 10L, 5L), shards.stream().map(ShardInfo::rows).toList());
+        List<String> actualDataLines = new ArrayList<>();
+        for (ShardInfo shard : shards) {
+            Path shardPath = rolling.getDirectory().resolve(shard.file());
+            List<String> lines = Files.readAllLines(shardPath);
+            assertEquals(expectedLines.get(0), lines.get(0), "Каждый файл должен начинаться с заголовка");
+            assertEquals(shard.bytes(), Files.size(shardPath));
+            actualDataLines.addAll(lines.subList(1, lines.size()));
+        }
+        assertEquals(expectedLines.subList(1, expectedLines.size()), actualDataLines);
+        List<String> manifest = Files.readAllLines(writerInstance.getManifestPath());
+        assertEquals("file,rows,bytes", manifest.get(0));
+        assertEquals("clients-00003.csv,5," + shards.get(2).bytes(), manifest.get(3));
+    }
+
+    @Test
+    void givenNullRecordsAndRowLimit_whenWriteRolling_thenEveryShardShouldContainItsCountedRows() throws IOException {
+        // given
+        List<Client> clients = TestDataGenerator.generateClients(2);
+        String header = writeToString(clients, true).lines().findFirst().orElseThrow();
+        RollingFileSettings rolling = RollingFileSettings.builder()
+                .directory(tempDir)
+                .baseName("clients")
+                .maxRows(2)
+                .shardParallelism(2)
+                .build();
+        RollingFileSettings onlyNulls = rolling.toBuilder().baseName("nulls").build();
+
+        // when
+        RollingCsvWriter writerInstance = CsvWriterFactory.createRolling(rolling);
+        try (writerInstance) {
+            writerInstance.write(Arrays.asList(null, clients.get(0), clients.get(1), null, null));
+        }
+        RollingCsvWriter nullsWriter = CsvWriterFactory.createRolling(onlyNulls);
+        try (nullsWriter) {
+            nullsWriter.write(Arrays.asList(null, null, null));
+        }
+
+        // then
+        List<ShardInfo> shards = writerInstance.getShards();
+        assertEquals(List.of(2L, 2L, 1L), shards.stream().map(ShardInfo::rows).toList());
+        for (ShardInfo shard : shards) {
+            List<String> lines = Files.readAllLines(tempDir.resolve(shard.file()));
+            assertEquals(header, lines.get(0), "Каждый файл должен начинаться с заголовка");
+            assertEquals(shard.rows(), lines.size() - 1, "Количество строк в манифесте должно совпадать с файлом");
+        }
+        assertTrue(nullsWriter.getShards().isEmpty(), "Без записей файлы не должны создаваться");
+    }
+
+    @Test
+    void givenClientsAndByteLimit_whenWriteRolling_thenEachShardShouldExceedLimitByAtMostOneRow() throws IOException {
+        // given
+        List<Client> clients = TestDataGenerator.generateClients(40);
+        long maxBytes = 1024;
+        RollingFileSettings rolling = RollingFileSettings.builder()
+                .directory(tempDir)
+                .baseName("clients")
+                .maxBytes(maxBytes)
+                .build();
+
+        // when
+        RollingCsvWriter writerInstance = CsvWriterFactory.createRolling(rolling);
+        try (writerInstance) {
+            writerInstance.write(clients);
+        }
+
+        // then
+        List<ShardInfo> shards = writerInstance.getShards();
+        assertTrue(shards.size() > 1, "Данные должны быть разделены на несколько файлов");
+        assertEquals(clients.size(), shards.stream().mapToLong(ShardInfo::rows).sum());
+        for (ShardInfo shard : shards.subList(0, shards.size() - 1)) {
+            List<String> lines = Files.readAllLines(tempDir.resolve(shard.file()));
+            String lastLine = lines.get(lines.size() - 1);
+            assertTrue(shard.bytes() >= maxBytes, "Файл должен быть закрыт только по достижении предела");
+            assertTrue(shard.bytes() - lastLine.getBytes(StandardCharsets.UTF_8).length - 1 < maxBytes,
+                    "Предел может быть превышен не более чем на одну строку");
+        }
+    }
+
+    @Test
+    void givenByteLimit_whenWriteRolling_thenRowsShouldBeWrittenInBlocksAndOneBatchPerShard() throws IOException {
+        // given
+        List<Client> clients = TestDataGenerator.generateClients(200);
+        InMemoryCsvWriterMetrics metrics = new InMemoryCsvWriterMetrics();
+        CsvWriterSettings settings = CsvWriterSettings.builder().metrics(metrics).build();
+        RollingFileSettings rolling = RollingFileSettings.builder()
+                .directory(tempDir)
+                .baseName("clients")
+                .maxBytes(4096)
+                .build();
+
+        // when
+        RollingCsvWriter writerInstance = CsvWriterFactory.createRolling(settings, rolling);
+        try (writerInstance) {
+            writerInstance.write(clients);
+        }
+
+        // then
+        int shards = writerInstance.getShards().size();
+        assertTrue(shards > 1, "Данные должны быть разделены на несколько файлов");
+        assertEquals(shards, metrics.getBatchCount(), "Проверка предела не должна завершать пакет на каждой строке");
+        assertTrue(metrics.getBufferWriteLatency().getCount() < clients.size() / 2,
+                "Строки должны передаваться блоками, а не по одной");
+    }
+
+    @Test
+    void givenManyClients_whenWriteGzipInSmallBlocks_thenDecompressedOutputShouldMatchPlainWrite() throws IOException {
+        // given
+        List<Client> clients = TestDataGenerator.generateClients(500);
+        String expectedOutput = writeToString(clients, true);
+        CsvWriterSettings settings = CsvWriterSettings.builder()
+                .compressionBlockSize(1024)
+                .compressionLevel(9)
+                .compressionParallelism(4)
+                .build();
+
+        // when
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writable writerInstance = CsvWriterFactory.createGzip(out, settings)) {
+            writerInstance.write(clients);
+        }
+
+        // then
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(expectedOutput, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void givenNoData_whenWriteGzip_thenOutputShouldBeValidEmptyGzip() throws IOException {
+        // given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        try (Writable writerInstance = CsvWriterFactory.createGzip(out)) {
+            writerInstance.write(List.of());
+        }
+
+        // then
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals(0, in.readAllBytes().length);
+        }
+    }
+
+    private String writeToString(List<?> data, boolean useGeneratedSerializers) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        CsvWriterSettings settings = CsvWriterSettings.builder()
+                .useGeneratedSerializers(useGeneratedSerializers)
+                .build();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.write(data);
+        }
+        return stringWriter.toString();
+    }
+
+    @Test
+    void givenMaskedPrimitiveField_whenWriteWithMethodHandles_thenValueShouldBeBoxedAndMasked() throws IOException {
+        // given
+        StringWriter stringWriter = new StringWriter();
+        CsvWriterSettings settings = CsvWriterSettings.builder()
+                .accessStrategy(AccessStrategy.METHOD_HANDLE)
+                .build();
+
+        // when
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.write(List.of(new PinCard(123456, 5000L)));
+        }
+
+        // then
+        assertEquals("12XXXX,5000", stringWriter.toString().split("\n")[1],
+                "Маскируемое поле int должно читаться через упаковывающий handle");
+    }
+
+    @CsvRecord
+    private static class PinCard {
+
+        @MaskedField(maskCharacter = 'X', strategy = MaskingStrategy.ASTERISKS_PARTIAL_PREFIX, visibleChars = 2)
+        private final int pin;
+        private final long limit;
+
+        private PinCard(int pin, long limit) {
+            this.pin = pin;
+            this.limit = limit;
+        }
+    }
 }
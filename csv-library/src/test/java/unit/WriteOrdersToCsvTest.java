@@ -0,0 +1,160 @@
+package unit;
+
+import by.lobanov.*;
+import by.lobanov.annotation.csv.*;
+import by.lobanov.config.*;
+import by.lobanov.exception.*;
+import by.lobanov.serializer.*;
+import model.*;
+import model.Order;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteOrdersToCsvTest {
+
+    private static final String HEADER =
+            "id,shipping.city,shipping.street,billing_city,billing_street,tags,quantities.1,quantities.2,quantities.3\n";
+
+    private static String writeToString(List<?> data, CsvWriterSettings settings) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.write(data);
+        }
+        return stringWriter.toString();
+    }
+
+    private static List<Order> orders() {
+        return List.of(
+                new Order(1, new Address("Минск", "Ленина, 1"), new Address("Брест", "Советская"),
+                        List.of("new", "gift"), List.of(2, 1)),
+                new Order(2, null, new Address("Гродно", null), List.of("a\"b"), List.of()),
+                new Order(3, new Address(null, null), null, null, null));
+    }
+
+    @Test
+    void givenNestedRecordsAndCollections_whenWriteToCsv_thenColumnsShouldBeFlattened() throws IOException {
+        // given
+        List<Order> orders = orders();
+
+        // when
+        String output = writeToString(orders, CsvWriterSettings.defaults());
+
+        // then
+        assertEquals(HEADER
+                + "1,Минск,\"Ленина, 1\",Брест,Советская,new;gift,2,1,\n"
+                + "2,,,Гродно,,\"a\"\"b\",,,\n"
+                + "3,,,,,,,,\n", output);
+    }
+
+    @Test
+    void givenGeneratedSerializer_whenWriteToCsv_thenOutputShouldMatchReflection() throws IOException {
+        // given
+        List<Order> orders = orders();
+
+        // when
+        String generatedOutput = writeToString(orders, CsvWriterSettings.builder().useGeneratedSerializers(true).build());
+        String reflectionOutput = writeToString(orders, CsvWriterSettings.builder().useGeneratedSerializers(false).build());
+
+        // then
+        assertNotNull(RecordSerializers.find(Order.class), "Сериализатор должен быть сгенерирован процессором аннотаций");
+        assertEquals(reflectionOutput, generatedOutput);
+    }
+
+    @Test
+    void givenMoreElementsThanColumns_whenWriteToCsv_thenShouldThrowException() {
+        // given
+        List<Order> orders = List.of(new Order(1, null, null, null, List.of(1, 2, 3, 4)));
+
+        // when & then
+        assertThrows(IllegalArgumentException.class, () -> writeToString(orders, CsvWriterSettings.defaults()),
+                "Элементов больше, чем колонок коллекции");
+    }
+
+    @Test
+    void givenWrittenOrders_whenReadBack_thenNestedRecordsAndCollectionsShouldBeRestored() throws IOException {
+        // given
+        String csv = writeToString(orders(), CsvWriterSettings.defaults());
+
+        // when
+        List<Order> actualOrders;
+        try (CsvReadable<Order> readerInstance = CsvReaderFactory.create(new StringReader(csv), Order.class)) {
+            actualOrders = readerInstance.readAll();
+        }
+
+        // then
+        assertEquals(List.of(
+                new Order(1, new Address("Минск", "Ленина, 1"), new Address("Брест", "Советская"),
+                        List.of("new", "gift"), List.of(2, 1)),
+                new Order(2, null, new Address("Гродно", null), List.of("a\"b"), null),
+                new Order(3, null, null, null, null)), actualOrders,
+                "Вложенная запись и коллекция без значений должны читаться как null");
+    }
+
+    @Test
+    void givenInvalidNumberInsideNestedRecord_whenReadBack_thenShouldThrowCsvParseExceptionWithPrefixedColumn() throws IOException {
+        // given
+        String csv = writeToString(List.of(new Delivery(1, new Person("Анна", "Smith", 7, Months.MAY, 1990))),
+                CsvWriterSettings.defaults());
+        String dayColumn = csv.substring(0, csv.indexOf('\n')).split(",")[3];
+        String corrupted = csv.replace(",7,", ",seven,");
+
+        // when
+        CsvReadable<Delivery> readerInstance = CsvReaderFactory.create(new StringReader(corrupted), Delivery.class);
+
+        // then
+        CsvParseException exception = assertThrows(CsvParseException.class, readerInstance::read);
+        assertEquals("recipient.Day Of Birth", dayColumn);
+        assertTrue(exception.getMessage().contains("'" + dayColumn + "'"),
+                "Сообщение должно называть колонку вложенной записи с префиксом: " + exception.getMessage());
+    }
+
+    @Test
+    void givenCollectionWithoutCsvCollection_whenWriteToCsv_thenToStringShouldBeUsed() throws IOException {
+        // given
+        List<Student> students = List.of(new Student("Иван", List.of("90", "75")));
+
+        // when
+        String output = writeToString(students, CsvWriterSettings.defaults());
+
+        // then
+        assertEquals("name,score\nИван,\"[90, 75]\"\n", output);
+    }
+
+    @Test
+    void givenColumnarWriter_whenNestedAndCollectionColumnsAreSet_thenOutputShouldMatchObjectWrite() throws IOException {
+        // given
+        Order order = orders().get(0);
+        StringWriter stringWriter = new StringWriter();
+
+        // when
+        try (ColumnarWritable writerInstance = CsvWriterFactory.createColumnar(stringWriter, Order.class)) {
+            writerInstance.set(writerInstance.columnIndex("id"), order.getId())
+                    .set(writerInstance.columnIndex("shipping.city"), order.getShipping().getCity())
+                    .set(writerInstance.columnIndex("shipping.street"), order.getShipping().getStreet())
+                    .set(writerInstance.columnIndex("billing_city"), order.getBilling().getCity())
+                    .set(writerInstance.columnIndex("billing_street"), order.getBilling().getStreet())
+                    .set(writerInstance.columnIndex("tags"), order.getTags())
+                    .set(writerInstance.columnIndex("quantities.2"), order.getQuantities());
+            writerInstance.endRow();
+        }
+
+        // then
+        assertEquals(writeToString(List.of(order), CsvWriterSettings.defaults()), stringWriter.toString());
+    }
+
+    @CsvRecord
+    private static class Delivery {
+
+        private long id;
+        private Person recipient;
+
+        private Delivery(long id, Person recipient) {
+            this.id = id;
+            this.recipient = recipient;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package unit;
+
+import by.lobanov.*;
+import by.lobanov.config.*;
+import by.lobanov.format.*;
+import by.lobanov.impl.*;
+import by.lobanov.serializer.*;
+import model.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.*;
+
+import java.io.*;
+import java.math.*;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WritePaymentsToCsvTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static String writeToString(List<?> data, CsvWriterSettings settings) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.write(data);
+        }
+        return stringWriter.toString();
+    }
+
+    private static Payment payment(long id, BigDecimal fee) {
+        return new Payment(id, LocalDate.of(2024, 3, 7), LocalDateTime.of(2024, 3, 7, 9, 5),
+                new BigDecimal("12.345"), 0.12399, fee, Months.MARCH);
+    }
+
+    @Test
+    void givenPaymentWithCsvFormat_whenWriteToCsv_thenValuesShouldBeFormatted() throws IOException {
+        // given
+        List<Payment> payments = List.of(payment(42, new BigDecimal("1.50")));
+
+        // when
+        String output = writeToString(payments, CsvWriterSettings.defaults());
+
+        // then
+        assertEquals("id,valueDate,createdAt,amount,rate,fee,month\n"
+                + "42,2024-03-07,07.03.2024 09:05,12.35,0.123,1.50,MARCH\n", output);
+    }
+
+    @Test
+    void givenBuiltInFormatters_whenWriteValues_thenOutputShouldMatchToString() throws IOException {
+        // given
+        long[] ids = {Long.MIN_VALUE, Long.MAX_VALUE, -1, 0, 9, 10, 99, 100, 101, 1_000_000_007L, -987_654_321_012L};
+        String[] fees = {"0", "-0.05", "0.000001", "0.0000001", "1E+3", "123456789012345678.9", "-12.3400", "99999999999999999"};
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < Math.max(ids.length, fees.length); i++) {
+            payments.add(payment(ids[i % ids.length], new BigDecimal(fees[i % fees.length])));
+        }
+        payments.add(new Payment(1, LocalDate.of(12345, 1, 2), null, null, 0, null, null));
+        payments.add(new Payment(2, LocalDate.of(7, 11, 30), null, null, 0, null, null));
+
+        // when
+        String formatted = writeToString(payments, CsvWriterSettings.defaults());
+        String plain = writeToString(payments, CsvWriterSettings.builder().formatters(FormatterRegistry.none()).build());
+
+        // then
+        assertEquals(plain, formatted, "Форматтеры по умолчанию должны давать тот же текст, что и toString()");
+    }
+
+    @Test
+    void givenGeneratedSerializer_whenWriteToCsv_thenOutputShouldMatchReflection() throws IOException {
+        // given
+        List<Payment> payments = List.of(payment(1, null), payment(2, new BigDecimal("-7.1")));
+
+        // when
+        String generatedOutput = writeToString(payments, CsvWriterSettings.builder().useGeneratedSerializers(true).build());
+        String reflectionOutput = writeToString(payments, CsvWriterSettings.builder().useGeneratedSerializers(false).build());
+
+        // then
+        assertNotNull(RecordSerializers.find(Payment.class), "Сериализатор должен быть сгенерирован процессором аннотаций");
+        assertEquals(reflectionOutput, generatedOutput);
+    }
+
+    @Test
+    void givenCustomFormatterForType_whenWriteToCsv_thenItShouldBeUsedAndQuotedIfNeeded() throws IOException {
+        // given
+        FormatterRegistry formatters = FormatterRegistry.defaults()
+                .with(Months.class, (value, out) -> out.append("month ").appendLong(value.ordinal() + 1).append(','));
+        List<Payment> payments = List.of(payment(1, null));
+
+        // when
+        String output = writeToString(payments, CsvWriterSettings.builder().formatters(formatters).build());
+
+        // then
+        assertTrue(output.endsWith(",\"month 3,\"\n"), output);
+    }
+
+    @Test
+    void givenFormattedPayments_whenReadBack_thenPatternShouldBeParsed() throws IOException {
+        // given
+        List<Payment> payments = List.of(payment(5, new BigDecimal("3.20")));
+        String output = writeToString(payments, CsvWriterSettings.defaults());
+
+        // when
+        List<Payment> actualPayments;
+        try (CsvReadable<Payment> readerInstance = CsvReaderFactory.create(new StringReader(output), Payment.class)) {
+            actualPayments = readerInstance.readAll();
+        }
+
+        // then
+        Payment actual = actualPayments.get(0);
+        assertEquals(LocalDateTime.of(2024, 3, 7, 9, 5), actual.getCreatedAt());
+        assertEquals(new BigDecimal("12.35"), actual.getAmount());
+        assertEquals(0.123, actual.getRate());
+        assertEquals(payments.get(0).getFee(), actual.getFee());
+    }
+
+    @Test
+    void givenScaleOnNonDecimalType_whenCreateFormatter_thenShouldThrowIllegalArgumentException() {
+        // then
+        assertThrows(IllegalArgumentException.class,
+                () -> ValueFormatters.forField("", 2, RoundingMode.HALF_UP, String.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> ValueFormatters.forField("yyyy", -1, RoundingMode.HALF_UP, BigDecimal.class));
+    }
+
+    @Test
+    void givenColumnarWriter_whenWriteValuesByColumns_thenOutputShouldMatchObjectWrite() throws IOException {
+        // given
+        List<Payment> payments = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            payments.add(payment(i, i % 2 == 0 ? null : new BigDecimal("0.0" + i)));
+        }
+        CsvWriterSettings settings = CsvWriterSettings.builder().columnarBatchSize(3).build();
+        StringWriter stringWriter = new StringWriter();
+
+        // when
+        try (ColumnarWritable writerInstance = CsvWriterFactory.createColumnar(stringWriter, settings, Payment.class)) {
+            int id = writerInstance.columnIndex("id");
+            int valueDate = writerInstance.columnIndex("valueDate");
+            int createdAt = writerInstance.columnIndex("createdAt");
+            int amount = writerInstance.columnIndex("amount");
+            int rate = writerInstance.columnIndex("rate");
+            int fee = writerInstance.columnIndex("fee");
+            int month = writerInstance.columnIndex("month");
+            for (Payment payment : payments) {
+                writerInstance.set(id, payment.getId())
+                        .set(valueDate, payment.getValueDate())
+                        .set(createdAt, payment.getCreatedAt())
+                        .set(amount, payment.getAmount())
+                        .set(rate, payment.getRate())
+                        .set(fee, payment.getFee())
+                        .set(month, payment.getMonth());
+                writerInstance.endRow();
+            }
+        }
+
+        // then
+        assertEquals(writeToString(payments, settings), stringWriter.toString());
+    }
+
+    @Test
+    void givenFormattedKeyColumn_whenWriteDelta_thenDeleteRowShouldUseFormattedKey() throws IOException {
+        // given
+        DeltaSettings deltaSettings = DeltaSettings.builder()
+                .indexPath(tempDir.resolve("payments.index"))
+                .keyColumn("createdAt")
+                .build();
+        Payment removed = payment(2, null);
+        removed.setCreatedAt(LocalDateTime.of(2024, 3, 7, 10, 15));
+        String firstRun = writeDelta(List.of(payment(1, null), removed), deltaSettings);
+
+        // when
+        String secondRun = writeDelta(List.of(payment(1, null)), deltaSettings);
+
+        // then
+        assertTrue(firstRun.contains(",07.03.2024 10:15,"), "Ключ в строке вставки должен быть отформатирован");
+        assertEquals("op,id,valueDate,createdAt,amount,rate,fee,month\n"
+                + "D,,,07.03.2024 10:15,,,,\n", secondRun, "Ключ в строке удаления должен совпадать с ключом вставки");
+    }
+
+    private static String writeDelta(List<Payment> data, DeltaSettings deltaSettings) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (DeltaCsvWriter writerInstance = CsvWriterFactory.createDelta(stringWriter, Payment.class, deltaSettings)) {
+            writerInstance.write(data);
+            writerInstance.complete();
+        }
+        return stringWriter.toString();
+    }
+}
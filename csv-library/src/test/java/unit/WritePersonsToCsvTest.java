@@ -1,6 +1,8 @@
 package unit;
 
 import by.lobanov.*;
+import by.lobanov.config.*;
+import by.lobanov.impl.*;
 import model.*;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.io.*;
@@ -9,6 +11,7 @@ import util.*;
 import java.io.*;
 import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -87,6 +90,428 @@ class WritePersonsToCsvTest {
         assertEquals("First Name,Last Name,Day Of Birth,Month Of Birth,Year Of Birth", headers);
     }
 
+    @Test
+    void givenListOfPersons_whenWriteWithDifferentAccessStrategies_thenOutputShouldBeEqual() throws IOException {
+        // given
+        List<Person> persons = TestDataGenerator.generatePersons(5);
+
+        // when
+        String reflectionOutput = writeToString(persons, AccessStrategy.REFLECTION);
+        String methodHandleOutput = writeToString(persons, AccessStrategy.METHOD_HANDLE);
+
+        // then
+        assertEquals(reflectionOutput, methodHandleOutput);
+        String expectedFirstDataLine = String.format("%s,%s,%d,%s,%d",
+                persons.get(0).getFirstName(),
+                persons.get(0).getLastName(),
+                persons.get(0).getDayOfBirth(),
+                persons.get(0).getMonthOfBirth(),
+                persons.get(0).getYearOfBirth());
+        assertEquals(expectedFirstDataLine, methodHandleOutput.split("\n")[1]);
+    }
+
+    @Test
+    void givenStreamOfPersons_whenWriteStream_thenOutputShouldMatchListWrite() throws IOException {
+        // given
+        List<Person> persons = TestDataGenerator.generatePersons(4);
+        String expectedOutput = writeToString(persons, AccessStrategy.METHOD_HANDLE);
+
+        // when
+        StringWriter stringWriter = new StringWriter();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter)) {
+            writerInstance.write(persons.stream());
+        }
+
+        // then
+        assertEquals(expectedOutput, stringWriter.toString());
+    }
+
+    @Test
+    void givenSeveralStreamingCalls_whenAppendAndWriteIterator_thenHeaderShouldBeWrittenOnce() throws IOException {
+        // given
+        List<Person> persons = TestDataGenerator.generatePersons(3);
+
+        // when
+        StringWriter stringWriter = new StringWriter();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter)) {
+            writerInstance.append(persons.get(0));
+            writerInstance.write(persons.subList(1, 3).iterator());
+            writerInstance.append(null);
+            writerInstance.flush();
+        }
+
+        // then
+        String[] lines = stringWriter.toString().split("\n", -1);
+        assertEquals(6, lines.length, "Заголовок, три записи, пустая запись и завершающий перенос строки");
+        assertEquals("First Name,Last Name,Day Of Birth,Month Of Birth,Year Of Birth", lines[0]);
+        assertEquals(",,,,", lines[4]);
+    }
+
+    @Test
+    void givenDifferentTypes_whenAppend_thenShouldThrowIllegalArgumentException() throws IOException {
+        // given
+        Person person = TestDataGenerator.generatePersons(1).get(0);
+        Client client = TestDataGenerator.generateClients(1).get(0);
+
+        // when
+        try (Writable writerInstance = CsvWriterFactory.create(new StringWriter())) {
+            writerInstance.append(person);
+
+            // then
+            assertThrows(IllegalArgumentException.class, () -> writerInstance.append(client));
+        }
+    }
+
+    @Test
+    void givenSmallAsyncBuffers_whenWriteAsync_thenOutputShouldMatchSyncWrite() throws Exception {
+        // given
+        List<Person> persons = TestDataGenerator.generatePersons(200);
+        String expectedOutput = writeToString(persons, AccessStrategy.METHOD_HANDLE);
+        CsvWriterSettings settings = CsvWriterSettings.builder()
+                .asyncBufferSize(64)
+                .asyncBufferCount(3)
+                .build();
+
+        // when
+        StringWriter stringWriter = new StringWriter();
+        try (AsyncCsvWriter writerInstance = CsvWriterFactory.createAsync(stringWriter, settings)) {
+            for (Person person : persons.subList(0, 100)) {
+                writerInstance.append(person);
+            }
+            writerInstance.flushAsync().get();
+            assertEquals(100 + 1, stringWriter.toString().split("\n").length, "После сброса первая часть должна быть записана");
+            writerInstance.write(persons.subList(100, 200).iterator());
+        }
+
+        // then
+        assertEquals(expectedOutput, stringWriter.toString());
+    }
+
+    @Test
+    void givenFailingWriter_whenWriteAsync_thenFlushShouldThrowIOException() throws IOException {
+        // given
+        List<Person> persons = TestDataGenerator.generatePersons(3);
+        Writer failingWriter = new Writer() {
+            @Override
+            public void write(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("Диск переполнен");
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+
+        // when
+        AsyncCsvWriter writerInstance = CsvWriterFactory.createAsync(failingWriter);
+        writerInstance.write(persons);
+
+        // then
+        assertThrows(IOException.class, writerInstance::flush);
+        assertThrows(IOException.class, writerInstance::close);
+    }
+
+    @Test
+    void givenEnumColumnWithoutCacheSize_whenWriteToCsv_thenValueCacheShouldNotBeCreated() throws IOException {
+        // given
+        List<Person> persons = TestDataGenerator.generatePersons(5);
+
+        // when
+        try (Writable writerInstance = CsvWriterFactory.create(new StringWriter())) {
+            writerInstance.write(persons);
+
+            // then
+            assertEquals(List.of(), writerInstance.getCacheStatistics(), "Кеш значений включается только явно");
+        }
+    }
+
+    @Test
+    void givenColumnarWriter_whenSomeColumnsAreNotSet_thenCellsShouldBeEmpty() throws IOException {
+        // given
+        StringWriter stringWriter = new StringWriter();
+        String[] lastNames = {"Иванов", "Петров", "Иванов", "Иванов, мл."};
+
+        // when
+        try (ColumnarWritable writerInstance = CsvWriterFactory.createColumnar(stringWriter, Person.class)) {
+            int firstName = writerInstance.columnIndex("First Name");
+            int lastName = writerInstance.columnIndex("Last Name");
+            int yearOfBirth = writerInstance.columnIndex("Year Of Birth");
+            for (int i = 0; i < lastNames.length; i++) {
+                writerInstance.set(lastName, lastNames[i]).set(yearOfBirth, 1990 + i);
+                if (i % 2 == 0) {
+                    writerInstance.set(firstName, "Иван");
+                }
+                writerInstance.endRow();
+            }
+        }
+
+        // then
+        assertEquals("First Name,Last Name,Day Of Birth,Month Of Birth,Year Of Birth\n"
+                + "Иван,Иванов,,,1990\n"
+                + ",Петров,,,1991\n"
+                + "Иван,Иванов,,,1992\n"
+                + ",\"Иванов, мл.\",,,1993\n", stringWriter.toString());
+    }
+
+    @Test
+    void givenColumnarWriter_whenValueDoesNotMatchColumnType_thenShouldThrowIllegalArgumentException() throws IOException {
+        // given
+        try (ColumnarWritable writerInstance = CsvWriterFactory.createColumnar(new StringWriter(), Person.class)) {
+            int dayOfBirth = writerInstance.columnIndex("Day Of Birth");
+            int monthOfBirth = writerInstance.columnIndex("Month Of Birth");
+
+            // when & then
+            assertThrows(IllegalArgumentException.class, () -> writerInstance.set(dayOfBirth, "первое"));
+            assertThrows(IllegalArgumentException.class, () -> writerInstance.set(monthOfBirth, 3L));
+            assertThrows(IllegalArgumentException.class, () -> writerInstance.columnIndex("Unknown"));
+        }
+    }
+
+    @Test
+    void givenQuotingPolicies_whenWritePerson_thenValuesShouldBeQuotedByPolicy() throws IOException {
+        // given
+        List<Person> persons = List.of(new Person("Анна", "Smith, Jr.", 7, Months.MAY, 1990));
+
+        // when
+        String minimal = writeToString(persons, QuotingPolicy.MINIMAL);
+        String always = writeToString(persons, QuotingPolicy.ALWAYS);
+        String nonNumeric = writeToString(persons, QuotingPolicy.NON_NUMERIC);
+
+        // then
+        assertEquals("Анна,\"Smith, Jr.\",7,MAY,1990", minimal.split("\n")[1]);
+        assertEquals("\"First Name\",\"Last Name\",\"Day Of Birth\",\"Month Of Birth\",\"Year Of Birth\"",
+                always.split("\n")[0], "При ALWAYS заголовок тоже должен быть в кавычках");
+        assertEquals("\"Анна\",\"Smith, Jr.\",\"7\",\"MAY\",\"1990\"", always.split("\n")[1]);
+        assertEquals("\"Анна\",\"Smith, Jr.\",7,\"MAY\",1990", nonNumeric.split("\n")[1],
+                "При NON_NUMERIC числа не должны браться в кавычки");
+    }
+
+    @Test
+    void givenNeverQuotingPolicy_whenValueContainsDelimiter_thenShouldThrowAndSkipRow() throws IOException {
+        // given
+        Person before = new Person("Анна", "Smith", 7, Months.MAY, 1990);
+        Person invalid = new Person("Анна", "Smith, Jr.", 7, Months.MAY, 1990);
+        Person after = new Person("Олег", "Brown", 8, Months.MAY, 1991);
+        CsvWriterSettings settings = CsvWriterSettings.builder().quotingPolicy(QuotingPolicy.NEVER).build();
+        StringWriter stringWriter = new StringWriter();
+
+        // when
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.append(before);
+            assertThrows(IllegalArgumentException.class, () -> writerInstance.append(invalid),
+                    "Значение с разделителем нельзя записать без кавычек");
+            writerInstance.append(after);
+        }
+
+        // then
+        assertEquals("First Name,Last Name,Day Of Birth,Month Of Birth,Year Of Birth\n"
+                        + "Анна,Smith,7,MAY,1990\n"
+                        + "Олег,Brown,8,MAY,1991\n",
+                stringWriter.toString(), "Строка с ошибкой должна быть пропущена целиком, остальные — записаны");
+    }
+
+    @Test
+    void givenManyProducerThreads_whenWriteConcurrently_thenRowsShouldStayWholeAndOrderedPerThread() throws Exception {
+        // given
+        int threads = 8;
+        int rowsPerThread = 3_000;
+        CsvWriterSettings settings = CsvWriterSettings.builder().concurrentStripes(3).build();
+        StringWriter stringWriter = new StringWriter();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // when
+        try (ConcurrentCsvWriter writerInstance = CsvWriterFactory.createConcurrent(stringWriter, settings)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String producer = "producer-" + t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < rowsPerThread; i += 2) {
+                        writerInstance.append(new Person(producer, "row " + i, 1, Months.MAY, 2000));
+                        writerInstance.write(List.of(new Person(producer, "row " + (i + 1), 1, Months.MAY, 2000)));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        List<String> lines = stringWriter.toString().lines().toList();
+        assertEquals("First Name,Last Name,Day Of Birth,Month Of Birth,Year Of Birth", lines.get(0));
+        assertEquals(threads * rowsPerThread + 1, lines.size());
+        Map<String, Integer> nextRow = new HashMap<>();
+        for (String line : lines.subList(1, lines.size())) {
+            String[] cells = line.split(",");
+            assertEquals(5, cells.length, "Строка не должна разрываться строками других потоков: " + line);
+            int expected = nextRow.getOrDefault(cells[0], 0);
+            assertEquals("row " + expected, cells[1], "Строки одного потока должны сохранять порядок");
+            nextRow.put(cells[0], expected + 1);
+        }
+    }
+
+    @Test
+    void givenNullsBeforeFirstRecord_whenFlushConcurrentWriter_thenHeaderShouldComeFirst() throws IOException {
+        // given
+        StringWriter stringWriter = new StringWriter();
+
+        ConcurrentCsvWriter writerInstance = CsvWriterFactory.createConcurrent(stringWriter);
+
+        // when
+        writerInstance.append(null);
+        writerInstance.append(new Person("Анна", "Smith", 7, Months.MAY, 1990));
+        writerInstance.flush();
+
+        // then
+        assertEquals("First Name,Last Name,Day Of Birth,Month Of Birth,Year Of Birth\n,,,,\nАнна,Smith,7,MAY,1990\n",
+                stringWriter.toString(), "После сброса все строки должны быть записаны");
+        assertThrows(IllegalArgumentException.class, () -> writerInstance.append(new Student("Ivan", List.of())));
+        writerInstance.close();
+        assertThrows(IOException.class, () -> writerInstance.append(new Person("Анна", "Smith", 7, Months.MAY, 1990)),
+                "После закрытия запись должна быть запрещена");
+    }
+
+    @Test
+    void givenCheckpointEveryFourRows_whenAppend_thenCheckpointShouldPointToRowBoundary() throws IOException {
+        // given
+        List<Person> persons = persons(10);
+        CheckpointSettings checkpointSettings = CheckpointSettings.builder()
+                .checkpointEveryRows(4)
+                .keyExtractor(person -> ((Person) person).getLastName())
+                .build();
+
+        // when
+        try (ResumableCsvWriter writerInstance = CsvWriterFactory.createResumable(testFilePath, checkpointSettings)) {
+            writerInstance.write(persons);
+
+            // then
+            Checkpoint checkpoint;
+            try (CsvReadable<Checkpoint> reader = CsvReaderFactory.create(writerInstance.getCheckpointPath(), Checkpoint.class)) {
+                checkpoint = reader.read();
+            }
+            assertEquals(new Checkpoint(8, Files.size(testFilePath), "Smith 7"), checkpoint,
+                    "Контрольная точка должна описывать 8 строк, переданных в файл целиком");
+            assertEquals(checkpoint, writerInstance.getCheckpoint());
+            assertNull(writerInstance.getResumedFrom(), "Без файла контрольной точки запись начинается заново");
+        }
+    }
+
+    @Test
+    void givenTornTailAfterCheckpoint_whenResume_thenOutputShouldMatchUninterruptedWrite() throws IOException {
+        // given
+        List<Person> persons = persons(12);
+        CheckpointSettings checkpointSettings = CheckpointSettings.builder().checkpointEveryRows(3).build();
+        try (ResumableCsvWriter writerInstance = CsvWriterFactory.createResumable(testFilePath, checkpointSettings)) {
+            writerInstance.write(persons.subList(0, 8));
+        }
+        Files.writeString(testFilePath, "Анна,Smi", StandardOpenOption.APPEND);
+
+        // when
+        ResumableCsvWriter writerInstance = CsvWriterFactory.createResumable(testFilePath, checkpointSettings);
+        long rowsWritten = writerInstance.getRowsWritten();
+        writerInstance.write(persons.subList((int) rowsWritten, persons.size()));
+        writerInstance.complete();
+
+        // then
+        assertEquals(8, rowsWritten, "Запись должна продолжиться после сохраненных при закрытии строк");
+        assertEquals(writeToString(persons, QuotingPolicy.MINIMAL), Files.readString(testFilePath),
+                "Недописанный хвост должен быть отброшен, а заголовок не должен повторяться");
+        assertFalse(Files.exists(writerInstance.getCheckpointPath()), "После завершения контрольная точка должна удаляться");
+        assertThrows(IOException.class, () -> writerInstance.append(persons.get(0)));
+    }
+
+    @Test
+    void givenPreviousExport_whenWriteDelta_thenOnlyChangedRowsShouldBeWritten() throws IOException {
+        // given
+        DeltaSettings deltaSettings = DeltaSettings.builder()
+                .indexPath(tempDir.resolve("persons.index"))
+                .keyColumn("Last Name")
+                .build();
+        List<Person> persons = persons(5);
+        String firstRun = writeDelta(persons.subList(0, 4), deltaSettings, true);
+        persons.get(1).setDayOfBirth(20);
+        List<Person> current = List.of(persons.get(0), persons.get(1), persons.get(3), persons.get(4));
+
+        // when
+        String secondRun = writeDelta(current, deltaSettings, true);
+
+        // then
+        String header = "op,First Name,Last Name,Day Of Birth,Month Of Birth,Year Of Birth\n";
+        assertEquals(5, firstRun.split("\n").length, "Без индекса все строки должны быть новыми");
+        assertTrue(firstRun.startsWith(header + "I,\"Анна, 0\",Smith 0,1,MAY,1990\n"));
+        assertEquals(header
+                        + "U,\"Анна, 1\",Smith 1,20,MAY,1991\n"
+                        + "I,\"Анна, 4\",Smith 4,5,MAY,1994\n"
+                        + "D,,Smith 2,,,\n",
+                secondRun, "Должны быть записаны только измененные, новые и удаленные строки");
+    }
+
+    @Test
+    void givenDeltaNotCompleted_whenClose_thenPreviousIndexShouldBeKept() throws IOException {
+        // given
+        DeltaSettings deltaSettings = DeltaSettings.builder()
+                .indexPath(tempDir.resolve("persons.index"))
+                .keyColumn("Last Name")
+                .build();
+        writeDelta(persons(3), deltaSettings, true);
+        byte[] index = Files.readAllBytes(deltaSettings.getIndexPath());
+
+        // when
+        writeDelta(persons(1), deltaSettings, false);
+
+        // then
+        assertArrayEquals(index, Files.readAllBytes(deltaSettings.getIndexPath()),
+                "Без завершения выгрузки индекс не должен меняться");
+        assertEquals("op,First Name,Last Name,Day Of Birth,Month Of Birth,Year Of Birth\n", writeDelta(persons(3), deltaSettings, true));
+        assertThrows(IllegalArgumentException.class, () -> CsvWriterFactory.createDelta(new StringWriter(), Person.class,
+                deltaSettings.toBuilder().keyColumn("Id").build()));
+    }
+
+    @Test
+    void givenDuplicateKey_whenWriteDelta_thenRecordShouldBeRejectedAndIndexShouldStayValid() throws IOException {
+        // given
+        DeltaSettings deltaSettings = DeltaSettings.builder()
+                .indexPath(tempDir.resolve("persons.index"))
+                .keyColumn("Last Name")
+                .build();
+        List<Person> persons = persons(2000);
+        Person duplicate = new Person("Борис", "Smith 1", 2, Months.MAY, 1991);
+        StringWriter stringWriter = new StringWriter();
+
+        // when
+        try (DeltaCsvWriter writerInstance = CsvWriterFactory.createDelta(stringWriter, Person.class, deltaSettings)) {
+            writerInstance.write(persons);
+            IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                    () -> writerInstance.append(duplicate));
+            assertTrue(exception.getMessage().contains("Smith 1"), "Сообщение должно содержать повторный ключ");
+            writerInstance.complete();
+        }
+
+        // then
+        assertEquals(2001, stringWriter.toString().split("\n").length, "Повторная запись не должна попасть в CSV");
+        assertFalse(stringWriter.toString().contains("Борис"), "Повторная запись не должна попасть в CSV");
+        assertEquals("op,First Name,Last Name,Day Of Birth,Month Of Birth,Year Of Birth\n",
+                writeDelta(persons, deltaSettings, true), "Индекс без повторов должен читаться в следующей выгрузке");
+    }
+
+    private String writeToString(List<?> data, AccessStrategy accessStrategy) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        CsvWriterSettings settings = CsvWriterSettings.builder()
+                .accessStrategy(accessStrategy)
+                .build();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.write(data);
+        }
+        return stringWriter.toString();
+    }
+
     private String getHeaders () {
         try {
             return Files.readAllLines(testFilePath).get(0);
@@ -105,4 +530,32 @@ class WritePersonsToCsvTest {
         copy.remove(0);
         return copy;
     }
+
+    private static String writeDelta(List<Person> data, DeltaSettings deltaSettings, boolean complete) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (DeltaCsvWriter writerInstance = CsvWriterFactory.createDelta(stringWriter, Person.class, deltaSettings)) {
+            writerInstance.write(data);
+            if (complete) {
+                writerInstance.complete();
+            }
+        }
+        return stringWriter.toString();
+    }
+
+    private static List<Person> persons(int count) {
+        List<Person> persons = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            persons.add(new Person("Анна, " + i, "Smith " + i, 1 + i, Months.MAY, 1990 + i));
+        }
+        return persons;
+    }
+
+    private static String writeToString(List<?> data, QuotingPolicy quotingPolicy) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        CsvWriterSettings settings = CsvWriterSettings.builder().quotingPolicy(quotingPolicy).build();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.write(data);
+        }
+        return stringWriter.toString();
+    }
 }
@@ -0,0 +1,99 @@
+package unit;
+
+import by.lobanov.*;
+import by.lobanov.annotation.constans.*;
+import by.lobanov.config.*;
+import by.lobanov.impl.*;
+import by.lobanov.masking.*;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.sql.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteResultSetToCsvTest {
+
+    private static final String SELECT_CLIENTS =
+            "SELECT id, full_name, email, balance, born, visits, rating, active, weight FROM clients ORDER BY id";
+
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE clients (id INT PRIMARY KEY, full_name VARCHAR(100), email VARCHAR(100), "
+                    + "balance DECIMAL(10, 2), born DATE, visits BIGINT, rating DOUBLE, active BOOLEAN, weight REAL)");
+            statement.execute("INSERT INTO clients VALUES "
+                    + "(1, 'Smith, John', 'john@example.com', 1250.50, DATE '1990-05-07', 10, 4.5, TRUE, 1.1), "
+                    + "(2, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    private String export(CsvWriterSettings settings, ResultSetMapping mapping, String... queries)
+            throws IOException, SQLException {
+        StringWriter stringWriter = new StringWriter();
+        try (ResultSetCsvWriter writerInstance = CsvWriterFactory.createResultSet(stringWriter, settings, mapping);
+             Statement statement = connection.createStatement()) {
+            for (String query : queries) {
+                try (ResultSet resultSet = statement.executeQuery(query)) {
+                    writerInstance.write(resultSet);
+                }
+            }
+        }
+        return stringWriter.toString();
+    }
+
+    @Test
+    void givenQueryResult_whenWriteResultSet_thenValuesShouldBeWrittenByColumnTypes() throws IOException, SQLException {
+        // when
+        String output = export(CsvWriterSettings.defaults(), ResultSetMapping.defaults(), SELECT_CLIENTS);
+
+        // then
+        String[] lines = output.split("\n");
+        assertEquals("ID,FULL_NAME,EMAIL,BALANCE,BORN,VISITS,RATING,ACTIVE,WEIGHT", lines[0],
+                "Заголовки должны браться из меток колонок");
+        assertEquals("1,\"Smith, John\",john@example.com,1250.50,1990-05-07,10,4.5,true,1.1", lines[1],
+                "REAL должен читаться как float, без расширения до double");
+        assertEquals("2,,,,,,,,", lines[2], "NULL должен записываться пустой ячейкой");
+    }
+
+    @Test
+    void givenMaskedColumnsAndNamingStrategy_whenWriteResultSet_thenEmailShouldBeMasked() throws IOException, SQLException {
+        // given
+        ResultSetMapping mapping = ResultSetMapping.builder()
+                .namingStrategy(NamingStrategy.CAMEL_TO_SNAKE_CASE)
+                .maskedColumns(Map.of("email", MaskingOperation.of(MaskingStrategy.ASTERISKS_MIDDLE, '*', 4)))
+                .fetchSize(1)
+                .build();
+
+        // when
+        String output = export(CsvWriterSettings.defaults(), mapping, SELECT_CLIENTS);
+
+        // then
+        String[] lines = output.split("\n");
+        assertEquals("id,full_name,email,balance,born,visits,rating,active,weight", lines[0]);
+        assertEquals("jo************om", lines[1].split(",")[3], "Колонка должна маскироваться без учета регистра имени");
+        assertEquals("2,,,,,,,,", lines[2]);
+    }
+
+    @Test
+    void givenSeveralResults_whenWriteResultSet_thenHeaderShouldBeWrittenOnce() throws IOException, SQLException {
+        // when
+        String output = export(CsvWriterSettings.defaults(), ResultSetMapping.defaults(),
+                "SELECT id, full_name FROM clients WHERE id = 1", "SELECT id, full_name FROM clients WHERE id = 2");
+
+        // then
+        assertEquals("ID,FULL_NAME\n1,\"Smith, John\"\n2,\n", output);
+        assertThrows(IllegalArgumentException.class, () -> export(CsvWriterSettings.defaults(),
+                        ResultSetMapping.defaults(), "SELECT id FROM clients", "SELECT id, email FROM clients"),
+                "Результаты с разным количеством колонок нельзя писать в один CSV");
+    }
+}
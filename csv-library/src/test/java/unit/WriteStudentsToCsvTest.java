@@ -135,4 +135,41 @@ class WriteStudentsToCsvTest {
         );
         assertEquals(expectedDataLine, actualLines.get(1));
     }
+
+    @Test
+    void givenStudentWithQuotesAndLineBreakInName_whenWriteToCsv_thenNameShouldBeEscaped() throws IOException {
+        // given
+        List<Student> students = List.of(
+                Student.builder().name("He said \"hi\"\nand left").score(List.of("100")).build()
+        );
+
+        // when
+        StringWriter stringWriter = new StringWriter();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, ';', "\r\n")) {
+            writerInstance.write(students);
+        }
+
+        // then
+        assertEquals("name;score\r\n\"He said \"\"hi\"\"\nand left\";[100]\r\n", stringWriter.toString());
+    }
+
+    @Test
+    void givenPipeDelimiterAndCustomLineSeparator_whenWriteToCsv_thenOnlyValuesWithSeparatorsShouldBeQuoted() throws IOException {
+        // given
+        List<Student> students = List.of(
+                Student.builder().name("a|b").score(List.of("1")).build(),
+                Student.builder().name("x;;y").score(List.of("2")).build(),
+                Student.builder().name("x;y, z").score(List.of("3")).build()
+        );
+
+        // when
+        StringWriter stringWriter = new StringWriter();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, '|', ";;")) {
+            writerInstance.write(students);
+        }
+
+        // then
+        assertEquals("name|score;;\"a|b\"|[1];;\"x;;y\"|[2];;x;y, z|[3];;", stringWriter.toString(),
+                "Разделитель с кодом больше 63 и составной разделитель строк должны распознаваться");
+    }
 }
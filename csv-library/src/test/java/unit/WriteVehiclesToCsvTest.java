@@ -0,0 +1,107 @@
+package unit;
+
+import by.lobanov.*;
+import by.lobanov.config.*;
+import by.lobanov.impl.*;
+import by.lobanov.serializer.*;
+import model.*;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteVehiclesToCsvTest {
+
+    private static String writeToString(List<?> data, CsvWriterSettings settings) throws IOException {
+        StringWriter stringWriter = new StringWriter();
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.write(data);
+        }
+        return stringWriter.toString();
+    }
+
+    @Test
+    void givenSubclassRecord_whenWriteToCsv_thenSuperclassFieldsShouldBeWrittenFirst() throws IOException {
+        // given
+        List<Car> cars = List.of(new Car(1, "Volvo", 4), new Car(2, "Mini, Cooper", 2));
+
+        // when
+        String generatedOutput = writeToString(cars, CsvWriterSettings.builder().useGeneratedSerializers(true).build());
+        String reflectionOutput = writeToString(cars, CsvWriterSettings.builder().useGeneratedSerializers(false).build());
+
+        // then
+        assertNotNull(RecordSerializers.find(Car.class), "Сериализатор должен быть сгенерирован процессором аннотаций");
+        assertEquals("id,name,doors\n1,Volvo,4\n2,\"Mini, Cooper\",2\n", reflectionOutput);
+        assertEquals(reflectionOutput, generatedOutput);
+    }
+
+    @Test
+    void givenMixedTypes_whenWriteWithUnionWriter_thenColumnsShouldBeMerged() throws IOException {
+        // given
+        List<Vehicle> vehicles = Arrays.asList(new Car(1, "Volvo", 4), new Truck(2, "MAN", 12.5), null, new Car(3, "Lada", 5));
+        StringWriter stringWriter = new StringWriter();
+
+        // when
+        try (UnionCsvWriter writerInstance = CsvWriterFactory.createUnion(stringWriter, CsvWriterSettings.defaults(),
+                List.of(Car.class, Truck.class), "type")) {
+            writerInstance.write(vehicles);
+        }
+
+        // then
+        assertEquals("type,id,name,doors,payload\n"
+                + "Car,1,Volvo,4,\n"
+                + "Truck,2,MAN,,12.5\n"
+                + ",,,,\n"
+                + "Car,3,Lada,5,\n", stringWriter.toString());
+    }
+
+    @Test
+    void givenTypeWithUnknownColumns_whenWriteWithUnionWriter_thenShouldThrowException() throws IOException {
+        // given
+        StringWriter stringWriter = new StringWriter();
+        List<Object> records = List.of(new Car(1, "Volvo", 4), new Student("Иван", List.of()));
+
+        // when & then
+        try (UnionCsvWriter writerInstance = CsvWriterFactory.createUnion(stringWriter, CsvWriterSettings.defaults(),
+                List.of(Car.class, Truck.class))) {
+            assertThrows(IllegalArgumentException.class, () -> writerInstance.write(records),
+                    "Колонки класса должны входить в объединенный набор");
+        }
+    }
+
+    @Test
+    void givenMixedTypes_whenWriteWithRoutingWriter_thenEachTypeShouldGetOwnOutput() throws IOException {
+        // given
+        List<Vehicle> vehicles = List.of(new Car(1, "Volvo", 4), new Truck(2, "MAN", 12.5), new Car(3, "Lada", 5));
+        Map<Class<?>, StringWriter> outputs = new LinkedHashMap<>();
+
+        // when
+        try (TypeRoutingCsvWriter writerInstance = CsvWriterFactory.createRouting(
+                type -> outputs.computeIfAbsent(type, key -> new StringWriter()), CsvWriterSettings.defaults())) {
+            writerInstance.write(vehicles);
+        }
+
+        // then
+        assertEquals(List.of(Car.class, Truck.class), List.copyOf(outputs.keySet()));
+        assertEquals("id,name,doors\n1,Volvo,4\n3,Lada,5\n", outputs.get(Car.class).toString());
+        assertEquals("id,name,payload\n2,MAN,12.5\n", outputs.get(Truck.class).toString());
+    }
+
+    @Test
+    void givenWrittenSubclassRecords_whenReadBack_thenSuperclassFieldsShouldBeRestored() throws IOException {
+        // given
+        List<Truck> trucks = List.of(new Truck(7, "Scania", 20.0), new Truck(8, null, 0.5));
+        String csv = writeToString(trucks, CsvWriterSettings.defaults());
+
+        // when
+        List<Truck> actualTrucks;
+        try (CsvReadable<Truck> readerInstance = CsvReaderFactory.create(new StringReader(csv), Truck.class)) {
+            actualTrucks = readerInstance.readAll();
+        }
+
+        // then
+        assertEquals(trucks, actualTrucks, "Поля суперкласса должны читаться вместе с полями класса");
+    }
+}
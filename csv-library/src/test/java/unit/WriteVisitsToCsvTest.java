@@ -0,0 +1,88 @@
+package unit;
+
+import by.lobanov.*;
+import by.lobanov.config.*;
+import by.lobanov.format.*;
+import model.*;
+import org.junit.jupiter.api.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteVisitsToCsvTest {
+
+    private static final String[] COUNTRIES = {"BY", "RU", "BY", "RU", "PL, Warsaw", "BY"};
+
+    private static List<Visit> visits() {
+        List<Visit> visits = new ArrayList<>();
+        for (int i = 0; i < COUNTRIES.length; i++) {
+            visits.add(new Visit(i, COUNTRIES[i], Months.MARCH, i == 0 ? null : Months.MAY));
+        }
+        return visits;
+    }
+
+    private static Map<String, CacheStatistics> writeAndCollectStatistics(StringWriter stringWriter,
+                                                                         CsvWriterSettings settings) throws IOException {
+        try (Writable writerInstance = CsvWriterFactory.create(stringWriter, settings)) {
+            writerInstance.write(visits());
+            return writerInstance.getCacheStatistics().stream()
+                    .collect(Collectors.toMap(CacheStatistics::column, statistics -> statistics));
+        }
+    }
+
+    @Test
+    void givenCachedColumns_whenWriteToCsv_thenOutputShouldBeSameAsWithoutCache() throws IOException {
+        // given
+        StringWriter generated = new StringWriter();
+        StringWriter reflection = new StringWriter();
+
+        // when
+        writeAndCollectStatistics(generated, CsvWriterSettings.builder().useGeneratedSerializers(true).build());
+        writeAndCollectStatistics(reflection, CsvWriterSettings.builder().useGeneratedSerializers(false).build());
+
+        // then
+        assertEquals("id,country,month,plannedMonth\n"
+                + "0,BY,MARCH,\n"
+                + "1,RU,MARCH,MAY\n"
+                + "2,BY,MARCH,MAY\n"
+                + "3,RU,MARCH,MAY\n"
+                + "4,\"PL, Warsaw\",MARCH,MAY\n"
+                + "5,BY,MARCH,MAY\n", reflection.toString());
+        assertEquals(reflection.toString(), generated.toString());
+    }
+
+    @Test
+    void givenSizeCappedCache_whenWriteToCsv_thenLeastRecentlyUsedValuesShouldBeEvicted() throws IOException {
+        for (boolean useGeneratedSerializers : new boolean[]{true, false}) {
+            // given
+            CsvWriterSettings settings = CsvWriterSettings.builder().useGeneratedSerializers(useGeneratedSerializers).build();
+
+            // when
+            Map<String, CacheStatistics> statistics = writeAndCollectStatistics(new StringWriter(), settings);
+
+            // then
+            assertEquals(Set.of("country", "month"), statistics.keySet(), "Кеш включается только явно");
+            assertEquals(new CacheStatistics("country", 2, 2, 2, 4, 2), statistics.get("country"));
+            assertEquals(new CacheStatistics("month", 12, 1, 5, 1, 0), statistics.get("month"));
+            assertEquals(5.0 / 6, statistics.get("month").hitRate(), 1e-9);
+        }
+    }
+
+    @Test
+    void givenParallelWrite_whenCollectStatistics_thenAllEncodersShouldBeCounted() throws IOException {
+        // given
+        CsvWriterSettings settings = CsvWriterSettings.builder().parallelism(2).parallelChunkSize(2).build();
+        StringWriter parallel = new StringWriter();
+
+        // when
+        Map<String, CacheStatistics> statistics = writeAndCollectStatistics(parallel, settings);
+
+        // then
+        CacheStatistics month = statistics.get("month");
+        assertEquals(COUNTRIES.length, month.hits() + month.misses(), "Каждое значение учитывается один раз");
+        assertEquals(writeAndCollectStatistics(new StringWriter(), CsvWriterSettings.defaults()).size(), statistics.size());
+    }
+}